@@ -0,0 +1,20 @@
+package net.wuxianjie.springbootvuejs.cache;
+
+/**
+ * 命名缓存的实现方式
+ *
+ * @author 吴仙杰
+ */
+public enum CacheEngine {
+
+  /**
+   * Guava 缓存，分段加锁，按 LRU 淘汰
+   */
+  GUAVA,
+
+  /**
+   * {@link TinyLfuCache}，按访问频率决定是否接纳新条目，读取时无锁；须配置 {@code maximum-size}，
+   * 不支持 {@code maximum-weight} 及 {@code concurrency-level}
+   */
+  TINY_LFU
+}
@@ -1,35 +1,65 @@
 package net.wuxianjie.springbootvuejs.cache;
 
+import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
+import com.google.common.cache.RemovalListener;
+import com.google.common.cache.Weigher;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import net.wuxianjie.springbootvuejs.constants.RestCodeEnum;
+import net.wuxianjie.springbootvuejs.dto.CacheStatsDto;
+import net.wuxianjie.springbootvuejs.exception.IllegalArgumentException;
+import org.springframework.beans.BeanUtils;
 
 /**
  * 本地集中式缓存管理器
  *
+ * <p>命名缓存在程序启动时按配置项 {@code cache.specs.*}（见 {@link CacheProperties}）创建，
+ * 之后通过 {@link #getCache(String, Class, Class)} 按名称获取，调整缓存大小或有效期无需修改代码</p>
+ *
  * @author 吴仙杰
  */
+@Slf4j
 public class CacheManager {
 
   /**
-   * 30 天有效期的 TTL 缓存
+   * 异步刷新缓存条目的线程数量
+   */
+  private static final int REFRESH_THREADS = 2;
+
+  /**
+   * 缓存名 -> 命名缓存，初始化后整体替换，读取时无需加锁
    */
-  private LoadingCache<String, Object> cache30DaysToLive;
+  private volatile Map<String, NamedCache> caches = Collections.emptyMap();
+
+  /**
+   * 对开启了统计的缓存定时采样，首次创建开启了统计的缓存时才启动
+   */
+  private ScheduledExecutorService sampler;
+
+  /**
+   * 异步刷新（{@code refresh-after-write}）缓存条目的线程池，首次刷新时才创建
+   */
+  private ExecutorService refresher;
 
   /**
    * 将构造方法私有化，使外部无法直接实例化
    */
   private CacheManager() {
-    cache30DaysToLive = CacheBuilder.newBuilder()
-      // 30 天有效期的 TTL 缓存
-      .expireAfterWrite(30, TimeUnit.DAYS)
-      .build(new CacheLoader<String, Object>() {
-        @Override
-        public Object load(String key) {
-          return null;
-        }
-      });
   }
 
   /**
@@ -54,11 +84,330 @@ public class CacheManager {
   }
 
   /**
-   * 获取 30 天有效期的 TTL 缓存
+   * 按配置创建所有命名缓存，替换之前创建的缓存
+   *
+   * @param specs 缓存名 -> 缓存配置
+   * @throws IllegalArgumentException 当缓存配置不合法时
+   */
+  public synchronized void initialize(Map<String, CacheSpec> specs) {
+    long now = System.currentTimeMillis();
+    Map<String, NamedCache> created = new LinkedHashMap<>();
+    specs.forEach((name, spec) -> {
+      CacheMetrics metrics = spec.isRecordStats() ? new CacheMetrics(now) : null;
+      DelegatingCacheLoader loader = spec.getEngine() == CacheEngine.GUAVA && spec.getOffHeapSize() == null
+        ? new DelegatingCacheLoader(name, this::getRefresher)
+        : null;
+      // 保留之前注册的加载器
+      NamedCache previous = caches.get(name);
+      if (loader != null && previous != null && previous.loader != null) {
+        loader.setDelegate(previous.loader.getDelegateOrNull());
+      }
+      created.put(name, new NamedCache(spec, build(name, spec, metrics, loader), metrics, loader));
+    });
+    caches = Collections.unmodifiableMap(created);
+    log.info("已创建本地缓存：{}", created.keySet());
+
+    if (sampler == null && created.values().stream().anyMatch(namedCache -> namedCache.metrics != null)) {
+      sampler = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+        .setNameFormat("cache-stats-sampler")
+        .setDaemon(true)
+        .build());
+      sampler.scheduleAtFixedRate(this::sample, CacheMetrics.SAMPLE_INTERVAL_MILLIS, CacheMetrics.SAMPLE_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+    }
+  }
+
+  /**
+   * 获取命名缓存
+   *
+   * @param name      缓存名
+   * @param keyType   键的类型，须与配置的 {@code key-type} 一致或为其父类
+   * @param valueType 值的类型，须与配置的 {@code value-type} 一致或为其父类
+   * @param <K>       键的类型
+   * @param <V>       值的类型
+   * @return 本地缓存
+   * @throws IllegalArgumentException 当缓存不存在或类型不匹配时
+   */
+  @SuppressWarnings("unchecked")
+  public <K, V> Cache<K, V> getCache(String name, Class<K> keyType, Class<V> valueType) {
+    NamedCache namedCache = caches.get(name);
+    if (namedCache == null) {
+      throw new IllegalArgumentException(String.format("未配置缓存【%s】", name), RestCodeEnum.ERROR_SERVER);
+    }
+
+    CacheSpec spec = namedCache.spec;
+    if (!keyType.isAssignableFrom(spec.getKeyType()) || !valueType.isAssignableFrom(spec.getValueType())) {
+      throw new IllegalArgumentException(String.format("缓存【%s】的类型为 <%s, %s>，无法作为 <%s, %s> 使用",
+        name, spec.getKeyType().getName(), spec.getValueType().getName(), keyType.getName(), valueType.getName()), RestCodeEnum.ERROR_SERVER);
+    }
+    return (Cache<K, V>) namedCache.cache;
+  }
+
+  /**
+   * 获取命名缓存的配置
+   *
+   * @param name 缓存名
+   * @return 缓存配置
+   * @throws IllegalArgumentException 当缓存不存在时
+   */
+  public CacheSpec getSpec(String name) {
+    NamedCache namedCache = caches.get(name);
+    if (namedCache == null) {
+      throw new IllegalArgumentException(String.format("未配置缓存【%s】", name), RestCodeEnum.ERROR_SERVER);
+    }
+    return namedCache.spec;
+  }
+
+  /**
+   * 为命名缓存注册加载器，之后可通过返回的缓存调用 {@link LoadingCache#get(Object)} 及 {@link LoadingCache#getAll(Iterable)}，
+   * 重复注册时替换原有的加载器
+   *
+   * <p>{@link LoadingCache#getAll(Iterable)} 将未命中的键合并为一次 {@link CacheLoader#loadAll(Iterable)} 调用；
+   * 配置了 {@code refresh-after-write} 时，条目写入超过该时长后的首次读取会在专用线程池中异步调用
+   * {@link CacheLoader#reload(Object, Object)}，刷新完成前仍返回旧值</p>
+   *
+   * @param name      缓存名
+   * @param keyType   键的类型，须与配置的 {@code key-type} 一致或为其父类
+   * @param valueType 值的类型，须与配置的 {@code value-type} 一致或为其父类
+   * @param loader    加载器
+   * @param <K>       键的类型
+   * @param <V>       值的类型
+   * @return 本地缓存
+   * @throws IllegalArgumentException 当缓存不存在、类型不匹配或缓存不支持加载器（{@code tiny-lfu} 或配置了 {@code off-heap-size}）时
+   */
+  @SuppressWarnings("unchecked")
+  public <K, V> LoadingCache<K, V> registerLoader(String name, Class<K> keyType, Class<V> valueType, CacheLoader<K, V> loader) {
+    Cache<K, V> cache = getCache(name, keyType, valueType);
+    NamedCache namedCache = caches.get(name);
+    if (namedCache.loader == null) {
+      throw new IllegalArgumentException(String.format("缓存【%s】不支持加载器，须使用 guava 且不配置 off-heap-size", name), RestCodeEnum.ERROR_SERVER);
+    }
+
+    namedCache.loader.setDelegate(loader);
+    return (LoadingCache<K, V>) cache;
+  }
+
+  /**
+   * 获取所有命名缓存的名称
+   *
+   * @return 缓存名，按配置顺序排列
+   */
+  public Set<String> getCacheNames() {
+    return caches.keySet();
+  }
+
+  /**
+   * 获取所有开启了统计（{@code record-stats}）的缓存的统计信息
+   *
+   * @return 统计信息，按配置顺序排列
+   */
+  public List<CacheStatsDto> getStats() {
+    long now = System.currentTimeMillis();
+    List<CacheStatsDto> stats = new ArrayList<>();
+    caches.forEach((name, namedCache) -> {
+      if (namedCache.metrics != null) {
+        stats.add(namedCache.metrics.toDto(name, namedCache.cache, now));
+      }
+    });
+    return stats;
+  }
+
+  private synchronized Executor getRefresher() {
+    if (refresher == null) {
+      refresher = Executors.newFixedThreadPool(REFRESH_THREADS, new ThreadFactoryBuilder()
+        .setNameFormat("cache-refresher-%d")
+        .setDaemon(true)
+        .build());
+    }
+    return refresher;
+  }
+
+  private void sample() {
+    long now = System.currentTimeMillis();
+    for (NamedCache namedCache : caches.values()) {
+      if (namedCache.metrics != null) {
+        namedCache.metrics.sample(namedCache.cache, now);
+      }
+    }
+  }
+
+  /**
+   * 将开启了快照（{@code snapshot}）的缓存写入快照文件，通常在程序停止时调用
+   *
+   * @param file 快照文件
+   * @return 写入的条目数量
+   * @throws java.io.UncheckedIOException 当写入失败时
+   */
+  public long saveSnapshot(Path file) {
+    long count = CacheSnapshot.write(file, getSpecs(), getSnapshotCaches());
+    log.info("已将 {} 个缓存条目写入快照【{}】", count, file);
+    return count;
+  }
+
+  /**
+   * 从快照文件加载开启了快照（{@code snapshot}）的缓存，须在 {@link #initialize(Map)} 之后调用；
+   * 文件不存在或已损坏时不加载，已过期的条目会被跳过
    *
-   * @return 30 天 TTL 本地缓存
+   * @param file 快照文件
+   * @return 加载的条目数量
+   * @throws java.io.UncheckedIOException 当读取失败时
+   */
+  public long loadSnapshot(Path file) {
+    return CacheSnapshot.load(file, getSpecs(), getSnapshotCaches());
+  }
+
+  private Map<String, CacheSpec> getSpecs() {
+    Map<String, CacheSpec> specs = new LinkedHashMap<>();
+    caches.forEach((name, namedCache) -> specs.put(name, namedCache.spec));
+    return specs;
+  }
+
+  private Map<String, Cache<Object, Object>> getSnapshotCaches() {
+    Map<String, Cache<Object, Object>> snapshotCaches = new LinkedHashMap<>();
+    caches.forEach((name, namedCache) -> {
+      if (namedCache.spec.isSnapshot()) {
+        snapshotCaches.put(name, namedCache.cache);
+      }
+    });
+    return snapshotCaches;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static Cache<Object, Object> build(String name, CacheSpec spec, CacheMetrics metrics, DelegatingCacheLoader loader) {
+    if (spec.isSnapshot()) {
+      checkSnapshot(name, spec);
+    }
+
+    if (spec.getRefreshAfterWrite() != null && loader == null) {
+      throw new IllegalArgumentException(String.format("缓存【%s】配置了 refresh-after-write，须使用 guava 且不配置 off-heap-size", name), RestCodeEnum.ERROR_SERVER);
+    }
+
+    if (spec.getOffHeapSize() == null) {
+      return buildHeap(name, spec, metrics, metrics, loader);
+    }
+
+    if (spec.getValueType() == Object.class || (spec.getMaximumSize() == null && spec.getMaximumWeight() == null)) {
+      throw new IllegalArgumentException(String.format("缓存【%s】配置了 off-heap-size，须同时配置具体的 value-type 及 maximum-size 或 maximum-weight", name), RestCodeEnum.ERROR_SERVER);
+    }
+
+    long offHeapTtlMillis = Math.min(
+      spec.getExpireAfterWrite() == null ? Long.MAX_VALUE : spec.getExpireAfterWrite().toMillis(),
+      spec.getExpireAfterAccess() == null ? Long.MAX_VALUE : spec.getExpireAfterAccess().toMillis());
+    OffHeapStore<Object> offHeap = new OffHeapStore<>(spec.getOffHeapSize().toBytes(), (int) spec.getOffHeapSlabSize().toBytes());
+    return new TieredCache<>(offHeap, (Class<Object>) spec.getValueType(), offHeapTtlMillis == Long.MAX_VALUE ? 0L : offHeapTtlMillis,
+      demotion -> buildHeap(name, spec, metrics, metrics == null ? demotion : notification -> {
+        metrics.onRemoval(notification);
+        demotion.onRemoval(notification);
+      }, null));
+  }
+
+  private static void checkSnapshot(String name, CacheSpec spec) {
+    if (spec.getKeyType() == Object.class || spec.getValueType() == Object.class) {
+      throw new IllegalArgumentException(String.format("缓存【%s】开启了 snapshot，须同时配置具体的 key-type 及 value-type", name), RestCodeEnum.ERROR_SERVER);
+    }
+
+    if (spec.getOffHeapSize() != null) {
+      throw new IllegalArgumentException(String.format("缓存【%s】配置了 off-heap-size，不支持 snapshot", name), RestCodeEnum.ERROR_SERVER);
+    }
+
+    boolean expires = spec.getExpireAfterWrite() != null || spec.getExpireAfterAccess() != null;
+    if (spec.getEngine() == CacheEngine.GUAVA && expires) {
+      throw new IllegalArgumentException(String.format("缓存【%s】使用 guava 且配置了过期时间，无法记录剩余有效期，开启 snapshot 须改用 tiny-lfu", name), RestCodeEnum.ERROR_SERVER);
+    }
+  }
+
+  /**
+   * @param metrics  统计信息，未开启统计时为 {@code null}
+   * @param listener 移除监听器，可为 {@code null}
+   * @param loader   加载器，只用于 Guava 缓存，可为 {@code null}
    */
-  public LoadingCache<String, Object> getCache30DaysToLive() {
-    return cache30DaysToLive;
+  private static Cache<Object, Object> buildHeap(String name, CacheSpec spec, CacheMetrics metrics,
+                                                 RemovalListener<Object, Object> listener, DelegatingCacheLoader loader) {
+    return spec.getEngine() == CacheEngine.TINY_LFU
+      ? buildTinyLfu(name, spec, metrics != null, listener)
+      : buildGuava(name, spec, metrics != null, listener, loader);
+  }
+
+  private static Cache<Object, Object> buildTinyLfu(String name, CacheSpec spec, boolean recordStats, RemovalListener<Object, Object> listener) {
+    if (spec.getMaximumSize() == null || spec.getMaximumWeight() != null) {
+      throw new IllegalArgumentException(String.format("缓存【%s】使用 tiny-lfu 时须配置 maximum-size，且不支持 maximum-weight", name), RestCodeEnum.ERROR_SERVER);
+    }
+
+    return new TinyLfuCache<>(spec.getMaximumSize(),
+      spec.getExpireAfterWrite() == null ? 0L : spec.getExpireAfterWrite().toNanos(),
+      spec.getExpireAfterAccess() == null ? 0L : spec.getExpireAfterAccess().toNanos(),
+      recordStats, listener);
+  }
+
+  @SuppressWarnings("unchecked")
+  private static Cache<Object, Object> buildGuava(String name, CacheSpec spec, boolean recordStats,
+                                                  RemovalListener<Object, Object> listener, DelegatingCacheLoader loader) {
+    CacheBuilder<Object, Object> builder = CacheBuilder.newBuilder()
+      .concurrencyLevel(spec.getConcurrencyLevel());
+
+    if (spec.getMaximumSize() != null && spec.getMaximumWeight() != null) {
+      throw new IllegalArgumentException(String.format("缓存【%s】不能同时配置 maximum-size 和 maximum-weight", name), RestCodeEnum.ERROR_SERVER);
+    }
+
+    if (spec.getMaximumSize() != null) {
+      builder.maximumSize(spec.getMaximumSize());
+    }
+
+    if (spec.getMaximumWeight() != null) {
+      Class<?> weigher = spec.getWeigher();
+      if (weigher == null || !Weigher.class.isAssignableFrom(weigher)) {
+        throw new IllegalArgumentException(String.format("缓存【%s】配置了 maximum-weight，须同时配置 weigher 为 %s 的实现类", name, Weigher.class.getName()), RestCodeEnum.ERROR_SERVER);
+      }
+      builder.maximumWeight(spec.getMaximumWeight())
+        .weigher((Weigher<Object, Object>) BeanUtils.instantiateClass(weigher));
+    }
+
+    if (spec.getExpireAfterWrite() != null) {
+      builder.expireAfterWrite(spec.getExpireAfterWrite().toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    if (spec.getExpireAfterAccess() != null) {
+      builder.expireAfterAccess(spec.getExpireAfterAccess().toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    if (spec.getRefreshAfterWrite() != null) {
+      builder.refreshAfterWrite(spec.getRefreshAfterWrite().toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    if (recordStats) {
+      builder.recordStats();
+    }
+
+    if (listener != null) {
+      builder.removalListener(listener);
+    }
+
+    return loader == null ? builder.build() : builder.build(loader);
+  }
+
+  /**
+   * 命名缓存及其配置
+   */
+  private static class NamedCache {
+
+    private final CacheSpec spec;
+
+    private final Cache<Object, Object> cache;
+
+    /**
+     * 统计信息，未开启统计时为 {@code null}
+     */
+    private final CacheMetrics metrics;
+
+    /**
+     * 加载器，缓存不支持加载器时为 {@code null}
+     */
+    private final DelegatingCacheLoader loader;
+
+    NamedCache(CacheSpec spec, Cache<Object, Object> cache, CacheMetrics metrics, DelegatingCacheLoader loader) {
+      this.spec = spec;
+      this.cache = cache;
+      this.metrics = metrics;
+      this.loader = loader;
+    }
   }
 }
@@ -0,0 +1,164 @@
+package net.wuxianjie.springbootvuejs.cache;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheStats;
+import com.google.common.cache.RemovalCause;
+import com.google.common.cache.RemovalListener;
+import com.google.common.cache.RemovalNotification;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import net.wuxianjie.springbootvuejs.dto.CacheStatsDto;
+
+/**
+ * 命名缓存的统计信息，包括按原因分类的淘汰数量，以及按滑动窗口计算的命中率和请求速率
+ *
+ * <p>访问缓存时只有 Guava 自身的统计计数及淘汰时的 {@link LongAdder} 累加，没有额外的锁；
+ * 滑动窗口由后台线程每隔 {@link #SAMPLE_INTERVAL_MILLIS} 毫秒对累计值采样，查询时用当前值减去窗口起点的采样值</p>
+ *
+ * @author 吴仙杰
+ */
+class CacheMetrics implements RemovalListener<Object, Object> {
+
+  /**
+   * 采样间隔（单位：毫秒）
+   */
+  static final long SAMPLE_INTERVAL_MILLIS = 5_000L;
+
+  private static final String[] WINDOW_NAMES = { "1m", "5m", "15m" };
+
+  private static final long[] WINDOW_MILLIS = {
+    TimeUnit.MINUTES.toMillis(1), TimeUnit.MINUTES.toMillis(5), TimeUnit.MINUTES.toMillis(15)
+  };
+
+  private static final RemovalCause[] CAUSES = RemovalCause.values();
+
+  /**
+   * 按 {@link RemovalCause#ordinal()} 记录的淘汰数量
+   */
+  private final LongAdder[] evictions = new LongAdder[CAUSES.length];
+
+  /**
+   * 采样值的环形缓冲区，足以覆盖最长的窗口
+   */
+  private final Sample[] samples = new Sample[(int) (WINDOW_MILLIS[WINDOW_MILLIS.length - 1] / SAMPLE_INTERVAL_MILLIS) + 1];
+
+  /**
+   * 创建时的初始值，作为累计值及窗口的起点
+   */
+  private final Sample initial;
+
+  /**
+   * 下一个采样值在缓冲区中的位置
+   */
+  private int next;
+
+  CacheMetrics(long now) {
+    for (int i = 0; i < evictions.length; i++) {
+      evictions[i] = new LongAdder();
+    }
+    initial = new Sample(now, new CacheStats(0, 0, 0, 0, 0, 0), new long[CAUSES.length]);
+  }
+
+  @Override
+  public void onRemoval(RemovalNotification<Object, Object> notification) {
+    if (notification.wasEvicted()) {
+      evictions[notification.getCause().ordinal()].increment();
+    }
+  }
+
+  /**
+   * 记录当前的累计值，作为之后滑动窗口的起点
+   *
+   * @param cache 缓存
+   * @param now   当前时间（毫秒时间戳）
+   */
+  synchronized void sample(Cache<?, ?> cache, long now) {
+    samples[next] = snapshot(cache, now);
+    next = (next + 1) % samples.length;
+  }
+
+  /**
+   * 计算累计值及各滑动窗口内的统计信息
+   *
+   * @param name  缓存名
+   * @param cache 缓存
+   * @param now   当前时间（毫秒时间戳）
+   * @return 统计信息
+   */
+  synchronized CacheStatsDto toDto(String name, Cache<?, ?> cache, long now) {
+    Sample current = snapshot(cache, now);
+    List<CacheStatsDto.WindowDto> windows = new ArrayList<>(WINDOW_NAMES.length + 1);
+    windows.add(current.minus(initial, "total"));
+    for (int i = 0; i < WINDOW_NAMES.length; i++) {
+      windows.add(current.minus(oldestSince(now - WINDOW_MILLIS[i]), WINDOW_NAMES[i]));
+    }
+    return new CacheStatsDto(name, cache.size(), windows);
+  }
+
+  /**
+   * 获取不早于该时间的最早采样值（含初始值）；若均早于该时间，则返回最近的采样值
+   */
+  private Sample oldestSince(long since) {
+    Sample oldest = initial.time >= since ? initial : null;
+    Sample latest = initial;
+    for (Sample sample : samples) {
+      if (sample == null) {
+        continue;
+      }
+      if (sample.time >= since && (oldest == null || sample.time < oldest.time)) {
+        oldest = sample;
+      }
+      if (sample.time > latest.time) {
+        latest = sample;
+      }
+    }
+    return oldest == null ? latest : oldest;
+  }
+
+  private Sample snapshot(Cache<?, ?> cache, long now) {
+    long[] counts = new long[CAUSES.length];
+    for (int i = 0; i < counts.length; i++) {
+      counts[i] = evictions[i].sum();
+    }
+    return new Sample(now, cache.stats(), counts);
+  }
+
+  /**
+   * 某一时刻的累计值
+   */
+  private static class Sample {
+
+    private final long time;
+
+    private final CacheStats stats;
+
+    private final long[] evictions;
+
+    Sample(long time, CacheStats stats, long[] evictions) {
+      this.time = time;
+      this.stats = stats;
+      this.evictions = evictions;
+    }
+
+    CacheStatsDto.WindowDto minus(Sample start, String window) {
+      CacheStats delta = stats.minus(start.stats);
+      long millis = Math.max(time - start.time, 1L);
+
+      Map<String, Long> evictionCounts = new LinkedHashMap<>();
+      for (RemovalCause cause : CAUSES) {
+        long count = evictions[cause.ordinal()] - start.evictions[cause.ordinal()];
+        if (count > 0) {
+          evictionCounts.put(cause.name(), count);
+        }
+      }
+
+      return new CacheStatsDto.WindowDto(window, TimeUnit.MILLISECONDS.toSeconds(millis), delta.requestCount(),
+        delta.requestCount() * 1000.0 / millis, delta.hitRate(), delta.loadCount(),
+        delta.averageLoadPenalty() / TimeUnit.MILLISECONDS.toNanos(1), evictionCounts);
+    }
+  }
+}
@@ -0,0 +1,76 @@
+package net.wuxianjie.springbootvuejs.cache;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * {@link CacheManager} 中命名缓存的配置
+ *
+ * <p>示例：</p>
+ *
+ * <pre>
+ * cache.specs.user.maximum-size=10000
+ * cache.specs.user.expire-after-write=30m
+ * cache.specs.user.record-stats=true
+ * </pre>
+ *
+ * @author 吴仙杰
+ */
+@Data
+@ConfigurationProperties(prefix = "cache")
+public class CacheProperties {
+
+  /**
+   * 缓存名 -> 缓存配置
+   */
+  private Map<String, CacheSpec> specs = new LinkedHashMap<>();
+
+  /**
+   * 快照文件的路径，开启了 {@code snapshot} 的缓存在程序停止时写入该文件，启动时从该文件加载；未配置时不使用快照
+   */
+  private String snapshotFile;
+
+  /**
+   * 多节点间广播缓存失效的配置，见 {@link InvalidationBus}
+   */
+  private Invalidation invalidation = new Invalidation();
+
+  @Data
+  public static class Invalidation {
+
+    /**
+     * 传输方式：{@code none}、{@code multicast} 或 {@code loopback}，见 {@link InvalidationTransport}
+     */
+    private String transport = "none";
+
+    /**
+     * 批量发送的间隔
+     */
+    private Duration batchInterval = Duration.ofMillis(50);
+
+    /**
+     * 收到失效后再次执行的延迟，为 {@code 0} 时不再次执行
+     */
+    private Duration redeliverDelay = Duration.ofSeconds(2);
+
+    private Multicast multicast = new Multicast();
+  }
+
+  @Data
+  public static class Multicast {
+
+    private String group = "239.255.27.1";
+
+    private int port = 45627;
+
+    /**
+     * 网卡名称，为空时由操作系统选择
+     */
+    private String networkInterface;
+
+    private int ttl = 1;
+  }
+}
@@ -0,0 +1,262 @@
+package net.wuxianjie.springbootvuejs.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.google.common.cache.Cache;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 命名缓存的快照文件，用于程序重启后预热缓存
+ *
+ * <p>文件格式（大端字节序）：</p>
+ *
+ * <pre>
+ * 文件头：魔数 int（SBVC），版本号 int，生成时间 long（毫秒时间戳），缓存数量 int
+ * 每个缓存：缓存名（{@link java.io.DataOutput#writeUTF(String)}），条目数量 int，条目部分的字节数 int，
+ *          之后为各条目：键的长度 int，键，值的长度 int，值，过期时间 long（毫秒时间戳，{@link Long#MAX_VALUE} 表示不过期）
+ * 文件尾：此前所有字节的 CRC32 校验值 int
+ * </pre>
+ *
+ * <p>键和值序列化为 JSON，按配置的 {@code key-type}、{@code value-type} 反序列化。记录的是绝对过期时间，
+ * 故程序停止期间流逝的时间也计入有效期，加载时跳过已过期的条目</p>
+ *
+ * @author 吴仙杰
+ */
+@Slf4j
+class CacheSnapshot {
+
+  private static final int MAGIC = 0x53425643;
+
+  private static final int VERSION = 1;
+
+  /**
+   * 文件头及文件尾的长度（单位：字节）
+   */
+  private static final int HEADER_SIZE = 20;
+
+  private static final int TRAILER_SIZE = 4;
+
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+
+  private CacheSnapshot() {
+  }
+
+  /**
+   * 将缓存写入快照文件，先写入临时文件，完成后再替换原文件
+   *
+   * @param file   快照文件
+   * @param specs  缓存名 -> 缓存配置
+   * @param caches 缓存名 -> 需要写入快照的缓存
+   * @return 写入的条目数量
+   * @throws UncheckedIOException 当写入失败时
+   */
+  static long write(Path file, Map<String, CacheSpec> specs, Map<String, Cache<Object, Object>> caches) {
+    long now = System.currentTimeMillis();
+    Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+    long total = 0;
+    try {
+      if (file.getParent() != null) {
+        Files.createDirectories(file.getParent());
+      }
+
+      CRC32 crc = new CRC32();
+      try (OutputStream out = Files.newOutputStream(temp)) {
+        DataOutputStream data = new DataOutputStream(new BufferedOutputStream(new CheckedOutputStream(out, crc)));
+        data.writeInt(MAGIC);
+        data.writeInt(VERSION);
+        data.writeLong(now);
+        data.writeInt(caches.size());
+
+        for (Map.Entry<String, Cache<Object, Object>> entry : caches.entrySet()) {
+          CacheSpec spec = specs.get(entry.getKey());
+          ByteArrayOutputStream section = new ByteArrayOutputStream();
+          int count = writeEntries(new DataOutputStream(section), entry.getValue(),
+            MAPPER.writerFor(spec.getKeyType()), MAPPER.writerFor(spec.getValueType()), now);
+
+          data.writeUTF(entry.getKey());
+          data.writeInt(count);
+          data.writeInt(section.size());
+          section.writeTo(data);
+          total += count;
+        }
+
+        data.flush();
+        // 校验值本身不计入校验
+        new DataOutputStream(out).writeInt((int) crc.getValue());
+      }
+      Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } catch (IOException e) {
+      throw new UncheckedIOException(String.format("写入缓存快照【%s】失败", file), e);
+    }
+    return total;
+  }
+
+  /**
+   * 将内存映射的快照文件加载到缓存中，各缓存并行加载
+   *
+   * <p>文件不存在、版本不符或校验失败时不加载；某个缓存的条目反序列化失败时，只跳过该缓存</p>
+   *
+   * @param file   快照文件
+   * @param specs  缓存名 -> 缓存配置
+   * @param caches 缓存名 -> 可以从快照中加载的缓存，快照中的其他缓存会被忽略
+   * @return 加载的条目数量
+   * @throws UncheckedIOException 当读取失败时
+   */
+  static long load(Path file, Map<String, CacheSpec> specs, Map<String, Cache<Object, Object>> caches) {
+    if (!Files.isRegularFile(file)) {
+      return 0;
+    }
+
+    MappedByteBuffer buffer;
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      if (channel.size() < HEADER_SIZE + TRAILER_SIZE || channel.size() > Integer.MAX_VALUE) {
+        log.warn("缓存快照【{}】的长度不合法，不加载", file);
+        return 0;
+      }
+      buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+    } catch (IOException e) {
+      throw new UncheckedIOException(String.format("读取缓存快照【%s】失败", file), e);
+    }
+
+    int checksumAt = buffer.limit() - TRAILER_SIZE;
+    CRC32 crc = new CRC32();
+    ByteBuffer content = buffer.duplicate();
+    content.limit(checksumAt);
+    crc.update(content);
+    if ((int) crc.getValue() != buffer.getInt(checksumAt)) {
+      log.warn("缓存快照【{}】校验失败，不加载", file);
+      return 0;
+    }
+    if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+      log.warn("缓存快照【{}】的格式或版本不受支持，不加载", file);
+      return 0;
+    }
+
+    long createdAt = buffer.getLong();
+    int sectionCount = buffer.getInt();
+    List<Section> sections = new ArrayList<>(sectionCount);
+    for (int i = 0; i < sectionCount; i++) {
+      byte[] name = new byte[buffer.getShort() & 0xFFFF];
+      buffer.get(name);
+      int count = buffer.getInt();
+      int length = buffer.getInt();
+      ByteBuffer entries = buffer.slice();
+      entries.limit(length);
+      buffer.position(buffer.position() + length);
+      // writeUTF 对常见字符的编码与 UTF-8 相同，缓存名只包含配置项允许的字符
+      sections.add(new Section(new String(name, StandardCharsets.UTF_8), count, entries));
+    }
+
+    long now = System.currentTimeMillis();
+    long total = sections.parallelStream()
+      .filter(section -> caches.containsKey(section.name))
+      .mapToLong(section -> loadSection(section, specs.get(section.name), caches.get(section.name), now))
+      .sum();
+    log.info("已从缓存快照【{}】（生成于 {}）加载 {} 个条目", file, Instant.ofEpochMilli(createdAt), total);
+    return total;
+  }
+
+  private static int writeEntries(DataOutputStream out, Cache<Object, Object> cache,
+                                  ObjectWriter keyWriter, ObjectWriter valueWriter, long now) throws IOException {
+    List<IOException> errors = new ArrayList<>(1);
+    int[] count = { 0 };
+    TinyLfuCache.EntryVisitor<Object, Object> visitor = (key, value, remainingMillis) -> {
+      try {
+        byte[] keyBytes = keyWriter.writeValueAsBytes(key);
+        byte[] valueBytes = valueWriter.writeValueAsBytes(value);
+        out.writeInt(keyBytes.length);
+        out.write(keyBytes);
+        out.writeInt(valueBytes.length);
+        out.write(valueBytes);
+        out.writeLong(remainingMillis < 0 ? Long.MAX_VALUE : now + remainingMillis);
+        count[0]++;
+      } catch (IOException e) {
+        errors.add(e);
+      }
+    };
+
+    if (cache instanceof TinyLfuCache) {
+      ((TinyLfuCache<Object, Object>) cache).forEachEntry(visitor);
+    } else {
+      // 只允许未配置过期时间的 Guava 缓存写入快照，见 CacheManager
+      cache.asMap().forEach((key, value) -> visitor.visit(key, value, -1L));
+    }
+
+    if (!errors.isEmpty()) {
+      throw errors.get(0);
+    }
+    return count[0];
+  }
+
+  private static long loadSection(Section section, CacheSpec spec, Cache<Object, Object> cache, long now) {
+    ObjectReader keyReader = MAPPER.readerFor(spec.getKeyType());
+    ObjectReader valueReader = MAPPER.readerFor(spec.getValueType());
+    ByteBuffer buffer = section.entries;
+    long loaded = 0;
+    try {
+      for (int i = 0; i < section.count; i++) {
+        Object key = keyReader.readValue(bytes(buffer));
+        Object value = valueReader.readValue(bytes(buffer));
+        long expiresAt = buffer.getLong();
+        if (expiresAt <= now) {
+          continue;
+        }
+
+        if (cache instanceof TinyLfuCache) {
+          ((TinyLfuCache<Object, Object>) cache).restore(key, value, expiresAt == Long.MAX_VALUE ? -1L : expiresAt - now);
+        } else {
+          cache.put(key, value);
+        }
+        loaded++;
+      }
+    } catch (IOException | RuntimeException e) {
+      log.warn("缓存快照中的缓存【{}】无法反序列化，跳过其余条目：{}", section.name, e.getMessage());
+    }
+    return loaded;
+  }
+
+  private static byte[] bytes(ByteBuffer buffer) {
+    byte[] bytes = new byte[buffer.getInt()];
+    buffer.get(bytes);
+    return bytes;
+  }
+
+  /**
+   * 快照中的一个缓存
+   */
+  private static class Section {
+
+    private final String name;
+
+    private final int count;
+
+    private final ByteBuffer entries;
+
+    Section(String name, int count, ByteBuffer entries) {
+      this.name = name;
+      this.count = count;
+      this.entries = entries;
+    }
+  }
+}
@@ -0,0 +1,88 @@
+package net.wuxianjie.springbootvuejs.cache;
+
+import com.google.common.cache.Weigher;
+import java.time.Duration;
+import lombok.Data;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * 单个命名缓存的配置，对应配置项 {@code cache.specs.<缓存名>.*}
+ *
+ * @author 吴仙杰
+ */
+@Data
+public class CacheSpec {
+
+  /**
+   * 缓存的实现方式，如 {@code guava}、{@code tiny-lfu}
+   */
+  private CacheEngine engine = CacheEngine.GUAVA;
+
+  /**
+   * 最多缓存的条目数量，不能与 {@link #maximumWeight} 同时配置；均未配置时不限制数量
+   */
+  private Long maximumSize;
+
+  /**
+   * 所有条目的最大总权重，须同时配置 {@link #weigher}
+   */
+  private Long maximumWeight;
+
+  /**
+   * 计算条目权重的 {@link Weigher} 实现类，须有无参构造方法
+   */
+  private Class<?> weigher;
+
+  /**
+   * 写入后的有效时长（TTL），如 {@code 30d}、{@code 10m}
+   */
+  private Duration expireAfterWrite;
+
+  /**
+   * 最后一次访问后的有效时长（TTI）
+   */
+  private Duration expireAfterAccess;
+
+  /**
+   * 写入后超过该时长的条目在下次读取时异步刷新，刷新完成前仍返回旧值，须通过
+   * {@link CacheManager#registerLoader} 注册加载器，只支持 {@code guava} 且未配置 {@link #offHeapSize} 的缓存
+   */
+  private Duration refreshAfterWrite;
+
+  /**
+   * 预计同时修改缓存的线程数量
+   */
+  private int concurrencyLevel = 4;
+
+  /**
+   * 是否记录命中率等统计信息
+   */
+  private boolean recordStats;
+
+  /**
+   * 键的类型，获取缓存时会校验
+   */
+  private Class<?> keyType = Object.class;
+
+  /**
+   * 值的类型，获取缓存时会校验
+   */
+  private Class<?> valueType = Object.class;
+
+  /**
+   * 堆外存储的容量，如 {@code 64MB}；配置后被容量淘汰的条目序列化后移入堆外（见 {@link TieredCache}），
+   * 须同时配置具体的 {@link #valueType} 及 {@link #maximumSize} 或 {@link #maximumWeight}
+   */
+  private DataSize offHeapSize;
+
+  /**
+   * 堆外存储每次申请的内存块大小，须为 2 的幂，也是单个值序列化后的最大长度
+   */
+  private DataSize offHeapSlabSize = DataSize.ofMegabytes(1);
+
+  /**
+   * 是否在程序停止时写入快照，并在下次启动时加载，须同时配置具体的 {@link #keyType} 及 {@link #valueType}；
+   * Guava 缓存无法获取条目的剩余有效期，故只有未配置过期时间的 Guava 缓存或 {@code tiny-lfu} 缓存可以开启
+   */
+  private boolean snapshot;
+}
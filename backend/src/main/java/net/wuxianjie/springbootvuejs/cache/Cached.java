@@ -0,0 +1,50 @@
+package net.wuxianjie.springbootvuejs.cache;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 将方法的返回值保存到命名缓存中，再次以相同的键调用时直接返回缓存的值，由 {@link CachedAspect} 处理
+ *
+ * <p>同一个键同时未命中的多次调用只会执行一次方法，其余调用等待并共享其结果或异常；返回 {@code null} 时不缓存。
+ * 与其他 Spring AOP 注解一样，同一个类中的方法互相调用时不会生效</p>
+ *
+ * <p>示例：</p>
+ *
+ * <pre>
+ * &#64;Cached(cache = "user", key = "#userId", ttl = "10m")
+ * public UserDto getUser(int userId) { ... }
+ * </pre>
+ *
+ * @author 吴仙杰
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface Cached {
+
+  /**
+   * 命名缓存的缓存名，见 {@link CacheManager#getCache(String, Class, Class)}；多个方法共用同一个缓存时须保证键互不冲突
+   *
+   * @return 缓存名
+   */
+  String cache();
+
+  /**
+   * 计算缓存键的 SpEL 表达式，可通过 {@code #参数名}、{@code #p0} 或 {@code #a0} 引用参数
+   *
+   * @return SpEL 表达式，为空时以参数作为键：无参数时为方法名，一个参数时为该参数，多个参数时为参数列表
+   */
+  String key() default "";
+
+  /**
+   * 缓存值的有效时长，如 {@code 10m}、{@code 30s}，不能长于缓存自身配置的有效期；
+   * 配置后缓存的值会带上过期时间，故所用缓存不能配置具体的 {@code value-type}
+   *
+   * @return 有效时长，为空时只按缓存自身的配置过期
+   */
+  String ttl() default "";
+}
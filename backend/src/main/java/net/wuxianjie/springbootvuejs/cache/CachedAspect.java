@@ -0,0 +1,253 @@
+package net.wuxianjie.springbootvuejs.cache;
+
+import com.google.common.cache.Cache;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+import net.wuxianjie.springbootvuejs.constants.RestCodeEnum;
+import net.wuxianjie.springbootvuejs.dto.CachedMethodStatsDto;
+import net.wuxianjie.springbootvuejs.exception.IllegalArgumentException;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.context.expression.MethodBasedEvaluationContext;
+import org.springframework.core.DefaultParameterNameDiscoverer;
+import org.springframework.core.ParameterNameDiscoverer;
+import org.springframework.expression.Expression;
+import org.springframework.expression.ExpressionParser;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+/**
+ * 处理 {@link Cached} 注解：先查询命名缓存，未命中时执行方法并保存返回值
+ *
+ * <p>单飞（single-flight）：同一个缓存中同一个键正在执行方法时，后到的调用等待其结果，而不是重复执行；
+ * 执行结束后无论成功与否都会移除等待记录，故异常不会被缓存</p>
+ *
+ * <p>每个方法各自记录命中、未命中、合并等待、执行次数及耗时，见 {@link #getStats()}</p>
+ *
+ * @author 吴仙杰
+ */
+@Aspect
+@Component
+public class CachedAspect {
+
+  private final CacheManager cacheManager;
+
+  private final ExpressionParser parser = new SpelExpressionParser();
+
+  private final ParameterNameDiscoverer parameterNameDiscoverer = new DefaultParameterNameDiscoverer();
+
+  /**
+   * 方法 -> 解析后的注解配置及统计信息
+   */
+  private final ConcurrentMap<Method, CachedOperation> operations = new ConcurrentHashMap<>();
+
+  /**
+   * 正在执行的调用：(缓存名, 键) -> 结果
+   */
+  private final ConcurrentMap<List<Object>, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+
+  public CachedAspect(CacheManager localCacheManager) {
+    this.cacheManager = localCacheManager;
+  }
+
+  @Around("@annotation(cached) && execution(* *(..))")
+  public Object cache(ProceedingJoinPoint joinPoint, Cached cached) throws Throwable {
+    Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+    CachedOperation operation = operations.computeIfAbsent(method, m -> new CachedOperation(m, cached));
+    Cache<Object, Object> cache = operation.getCache();
+    Object key = operation.getKey(joinPoint);
+
+    Object value = operation.unwrap(cache.getIfPresent(key));
+    if (value != null) {
+      operation.hits.increment();
+      return value;
+    }
+    operation.misses.increment();
+
+    List<Object> flightKey = Arrays.asList(operation.cacheName, key);
+    CompletableFuture<Object> flight = new CompletableFuture<>();
+    CompletableFuture<Object> running = inFlight.putIfAbsent(flightKey, flight);
+    if (running != null) {
+      operation.coalesced.increment();
+      try {
+        return running.get();
+      } catch (ExecutionException e) {
+        throw e.getCause();
+      }
+    }
+
+    try {
+      // 等待记录加入前，上一次执行可能刚好写入了缓存
+      value = operation.unwrap(cache.getIfPresent(key));
+      if (value == null) {
+        value = load(joinPoint, operation);
+        if (value != null) {
+          cache.put(key, operation.wrap(value));
+        }
+      }
+      flight.complete(value);
+      return value;
+    } catch (Throwable e) {
+      flight.completeExceptionally(e);
+      throw e;
+    } finally {
+      inFlight.remove(flightKey, flight);
+    }
+  }
+
+  /**
+   * 获取所有已被调用过的 {@code @Cached} 方法的统计信息
+   *
+   * @return 统计信息，按方法排序
+   */
+  public List<CachedMethodStatsDto> getStats() {
+    return operations.values().stream()
+      .map(CachedOperation::toDto)
+      .sorted((a, b) -> a.getMethod().compareTo(b.getMethod()))
+      .collect(Collectors.toList());
+  }
+
+  private Object load(ProceedingJoinPoint joinPoint, CachedOperation operation) throws Throwable {
+    long start = System.nanoTime();
+    try {
+      return joinPoint.proceed();
+    } catch (Throwable e) {
+      operation.loadExceptions.increment();
+      throw e;
+    } finally {
+      long elapsed = System.nanoTime() - start;
+      operation.loads.increment();
+      operation.loadNanos.add(elapsed);
+      operation.maxLoadNanos.accumulate(elapsed);
+    }
+  }
+
+  /**
+   * 带过期时间的缓存值，用于 {@link Cached#ttl()}
+   */
+  private static class Expiring {
+
+    private final Object value;
+
+    private final long expiresAt;
+
+    Expiring(Object value, long expiresAt) {
+      this.value = value;
+      this.expiresAt = expiresAt;
+    }
+  }
+
+  /**
+   * 单个方法的注解配置及统计信息
+   */
+  private class CachedOperation {
+
+    private final String name;
+
+    private final String cacheName;
+
+    /**
+     * 键的表达式，未配置时为 {@code null}
+     */
+    private final Expression key;
+
+    /**
+     * 有效时长（单位：毫秒），未配置时为 {@code 0}
+     */
+    private final long ttlMillis;
+
+    private final Method targetMethod;
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    private final LongAdder coalesced = new LongAdder();
+
+    private final LongAdder loads = new LongAdder();
+
+    private final LongAdder loadExceptions = new LongAdder();
+
+    private final LongAdder loadNanos = new LongAdder();
+
+    private final LongAccumulator maxLoadNanos = new LongAccumulator(Long::max, 0L);
+
+    CachedOperation(Method method, Cached cached) {
+      this.name = method.getDeclaringClass().getSimpleName() + "." + method.getName()
+        + Arrays.stream(method.getParameterTypes()).map(Class::getSimpleName).collect(Collectors.joining(",", "(", ")"));
+      this.cacheName = cached.cache();
+      this.key = StringUtils.hasText(cached.key()) ? parser.parseExpression(cached.key()) : null;
+      this.ttlMillis = StringUtils.hasText(cached.ttl()) ? DurationStyle.detectAndParse(cached.ttl()).toMillis() : 0L;
+      this.targetMethod = method;
+
+      if (ttlMillis > 0 && cacheManager.getSpec(cacheName).getValueType() != Object.class) {
+        throw new IllegalArgumentException(String.format("方法【%s】配置了 ttl，所用缓存【%s】不能配置具体的 value-type", name, cacheName), RestCodeEnum.ERROR_SERVER);
+      }
+    }
+
+    /**
+     * 每次调用时获取，以免缓存重新初始化后仍使用旧的缓存
+     */
+    Cache<Object, Object> getCache() {
+      return cacheManager.getCache(cacheName, Object.class, Object.class);
+    }
+
+    Object getKey(ProceedingJoinPoint joinPoint) {
+      Object[] args = joinPoint.getArgs();
+      if (key == null) {
+        if (args.length == 0) {
+          return name;
+        }
+        return args.length == 1 && args[0] != null ? args[0] : Arrays.asList(args);
+      }
+
+      Method method = AopUtils.getMostSpecificMethod(targetMethod, joinPoint.getTarget().getClass());
+      Object value = key.getValue(new MethodBasedEvaluationContext(null, method, args, parameterNameDiscoverer));
+      if (value == null) {
+        throw new IllegalArgumentException(String.format("方法【%s】的缓存键表达式【%s】的结果为 null", name, key.getExpressionString()), RestCodeEnum.ERROR_SERVER);
+      }
+      return value;
+    }
+
+    Object wrap(Object value) {
+      return ttlMillis > 0 ? new Expiring(value, System.currentTimeMillis() + ttlMillis) : value;
+    }
+
+    /**
+     * @return 缓存的值；若不存在或已过期，则返回 {@code null}
+     */
+    Object unwrap(Object cached) {
+      if (!(cached instanceof Expiring)) {
+        return cached;
+      }
+
+      Expiring expiring = (Expiring) cached;
+      return expiring.expiresAt > System.currentTimeMillis() ? expiring.value : null;
+    }
+
+    CachedMethodStatsDto toDto() {
+      long hitCount = hits.sum();
+      long missCount = misses.sum();
+      long loadCount = loads.sum();
+      long requestCount = hitCount + missCount;
+      return new CachedMethodStatsDto(name, cacheName, hitCount, missCount, coalesced.sum(),
+        requestCount == 0 ? 1.0 : (double) hitCount / requestCount,
+        loadCount, loadExceptions.sum(),
+        loadCount == 0 ? 0.0 : loadNanos.sum() / 1e6 / loadCount,
+        maxLoadNanos.get() / 1e6);
+    }
+  }
+}
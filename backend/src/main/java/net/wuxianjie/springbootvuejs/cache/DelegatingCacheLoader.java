@@ -0,0 +1,74 @@
+package net.wuxianjie.springbootvuejs.cache;
+
+import com.google.common.cache.CacheLoader;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListenableFutureTask;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+import net.wuxianjie.springbootvuejs.constants.RestCodeEnum;
+import net.wuxianjie.springbootvuejs.exception.IllegalArgumentException;
+
+/**
+ * 命名缓存的加载器，创建缓存时还没有业务加载器，之后通过 {@link CacheManager#registerLoader} 注册
+ *
+ * <p>刷新（{@code refresh-after-write}）在专用线程池中异步执行，刷新完成前读取时仍返回旧值；
+ * 同一个键同时只会有一个刷新任务，刷新失败时保留旧值</p>
+ *
+ * @author 吴仙杰
+ */
+class DelegatingCacheLoader extends CacheLoader<Object, Object> {
+
+  private final String name;
+
+  private final Supplier<Executor> refreshExecutor;
+
+  private volatile CacheLoader<Object, Object> delegate;
+
+  /**
+   * @param name            缓存名
+   * @param refreshExecutor 获取执行刷新的线程池，首次刷新时才获取
+   */
+  DelegatingCacheLoader(String name, Supplier<Executor> refreshExecutor) {
+    this.name = name;
+    this.refreshExecutor = refreshExecutor;
+  }
+
+  @Override
+  public Object load(Object key) throws Exception {
+    return getDelegate().load(key);
+  }
+
+  /**
+   * 未命中的键合并为一次批量加载，业务加载器未实现批量加载时由 Guava 逐个加载
+   */
+  @Override
+  public Map<Object, Object> loadAll(Iterable<?> keys) throws Exception {
+    return getDelegate().loadAll(keys);
+  }
+
+  @Override
+  public ListenableFuture<Object> reload(Object key, Object oldValue) {
+    CacheLoader<Object, Object> loader = getDelegate();
+    ListenableFutureTask<Object> task = ListenableFutureTask.create(() -> loader.reload(key, oldValue).get());
+    refreshExecutor.get().execute(task);
+    return task;
+  }
+
+  CacheLoader<Object, Object> getDelegateOrNull() {
+    return delegate;
+  }
+
+  @SuppressWarnings("unchecked")
+  void setDelegate(CacheLoader<?, ?> delegate) {
+    this.delegate = (CacheLoader<Object, Object>) delegate;
+  }
+
+  private CacheLoader<Object, Object> getDelegate() {
+    CacheLoader<Object, Object> loader = delegate;
+    if (loader == null) {
+      throw new IllegalArgumentException(String.format("缓存【%s】未注册加载器，请使用 getIfPresent 或 get(key, loader)", name), RestCodeEnum.ERROR_SERVER);
+    }
+    return loader;
+  }
+}
@@ -0,0 +1,197 @@
+package net.wuxianjie.springbootvuejs.cache;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+import net.wuxianjie.springbootvuejs.constants.RestCodeEnum;
+import net.wuxianjie.springbootvuejs.exception.IllegalArgumentException;
+
+/**
+ * 每个条目可以有不同过期时间的本地缓存
+ *
+ * <p>读取时直接查询 {@link ConcurrentHashMap}，并按条目自身的过期时间判断，故条目恰好在过期时间失效。
+ * 过期条目所占的空间由 {@link TimingWheel} 回收：写入时，或读取时发现时间已进入新的一秒，
+ * 便推进时间轮并整批移除已过期的条目，无需后台线程</p>
+ *
+ * <p>可限制条目数量：写入新的键后超出上限时，淘汰最早过期的条目（见 {@link TimingWheel#peekEarliest()}）</p>
+ *
+ * @author 吴仙杰
+ */
+public class ExpiringCache<K, V> {
+
+  private final ConcurrentMap<K, TimingWheel.Node<K, V>> map = new ConcurrentHashMap<>();
+
+  /**
+   * 保护时间轮的锁，读取时只尝试加锁，不会阻塞
+   */
+  private final ReentrantLock lock = new ReentrantLock();
+
+  private final TimingWheel<K, V> timingWheel;
+
+  /**
+   * 最多缓存的条目数量
+   */
+  private final int maximumSize;
+
+  /**
+   * 当前时间（毫秒时间戳）
+   */
+  private final LongSupplier clock;
+
+  /**
+   * 创建不限制条目数量的缓存
+   */
+  public ExpiringCache() {
+    this(Integer.MAX_VALUE);
+  }
+
+  /**
+   * 创建限制条目数量的缓存
+   *
+   * @param maximumSize 最多缓存的条目数量，超出时淘汰最早过期的条目
+   */
+  public ExpiringCache(int maximumSize) {
+    this(maximumSize, System::currentTimeMillis);
+  }
+
+  ExpiringCache(LongSupplier clock) {
+    this(Integer.MAX_VALUE, clock);
+  }
+
+  ExpiringCache(int maximumSize, LongSupplier clock) {
+    if (maximumSize <= 0) {
+      throw new IllegalArgumentException(String.format("缓存的最大条目数量【%d】须大于 0", maximumSize), RestCodeEnum.ERROR_SERVER);
+    }
+
+    this.maximumSize = maximumSize;
+    this.clock = clock;
+    this.timingWheel = new TimingWheel<>(clock.getAsLong());
+  }
+
+  /**
+   * 获取未过期的缓存值
+   *
+   * @param key 键
+   * @return 缓存值；若不存在或已过期，则返回 {@code null}
+   */
+  public V getIfPresent(K key) {
+    long now = clock.getAsLong();
+    TimingWheel.Node<K, V> node = map.get(key);
+    trySweep(now);
+    return node == null || node.expiresAt <= now ? null : node.value;
+  }
+
+  /**
+   * 保存缓存值，替换原有的值
+   *
+   * @param key       键
+   * @param value     值
+   * @param expiresAt 过期时间（毫秒时间戳），若不晚于当前时间，则相当于 {@link #invalidate(Object)}
+   */
+  public void put(K key, V value, long expiresAt) {
+    long now = clock.getAsLong();
+    lock.lock();
+    try {
+      timingWheel.advance(now, this::evict);
+
+      TimingWheel.Node<K, V> node = expiresAt > now ? new TimingWheel.Node<>(key, value, expiresAt) : null;
+      TimingWheel.Node<K, V> old = node == null ? map.remove(key) : map.put(key, node);
+      if (old != null) {
+        timingWheel.unlink(old);
+      }
+      if (node != null) {
+        timingWheel.schedule(node);
+      }
+
+      if (old == null && node != null) {
+        evictOverflow();
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * 保存缓存值，替换原有的值
+   *
+   * @param key      键
+   * @param value    值
+   * @param duration 有效时长
+   * @param unit     有效时长的单位
+   */
+  public void put(K key, V value, long duration, TimeUnit unit) {
+    put(key, value, clock.getAsLong() + unit.toMillis(duration));
+  }
+
+  /**
+   * 删除缓存值
+   *
+   * @param key 键
+   */
+  public void invalidate(K key) {
+    lock.lock();
+    try {
+      TimingWheel.Node<K, V> old = map.remove(key);
+      if (old != null) {
+        timingWheel.unlink(old);
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * 获取缓存中的条目数量，包括已过期但尚未清理的条目
+   *
+   * @return 条目数量
+   */
+  public int size() {
+    return map.size();
+  }
+
+  /**
+   * 立即移除所有已过期的条目
+   */
+  public void cleanUp() {
+    lock.lock();
+    try {
+      timingWheel.advance(clock.getAsLong(), this::evict);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * 若时间已进入时间轮的下一个刻度，且没有其他线程正在修改缓存，则推进时间轮
+   */
+  private void trySweep(long now) {
+    if (!timingWheel.isTickElapsed(now) || !lock.tryLock()) {
+      return;
+    }
+    try {
+      timingWheel.advance(now, this::evict);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * 超出上限时淘汰最早过期的条目；须在持有锁时调用
+   */
+  private void evictOverflow() {
+    while (map.size() > maximumSize) {
+      TimingWheel.Node<K, V> victim = timingWheel.peekEarliest();
+      if (victim == null) {
+        return;
+      }
+      timingWheel.unlink(victim);
+      evict(victim);
+    }
+  }
+
+  private void evict(TimingWheel.Node<K, V> node) {
+    map.remove(node.key, node);
+  }
+}
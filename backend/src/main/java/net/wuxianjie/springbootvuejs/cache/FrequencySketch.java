@@ -0,0 +1,117 @@
+package net.wuxianjie.springbootvuejs.cache;
+
+/**
+ * 估算键被访问频率的 Count-Min Sketch，供 {@link TinyLfuCache} 决定是否接纳新条目
+ *
+ * <p>每个计数器占 4 位（最大 15），16 个计数器打包在一个 {@code long} 中，每个键对应同一个 {@code long} 中的 4 个计数器中的一个，
+ * 由 4 个不同的哈希函数选定，频率取其最小值。计数累计到样本数量后所有计数器减半，使频率随时间衰减，
+ * 以便适应访问模式的变化</p>
+ *
+ * <p>非线程安全，由 {@link TinyLfuCache} 在锁内调用</p>
+ *
+ * @author 吴仙杰
+ */
+class FrequencySketch {
+
+  private static final long[] SEEDS = {
+    0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L
+  };
+
+  private static final long RESET_MASK = 0x7777777777777777L;
+
+  private static final long ONE_MASK = 0x1111111111111111L;
+
+  private final long[] table;
+
+  private final int tableMask;
+
+  /**
+   * 减半前的样本数量
+   */
+  private final int sampleSize;
+
+  private int size;
+
+  /**
+   * @param maximumSize 缓存的最大条目数量
+   */
+  FrequencySketch(long maximumSize) {
+    int capacity = (int) Math.min(Math.max(maximumSize, 16L), 1 << 30);
+    table = new long[Integer.highestOneBit(capacity - 1) << 1];
+    tableMask = table.length - 1;
+    sampleSize = (int) Math.min(10L * capacity, Integer.MAX_VALUE);
+  }
+
+  /**
+   * 获取键的估算频率
+   *
+   * @param key 键
+   * @return 0 ~ 15
+   */
+  int frequency(Object key) {
+    int hash = spread(key.hashCode());
+    int start = (hash & 3) << 2;
+    int frequency = Integer.MAX_VALUE;
+    for (int i = 0; i < 4; i++) {
+      int index = indexOf(hash, i);
+      int count = (int) ((table[index] >>> ((start + i) << 2)) & 0xfL);
+      frequency = Math.min(frequency, count);
+    }
+    return frequency;
+  }
+
+  /**
+   * 增加键的频率
+   *
+   * @param key 键
+   */
+  void increment(Object key) {
+    int hash = spread(key.hashCode());
+    int start = (hash & 3) << 2;
+    boolean added = false;
+    for (int i = 0; i < 4; i++) {
+      added |= incrementAt(indexOf(hash, i), start + i);
+    }
+
+    if (added && ++size == sampleSize) {
+      reset();
+    }
+  }
+
+  private boolean incrementAt(int index, int counter) {
+    int offset = counter << 2;
+    long mask = 0xfL << offset;
+    if ((table[index] & mask) != mask) {
+      table[index] += 1L << offset;
+      return true;
+    }
+    return false;
+  }
+
+  /**
+   * 所有计数器减半
+   */
+  private void reset() {
+    int odd = 0;
+    for (int i = 0; i < table.length; i++) {
+      odd += Long.bitCount(table[i] & ONE_MASK);
+      table[i] = (table[i] >>> 1) & RESET_MASK;
+    }
+    size = (size - (odd >>> 2)) >>> 1;
+  }
+
+  private int indexOf(int hash, int i) {
+    long h = (hash + SEEDS[i]) * SEEDS[i];
+    h += h >>> 32;
+    return ((int) h) & tableMask;
+  }
+
+  /**
+   * 再散列，避免 {@code hashCode} 质量不高时计数器过于集中
+   */
+  private static int spread(int x) {
+    x = ((x >>> 16) ^ x) * 0x45d9f3b;
+    x = ((x >>> 16) ^ x) * 0x45d9f3b;
+    return (x >>> 16) ^ x;
+  }
+}
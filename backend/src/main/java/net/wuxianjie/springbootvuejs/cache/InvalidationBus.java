@@ -0,0 +1,312 @@
+package net.wuxianjie.springbootvuejs.cache;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UTFDataFormatException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import lombok.extern.slf4j.Slf4j;
+import net.wuxianjie.springbootvuejs.constants.RestCodeEnum;
+import net.wuxianjie.springbootvuejs.exception.IllegalArgumentException;
+
+/**
+ * 在多个节点间广播缓存失效的总线
+ *
+ * <p>本节点修改数据后调用 {@link #publish(String, String)}，其他节点中订阅了同一主题的监听器会收到该键，
+ * 由监听器丢弃本节点缓存的旧数据。本节点自己的缓存须由调用方直接失效，总线不会把消息回送给发送节点</p>
+ *
+ * <ul>
+ *   <li>批量：发布的键先放入待发送集合，由后台线程每隔 {@code batchIntervalMillis} 打包发送，
+ *   一条消息中可包含多个主题的多个键，超过传输方式的消息长度上限时拆分为多条</li>
+ *   <li>合并：同一批次中重复发布的 (主题, 键) 只发送一次</li>
+ *   <li>再次投递：收到的每个键在 {@code redeliverDelayMillis} 后会再交给监听器一次（即“延迟双删”），
+ *   以覆盖发送节点尚未写入数据库时，接收节点就已从数据库重新加载到旧数据的情况；为 {@code 0} 时不再次投递</li>
+ * </ul>
+ *
+ * <p>消息格式：魔数、版本、发送节点 ID、条目数，随后为每个条目的主题及键（均为 modified UTF-8）。
+ * 传输不保证送达，故失效只是缩短了旧数据的存活时间，各缓存仍须保留自身的过期时间</p>
+ *
+ * @author 吴仙杰
+ */
+@Slf4j
+public class InvalidationBus implements Closeable {
+
+  private static final int MAGIC = 0x53424942;
+
+  private static final byte VERSION = 1;
+
+  /**
+   * 魔数、版本、节点 ID 及条目数所占的字节数
+   */
+  private static final int HEADER_SIZE = 4 + 1 + 8 + 2;
+
+  /**
+   * 单条消息的最大条目数，受条目数字段的长度限制
+   */
+  private static final int MAX_ENTRIES = 0xFFFF;
+
+  /**
+   * 本节点的 ID，每次启动随机生成
+   */
+  private final long nodeId = ThreadLocalRandom.current().nextLong();
+
+  private final InvalidationTransport transport;
+
+  private final long redeliverDelayMillis;
+
+  /**
+   * 主题 -> 监听器
+   */
+  private final ConcurrentMap<String, List<Consumer<String>>> listeners = new ConcurrentHashMap<>();
+
+  /**
+   * 待发送的 (主题, 键)，保持发布顺序
+   */
+  private final Set<List<String>> pending = new LinkedHashSet<>();
+
+  private final ScheduledExecutorService executor;
+
+  private final LongAdder sentMessages = new LongAdder();
+
+  private final LongAdder sentKeys = new LongAdder();
+
+  private final LongAdder coalescedKeys = new LongAdder();
+
+  private final LongAdder receivedKeys = new LongAdder();
+
+  /**
+   * 创建总线并开始接收其他节点的消息
+   *
+   * @param transport            传输方式，关闭总线时一并关闭
+   * @param batchIntervalMillis  批量发送的间隔（单位：毫秒）
+   * @param redeliverDelayMillis 再次投递的延迟（单位：毫秒），为 {@code 0} 时不再次投递
+   * @throws IOException 当传输方式无法开始接收时
+   */
+  public InvalidationBus(InvalidationTransport transport, long batchIntervalMillis, long redeliverDelayMillis) throws IOException {
+    if (batchIntervalMillis <= 0 || redeliverDelayMillis < 0) {
+      throw new IllegalArgumentException("批量发送的间隔须大于 0，再次投递的延迟不能小于 0", RestCodeEnum.ERROR_SERVER);
+    }
+
+    this.transport = transport;
+    this.redeliverDelayMillis = redeliverDelayMillis;
+    this.executor = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+      .setNameFormat("cache-invalidation-bus")
+      .setDaemon(true)
+      .build());
+    executor.scheduleWithFixedDelay(this::flush, batchIntervalMillis, batchIntervalMillis, TimeUnit.MILLISECONDS);
+    transport.start(this::receive);
+  }
+
+  /**
+   * 订阅主题，收到其他节点发布的键时调用监听器
+   *
+   * <p>监听器在接收线程或总线线程中调用，须为线程安全且不阻塞；同一个键可能被多次调用（再次投递或消息重复）</p>
+   *
+   * @param topic    主题，如缓存名
+   * @param listener 监听器，参数为失效的键
+   */
+  public void subscribe(String topic, Consumer<String> listener) {
+    listeners.computeIfAbsent(topic, t -> new CopyOnWriteArrayList<>()).add(listener);
+  }
+
+  /**
+   * 通知其他节点该键已失效，在下一批次中发送
+   *
+   * @param topic 主题
+   * @param key   失效的键
+   */
+  public void publish(String topic, String key) {
+    boolean added;
+    synchronized (pending) {
+      added = pending.add(Arrays.asList(topic, key));
+    }
+    if (!added) {
+      coalescedKeys.increment();
+    }
+  }
+
+  /**
+   * 获取本节点发送的消息数
+   */
+  public long getSentMessages() {
+    return sentMessages.sum();
+  }
+
+  /**
+   * 获取本节点发送的键的数量，不包括被合并的重复键
+   */
+  public long getSentKeys() {
+    return sentKeys.sum();
+  }
+
+  /**
+   * 获取同一批次中因重复而被合并的键的数量
+   */
+  public long getCoalescedKeys() {
+    return coalescedKeys.sum();
+  }
+
+  /**
+   * 获取从其他节点收到的键的数量，不包括再次投递
+   */
+  public long getReceivedKeys() {
+    return receivedKeys.sum();
+  }
+
+  /**
+   * 发送剩余的待发送项，然后停止收发
+   */
+  @Override
+  public void close() throws IOException {
+    executor.shutdown();
+    try {
+      executor.awaitTermination(5, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    flush();
+    transport.close();
+  }
+
+  /**
+   * 将待发送项打包发送，发送失败的批次会被丢弃
+   */
+  void flush() {
+    List<List<String>> batch;
+    synchronized (pending) {
+      if (pending.isEmpty()) {
+        return;
+      }
+      batch = new ArrayList<>(pending);
+      pending.clear();
+    }
+
+    try {
+      for (byte[] message : encode(batch)) {
+        transport.send(message);
+        sentMessages.increment();
+      }
+      sentKeys.add(batch.size());
+    } catch (IOException | RuntimeException e) {
+      log.error("发送缓存失效消息失败，丢弃 {} 个键", batch.size(), e);
+    }
+  }
+
+  private List<byte[]> encode(List<List<String>> batch) throws IOException {
+    int maxSize = transport.maxMessageSize();
+    List<byte[]> messages = new ArrayList<>();
+    ByteArrayOutputStream entries = new ByteArrayOutputStream();
+    int count = 0;
+
+    for (List<String> entry : batch) {
+      byte[] encoded = encodeEntry(entry.get(0), entry.get(1));
+      if (encoded == null || HEADER_SIZE + encoded.length > maxSize) {
+        log.warn("缓存失效消息中主题【{}】的键过长，已忽略：{}", entry.get(0), entry.get(1));
+        continue;
+      }
+      if (HEADER_SIZE + entries.size() + encoded.length > maxSize || count == MAX_ENTRIES) {
+        messages.add(encodeMessage(count, entries));
+        entries.reset();
+        count = 0;
+      }
+      entries.write(encoded);
+      count++;
+    }
+
+    if (count > 0) {
+      messages.add(encodeMessage(count, entries));
+    }
+    return messages;
+  }
+
+  private byte[] encodeMessage(int count, ByteArrayOutputStream entries) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream(HEADER_SIZE + entries.size());
+    DataOutputStream out = new DataOutputStream(bytes);
+    out.writeInt(MAGIC);
+    out.writeByte(VERSION);
+    out.writeLong(nodeId);
+    out.writeShort(count);
+    entries.writeTo(out);
+    out.flush();
+    return bytes.toByteArray();
+  }
+
+  /**
+   * @return 编码后的条目；若主题或键超出 {@link DataOutputStream#writeUTF(String)} 的长度上限，则返回 {@code null}
+   */
+  private static byte[] encodeEntry(String topic, String key) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    DataOutputStream out = new DataOutputStream(bytes);
+    try {
+      out.writeUTF(topic);
+      out.writeUTF(key);
+    } catch (UTFDataFormatException e) {
+      return null;
+    }
+    out.flush();
+    return bytes.toByteArray();
+  }
+
+  private void receive(byte[] message) {
+    List<List<String>> entries;
+    try {
+      DataInputStream in = new DataInputStream(new ByteArrayInputStream(message));
+      if (in.readInt() != MAGIC || in.readByte() != VERSION) {
+        log.warn("忽略无法识别的缓存失效消息");
+        return;
+      }
+      if (in.readLong() == nodeId) {
+        return;
+      }
+
+      int count = in.readUnsignedShort();
+      entries = new ArrayList<>(count);
+      for (int i = 0; i < count; i++) {
+        entries.add(Arrays.asList(in.readUTF(), in.readUTF()));
+      }
+    } catch (IOException e) {
+      log.warn("忽略格式错误的缓存失效消息：{}", e.getMessage());
+      return;
+    }
+
+    receivedKeys.add(entries.size());
+    dispatch(entries);
+    if (redeliverDelayMillis > 0 && !executor.isShutdown()) {
+      executor.schedule(() -> dispatch(entries), redeliverDelayMillis, TimeUnit.MILLISECONDS);
+    }
+  }
+
+  private void dispatch(List<List<String>> entries) {
+    for (List<String> entry : entries) {
+      List<Consumer<String>> topicListeners = listeners.get(entry.get(0));
+      if (topicListeners == null) {
+        continue;
+      }
+
+      for (Consumer<String> listener : topicListeners) {
+        try {
+          listener.accept(entry.get(1));
+        } catch (RuntimeException e) {
+          log.error("处理主题【{}】中键【{}】的失效失败", entry.get(0), entry.get(1), e);
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,42 @@
+package net.wuxianjie.springbootvuejs.cache;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.function.Consumer;
+
+/**
+ * {@link InvalidationBus} 在节点间收发消息的方式，由配置项 {@code cache.invalidation.transport} 选择：
+ *
+ * <ul>
+ *   <li>{@code none}（默认）：不启用，只在本节点失效</li>
+ *   <li>{@code multicast}：{@link MulticastTransport}，UDP 组播，同一网段内的节点无需互相配置地址</li>
+ *   <li>{@code loopback}：{@link LoopbackTransport}，在同一个 JVM 内模拟多个节点，用于测试</li>
+ * </ul>
+ *
+ * <p>消息可能丢失、重复或乱序，{@link InvalidationBus} 只依赖“尽力送达”</p>
+ *
+ * @author 吴仙杰
+ */
+public interface InvalidationTransport extends Closeable {
+
+  /**
+   * 开始接收其他节点的消息，只会调用一次
+   *
+   * @param receiver 在接收线程中处理收到的消息，可能也会收到本节点自己发出的消息
+   * @throws IOException 当无法开始接收时
+   */
+  void start(Consumer<byte[]> receiver) throws IOException;
+
+  /**
+   * 向所有节点发送消息
+   *
+   * @param message 消息，长度不超过 {@link #maxMessageSize()}
+   * @throws IOException 当发送失败时
+   */
+  void send(byte[] message) throws IOException;
+
+  /**
+   * 获取单条消息的最大长度（单位：字节）
+   */
+  int maxMessageSize();
+}
@@ -0,0 +1,64 @@
+package net.wuxianjie.springbootvuejs.cache;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.function.Consumer;
+
+/**
+ * 在同一个 JVM 内模拟多个节点的传输方式，同一分组中每个实例发送的消息都会同步交给该分组中的所有实例（包括自己）
+ *
+ * <p>用于在一台机器上测试多节点间的缓存失效，不经过网络</p>
+ *
+ * @author 吴仙杰
+ */
+public class LoopbackTransport implements InvalidationTransport {
+
+  /**
+   * 分组名 -> 已开始接收的实例的接收回调
+   */
+  private static final ConcurrentMap<String, Set<Consumer<byte[]>>> GROUPS = new ConcurrentHashMap<>();
+
+  private static final int MAX_MESSAGE_SIZE = 64 * 1024;
+
+  private final String group;
+
+  private volatile Consumer<byte[]> receiver;
+
+  /**
+   * @param group 分组名，相当于组播地址
+   */
+  public LoopbackTransport(String group) {
+    this.group = group;
+  }
+
+  @Override
+  public void start(Consumer<byte[]> receiver) {
+    this.receiver = receiver;
+    GROUPS.computeIfAbsent(group, g -> new CopyOnWriteArraySet<>()).add(receiver);
+  }
+
+  @Override
+  public void send(byte[] message) {
+    Set<Consumer<byte[]>> members = GROUPS.get(group);
+    if (members != null) {
+      for (Consumer<byte[]> member : members) {
+        member.accept(message.clone());
+      }
+    }
+  }
+
+  @Override
+  public int maxMessageSize() {
+    return MAX_MESSAGE_SIZE;
+  }
+
+  @Override
+  public void close() {
+    Set<Consumer<byte[]>> members = GROUPS.get(group);
+    if (members != null && receiver != null) {
+      members.remove(receiver);
+    }
+  }
+}
@@ -0,0 +1,105 @@
+package net.wuxianjie.springbootvuejs.cache;
+
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.MulticastSocket;
+import java.net.NetworkInterface;
+import java.net.SocketException;
+import java.util.Arrays;
+import java.util.function.Consumer;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 基于 UDP 组播的传输方式，同一网段内加入同一组播地址及端口的节点互相收发消息
+ *
+ * <p>单条消息不超过 {@link #MAX_MESSAGE_SIZE} 字节，以免 IP 分片；默认 TTL 为 1，即不跨路由器。
+ * 组播不保证送达，网络须允许组播（部分云主机及容器网络默认不支持）</p>
+ *
+ * @author 吴仙杰
+ */
+@Slf4j
+public class MulticastTransport implements InvalidationTransport {
+
+  /**
+   * 以太网 MTU 1500 减去 IPv4 及 UDP 头部后的安全值
+   */
+  private static final int MAX_MESSAGE_SIZE = 1400;
+
+  private final InetAddress group;
+
+  private final int port;
+
+  private final MulticastSocket socket;
+
+  private Thread receiverThread;
+
+  private volatile boolean closed;
+
+  /**
+   * @param group            组播地址，如 {@code 239.255.27.1}
+   * @param port             端口
+   * @param networkInterface 收发所用网卡的名称，为空时由操作系统选择
+   * @param ttl              组播 TTL，{@code 1} 表示只在本网段内传播
+   * @throws IOException 当无法创建套接字或加入组播组时
+   */
+  public MulticastTransport(String group, int port, String networkInterface, int ttl) throws IOException {
+    this.group = InetAddress.getByName(group);
+    this.port = port;
+    this.socket = new MulticastSocket(port);
+    socket.setTimeToLive(ttl);
+    if (networkInterface != null && !networkInterface.isEmpty()) {
+      NetworkInterface ni = NetworkInterface.getByName(networkInterface);
+      if (ni == null) {
+        socket.close();
+        throw new SocketException(String.format("网卡【%s】不存在", networkInterface));
+      }
+      socket.setNetworkInterface(ni);
+      socket.joinGroup(new InetSocketAddress(this.group, port), ni);
+    } else {
+      socket.joinGroup(this.group);
+    }
+  }
+
+  @Override
+  public void start(Consumer<byte[]> receiver) {
+    receiverThread = new Thread(() -> receive(receiver), "cache-invalidation-receiver");
+    receiverThread.setDaemon(true);
+    receiverThread.start();
+  }
+
+  @Override
+  public void send(byte[] message) throws IOException {
+    socket.send(new DatagramPacket(message, message.length, group, port));
+  }
+
+  @Override
+  public int maxMessageSize() {
+    return MAX_MESSAGE_SIZE;
+  }
+
+  @Override
+  public void close() {
+    closed = true;
+    // 关闭套接字会使阻塞在 receive 中的接收线程抛出异常后退出
+    socket.close();
+  }
+
+  private void receive(Consumer<byte[]> receiver) {
+    byte[] buffer = new byte[MAX_MESSAGE_SIZE];
+    while (!closed) {
+      DatagramPacket packet = new DatagramPacket(buffer, buffer.length);
+      try {
+        socket.receive(packet);
+        receiver.accept(Arrays.copyOfRange(packet.getData(), packet.getOffset(), packet.getOffset() + packet.getLength()));
+      } catch (IOException e) {
+        if (!closed) {
+          log.warn("接收缓存失效消息失败：{}", e.getMessage());
+        }
+      } catch (RuntimeException e) {
+        log.error("处理缓存失效消息失败", e);
+      }
+    }
+  }
+}
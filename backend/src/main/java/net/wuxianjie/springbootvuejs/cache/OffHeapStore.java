@@ -0,0 +1,346 @@
+package net.wuxianjie.springbootvuejs.cache;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import net.wuxianjie.springbootvuejs.constants.RestCodeEnum;
+import net.wuxianjie.springbootvuejs.exception.IllegalArgumentException;
+
+/**
+ * 保存在堆外内存中的字节数组存储，供 {@link TieredCache} 存放被移出堆内缓存的值
+ *
+ * <p>内存按固定大小的 slab（{@link ByteBuffer#allocateDirect(int)}）申请，总量不超过容量。
+ * 每个 slab 属于一个大小级别（64 字节起，逐级翻倍，最大为 slab 大小），被切分为该级别大小的块，
+ * 值保存在能容纳它的最小级别的块中，故不会产生外部碎片，内部碎片不超过一半</p>
+ *
+ * <p>淘汰：每个级别各自按 LRU 排列。某级别没有空闲块且无法再申请 slab 时，若其他级别有空闲的 slab，
+ * 或其他级别中最久未访问的值比该级别的更旧，则回收那个值所在的 slab（淘汰其中所有的值）改为该级别使用，
+ * 否则淘汰该级别中最久未访问的值。这样值的长度分布变化后，内存不会被早期写入的级别长期占用</p>
+ *
+ * <p>所有方法均加锁，只在堆内缓存未命中或淘汰时调用</p>
+ *
+ * @author 吴仙杰
+ */
+class OffHeapStore<K> {
+
+  /**
+   * 最小的块大小（单位：字节）
+   */
+  static final int MIN_CHUNK_SIZE = 64;
+
+  private final int slabSize;
+
+  private final int maxSlabs;
+
+  private final List<Slab> slabs = new ArrayList<>();
+
+  private final List<SizeClass> sizeClasses = new ArrayList<>();
+
+  private final Map<K, Slot> index = new HashMap<>();
+
+  /**
+   * 已保存的值的总字节数
+   */
+  private long usedBytes;
+
+  /**
+   * 逻辑时钟，每次写入或读取加一，用于比较不同级别中的值的访问先后
+   */
+  private long clock;
+
+  /**
+   * 创建存储，只在需要时才申请 slab
+   *
+   * @param capacity 堆外内存的总容量（单位：字节），向下取整为 slab 大小的倍数
+   * @param slabSize 每个 slab 的大小（单位：字节），须为 2 的幂且不小于 {@link #MIN_CHUNK_SIZE}，也是单个值的最大长度
+   */
+  OffHeapStore(long capacity, int slabSize) {
+    if (slabSize < MIN_CHUNK_SIZE || Integer.bitCount(slabSize) != 1 || capacity < slabSize) {
+      throw new IllegalArgumentException(String.format("堆外缓存的 slab 大小【%d】须为不小于 %d 的 2 的幂，且不大于总容量【%d】",
+        slabSize, MIN_CHUNK_SIZE, capacity), RestCodeEnum.ERROR_SERVER);
+    }
+
+    this.slabSize = slabSize;
+    this.maxSlabs = (int) Math.min(capacity / slabSize, Integer.MAX_VALUE);
+    int count = Integer.numberOfTrailingZeros(slabSize) - Integer.numberOfTrailingZeros(MIN_CHUNK_SIZE) + 1;
+    for (int i = 0; i < count; i++) {
+      sizeClasses.add(new SizeClass(MIN_CHUNK_SIZE << i));
+    }
+  }
+
+  /**
+   * 保存值，替换原有的值
+   *
+   * @param key       键
+   * @param value     值
+   * @param expiresAt 过期时间（毫秒时间戳），{@link Long#MAX_VALUE} 表示不过期
+   * @return 若值过大或无法腾出空间，则不保存并返回 {@code false}
+   */
+  synchronized boolean put(K key, byte[] value, long expiresAt) {
+    remove(key);
+    if (value.length > slabSize) {
+      return false;
+    }
+
+    SizeClass sizeClass = sizeClasses.get(sizeClassOf(value.length));
+    Long chunk = allocate(sizeClass);
+    if (chunk == null) {
+      return false;
+    }
+
+    Slot slot = new Slot(sizeClass, chunk, value.length, expiresAt);
+    ByteBuffer buffer = slabs.get(slot.slab()).buffer.duplicate();
+    buffer.position(slot.offset());
+    buffer.put(value);
+
+    index.put(key, slot);
+    sizeClass.lru.put(key, slot);
+    usedBytes += value.length;
+    return true;
+  }
+
+  /**
+   * 读取未过期的值
+   *
+   * @param key 键
+   * @param now 当前时间（毫秒时间戳）
+   * @return 值；若不存在或已过期，则返回 {@code null}
+   */
+  synchronized byte[] get(Object key, long now) {
+    Slot slot = index.get(key);
+    if (slot == null) {
+      return null;
+    }
+    if (slot.expiresAt <= now) {
+      remove(key);
+      return null;
+    }
+
+    // 按访问顺序排列，调用 get 即可移到末尾
+    slot.sizeClass.lru.get(key);
+    slot.accessed = ++clock;
+    byte[] value = new byte[slot.length];
+    ByteBuffer buffer = slabs.get(slot.slab()).buffer.duplicate();
+    buffer.position(slot.offset());
+    buffer.get(value);
+    return value;
+  }
+
+  /**
+   * 删除值
+   *
+   * @param key 键
+   * @return 若存在，则返回 {@code true}
+   */
+  synchronized boolean remove(Object key) {
+    Slot slot = index.remove(key);
+    if (slot == null) {
+      return false;
+    }
+    slot.sizeClass.lru.remove(key);
+    slot.sizeClass.free.push(slot.chunk);
+    usedBytes -= slot.length;
+    return true;
+  }
+
+  /**
+   * 删除所有值，已申请的 slab 不会释放
+   */
+  synchronized void clear() {
+    for (K key : new ArrayList<>(index.keySet())) {
+      remove(key);
+    }
+  }
+
+  synchronized int size() {
+    return index.size();
+  }
+
+  /**
+   * 获取已保存的值的总字节数
+   */
+  synchronized long getUsedBytes() {
+    return usedBytes;
+  }
+
+  /**
+   * 获取已申请的堆外内存（单位：字节）
+   */
+  synchronized long getAllocatedBytes() {
+    return (long) slabs.size() * slabSize;
+  }
+
+  /**
+   * 获取一个空闲块，必要时申请 slab 或淘汰值
+   *
+   * @return 块地址；若无法腾出空间，则返回 {@code null}
+   */
+  private Long allocate(SizeClass sizeClass) {
+    if (sizeClass.free.isEmpty()) {
+      if (slabs.size() < maxSlabs) {
+        assignSlab(sizeClass, slabs.size());
+        slabs.add(new Slab(ByteBuffer.allocateDirect(slabSize), sizeClass));
+      } else {
+        SizeClass donor = findDonor(sizeClass);
+        if (donor != null && (sizeClass.lru.isEmpty() || donor.lru.isEmpty()
+          || donor.oldest().accessed < sizeClass.oldest().accessed)) {
+          reassignSlab(donor, sizeClass);
+        } else if (!sizeClass.lru.isEmpty()) {
+          remove(sizeClass.lru.keySet().iterator().next());
+        } else {
+          return null;
+        }
+      }
+    }
+    return sizeClass.free.pop();
+  }
+
+  /**
+   * 查找可回收 slab 的级别：优先选择有 slab 但没有值的级别，其次选择最久未访问的值所在的级别
+   */
+  private SizeClass findDonor(SizeClass target) {
+    SizeClass donor = null;
+    for (SizeClass sizeClass : sizeClasses) {
+      if (sizeClass == target || sizeClass.slabCount == 0) {
+        continue;
+      }
+      if (sizeClass.lru.isEmpty()) {
+        return sizeClass;
+      }
+      if (donor == null || sizeClass.oldest().accessed < donor.oldest().accessed) {
+        donor = sizeClass;
+      }
+    }
+    return donor;
+  }
+
+  /**
+   * 回收一个 slab（淘汰其中所有的值），改为目标级别使用
+   */
+  private void reassignSlab(SizeClass donor, SizeClass target) {
+    // 回收最久未访问的值所在的 slab；若该级别没有值，则回收其任意一个 slab
+    int slabIndex = -1;
+    if (!donor.lru.isEmpty()) {
+      slabIndex = donor.oldest().slab();
+    } else {
+      for (int i = 0; i < slabs.size(); i++) {
+        if (slabs.get(i).sizeClass == donor) {
+          slabIndex = i;
+          break;
+        }
+      }
+    }
+
+    Iterator<Map.Entry<K, Slot>> iterator = donor.lru.entrySet().iterator();
+    while (iterator.hasNext()) {
+      Map.Entry<K, Slot> entry = iterator.next();
+      if (entry.getValue().slab() == slabIndex) {
+        iterator.remove();
+        index.remove(entry.getKey());
+        usedBytes -= entry.getValue().length;
+      }
+    }
+    int victim = slabIndex;
+    donor.free.removeIf(chunk -> slabOf(chunk) == victim);
+    donor.slabCount--;
+
+    slabs.get(slabIndex).sizeClass = target;
+    assignSlab(target, slabIndex);
+  }
+
+  private void assignSlab(SizeClass sizeClass, int slabIndex) {
+    for (int offset = slabSize - sizeClass.chunkSize; offset >= 0; offset -= sizeClass.chunkSize) {
+      sizeClass.free.push(((long) slabIndex << 32) | offset);
+    }
+    sizeClass.slabCount++;
+  }
+
+  private int sizeClassOf(int length) {
+    int chunkSize = Math.max(MIN_CHUNK_SIZE, length <= 1 ? 1 : Integer.highestOneBit(length - 1) << 1);
+    return Integer.numberOfTrailingZeros(chunkSize) - Integer.numberOfTrailingZeros(MIN_CHUNK_SIZE);
+  }
+
+  private static int slabOf(long chunk) {
+    return (int) (chunk >>> 32);
+  }
+
+  /**
+   * 大小级别
+   */
+  private final class SizeClass {
+
+    private final int chunkSize;
+
+    /**
+     * 空闲块地址：高 32 位为 slab 序号，低 32 位为块在 slab 中的偏移量
+     */
+    private final ArrayDeque<Long> free = new ArrayDeque<>();
+
+    /**
+     * 该级别中的值，按访问顺序排列
+     */
+    private final LinkedHashMap<K, Slot> lru = new LinkedHashMap<>(16, 0.75f, true);
+
+    private int slabCount;
+
+    SizeClass(int chunkSize) {
+      this.chunkSize = chunkSize;
+    }
+
+    Slot oldest() {
+      return lru.values().iterator().next();
+    }
+  }
+
+  private final class Slab {
+
+    private final ByteBuffer buffer;
+
+    private SizeClass sizeClass;
+
+    Slab(ByteBuffer buffer, SizeClass sizeClass) {
+      this.buffer = buffer;
+      this.sizeClass = sizeClass;
+    }
+  }
+
+  /**
+   * 值所在的块
+   */
+  private final class Slot {
+
+    private final SizeClass sizeClass;
+
+    private final long chunk;
+
+    private final int length;
+
+    private final long expiresAt;
+
+    /**
+     * 最后一次写入或读取时的 {@link OffHeapStore#clock} 值
+     */
+    private long accessed;
+
+    Slot(SizeClass sizeClass, long chunk, int length, long expiresAt) {
+      this.sizeClass = sizeClass;
+      this.chunk = chunk;
+      this.length = length;
+      this.expiresAt = expiresAt;
+      this.accessed = ++clock;
+    }
+
+    int slab() {
+      return slabOf(chunk);
+    }
+
+    int offset() {
+      return (int) chunk;
+    }
+  }
+}
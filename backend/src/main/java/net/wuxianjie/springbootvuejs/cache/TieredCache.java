@@ -0,0 +1,259 @@
+package net.wuxianjie.springbootvuejs.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.google.common.cache.AbstractCache;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheStats;
+import com.google.common.cache.RemovalCause;
+import com.google.common.cache.RemovalListener;
+import com.google.common.cache.RemovalNotification;
+import com.google.common.util.concurrent.Striped;
+import java.io.IOException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Lock;
+import java.util.function.Function;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 堆内缓存加堆外存储的二级缓存，用于条目多但大部分不常访问的场景，以减少堆内存占用及 GC 压力
+ *
+ * <ul>
+ *   <li>降级：堆内缓存因容量淘汰（{@link RemovalCause#SIZE}）的值序列化为 JSON 后写入 {@link OffHeapStore}，
+ *   过期、替换或主动删除的值不会写入</li>
+ *   <li>升级：堆内未命中但堆外命中时，反序列化后移回堆内缓存，并从堆外删除</li>
+ * </ul>
+ *
+ * <p>堆外存储满时按其自身策略淘汰，值过大或序列化失败时直接丢弃。堆外条目的有效期从降级时开始重新计算，
+ * 取 TTL 与 TTI 中较短者，故条目实际存活时间可能超过配置的 TTL</p>
+ *
+ * <p>升级、写入及删除持有该键所在分段的锁，故升级不会覆盖并发写入的值，也不会使刚被删除的值重新出现在堆内。
+ * 降级在堆内缓存的移除监听器中执行，此时可能已持有其他分段的锁，故只尝试加锁，加锁失败或堆内已有新值时直接丢弃该值</p>
+ *
+ * @author 吴仙杰
+ */
+@Slf4j
+public class TieredCache<K, V> extends AbstractCache<K, V> {
+
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+
+  /**
+   * 分段锁的数量
+   */
+  private static final int LOCK_STRIPES = 64;
+
+  private final Cache<K, V> heap;
+
+  private final OffHeapStore<K> offHeap;
+
+  private final ObjectReader reader;
+
+  private final ObjectWriter writer;
+
+  /**
+   * 堆外条目的有效时长（单位：毫秒），{@code 0} 表示不过期
+   */
+  private final long offHeapTtlMillis;
+
+  /**
+   * 堆内未命中但堆外命中的次数
+   */
+  private final LongAdder offHeapHits = new LongAdder();
+
+  /**
+   * 两级均未命中而交由堆内缓存加载的次数，此时堆内缓存已重复记录了一次未命中
+   */
+  private final LongAdder repeatedMisses = new LongAdder();
+
+  /**
+   * 按键分段的锁，保证同一个键的升级、写入、删除及降级互斥
+   */
+  private final Striped<Lock> locks = Striped.lock(LOCK_STRIPES);
+
+  /**
+   * 创建二级缓存
+   *
+   * @param offHeap          堆外存储
+   * @param valueType        值的类型，用于反序列化
+   * @param offHeapTtlMillis 堆外条目的有效时长（单位：毫秒），{@code 0} 表示不过期
+   * @param heapFactory      按给定的移除监听器创建堆内缓存，缓存须限制容量，且须在移除条目时调用该监听器
+   */
+  TieredCache(OffHeapStore<K> offHeap, Class<V> valueType, long offHeapTtlMillis,
+              Function<RemovalListener<K, V>, Cache<K, V>> heapFactory) {
+    this.offHeap = offHeap;
+    this.reader = MAPPER.readerFor(valueType);
+    this.writer = MAPPER.writerFor(valueType);
+    this.offHeapTtlMillis = offHeapTtlMillis;
+    this.heap = heapFactory.apply(this::demote);
+  }
+
+  @Override
+  public V getIfPresent(Object key) {
+    V value = heap.getIfPresent(key);
+    if (value != null) {
+      return value;
+    }
+
+    @SuppressWarnings("unchecked")
+    K k = (K) key;
+    return promote(k);
+  }
+
+  @Override
+  public V get(K key, Callable<? extends V> loader) throws ExecutionException {
+    V value = getIfPresent(key);
+    if (value != null) {
+      return value;
+    }
+
+    // 不在持有锁时调用 `loader`，由堆内缓存负责同一个键只加载一次
+    repeatedMisses.increment();
+    return heap.get(key, loader);
+  }
+
+  @Override
+  public void put(K key, V value) {
+    Lock lock = locks.get(key);
+    lock.lock();
+    try {
+      heap.put(key, value);
+      offHeap.remove(key);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public void invalidate(Object key) {
+    Lock lock = locks.get(key);
+    lock.lock();
+    try {
+      heap.invalidate(key);
+      offHeap.remove(key);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public void invalidateAll() {
+    for (int i = 0; i < locks.size(); i++) {
+      locks.getAt(i).lock();
+    }
+    try {
+      heap.invalidateAll();
+      offHeap.clear();
+    } finally {
+      for (int i = locks.size() - 1; i >= 0; i--) {
+        locks.getAt(i).unlock();
+      }
+    }
+  }
+
+  /**
+   * 获取堆内与堆外的条目总数
+   */
+  @Override
+  public long size() {
+    return heap.size() + offHeap.size();
+  }
+
+  /**
+   * 获取统计信息，堆外命中计为命中
+   */
+  @Override
+  public CacheStats stats() {
+    CacheStats stats = heap.stats();
+    long hits = offHeapHits.sum();
+    return new CacheStats(stats.hitCount() + hits, Math.max(0, stats.missCount() - hits - repeatedMisses.sum()),
+      stats.loadSuccessCount(), stats.loadExceptionCount(), stats.totalLoadTime(), stats.evictionCount());
+  }
+
+  @Override
+  public void cleanUp() {
+    heap.cleanUp();
+  }
+
+  /**
+   * 获取堆外存储已保存的值的总字节数
+   */
+  public long getOffHeapUsedBytes() {
+    return offHeap.getUsedBytes();
+  }
+
+  /**
+   * 获取已申请的堆外内存（单位：字节）
+   */
+  public long getOffHeapAllocatedBytes() {
+    return offHeap.getAllocatedBytes();
+  }
+
+  private void demote(RemovalNotification<K, V> notification) {
+    K key = notification.getKey();
+    if (notification.getCause() != RemovalCause.SIZE || key == null || notification.getValue() == null) {
+      return;
+    }
+
+    byte[] bytes;
+    try {
+      bytes = writer.writeValueAsBytes(notification.getValue());
+    } catch (IOException e) {
+      log.warn("缓存值【{}】序列化失败，不写入堆外存储：{}", key, e.getMessage());
+      return;
+    }
+
+    // 可能已持有其他键的分段锁，等待会导致死锁
+    Lock lock = locks.get(key);
+    if (!lock.tryLock()) {
+      return;
+    }
+    try {
+      // 淘汰后已写入了新值，旧值不应再写入堆外
+      if (heap.asMap().containsKey(key)) {
+        return;
+      }
+
+      long expiresAt = offHeapTtlMillis == 0 ? Long.MAX_VALUE : System.currentTimeMillis() + offHeapTtlMillis;
+      offHeap.put(key, bytes, expiresAt);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * 从堆外读取并删除值，再移回堆内；堆内已有值时以堆内为准
+   */
+  private V promote(K key) {
+    Lock lock = locks.get(key);
+    lock.lock();
+    try {
+      V current = heap.asMap().get(key);
+      if (current != null) {
+        return current;
+      }
+
+      byte[] bytes = offHeap.get(key, System.currentTimeMillis());
+      if (bytes == null) {
+        return null;
+      }
+
+      offHeap.remove(key);
+      V value;
+      try {
+        value = reader.readValue(bytes);
+      } catch (IOException e) {
+        log.warn("缓存值【{}】反序列化失败，视为未命中：{}", key, e.getMessage());
+        return null;
+      }
+
+      offHeapHits.increment();
+      V previous = heap.asMap().putIfAbsent(key, value);
+      return previous != null ? previous : value;
+    } finally {
+      lock.unlock();
+    }
+  }
+}
@@ -0,0 +1,202 @@
+package net.wuxianjie.springbootvuejs.cache;
+
+import java.util.function.Consumer;
+
+/**
+ * 分层时间轮，按过期时间管理缓存条目
+ *
+ * <p>共 5 层，每层的桶跨度依次约为 1 秒、1 分钟、1 小时、1.5 天、50 天，过期时间越远的条目放在越高的层中。
+ * 条目以双向链表挂在桶上，故添加、删除均为 O(1)。时间推进时按桶整批处理：
+ * 已过期的条目被移除，尚未过期的条目下沉到更低的层中</p>
+ *
+ * <p>非线程安全，由 {@link ExpiringCache} 在锁内调用</p>
+ *
+ * @author 吴仙杰
+ */
+class TimingWheel<K, V> {
+
+  /**
+   * 每层桶的数量，须为 2 的幂
+   */
+  private static final int[] BUCKETS = { 64, 64, 32, 32, 64 };
+
+  /**
+   * 每层桶跨度（毫秒）的位移量，即 2^10、2^16、2^22、2^27、2^32 毫秒，
+   * 相邻两层中，下层所有桶的总跨度正好等于上层一个桶的跨度
+   */
+  private static final int[] SHIFTS = { 10, 16, 22, 27, 32 };
+
+  private final Node<K, V>[][] wheel;
+
+  /**
+   * 上次推进到的时间（毫秒时间戳），可在锁外读取
+   */
+  private volatile long currentTime;
+
+  @SuppressWarnings("unchecked")
+  TimingWheel(long now) {
+    currentTime = now;
+    wheel = new Node[BUCKETS.length][];
+    for (int i = 0; i < BUCKETS.length; i++) {
+      wheel[i] = new Node[BUCKETS[i]];
+      for (int j = 0; j < BUCKETS[i]; j++) {
+        wheel[i][j] = new Node<>();
+      }
+    }
+  }
+
+  /**
+   * 将条目按其过期时间放入对应的桶中
+   *
+   * @param node 尚未在时间轮中的条目
+   */
+  void schedule(Node<K, V> node) {
+    Node<K, V> sentinel = bucketFor(node.expiresAt);
+    node.prev = sentinel.prev;
+    node.next = sentinel;
+    sentinel.prev.next = node;
+    sentinel.prev = node;
+  }
+
+  /**
+   * 将条目从时间轮中移除
+   *
+   * @param node 条目，若不在时间轮中则忽略
+   */
+  void unlink(Node<K, V> node) {
+    if (node.next == null) {
+      return;
+    }
+    node.prev.next = node.next;
+    node.next.prev = node.prev;
+    node.prev = null;
+    node.next = null;
+  }
+
+  /**
+   * 推进时间，移除已过期的条目
+   *
+   * @param now       当前时间（毫秒时间戳）
+   * @param onExpired 处理已过期条目的回调
+   */
+  void advance(long now, Consumer<Node<K, V>> onExpired) {
+    long previousTime = currentTime;
+    if (now <= previousTime) {
+      return;
+    }
+    currentTime = now;
+
+    for (int i = 0; i < SHIFTS.length; i++) {
+      long previousTicks = previousTime >>> SHIFTS[i];
+      long currentTicks = now >>> SHIFTS[i];
+      if (currentTicks == previousTicks) {
+        // 更高层的桶跨度更大，同样不会经过新的桶
+        break;
+      }
+      expire(i, previousTicks, currentTicks, now, onExpired);
+    }
+  }
+
+  /**
+   * 判断时间是否已进入最低层的下一个桶，即推进时间轮是否可能移除条目
+   *
+   * @param now 当前时间（毫秒时间戳）
+   * @return 若需要推进，则返回 {@code true}
+   */
+  boolean isTickElapsed(long now) {
+    return (now >>> SHIFTS[0]) > (currentTime >>> SHIFTS[0]);
+  }
+
+  /**
+   * 获取最早过期的非空桶中最先放入的条目，用于缓存已满时淘汰
+   *
+   * <p>同一个桶中的条目不按过期时间排序，故只是近似最早过期；最多查看所有的桶一次</p>
+   *
+   * @return 条目；若时间轮为空，则返回 {@code null}
+   */
+  Node<K, V> peekEarliest() {
+    for (int i = 0; i < SHIFTS.length; i++) {
+      Node<K, V>[] buckets = wheel[i];
+      int mask = buckets.length - 1;
+      long ticks = currentTime >>> SHIFTS[i];
+      for (int j = 0; j < buckets.length; j++) {
+        Node<K, V> sentinel = buckets[(int) ((ticks + j) & mask)];
+        if (sentinel.next != sentinel) {
+          return sentinel.next;
+        }
+      }
+    }
+    return null;
+  }
+
+  /**
+   * 处理该层中从上次推进到本次推进所经过的桶，最多处理一圈
+   */
+  private void expire(int level, long previousTicks, long currentTicks, long now, Consumer<Node<K, V>> onExpired) {
+    Node<K, V>[] buckets = wheel[level];
+    int mask = buckets.length - 1;
+    long steps = Math.min(currentTicks - previousTicks + 1, buckets.length);
+    for (long tick = previousTicks; tick < previousTicks + steps; tick++) {
+      Node<K, V> sentinel = buckets[(int) (tick & mask)];
+
+      // 先摘下整个桶，再逐个移除或重新放入，以免重新放入同一个桶时重复处理
+      Node<K, V> node = sentinel.next;
+      sentinel.prev = sentinel;
+      sentinel.next = sentinel;
+      while (node != sentinel) {
+        Node<K, V> next = node.next;
+        node.prev = null;
+        node.next = null;
+        if (node.expiresAt <= now) {
+          onExpired.accept(node);
+        } else {
+          schedule(node);
+        }
+        node = next;
+      }
+    }
+  }
+
+  private Node<K, V> bucketFor(long expiresAt) {
+    long delay = expiresAt - currentTime;
+    int last = SHIFTS.length - 1;
+    for (int i = 0; i < last; i++) {
+      if (delay < (1L << SHIFTS[i + 1])) {
+        long ticks = expiresAt >>> SHIFTS[i];
+        return wheel[i][(int) (ticks & (BUCKETS[i] - 1))];
+      }
+    }
+
+    // 超出最高层范围的条目先放在最高层，推进时会被重新放入
+    long ticks = Math.min(expiresAt, currentTime + (1L << SHIFTS[last]) * (BUCKETS[last] - 1)) >>> SHIFTS[last];
+    return wheel[last][(int) (ticks & (BUCKETS[last] - 1))];
+  }
+
+  /**
+   * 时间轮中的条目，无参构造的实例作为桶的哨兵
+   */
+  static class Node<K, V> {
+
+    final K key;
+
+    final V value;
+
+    final long expiresAt;
+
+    private Node<K, V> prev;
+
+    private Node<K, V> next;
+
+    Node(K key, V value, long expiresAt) {
+      this.key = key;
+      this.value = value;
+      this.expiresAt = expiresAt;
+    }
+
+    private Node() {
+      this(null, null, 0L);
+      prev = this;
+      next = this;
+    }
+  }
+}
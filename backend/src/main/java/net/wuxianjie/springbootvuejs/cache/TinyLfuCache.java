@@ -0,0 +1,894 @@
+package net.wuxianjie.springbootvuejs.cache;
+
+import com.google.common.cache.AbstractCache;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.CacheStats;
+import com.google.common.cache.RemovalCause;
+import com.google.common.cache.RemovalListener;
+import com.google.common.cache.RemovalNotification;
+import com.google.common.util.concurrent.ExecutionError;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+import net.wuxianjie.springbootvuejs.constants.RestCodeEnum;
+import net.wuxianjie.springbootvuejs.exception.IllegalArgumentException;
+
+/**
+ * 基于 W-TinyLFU 淘汰策略的本地缓存，可在配置中以 {@code engine=tiny-lfu} 替代 Guava 缓存
+ *
+ * <p>淘汰策略：</p>
+ *
+ * <ul>
+ *   <li>新条目先进入占总容量 1% 的 LRU 窗口区，以容纳短时间内集中访问的条目</li>
+ *   <li>被挤出窗口区的条目与主区中最久未访问的条目比较 {@link FrequencySketch} 估算的访问频率，频率更高者留下，
+ *   故只访问一次的键不会挤掉热点条目</li>
+ *   <li>主区分为试用区和占主区 80% 的保护区（SLRU），试用区中再次被访问的条目晋升到保护区</li>
+ * </ul>
+ *
+ * <p>并发：读取时只查询 {@link ConcurrentHashMap}，并将访问记录写入按线程分段的无锁环形缓冲区，缓冲区满时丢弃记录，
+ * 积累到一定数量后由某个读取线程尝试加锁，批量更新访问顺序及访问频率；写入时加锁并立即执行淘汰。
+ * 移除监听器在锁内同步调用，应尽量简短</p>
+ *
+ * <p>过期：配置了 TTL 或 TTI 时，读取时按条目自身的时间判断是否过期，过期条目在读取时或被容量淘汰时移除，不会主动清理</p>
+ *
+ * <p>未命中时 {@link #get(Object, Callable)} 不会合并并发的加载，同一个键可能被重复加载</p>
+ *
+ * <p>{@link #asMap()} 与 Guava 缓存一样返回读写均作用于缓存本身的视图，通过视图读写不记录命中率</p>
+ *
+ * @author 吴仙杰
+ */
+public class TinyLfuCache<K, V> extends AbstractCache<K, V> {
+
+  private static final int WINDOW = 0;
+
+  private static final int PROBATION = 1;
+
+  private static final int PROTECTED = 2;
+
+  /**
+   * 已从所在的区中移出
+   */
+  private static final int DETACHED = -1;
+
+  /**
+   * 读缓冲区的分段数量
+   */
+  private static final int READ_BUFFER_STRIPES = ceilingPowerOfTwo(Math.min(4 * Runtime.getRuntime().availableProcessors(), 64));
+
+  /**
+   * 每个读缓冲区的容量，须为 2 的幂
+   */
+  private static final int READ_BUFFER_SIZE = 32;
+
+  /**
+   * 读缓冲区中积累到该数量的访问记录后尝试批量处理
+   */
+  private static final int READ_BUFFER_DRAIN_THRESHOLD = READ_BUFFER_SIZE / 2;
+
+  /**
+   * 频率不低于该值的候选条目以小概率被接纳，以免攻击者构造哈希冲突使热点条目永远无法被替换
+   */
+  private static final int ADMIT_HASHDOS_THRESHOLD = 6;
+
+  private final ConcurrentHashMap<K, Node<K, V>> data = new ConcurrentHashMap<>();
+
+  /**
+   * 保护淘汰策略的锁，读取时只尝试加锁
+   */
+  private final ReentrantLock evictionLock = new ReentrantLock();
+
+  @SuppressWarnings("unchecked")
+  private final ReadBuffer<K, V>[] readBuffers = new ReadBuffer[READ_BUFFER_STRIPES];
+
+  private final FrequencySketch sketch;
+
+  private final AccessOrderDeque<K, V> window = new AccessOrderDeque<>();
+
+  private final AccessOrderDeque<K, V> probation = new AccessOrderDeque<>();
+
+  private final AccessOrderDeque<K, V> protectedDeque = new AccessOrderDeque<>();
+
+  private final long windowMaximum;
+
+  private final long mainMaximum;
+
+  private final long protectedMaximum;
+
+  /**
+   * 写入后的有效时长（单位：纳秒），0 表示不过期
+   */
+  private final long expireAfterWriteNanos;
+
+  /**
+   * 最后一次访问后的有效时长（单位：纳秒），0 表示不过期
+   */
+  private final long expireAfterAccessNanos;
+
+  private final StatsCounter statsCounter;
+
+  private final RemovalListener<? super K, ? super V> removalListener;
+
+  private final AsMap asMap = new AsMap();
+
+  /**
+   * 创建仅限制数量、不过期、不记录统计信息的缓存
+   *
+   * @param maximumSize 最多缓存的条目数量
+   */
+  public TinyLfuCache(long maximumSize) {
+    this(maximumSize, 0L, 0L, false, null);
+  }
+
+  /**
+   * 创建缓存
+   *
+   * @param maximumSize            最多缓存的条目数量
+   * @param expireAfterWriteNanos  写入后的有效时长（单位：纳秒），0 表示不过期
+   * @param expireAfterAccessNanos 最后一次访问后的有效时长（单位：纳秒），0 表示不过期
+   * @param recordStats            是否记录统计信息
+   * @param removalListener        移除监听器，可为 {@code null}
+   */
+  TinyLfuCache(long maximumSize, long expireAfterWriteNanos, long expireAfterAccessNanos,
+               boolean recordStats, RemovalListener<? super K, ? super V> removalListener) {
+    if (maximumSize <= 0) {
+      throw new IllegalArgumentException(String.format("缓存的最大条目数量【%d】须大于 0", maximumSize), RestCodeEnum.ERROR_SERVER);
+    }
+
+    this.windowMaximum = Math.max(1L, maximumSize / 100);
+    this.mainMaximum = maximumSize - windowMaximum;
+    this.protectedMaximum = mainMaximum * 4 / 5;
+    this.sketch = new FrequencySketch(maximumSize);
+    this.expireAfterWriteNanos = expireAfterWriteNanos;
+    this.expireAfterAccessNanos = expireAfterAccessNanos;
+    this.statsCounter = recordStats ? new SimpleStatsCounter() : new DisabledStatsCounter();
+    this.removalListener = removalListener;
+    for (int i = 0; i < readBuffers.length; i++) {
+      readBuffers[i] = new ReadBuffer<>();
+    }
+  }
+
+  @Override
+  public V getIfPresent(Object key) {
+    Node<K, V> node = data.get(key);
+    if (node == null) {
+      statsCounter.recordMisses(1);
+      return null;
+    }
+
+    V value = read(node);
+    if (value == null) {
+      statsCounter.recordMisses(1);
+    } else {
+      statsCounter.recordHits(1);
+    }
+    return value;
+  }
+
+  @Override
+  public V get(K key, Callable<? extends V> loader) throws ExecutionException {
+    Node<K, V> node = data.get(key);
+    V value = node == null ? null : read(node);
+    if (value != null) {
+      statsCounter.recordHits(1);
+      return value;
+    }
+    statsCounter.recordMisses(1);
+
+    long start = System.nanoTime();
+    try {
+      value = loader.call();
+    } catch (RuntimeException e) {
+      statsCounter.recordLoadException(System.nanoTime() - start);
+      throw new UncheckedExecutionException(e);
+    } catch (Error e) {
+      statsCounter.recordLoadException(System.nanoTime() - start);
+      throw new ExecutionError(e);
+    } catch (Exception e) {
+      statsCounter.recordLoadException(System.nanoTime() - start);
+      throw new ExecutionException(e);
+    }
+
+    if (value == null) {
+      statsCounter.recordLoadException(System.nanoTime() - start);
+      throw new CacheLoader.InvalidCacheLoadException("缓存【" + key + "】的加载结果为 null");
+    }
+    statsCounter.recordLoadSuccess(System.nanoTime() - start);
+    V existing = write(key, value, true);
+    return existing != null ? existing : value;
+  }
+
+  @Override
+  public void put(K key, V value) {
+    write(key, value, false);
+  }
+
+  @Override
+  public void invalidate(Object key) {
+    evictionLock.lock();
+    try {
+      Node<K, V> node = data.get(key);
+      if (node != null) {
+        remove(node, RemovalCause.EXPLICIT);
+      }
+    } finally {
+      evictionLock.unlock();
+    }
+  }
+
+  @Override
+  public void invalidateAll() {
+    evictionLock.lock();
+    try {
+      drainReadBuffers();
+      for (Node<K, V> node : data.values()) {
+        remove(node, RemovalCause.EXPLICIT);
+      }
+    } finally {
+      evictionLock.unlock();
+    }
+  }
+
+  @Override
+  public long size() {
+    return data.size();
+  }
+
+  @Override
+  public ConcurrentMap<K, V> asMap() {
+    return asMap;
+  }
+
+  @Override
+  public CacheStats stats() {
+    return statsCounter.snapshot();
+  }
+
+  /**
+   * 立即处理所有积累的访问记录
+   */
+  @Override
+  public void cleanUp() {
+    evictionLock.lock();
+    try {
+      drainReadBuffers();
+    } finally {
+      evictionLock.unlock();
+    }
+  }
+
+  /**
+   * 遍历所有未过期的条目，用于生成快照，不记录访问
+   *
+   * @param visitor 接收键、值及剩余有效时长（单位：毫秒，{@code -1} 表示不过期）
+   */
+  void forEachEntry(EntryVisitor<? super K, ? super V> visitor) {
+    long now = System.nanoTime();
+    for (Node<K, V> node : data.values()) {
+      if (!expires()) {
+        visitor.visit(node.key, node.value, -1L);
+        continue;
+      }
+
+      long remaining = Long.MAX_VALUE;
+      if (expireAfterWriteNanos > 0) {
+        remaining = node.writeTime + expireAfterWriteNanos - now;
+      }
+      if (expireAfterAccessNanos > 0) {
+        remaining = Math.min(remaining, node.accessTime + expireAfterAccessNanos - now);
+      }
+      if (remaining > 0) {
+        visitor.visit(node.key, node.value, TimeUnit.NANOSECONDS.toMillis(remaining));
+      }
+    }
+  }
+
+  /**
+   * 保存从快照中恢复的值，并按剩余有效时长回拨其写入及访问时间
+   *
+   * @param remainingMillis 剩余有效时长（单位：毫秒），{@code -1} 表示按新写入的值计算有效期
+   */
+  void restore(K key, V value, long remainingMillis) {
+    write(key, value, false);
+    Node<K, V> node = data.get(key);
+    if (node == null || !expires() || remainingMillis < 0) {
+      return;
+    }
+
+    long now = System.nanoTime();
+    long remaining = TimeUnit.MILLISECONDS.toNanos(remainingMillis);
+    if (expireAfterWriteNanos > 0) {
+      node.writeTime = now - Math.max(0L, expireAfterWriteNanos - remaining);
+    }
+    if (expireAfterAccessNanos > 0) {
+      node.accessTime = now - Math.max(0L, expireAfterAccessNanos - remaining);
+    }
+  }
+
+  /**
+   * 读取未过期的值，并记录访问
+   *
+   * @return 值；若已过期，则返回 {@code null}
+   */
+  private V read(Node<K, V> node) {
+    if (expires()) {
+      long now = System.nanoTime();
+      if (isExpired(node, now)) {
+        tryExpire(node);
+        return null;
+      }
+      node.accessTime = now;
+    }
+
+    V value = node.value;
+    int stripe = (int) (Thread.currentThread().getId() * 0x9E3779B9L >>> 16) & (READ_BUFFER_STRIPES - 1);
+    if (readBuffers[stripe].offer(node) && evictionLock.tryLock()) {
+      try {
+        drainReadBuffers();
+      } finally {
+        evictionLock.unlock();
+      }
+    }
+    return value;
+  }
+
+  /**
+   * 保存值
+   *
+   * @param onlyIfAbsent 若为 {@code true}，则已有未过期的值时保留原值
+   * @return 原有的未过期的值；若没有，则返回 {@code null}
+   */
+  private V write(K key, V value, boolean onlyIfAbsent) {
+    if (key == null || value == null) {
+      throw new IllegalArgumentException("缓存的键和值均不能为 null", RestCodeEnum.ERROR_SERVER);
+    }
+
+    long now = expires() ? System.nanoTime() : 0L;
+    evictionLock.lock();
+    try {
+      drainReadBuffers();
+
+      Node<K, V> node = data.get(key);
+      if (node != null && isExpired(node, now)) {
+        remove(node, RemovalCause.EXPIRED);
+        node = null;
+      }
+
+      if (node == null) {
+        node = new Node<>(key, value, now);
+        data.put(key, node);
+        window.linkLast(node);
+        sketch.increment(key);
+        evict();
+        return null;
+      }
+
+      if (onlyIfAbsent) {
+        onAccess(node);
+        return node.value;
+      }
+      return replace(node, value, now);
+    } finally {
+      evictionLock.unlock();
+    }
+  }
+
+  /**
+   * 替换条目的值，须在持有锁时调用
+   *
+   * @return 原值
+   */
+  private V replace(Node<K, V> node, V value, long now) {
+    V oldValue = node.value;
+    node.value = value;
+    node.writeTime = now;
+    node.accessTime = now;
+    onAccess(node);
+    notifyRemoval(node.key, oldValue, RemovalCause.REPLACED);
+    return oldValue;
+  }
+
+  /**
+   * 获取未过期的条目，已过期的条目直接移除；须在持有锁时调用
+   */
+  private Node<K, V> liveNode(Object key, long now) {
+    Node<K, V> node = data.get(key);
+    if (node != null && isExpired(node, now)) {
+      remove(node, RemovalCause.EXPIRED);
+      return null;
+    }
+    return node;
+  }
+
+  /**
+   * 获取未过期的值，不记录访问
+   */
+  private V peek(Object key) {
+    Node<K, V> node = data.get(key);
+    return node == null || (expires() && isExpired(node, System.nanoTime())) ? null : node.value;
+  }
+
+  /**
+   * 窗口区超出容量时，将溢出的条目移入主区；主区已满时，按访问频率决定淘汰溢出的条目还是主区中的条目
+   */
+  private void evict() {
+    while (window.size > windowMaximum) {
+      Node<K, V> candidate = window.pollFirst();
+      if (probation.size + protectedDeque.size < mainMaximum) {
+        candidate.queue = PROBATION;
+        probation.linkLast(candidate);
+        continue;
+      }
+
+      Node<K, V> victim = probation.size > 0 ? probation.peekFirst() : protectedDeque.peekFirst();
+      if (victim != null && admit(candidate.key, victim.key)) {
+        remove(victim, RemovalCause.SIZE);
+        candidate.queue = PROBATION;
+        probation.linkLast(candidate);
+      } else {
+        candidate.queue = DETACHED;
+        remove(candidate, RemovalCause.SIZE);
+      }
+    }
+  }
+
+  private boolean admit(K candidateKey, K victimKey) {
+    int candidateFrequency = sketch.frequency(candidateKey);
+    int victimFrequency = sketch.frequency(victimKey);
+    if (candidateFrequency > victimFrequency) {
+      return true;
+    }
+    return candidateFrequency >= ADMIT_HASHDOS_THRESHOLD && (ThreadLocalRandom.current().nextInt() & 127) == 0;
+  }
+
+  /**
+   * 处理一次访问：增加访问频率，并调整条目在各区中的位置
+   */
+  private void onAccess(Node<K, V> node) {
+    if (!node.alive) {
+      return;
+    }
+
+    sketch.increment(node.key);
+    if (node.queue == WINDOW) {
+      window.moveToBack(node);
+    } else if (node.queue == PROBATION) {
+      probation.unlink(node);
+      node.queue = PROTECTED;
+      protectedDeque.linkLast(node);
+      while (protectedDeque.size > protectedMaximum) {
+        Node<K, V> demoted = protectedDeque.pollFirst();
+        demoted.queue = PROBATION;
+        probation.linkLast(demoted);
+      }
+    } else {
+      protectedDeque.moveToBack(node);
+    }
+  }
+
+  private void drainReadBuffers() {
+    for (ReadBuffer<K, V> buffer : readBuffers) {
+      buffer.drain(this);
+    }
+  }
+
+  private void tryExpire(Node<K, V> node) {
+    if (!evictionLock.tryLock()) {
+      return;
+    }
+    try {
+      if (node.alive && isExpired(node, System.nanoTime())) {
+        remove(node, RemovalCause.EXPIRED);
+      }
+    } finally {
+      evictionLock.unlock();
+    }
+  }
+
+  /**
+   * 移除条目，须在持有锁时调用
+   */
+  private void remove(Node<K, V> node, RemovalCause cause) {
+    if (!node.alive) {
+      return;
+    }
+    node.alive = false;
+    data.remove(node.key, node);
+    if (node.queue != DETACHED) {
+      dequeOf(node).unlink(node);
+      node.queue = DETACHED;
+    }
+    if (cause != RemovalCause.EXPLICIT && cause != RemovalCause.REPLACED) {
+      statsCounter.recordEviction();
+    }
+    notifyRemoval(node.key, node.value, cause);
+  }
+
+  private AccessOrderDeque<K, V> dequeOf(Node<K, V> node) {
+    if (node.queue == WINDOW) {
+      return window;
+    }
+    return node.queue == PROBATION ? probation : protectedDeque;
+  }
+
+  private void notifyRemoval(K key, V value, RemovalCause cause) {
+    if (removalListener != null) {
+      removalListener.onRemoval(RemovalNotification.create(key, value, cause));
+    }
+  }
+
+  private boolean expires() {
+    return expireAfterWriteNanos > 0 || expireAfterAccessNanos > 0;
+  }
+
+  private boolean isExpired(Node<K, V> node, long now) {
+    return (expireAfterWriteNanos > 0 && now - node.writeTime >= expireAfterWriteNanos)
+      || (expireAfterAccessNanos > 0 && now - node.accessTime >= expireAfterAccessNanos);
+  }
+
+  private static int ceilingPowerOfTwo(int x) {
+    return x <= 1 ? 1 : Integer.highestOneBit(x - 1) << 1;
+  }
+
+  /**
+   * 缓存的 {@link ConcurrentMap} 视图：{@link #get(Object)} 记录访问，修改均加锁并通知移除监听器，均不记录命中率
+   */
+  private final class AsMap extends AbstractMap<K, V> implements ConcurrentMap<K, V> {
+
+    private final Set<Map.Entry<K, V>> entrySet = new EntrySet();
+
+    @Override
+    public V get(Object key) {
+      Node<K, V> node = data.get(key);
+      return node == null ? null : read(node);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+      return peek(key) != null;
+    }
+
+    @Override
+    public V put(K key, V value) {
+      return write(key, value, false);
+    }
+
+    @Override
+    public V putIfAbsent(K key, V value) {
+      return write(key, value, true);
+    }
+
+    @Override
+    public V remove(Object key) {
+      evictionLock.lock();
+      try {
+        Node<K, V> node = liveNode(key, System.nanoTime());
+        if (node == null) {
+          return null;
+        }
+        TinyLfuCache.this.remove(node, RemovalCause.EXPLICIT);
+        return node.value;
+      } finally {
+        evictionLock.unlock();
+      }
+    }
+
+    @Override
+    public boolean remove(Object key, Object value) {
+      evictionLock.lock();
+      try {
+        Node<K, V> node = liveNode(key, System.nanoTime());
+        if (node == null || !node.value.equals(value)) {
+          return false;
+        }
+        TinyLfuCache.this.remove(node, RemovalCause.EXPLICIT);
+        return true;
+      } finally {
+        evictionLock.unlock();
+      }
+    }
+
+    @Override
+    public V replace(K key, V value) {
+      if (value == null) {
+        throw new IllegalArgumentException("缓存的值不能为 null", RestCodeEnum.ERROR_SERVER);
+      }
+
+      evictionLock.lock();
+      try {
+        long now = System.nanoTime();
+        Node<K, V> node = liveNode(key, now);
+        return node == null ? null : TinyLfuCache.this.replace(node, value, expires() ? now : 0L);
+      } finally {
+        evictionLock.unlock();
+      }
+    }
+
+    @Override
+    public boolean replace(K key, V oldValue, V newValue) {
+      if (newValue == null) {
+        throw new IllegalArgumentException("缓存的值不能为 null", RestCodeEnum.ERROR_SERVER);
+      }
+
+      evictionLock.lock();
+      try {
+        long now = System.nanoTime();
+        Node<K, V> node = liveNode(key, now);
+        if (node == null || !node.value.equals(oldValue)) {
+          return false;
+        }
+        TinyLfuCache.this.replace(node, newValue, expires() ? now : 0L);
+        return true;
+      } finally {
+        evictionLock.unlock();
+      }
+    }
+
+    @Override
+    public int size() {
+      return data.size();
+    }
+
+    @Override
+    public void clear() {
+      invalidateAll();
+    }
+
+    @Override
+    public Set<Map.Entry<K, V>> entrySet() {
+      return entrySet;
+    }
+  }
+
+  /**
+   * 未过期条目的弱一致视图，遍历时不记录访问
+   */
+  private final class EntrySet extends AbstractSet<Map.Entry<K, V>> {
+
+    @Override
+    public Iterator<Map.Entry<K, V>> iterator() {
+      Iterator<Node<K, V>> nodes = data.values().iterator();
+      return new Iterator<Map.Entry<K, V>>() {
+
+        private Map.Entry<K, V> next;
+
+        private Map.Entry<K, V> last;
+
+        @Override
+        public boolean hasNext() {
+          long now = System.nanoTime();
+          while (next == null && nodes.hasNext()) {
+            Node<K, V> node = nodes.next();
+            if (!expires() || !isExpired(node, now)) {
+              next = new AbstractMap.SimpleImmutableEntry<>(node.key, node.value);
+            }
+          }
+          return next != null;
+        }
+
+        @Override
+        public Map.Entry<K, V> next() {
+          if (!hasNext()) {
+            throw new NoSuchElementException();
+          }
+          last = next;
+          next = null;
+          return last;
+        }
+
+        @Override
+        public void remove() {
+          if (last == null) {
+            throw new IllegalStateException();
+          }
+          asMap.remove(last.getKey(), last.getValue());
+          last = null;
+        }
+      };
+    }
+
+    @Override
+    public int size() {
+      return data.size();
+    }
+
+    @Override
+    public void clear() {
+      invalidateAll();
+    }
+  }
+
+  /**
+   * 接收 {@link #forEachEntry(EntryVisitor)} 遍历到的条目
+   */
+  interface EntryVisitor<K, V> {
+
+    void visit(K key, V value, long remainingMillis);
+  }
+
+  /**
+   * 缓存条目，{@link #prev}、{@link #next}、{@link #queue}、{@link #alive} 只在持有锁时访问
+   */
+  private static final class Node<K, V> {
+
+    private final K key;
+
+    private volatile V value;
+
+    private volatile long writeTime;
+
+    private volatile long accessTime;
+
+    private int queue = WINDOW;
+
+    private boolean alive = true;
+
+    private Node<K, V> prev;
+
+    private Node<K, V> next;
+
+    Node(K key, V value, long now) {
+      this.key = key;
+      this.value = value;
+      this.writeTime = now;
+      this.accessTime = now;
+    }
+  }
+
+  /**
+   * 按访问顺序排列的双向链表，头部为最久未访问的条目
+   */
+  private static final class AccessOrderDeque<K, V> {
+
+    private Node<K, V> head;
+
+    private Node<K, V> tail;
+
+    private long size;
+
+    void linkLast(Node<K, V> node) {
+      node.prev = tail;
+      node.next = null;
+      if (tail == null) {
+        head = node;
+      } else {
+        tail.next = node;
+      }
+      tail = node;
+      size++;
+    }
+
+    void unlink(Node<K, V> node) {
+      if (node.prev == null) {
+        head = node.next;
+      } else {
+        node.prev.next = node.next;
+      }
+      if (node.next == null) {
+        tail = node.prev;
+      } else {
+        node.next.prev = node.prev;
+      }
+      node.prev = null;
+      node.next = null;
+      size--;
+    }
+
+    void moveToBack(Node<K, V> node) {
+      if (node != tail) {
+        unlink(node);
+        linkLast(node);
+      }
+    }
+
+    Node<K, V> peekFirst() {
+      return head;
+    }
+
+    Node<K, V> pollFirst() {
+      Node<K, V> node = head;
+      if (node != null) {
+        unlink(node);
+      }
+      return node;
+    }
+  }
+
+  /**
+   * 记录访问的无锁环形缓冲区，由多个读取线程写入，在持有锁时批量读出
+   */
+  private static final class ReadBuffer<K, V> {
+
+    private static final int MASK = READ_BUFFER_SIZE - 1;
+
+    private final AtomicReferenceArray<Node<K, V>> buffer = new AtomicReferenceArray<>(READ_BUFFER_SIZE);
+
+    private final AtomicLong writeCounter = new AtomicLong();
+
+    private volatile long readCounter;
+
+    /**
+     * 写入访问记录，缓冲区已满或写入竞争失败时丢弃该记录
+     *
+     * @return 若应该批量处理访问记录，则返回 {@code true}
+     */
+    boolean offer(Node<K, V> node) {
+      long head = readCounter;
+      long tail = writeCounter.get();
+      long size = tail - head;
+      if (size >= READ_BUFFER_SIZE) {
+        return true;
+      }
+
+      if (writeCounter.compareAndSet(tail, tail + 1)) {
+        buffer.lazySet((int) (tail & MASK), node);
+        return size + 1 >= READ_BUFFER_DRAIN_THRESHOLD;
+      }
+      return false;
+    }
+
+    /**
+     * 读出所有已写入的访问记录，须在持有锁时调用
+     */
+    void drain(TinyLfuCache<K, V> cache) {
+      long head = readCounter;
+      long tail = writeCounter.get();
+      for (; head < tail; head++) {
+        int index = (int) (head & MASK);
+        Node<K, V> node = buffer.get(index);
+        if (node == null) {
+          // 写入线程已占位但尚未写入，下次再处理
+          break;
+        }
+        buffer.lazySet(index, null);
+        cache.onAccess(node);
+      }
+      readCounter = head;
+    }
+  }
+
+  /**
+   * 不记录统计信息时使用，{@link #snapshot()} 总是返回 0
+   */
+  private static final class DisabledStatsCounter implements StatsCounter {
+
+    private static final CacheStats EMPTY = new CacheStats(0, 0, 0, 0, 0, 0);
+
+    @Override
+    public void recordHits(int count) {
+    }
+
+    @Override
+    public void recordMisses(int count) {
+    }
+
+    @Override
+    public void recordLoadSuccess(long loadTime) {
+    }
+
+    @Override
+    public void recordLoadException(long loadTime) {
+    }
+
+    @Override
+    public void recordEviction() {
+    }
+
+    @Override
+    public CacheStats snapshot() {
+      return EMPTY;
+    }
+  }
+}
@@ -0,0 +1,324 @@
+package net.wuxianjie.springbootvuejs.compression;
+
+import java.io.BufferedReader;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipException;
+import javax.servlet.FilterChain;
+import javax.servlet.ReadListener;
+import javax.servlet.ServletException;
+import javax.servlet.ServletInputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletRequestWrapper;
+import javax.servlet.http.HttpServletResponse;
+import net.wuxianjie.springbootvuejs.constants.RestCodeEnum;
+import net.wuxianjie.springbootvuejs.exception.RequestArgumentNotValidException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.WebUtils;
+
+/**
+ * HTTP 压缩过滤器，位于所有过滤器之前
+ *
+ * <ul>
+ *   <li>响应：客户端的 {@code Accept-Encoding} 接受 gzip 时，由 {@link GzipResponseWrapper} 按大小及内容类型决定是否压缩，
+ *   所用的 {@link java.util.zip.Deflater} 来自 {@link DeflaterPool}。{@code HEAD} 及带 {@code Range} 的请求不压缩；
+ *   已预先压缩的静态文件（{@code spring.resources.chain.compressed}）带有 {@code Content-Encoding}，原样写入</li>
+ *   <li>请求：{@code Content-Encoding: gzip} 的请求体在读取时解压，解压后超过上限时抛出 {@link RequestArgumentNotValidException}。
+ *   只作用于通过 {@link HttpServletRequest#getInputStream()} 读取的请求体（如 JSON），表单参数由容器直接解析，不支持压缩</li>
+ * </ul>
+ *
+ * <p>控制器异步返回时，响应在异步结果再次分发后才结束，故该过滤器同样作用于异步分发</p>
+ *
+ * @author 吴仙杰
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class CompressionFilter extends OncePerRequestFilter {
+
+  private static final int INFLATER_BUFFER_SIZE = 8192;
+
+  private final DeflaterPool deflaterPool;
+
+  private final int minResponseSize;
+
+  private final Set<String> mimeTypes;
+
+  private final long maxInflatedSize;
+
+  public CompressionFilter(@Value("${compression.min-response-size:1024}") int minResponseSize,
+                           @Value("${compression.mime-types:text/html,text/css,text/plain,text/xml,text/javascript,application/javascript,application/json,application/xml}") String[] mimeTypes,
+                           @Value("${compression.level:6}") int level,
+                           @Value("${compression.deflater-pool-size:32}") int deflaterPoolSize,
+                           @Value("${compression.request.max-inflated-size:10485760}") long maxInflatedSize) {
+    this.deflaterPool = new DeflaterPool(level, deflaterPoolSize);
+    this.minResponseSize = minResponseSize;
+    this.mimeTypes = Arrays.stream(mimeTypes)
+      .map(type -> type.trim().toLowerCase(Locale.ROOT))
+      .collect(Collectors.toCollection(LinkedHashSet::new));
+    this.maxInflatedSize = maxInflatedSize;
+  }
+
+  @Override
+  protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+    // 异步分发时沿用最初请求中的响应包装
+    GzipResponseWrapper wrapper = WebUtils.getNativeResponse(response, GzipResponseWrapper.class);
+    if (wrapper == null && shouldCompress(request)) {
+      wrapper = new GzipResponseWrapper(response, deflaterPool, minResponseSize, mimeTypes);
+      response = wrapper;
+    }
+
+    if (!isAsyncDispatch(request) && isGzipEncoded(request)) {
+      request = new GzipRequestWrapper(request, maxInflatedSize);
+    }
+
+    try {
+      filterChain.doFilter(request, response);
+    } catch (IOException | ServletException | RuntimeException e) {
+      if (wrapper != null) {
+        wrapper.abort();
+      }
+      throw e;
+    }
+
+    if (wrapper != null && !isAsyncStarted(request)) {
+      wrapper.finishResponse();
+    }
+  }
+
+  @Override
+  protected boolean shouldNotFilterAsyncDispatch() {
+    return false;
+  }
+
+  @Override
+  public void destroy() {
+    deflaterPool.clear();
+  }
+
+  private boolean shouldCompress(HttpServletRequest request) {
+    if ("HEAD".equals(request.getMethod()) || request.getHeader(HttpHeaders.RANGE) != null)
+      return false;
+
+    return acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+  }
+
+  private static boolean isGzipEncoded(HttpServletRequest request) {
+    String encoding = request.getHeader(HttpHeaders.CONTENT_ENCODING);
+    return encoding != null && isGzip(encoding.trim());
+  }
+
+  private static boolean isGzip(String coding) {
+    return "gzip".equalsIgnoreCase(coding) || "x-gzip".equalsIgnoreCase(coding);
+  }
+
+  /**
+   * 判断 {@code Accept-Encoding} 是否接受 gzip，{@code q=0} 表示不接受
+   *
+   * @param acceptEncoding 请求头 {@code Accept-Encoding} 的值，可为 {@code null}
+   * @return 若接受 gzip，则返回 {@code true}；否则返回 {@code false}
+   */
+  static boolean acceptsGzip(String acceptEncoding) {
+    if (acceptEncoding == null)
+      return false;
+
+    for (String element : acceptEncoding.split(",")) {
+      String[] parts = element.split(";");
+      String coding = parts[0].trim();
+      if (!isGzip(coding) && !"*".equals(coding))
+        continue;
+
+      if (!isZeroQuality(parts))
+        return true;
+    }
+    return false;
+  }
+
+  private static boolean isZeroQuality(String[] parts) {
+    for (int i = 1; i < parts.length; i++) {
+      String param = parts[i].trim();
+      if (!param.startsWith("q=") && !param.startsWith("Q="))
+        continue;
+
+      try {
+        return Double.parseDouble(param.substring(2).trim()) == 0;
+      } catch (NumberFormatException e) {
+        return false;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * 读取时解压请求体的请求包装，并隐藏原始请求的 {@code Content-Encoding} 及 {@code Content-Length}
+   */
+  static class GzipRequestWrapper extends HttpServletRequestWrapper {
+
+    private static final List<String> HIDDEN_HEADERS = Arrays.asList(
+      HttpHeaders.CONTENT_ENCODING.toLowerCase(Locale.ROOT), HttpHeaders.CONTENT_LENGTH.toLowerCase(Locale.ROOT));
+
+    private final long maxInflatedSize;
+
+    private ServletInputStream inputStream;
+
+    private BufferedReader reader;
+
+    GzipRequestWrapper(HttpServletRequest request, long maxInflatedSize) {
+      super(request);
+      this.maxInflatedSize = maxInflatedSize;
+    }
+
+    @Override
+    public ServletInputStream getInputStream() throws IOException {
+      if (inputStream == null) {
+        GZIPInputStream in;
+        try {
+          in = new GZIPInputStream(super.getInputStream(), INFLATER_BUFFER_SIZE);
+        } catch (ZipException | EOFException e) {
+          throw malformed(e);
+        }
+        inputStream = new InflatingInputStream(in, maxInflatedSize);
+      }
+      return inputStream;
+    }
+
+    @Override
+    public BufferedReader getReader() throws IOException {
+      if (reader == null) {
+        String encoding = getCharacterEncoding();
+        reader = new BufferedReader(new InputStreamReader(getInputStream(), encoding == null ? StandardCharsets.UTF_8.name() : encoding));
+      }
+      return reader;
+    }
+
+    @Override
+    public int getContentLength() {
+      return -1;
+    }
+
+    @Override
+    public long getContentLengthLong() {
+      return -1;
+    }
+
+    @Override
+    public String getHeader(String name) {
+      return isHidden(name) ? null : super.getHeader(name);
+    }
+
+    @Override
+    public Enumeration<String> getHeaders(String name) {
+      return isHidden(name) ? Collections.emptyEnumeration() : super.getHeaders(name);
+    }
+
+    @Override
+    public int getIntHeader(String name) {
+      return isHidden(name) ? -1 : super.getIntHeader(name);
+    }
+
+    @Override
+    public Enumeration<String> getHeaderNames() {
+      List<String> names = Collections.list(super.getHeaderNames());
+      names.removeIf(GzipRequestWrapper::isHidden);
+      return Collections.enumeration(names);
+    }
+
+    private static boolean isHidden(String name) {
+      return name != null && HIDDEN_HEADERS.contains(name.toLowerCase(Locale.ROOT));
+    }
+  }
+
+  /**
+   * 解压后的请求体输入流，超过上限时抛出 {@link RequestArgumentNotValidException}
+   *
+   * <p>抛出运行时异常而非 {@link IOException}，以免被 Spring 包装为 {@code HttpMessageNotReadableException}，
+   * 从而由全局异常处理返回 {@link RestCodeEnum#PAYLOAD_TOO_LARGE}</p>
+   */
+  private static class InflatingInputStream extends ServletInputStream {
+
+    private final GZIPInputStream in;
+
+    private final long maxInflatedSize;
+
+    private long remaining;
+
+    private boolean finished;
+
+    InflatingInputStream(GZIPInputStream in, long maxInflatedSize) {
+      this.in = in;
+      this.maxInflatedSize = maxInflatedSize;
+      this.remaining = maxInflatedSize;
+    }
+
+    @Override
+    public int read() throws IOException {
+      byte[] b = new byte[1];
+      return read(b, 0, 1) < 0 ? -1 : b[0] & 0xff;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+      int n;
+      try {
+        n = in.read(b, off, len);
+      } catch (ZipException | EOFException e) {
+        throw malformed(e);
+      }
+
+      if (n < 0) {
+        finished = true;
+        return n;
+      }
+
+      remaining -= n;
+      if (remaining < 0)
+        throw new RequestArgumentNotValidException(String.format("解压后的请求体超过 %d 字节", maxInflatedSize), RestCodeEnum.PAYLOAD_TOO_LARGE);
+
+      return n;
+    }
+
+    @Override
+    public int available() throws IOException {
+      return in.available();
+    }
+
+    @Override
+    public void close() throws IOException {
+      in.close();
+    }
+
+    @Override
+    public boolean isFinished() {
+      return finished;
+    }
+
+    @Override
+    public boolean isReady() {
+      return true;
+    }
+
+    @Override
+    public void setReadListener(ReadListener readListener) {
+      throw new UnsupportedOperationException("解压后的请求体不支持非阻塞读取");
+    }
+  }
+
+  private static RequestArgumentNotValidException malformed(IOException e) {
+    return new RequestArgumentNotValidException("请求体不是有效的 gzip 数据", e, RestCodeEnum.MALFORMED_PARAMETER);
+  }
+}
@@ -0,0 +1,92 @@
+package net.wuxianjie.springbootvuejs.compression;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.Deflater;
+import net.wuxianjie.springbootvuejs.constants.RestCodeEnum;
+import net.wuxianjie.springbootvuejs.exception.IllegalArgumentException;
+
+/**
+ * 可复用的 {@link Deflater} 池，线程安全
+ *
+ * <p>每个 {@link Deflater} 会分配数百 KB 的本地内存，且只在 {@link Deflater#end()} 或被回收时释放，
+ * 故按响应新建会在高并发下产生大量本地内存分配和 finalizer 压力。池为空时借出新建的实例，不会阻塞；
+ * 池已满时归还的实例直接释放</p>
+ *
+ * <p>借出的实例均为 {@code nowrap} 模式（只输出 deflate 数据），由调用方写入 gzip 头及尾</p>
+ *
+ * @author 吴仙杰
+ */
+public class DeflaterPool {
+
+  private final int level;
+
+  private final BlockingQueue<Deflater> idle;
+
+  /**
+   * 池为空时新建的实例数
+   */
+  private final LongAdder created = new LongAdder();
+
+  /**
+   * @param level    压缩级别，{@code 1}（最快）至 {@code 9}（最小）
+   * @param capacity 池中最多保留的空闲实例数，须大于 0
+   */
+  public DeflaterPool(int level, int capacity) {
+    if (level < Deflater.BEST_SPEED || level > Deflater.BEST_COMPRESSION)
+      throw new IllegalArgumentException("压缩级别须在 1 至 9 之间", RestCodeEnum.ERROR_SERVER);
+
+    this.level = level;
+    this.idle = new ArrayBlockingQueue<>(capacity);
+  }
+
+  /**
+   * 借出一个已重置的实例，用完后须调用 {@link #release(Deflater)} 归还
+   *
+   * @return {@code nowrap} 模式的 {@link Deflater}
+   */
+  public Deflater borrow() {
+    Deflater deflater = idle.poll();
+    if (deflater != null)
+      return deflater;
+
+    created.increment();
+    return new Deflater(level, true);
+  }
+
+  /**
+   * 归还借出的实例，池已满时释放其本地内存
+   *
+   * @param deflater 由 {@link #borrow()} 借出的实例，归还后调用方不能再使用
+   */
+  public void release(Deflater deflater) {
+    deflater.reset();
+    if (!idle.offer(deflater))
+      deflater.end();
+  }
+
+  /**
+   * 释放池中所有空闲实例的本地内存
+   */
+  public void clear() {
+    Deflater deflater;
+    while ((deflater = idle.poll()) != null) {
+      deflater.end();
+    }
+  }
+
+  /**
+   * @return 池中当前空闲的实例数
+   */
+  public int getIdleCount() {
+    return idle.size();
+  }
+
+  /**
+   * @return 因池为空而新建的实例总数，持续增长说明池容量小于并发压缩的响应数
+   */
+  public long getCreatedCount() {
+    return created.sum();
+  }
+}
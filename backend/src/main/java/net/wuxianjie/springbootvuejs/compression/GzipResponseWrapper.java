@@ -0,0 +1,388 @@
+package net.wuxianjie.springbootvuejs.compression;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.util.Locale;
+import java.util.Set;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+import org.springframework.http.HttpHeaders;
+
+/**
+ * 按响应大小及内容类型决定是否以 gzip 压缩响应体的响应包装，非线程安全
+ *
+ * <p>在首次写入响应体时才做决定，此时状态码及响应头均已设置：</p>
+ *
+ * <ul>
+ *   <li>非 2xx、{@code 204}、{@code 206}、已设置 {@code Content-Encoding}（如预先压缩好的静态文件）、
+ *   已提交或内容类型不可压缩时，原样写入</li>
+ *   <li>已设置 {@code Content-Length} 时，不小于阈值则压缩，否则原样写入</li>
+ *   <li>未设置 {@code Content-Length} 时，先缓冲至阈值，超过则压缩；响应结束或被主动刷新时仍未超过则原样写入</li>
+ * </ul>
+ *
+ * <p>压缩时不写入 {@code Content-Length}，由容器以分块方式传输；须在响应结束时调用 {@link #finishResponse()}</p>
+ *
+ * @author 吴仙杰
+ */
+class GzipResponseWrapper extends HttpServletResponseWrapper {
+
+  private enum State {
+    UNDECIDED, IDENTITY, GZIP
+  }
+
+  private final DeflaterPool pool;
+
+  private final int minResponseSize;
+
+  private final Set<String> mimeTypes;
+
+  private State state = State.UNDECIDED;
+
+  /**
+   * 尚未决定是否压缩时所设置的 {@code Content-Length}，未设置时为 {@code -1}
+   */
+  private long declaredLength = -1;
+
+  /**
+   * 尚未决定是否压缩时缓冲的响应体，仅在未设置 {@code Content-Length} 时分配
+   */
+  private byte[] buffer;
+
+  private int count;
+
+  private PooledGzipOutputStream gzip;
+
+  private ServletOutputStream outputStream;
+
+  private PrintWriter writer;
+
+  GzipResponseWrapper(HttpServletResponse response, DeflaterPool pool, int minResponseSize, Set<String> mimeTypes) {
+    super(response);
+    this.pool = pool;
+    this.minResponseSize = minResponseSize;
+    this.mimeTypes = mimeTypes;
+  }
+
+  @Override
+  public ServletOutputStream getOutputStream() {
+    if (outputStream == null) {
+      outputStream = new GzipServletOutputStream();
+    }
+    return outputStream;
+  }
+
+  @Override
+  public PrintWriter getWriter() throws IOException {
+    if (writer == null) {
+      writer = new PrintWriter(new OutputStreamWriter(getOutputStream(), getCharacterEncoding()));
+    }
+    return writer;
+  }
+
+  @Override
+  public void setContentLength(int len) {
+    setContentLengthLong(len);
+  }
+
+  @Override
+  public void setContentLengthLong(long len) {
+    if (state == State.UNDECIDED) {
+      declaredLength = len;
+    } else if (state == State.IDENTITY) {
+      super.setContentLengthLong(len);
+    }
+  }
+
+  @Override
+  public void setHeader(String name, String value) {
+    if (HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+      setContentLengthLong(value == null ? -1 : Long.parseLong(value));
+    } else {
+      super.setHeader(name, value);
+    }
+  }
+
+  @Override
+  public void addHeader(String name, String value) {
+    if (HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+      setContentLengthLong(value == null ? -1 : Long.parseLong(value));
+    } else {
+      super.addHeader(name, value);
+    }
+  }
+
+  @Override
+  public void setIntHeader(String name, int value) {
+    if (HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+      setContentLengthLong(value);
+    } else {
+      super.setIntHeader(name, value);
+    }
+  }
+
+  @Override
+  public void addIntHeader(String name, int value) {
+    if (HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+      setContentLengthLong(value);
+    } else {
+      super.addIntHeader(name, value);
+    }
+  }
+
+  @Override
+  public void flushBuffer() throws IOException {
+    if (writer != null) {
+      writer.flush();
+    }
+
+    // 尚未写入任何内容时不提交响应，以免之后无法再设置 `Content-Encoding`
+    if (state == State.UNDECIDED && count == 0)
+      return;
+
+    getOutputStream().flush();
+    super.flushBuffer();
+  }
+
+  @Override
+  public void resetBuffer() {
+    super.resetBuffer();
+    count = 0;
+    if (state == State.GZIP) {
+      // 响应头中已有 `Content-Encoding: gzip`，故重新开始压缩
+      gzip.discard();
+      try {
+        gzip = new PooledGzipOutputStream(super.getOutputStream(), pool);
+      } catch (IOException e) {
+        throw new IllegalStateException("重置压缩输出流失败", e);
+      }
+    }
+  }
+
+  @Override
+  public void reset() {
+    super.reset();
+    discard();
+    state = State.UNDECIDED;
+    declaredLength = -1;
+  }
+
+  @Override
+  public void sendError(int sc, String msg) throws IOException {
+    discard();
+    state = State.IDENTITY;
+    super.sendError(sc, msg);
+  }
+
+  @Override
+  public void sendError(int sc) throws IOException {
+    discard();
+    state = State.IDENTITY;
+    super.sendError(sc);
+  }
+
+  @Override
+  public void sendRedirect(String location) throws IOException {
+    discard();
+    state = State.IDENTITY;
+    super.sendRedirect(location);
+  }
+
+  /**
+   * 写入缓冲的响应体或 gzip 尾，并归还压缩所用的 {@link java.util.zip.Deflater}
+   *
+   * @throws IOException 当写入响应失败时
+   */
+  void finishResponse() throws IOException {
+    if (writer != null) {
+      writer.flush();
+    }
+
+    if (state == State.UNDECIDED) {
+      if (declaredLength < 0 && count > 0) {
+        declaredLength = count;
+      }
+      startIdentity();
+    } else if (state == State.GZIP) {
+      gzip.finish();
+    }
+  }
+
+  /**
+   * 放弃压缩并归还 {@link java.util.zip.Deflater}，用于过滤器链抛出异常时，之后的写入均原样写入
+   */
+  void abort() {
+    discard();
+    state = State.IDENTITY;
+  }
+
+  /**
+   * 放弃尚未写入的缓冲内容及压缩输出流
+   */
+  private void discard() {
+    count = 0;
+    if (gzip != null) {
+      gzip.discard();
+      gzip = null;
+    }
+  }
+
+  private void write(byte[] b, int off, int len) throws IOException {
+    if (state == State.UNDECIDED) {
+      decide(len);
+    }
+
+    switch (state) {
+      case UNDECIDED:
+        System.arraycopy(b, off, buffer, count, len);
+        count += len;
+        break;
+      case GZIP:
+        gzip.write(b, off, len);
+        break;
+      default:
+        super.getOutputStream().write(b, off, len);
+    }
+  }
+
+  private void flush() throws IOException {
+    // 被主动刷新时不再等待，原样写入已缓冲的内容
+    if (state == State.UNDECIDED) {
+      if (count == 0)
+        return;
+      startIdentity();
+    }
+
+    if (state == State.GZIP) {
+      gzip.flush();
+    } else {
+      super.getOutputStream().flush();
+    }
+  }
+
+  /**
+   * 决定是否压缩，若仍需继续缓冲，则保证缓冲区可以容纳即将写入的内容
+   *
+   * @param pending 即将写入的字节数
+   */
+  private void decide(int pending) throws IOException {
+    if (!isCompressible()) {
+      startIdentity();
+      return;
+    }
+
+    addVary();
+    if (declaredLength >= 0) {
+      if (declaredLength >= minResponseSize) {
+        startGzip();
+      } else {
+        startIdentity();
+      }
+      return;
+    }
+
+    if (count + pending >= minResponseSize) {
+      startGzip();
+      return;
+    }
+
+    if (buffer == null) {
+      buffer = new byte[minResponseSize];
+    }
+  }
+
+  private boolean isCompressible() {
+    int status = getStatus();
+    if (status < 200 || status >= 300 || status == HttpServletResponse.SC_NO_CONTENT || status == HttpServletResponse.SC_PARTIAL_CONTENT)
+      return false;
+
+    if (isCommitted() || containsHeader(HttpHeaders.CONTENT_ENCODING))
+      return false;
+
+    return isCompressibleType(getContentType(), mimeTypes);
+  }
+
+  private void addVary() {
+    for (String vary : getHeaders(HttpHeaders.VARY)) {
+      if (vary.toLowerCase(Locale.ROOT).contains("accept-encoding"))
+        return;
+    }
+    super.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+  }
+
+  private void startIdentity() throws IOException {
+    state = State.IDENTITY;
+    if (declaredLength >= 0) {
+      super.setContentLengthLong(declaredLength);
+    }
+
+    if (count > 0) {
+      super.getOutputStream().write(buffer, 0, count);
+      count = 0;
+    }
+  }
+
+  private void startGzip() throws IOException {
+    state = State.GZIP;
+    super.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+    gzip = new PooledGzipOutputStream(super.getOutputStream(), pool);
+    if (count > 0) {
+      gzip.write(buffer, 0, count);
+      count = 0;
+    }
+  }
+
+  /**
+   * 判断内容类型是否可压缩，忽略参数（如 {@code charset}）及大小写，{@code +json} 及 {@code +xml} 后缀的类型均可压缩
+   *
+   * @param contentType 响应的 {@code Content-Type}，可为 {@code null}
+   * @param mimeTypes   可压缩的类型，均为小写
+   * @return 若可压缩，则返回 {@code true}；否则返回 {@code false}
+   */
+  static boolean isCompressibleType(String contentType, Set<String> mimeTypes) {
+    if (contentType == null)
+      return false;
+
+    int semicolon = contentType.indexOf(';');
+    String type = (semicolon < 0 ? contentType : contentType.substring(0, semicolon)).trim().toLowerCase(Locale.ROOT);
+    return mimeTypes.contains(type) || type.endsWith("+json") || type.endsWith("+xml");
+  }
+
+  private class GzipServletOutputStream extends ServletOutputStream {
+
+    @Override
+    public void write(int b) throws IOException {
+      write(new byte[] { (byte) b }, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+      GzipResponseWrapper.this.write(b, off, len);
+    }
+
+    @Override
+    public void flush() throws IOException {
+      GzipResponseWrapper.this.flush();
+    }
+
+    @Override
+    public boolean isReady() {
+      try {
+        return GzipResponseWrapper.super.getOutputStream().isReady();
+      } catch (IOException e) {
+        return false;
+      }
+    }
+
+    @Override
+    public void setWriteListener(WriteListener writeListener) {
+      try {
+        GzipResponseWrapper.super.getOutputStream().setWriteListener(writeListener);
+      } catch (IOException e) {
+        throw new IllegalStateException(e);
+      }
+    }
+  }
+}
@@ -0,0 +1,110 @@
+package net.wuxianjie.springbootvuejs.compression;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * 使用 {@link DeflaterPool} 中 {@link Deflater} 的 gzip 输出流，非线程安全
+ *
+ * <p>{@link java.util.zip.GZIPOutputStream} 总是新建自己的 {@link Deflater}，故在此按 RFC 1952 自行写入 gzip 头及尾。
+ * {@link #finish()} 写入 gzip 尾后即将 {@link Deflater} 归还到池中；{@link #close()} 不会关闭底层输出流</p>
+ *
+ * <p>{@link #flush()} 以 {@link Deflater#SYNC_FLUSH} 输出已写入内容的全部压缩数据，客户端无需等待响应结束即可解压，
+ * 故流式或主动刷新的响应不会被压缩缓冲区滞留</p>
+ *
+ * @author 吴仙杰
+ */
+public class PooledGzipOutputStream extends DeflaterOutputStream {
+
+  private static final int BUFFER_SIZE = 8192;
+
+  /**
+   * 魔数、压缩方法（deflate）、标志位、修改时间（4 字节）、额外标志、操作系统（未知）
+   */
+  private static final byte[] HEADER = { 0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xff };
+
+  private final DeflaterPool pool;
+
+  private final CRC32 crc = new CRC32();
+
+  private boolean finished;
+
+  public PooledGzipOutputStream(OutputStream out, DeflaterPool pool) throws IOException {
+    super(out, pool.borrow(), BUFFER_SIZE, true);
+    this.pool = pool;
+    out.write(HEADER);
+  }
+
+  @Override
+  public void write(int b) throws IOException {
+    write(new byte[] { (byte) b }, 0, 1);
+  }
+
+  @Override
+  public void write(byte[] b, int off, int len) throws IOException {
+    if (finished)
+      throw new IOException("gzip 输出流已结束");
+
+    super.write(b, off, len);
+    crc.update(b, off, len);
+  }
+
+  /**
+   * 写入剩余的压缩数据及 gzip 尾（CRC32 及原始长度），并归还 {@link Deflater}；重复调用不做任何处理
+   *
+   * @throws IOException 当写入底层输出流失败时，此时 {@link Deflater} 同样已归还
+   */
+  @Override
+  public void finish() throws IOException {
+    if (finished)
+      return;
+
+    try {
+      super.finish();
+      writeTrailer();
+    } finally {
+      release();
+    }
+  }
+
+  /**
+   * 不写入 gzip 尾，直接归还 {@link Deflater}，用于放弃已写入的内容；重复调用不做任何处理
+   */
+  public void discard() {
+    if (!finished)
+      release();
+  }
+
+  /**
+   * 结束压缩，但不关闭底层输出流，由 Servlet 容器负责关闭响应
+   */
+  @Override
+  public void close() throws IOException {
+    finish();
+  }
+
+  private void writeTrailer() throws IOException {
+    byte[] trailer = new byte[8];
+    writeInt((int) crc.getValue(), trailer, 0);
+    writeInt((int) def.getBytesRead(), trailer, 4);
+    out.write(trailer);
+  }
+
+  private void release() {
+    finished = true;
+    pool.release(def);
+  }
+
+  /**
+   * 以小端序写入
+   */
+  private static void writeInt(int value, byte[] buf, int offset) {
+    buf[offset] = (byte) value;
+    buf[offset + 1] = (byte) (value >> 8);
+    buf[offset + 2] = (byte) (value >> 16);
+    buf[offset + 3] = (byte) (value >> 24);
+  }
+}
@@ -0,0 +1,90 @@
+package net.wuxianjie.springbootvuejs.config;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import net.wuxianjie.springbootvuejs.cache.CacheManager;
+import net.wuxianjie.springbootvuejs.cache.CacheProperties;
+import net.wuxianjie.springbootvuejs.cache.InvalidationBus;
+import net.wuxianjie.springbootvuejs.cache.InvalidationTransport;
+import net.wuxianjie.springbootvuejs.cache.LoopbackTransport;
+import net.wuxianjie.springbootvuejs.cache.MulticastTransport;
+import net.wuxianjie.springbootvuejs.constants.RestCodeEnum;
+import net.wuxianjie.springbootvuejs.exception.IllegalArgumentException;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.StringUtils;
+
+/**
+ * 配置本地缓存
+ *
+ * @author 吴仙杰
+ */
+@Configuration
+@EnableConfigurationProperties(CacheProperties.class)
+public class CacheConfig {
+
+  /**
+   * 程序启动时按配置创建所有命名缓存，并将单例交由 Spring IOC 容器管理，便于注入
+   *
+   * <p>不命名为 {@code cacheManager}，以免与 Spring Cache 的同名 bean 冲突</p>
+   *
+   * @param cacheProperties 缓存配置
+   * @return 本地缓存管理器单例
+   */
+  @Bean
+  public CacheManager localCacheManager(CacheProperties cacheProperties) {
+    CacheManager cacheManager = CacheManager.getInstance();
+    cacheManager.initialize(cacheProperties.getSpecs());
+    // 在创建 bean 时同步加载，故加载完成前程序不会开始处理请求
+    if (StringUtils.hasText(cacheProperties.getSnapshotFile())) {
+      cacheManager.loadSnapshot(Paths.get(cacheProperties.getSnapshotFile()));
+    }
+    return cacheManager;
+  }
+
+  /**
+   * 程序停止时将开启了快照的缓存写入快照文件，未配置快照文件时不写入
+   *
+   * @param localCacheManager 本地缓存管理器
+   * @param cacheProperties   缓存配置
+   * @return 在 Spring IOC 容器关闭时执行的回调
+   */
+  @Bean
+  public DisposableBean localCacheSnapshotWriter(CacheManager localCacheManager, CacheProperties cacheProperties) {
+    return () -> {
+      if (StringUtils.hasText(cacheProperties.getSnapshotFile())) {
+        localCacheManager.saveSnapshot(Paths.get(cacheProperties.getSnapshotFile()));
+      }
+    };
+  }
+
+  /**
+   * 多节点间广播缓存失效的总线，传输方式为 {@code none} 时不创建，程序停止时发送剩余的失效后关闭
+   *
+   * @param cacheProperties 缓存配置
+   * @return 缓存失效总线
+   * @throws IOException 当无法加入组播组时
+   */
+  @Bean
+  @ConditionalOnExpression("'${cache.invalidation.transport:none}' != 'none'")
+  public InvalidationBus invalidationBus(CacheProperties cacheProperties) throws IOException {
+    CacheProperties.Invalidation invalidation = cacheProperties.getInvalidation();
+    return new InvalidationBus(createTransport(invalidation),
+      invalidation.getBatchInterval().toMillis(), invalidation.getRedeliverDelay().toMillis());
+  }
+
+  private InvalidationTransport createTransport(CacheProperties.Invalidation invalidation) throws IOException {
+    switch (invalidation.getTransport()) {
+      case "multicast":
+        CacheProperties.Multicast multicast = invalidation.getMulticast();
+        return new MulticastTransport(multicast.getGroup(), multicast.getPort(), multicast.getNetworkInterface(), multicast.getTtl());
+      case "loopback":
+        return new LoopbackTransport("default");
+      default:
+        throw new IllegalArgumentException(String.format("不支持的缓存失效传输方式【%s】", invalidation.getTransport()), RestCodeEnum.ERROR_SERVER);
+    }
+  }
+}
@@ -1,6 +1,10 @@
 package net.wuxianjie.springbootvuejs.config;
 
 import com.auth0.jwt.algorithms.Algorithm;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import net.wuxianjie.springbootvuejs.rest.RestEnvelopeHttpMessageConverter;
+import net.wuxianjie.springbootvuejs.security.XssJsonHttpMessageConverter;
+import net.wuxianjie.springbootvuejs.security.XssJsonModule;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -25,4 +29,36 @@ public class WebConfig {
   public Algorithm jwtAlgorithm() {
     return Algorithm.HMAC256(jwtSecret);
   }
+
+  /**
+   * 注册到 Spring Boot 所管理的 {@code ObjectMapper} 中，使其支持在反序列化时过滤 XSS
+   *
+   * @return Jackson 模块
+   */
+  @Bean
+  public XssJsonModule xssJsonModule() {
+    return new XssJsonModule();
+  }
+
+  /**
+   * 替换 Spring Boot 默认的 JSON 消息转换器，以便对标注了 {@code @XssSanitize} 的接口过滤 JSON 请求体
+   *
+   * @param objectMapper Spring Boot 所管理的 {@code ObjectMapper}
+   * @return JSON 消息转换器
+   */
+  @Bean
+  public XssJsonHttpMessageConverter mappingJackson2HttpMessageConverter(ObjectMapper objectMapper) {
+    return new XssJsonHttpMessageConverter(objectMapper);
+  }
+
+  /**
+   * 将控制器的返回值包装为统一结果后写入响应体，Spring Boot 会将其排在所有默认消息转换器之前
+   *
+   * @param objectMapper Spring Boot 所管理的 {@code ObjectMapper}
+   * @return 只用于写入的 JSON 消息转换器
+   */
+  @Bean
+  public RestEnvelopeHttpMessageConverter restEnvelopeHttpMessageConverter(ObjectMapper objectMapper) {
+    return new RestEnvelopeHttpMessageConverter(objectMapper);
+  }
 }
@@ -119,6 +119,11 @@ public enum RestCodeEnum {
    */
   MALFORMED_PARAMETER(422, 2202, "Parameter Format Error"),
 
+  /**
+   * 请求体超过服务端所允许的大小
+   */
+  PAYLOAD_TOO_LARGE(413, 2203, "Request Entity Too Large"),
+
   /**
    * 程序内部运行出错
    */
@@ -129,6 +134,11 @@ public enum RestCodeEnum {
    */
   NO_MAPPING_HTTP_STATUS(500, 3002, "No Mapping HTTP Status"),
 
+  /**
+   * 异步请求在超时时间内未完成
+   */
+  ASYNC_REQUEST_TIMEOUT(503, 3003, "Async Request Timeout"),
+
   /**
    * 调用外部服务不可用
    */
@@ -1,11 +1,24 @@
 package net.wuxianjie.springbootvuejs.controller;
 
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import javax.servlet.http.HttpServletResponse;
+import net.wuxianjie.springbootvuejs.dto.AccessTokenDto;
 import net.wuxianjie.springbootvuejs.dto.PrincipalDto;
+import net.wuxianjie.springbootvuejs.security.AccessTokenSource;
+import net.wuxianjie.springbootvuejs.security.JwtManager;
+import net.wuxianjie.springbootvuejs.security.TokenCookie;
 import net.wuxianjie.springbootvuejs.service.AccessTokenService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
+import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
@@ -22,42 +35,95 @@ public class AccessTokenController {
 
   private final AccessTokenService service;
 
-  public AccessTokenController(AccessTokenService service) {
+  private final TokenCookie tokenCookie;
+
+  public AccessTokenController(AccessTokenService service, TokenCookie tokenCookie) {
     this.service = service;
+    this.tokenCookie = tokenCookie;
   }
 
   /**
    * 获取 {@code access_token}，一般有效期为 30 天
    *
-   * <p>调用 API 时必须在 URL 中带上 {@code access_token} 参数</p>
+   * <p>每次登录都会新建一个会话，同一用户最多同时保留 {@code token.store.max-sessions} 个会话，超出时最久未登录或刷新的会话失效</p>
+   *
+   * <p>调用 API 时需在请求头中带上 {@code Authorization: Bearer <access_token>}，
+   * 开启 {@code token.cookie.enabled} 时也会写入名为 {@code access_token} 的 Cookie（见 {@link TokenCookie}）；
+   * URL 参数 {@code access_token} 仅为兼容旧客户端而保留</p>
+   *
+   * <p>异步返回：签发期间释放 Servlet 容器的请求线程，完成后再包装为统一结果；鉴权失败时由全局异常处理返回错误结果</p>
    *
    * @param userName 用户名
    * @param password 密码
    * @return 包含 access token 等信息的对象
    */
   @PostMapping()
-  public Object accessToken(@RequestParam("user_name") String userName, @RequestParam("password") String password) {
+  public CompletableFuture<ResponseEntity<AccessTokenDto>> accessToken(@RequestParam("user_name") String userName, @RequestParam("password") String password) {
     userName = userName.trim();
     password = password.trim();
-    return service.getAccessToken(userName, password);
+    return service.getAccessToken(userName, password).thenApply(tokenCookie::toResponse);
   }
 
   /**
    * 刷新 {@code access_token}，一般有效期为 30 天
    *
-   * <p>刷新后，旧的 {@code access_token} 将会被视为过期</p>
+   * <p>刷新后，旧的 {@code access_token} 将会被视为过期，但在宽限期内仍可使用；同一用户短时间内的多次刷新返回同一个新 token</p>
    *
-   * <p>调用 API 时必须在 URL 中带上 {@code access_token} 参数</p>
+   * <p>调用 API 时需在请求头中带上 {@code Authorization: Bearer <access_token>}</p>
+   *
+   * <p>与获取 {@code access_token} 一样异步返回</p>
    *
    * @return 包含 access token 等信息的对象
    */
   @SuppressWarnings("unchecked")
   @GetMapping("/refresh")
-  public Object refreshing(Authentication authentication) {
+  public CompletableFuture<ResponseEntity<AccessTokenDto>> refreshing(Authentication authentication) {
 
     PrincipalDto principal = (PrincipalDto) authentication.getPrincipal();
     List<GrantedAuthority> authorityList = (List<GrantedAuthority>) authentication.getAuthorities();
 
-    return service.refreshAccessToken(principal, authorityList);
+    return service.refreshAccessToken(principal, authorityList).thenApply(tokenCookie::toResponse);
+  }
+
+  /**
+   * 获取自程序启动以来各来源（请求头、Cookie、URL 参数）传递 {@code access_token} 的次数，用于推动客户端停止通过 URL 参数传递
+   *
+   * @return 来源 -> 次数
+   */
+  @GetMapping("/sources")
+  @PreAuthorize("hasRole('ADMIN')")
+  public Object sourceStats() {
+    Map<String, Long> stats = new LinkedHashMap<>();
+    for (AccessTokenSource source : AccessTokenSource.values()) {
+      stats.put(source.name().toLowerCase(Locale.ROOT), source.getCount());
+    }
+    return stats;
+  }
+
+  /**
+   * 撤销当前用户的所有会话（包括当前会话），之后所有已签发的 {@code access_token} 均失效
+   *
+   * @param authentication Spring Security 中的身份验证对象
+   * @param response       HTTP 响应对象，开启 Cookie 时用于清除 Cookie
+   * @return {@code null}
+   */
+  @DeleteMapping("/sessions")
+  public Object revokeSessions(Authentication authentication, HttpServletResponse response) {
+    service.revokeSessions((PrincipalDto) authentication.getPrincipal());
+    tokenCookie.clear(response);
+    return null;
+  }
+
+  /**
+   * 撤销当前用户的一个会话，该会话的 {@code access_token} 失效
+   *
+   * @param authentication Spring Security 中的身份验证对象
+   * @param sessionId      会话 ID，即 {@code access_token} 中的 {@code jti}
+   * @return {@code null}
+   */
+  @DeleteMapping("/sessions/{session_id}")
+  public Object revokeSession(Authentication authentication, @PathVariable("session_id") String sessionId) {
+    service.revokeSession((PrincipalDto) authentication.getPrincipal(), JwtManager.parseSessionId(sessionId));
+    return null;
   }
 }
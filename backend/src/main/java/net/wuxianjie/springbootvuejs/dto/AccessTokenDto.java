@@ -16,7 +16,7 @@ import lombok.Data;
 public class AccessTokenDto {
 
   /**
-   * 需要在 URL 中带上参数 {@code access_token}，才可以访问受保护的资源
+   * 需要在请求头中带上 {@code Authorization: Bearer <access_token>}，才可以访问受保护的资源
    */
   private String accessToken;
 
@@ -0,0 +1,77 @@
+package net.wuxianjie.springbootvuejs.dto;
+
+import com.fasterxml.jackson.databind.PropertyNamingStrategy;
+import com.fasterxml.jackson.databind.annotation.JsonNaming;
+import java.util.List;
+import java.util.Map;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * 本地命名缓存的统计信息
+ *
+ * @author 吴仙杰
+ */
+@Data
+@AllArgsConstructor
+@JsonNaming(PropertyNamingStrategy.SnakeCaseStrategy.class)
+public class CacheStatsDto {
+
+  /**
+   * 缓存名
+   */
+  private String name;
+
+  /**
+   * 当前的条目数量（近似值）
+   */
+  private long size;
+
+  /**
+   * 各滑动窗口内的统计信息，第一个为自程序启动以来的累计值
+   */
+  private List<WindowDto> windows;
+
+  /**
+   * 滑动窗口内的统计信息
+   */
+  @Data
+  @AllArgsConstructor
+  @JsonNaming(PropertyNamingStrategy.SnakeCaseStrategy.class)
+  public static class WindowDto {
+
+    /**
+     * 窗口名，如 {@code 1m}、{@code total}
+     */
+    private String window;
+
+    /**
+     * 窗口的实际时长（单位：秒），程序刚启动时可能短于窗口名所示的时长
+     */
+    private long seconds;
+
+    private long requestCount;
+
+    /**
+     * 每秒请求数
+     */
+    private double requestRate;
+
+    /**
+     * 命中率，没有请求时为 {@code 1.0}
+     */
+    private double hitRatio;
+
+    private long loadCount;
+
+    /**
+     * 平均加载耗时（单位：毫秒）
+     */
+    private double averageLoadMillis;
+
+    /**
+     * 淘汰原因（{@code EXPIRED}、{@code SIZE}、{@code COLLECTED}）-> 被淘汰的条目数量，不含显式删除或替换的条目
+     */
+    private Map<String, Long> evictions;
+  }
+}
@@ -0,0 +1,61 @@
+package net.wuxianjie.springbootvuejs.dto;
+
+import com.fasterxml.jackson.databind.PropertyNamingStrategy;
+import com.fasterxml.jackson.databind.annotation.JsonNaming;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * 标注了 {@code @Cached} 的方法自程序启动以来的统计信息
+ *
+ * @author 吴仙杰
+ */
+@Data
+@AllArgsConstructor
+@JsonNaming(PropertyNamingStrategy.SnakeCaseStrategy.class)
+public class CachedMethodStatsDto {
+
+  /**
+   * 方法，如 {@code AccessTokenService.getAccessToken(String,String)}
+   */
+  private String method;
+
+  /**
+   * 缓存名
+   */
+  private String cache;
+
+  private long hitCount;
+
+  private long missCount;
+
+  /**
+   * 未命中但等待了同一个键正在执行的调用，而未重复执行方法的次数，已计入 {@link #missCount}
+   */
+  private long coalescedCount;
+
+  /**
+   * 命中率，没有请求时为 {@code 1.0}
+   */
+  private double hitRatio;
+
+  /**
+   * 实际执行方法的次数
+   */
+  private long loadCount;
+
+  /**
+   * 执行方法时抛出异常的次数，已计入 {@link #loadCount}
+   */
+  private long loadExceptionCount;
+
+  /**
+   * 执行方法的平均耗时（单位：毫秒）
+   */
+  private double averageLoadMillis;
+
+  /**
+   * 执行方法的最大耗时（单位：毫秒）
+   */
+  private double maxLoadMillis;
+}
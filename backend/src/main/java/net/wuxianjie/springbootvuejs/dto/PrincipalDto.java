@@ -2,18 +2,25 @@ package net.wuxianjie.springbootvuejs.dto;
 
 import com.fasterxml.jackson.databind.PropertyNamingStrategy;
 import com.fasterxml.jackson.databind.annotation.JsonNaming;
-import lombok.Data;
+import lombok.Value;
 
 /**
  * Spring Security 中的当事人对象
  *
+ * <p>不可变对象，因为已验证的鉴权结果会被缓存并在多个请求间共享</p>
+ *
  * @author 吴仙杰
  */
-@Data
+@Value
 @JsonNaming(PropertyNamingStrategy.SnakeCaseStrategy.class)
 public class PrincipalDto {
 
   private int userId;
 
   private String userName;
+
+  /**
+   * 当前 token 所属的会话 ID，即 JWT 的 {@code jti}
+   */
+  private long sessionId;
 }
@@ -2,13 +2,14 @@ package net.wuxianjie.springbootvuejs.dto;
 
 import com.fasterxml.jackson.databind.PropertyNamingStrategy;
 import com.fasterxml.jackson.databind.annotation.JsonNaming;
+import com.google.common.hash.HashCode;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
-import net.wuxianjie.springbootvuejs.cache.CacheManager;
+import net.wuxianjie.springbootvuejs.security.TokenStore;
 
 /**
- * {@link CacheManager} 中 key（{@code token_用户名}）所对应的值
+ * {@link TokenStore} 中一个会话的 token 信息
  *
  * @author 吴仙杰
  */
@@ -22,5 +23,18 @@ public class TokenCacheDto {
 
   private String userName;
 
-  private String accessToken;
+  /**
+   * 会话 ID，即 JWT 的 {@code jti}，同一会话刷新 token 时保持不变
+   */
+  private long sessionId;
+
+  /**
+   * token 的 SHA-256 摘要，不保存 token 本身
+   */
+  private HashCode tokenDigest;
+
+  /**
+   * token 的过期时间（毫秒时间戳）
+   */
+  private long expiresAt;
 }
@@ -0,0 +1,42 @@
+package net.wuxianjie.springbootvuejs.dto;
+
+import com.fasterxml.jackson.databind.PropertyNamingStrategy;
+import com.fasterxml.jackson.databind.annotation.JsonNaming;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * XSS 过滤策略自程序启动以来的统计信息
+ *
+ * @author 吴仙杰
+ */
+@Data
+@AllArgsConstructor
+@JsonNaming(PropertyNamingStrategy.SnakeCaseStrategy.class)
+public class XssPolicyStatsDto {
+
+  /**
+   * 策略名，如 {@code STRICT}
+   */
+  private String policy;
+
+  /**
+   * 按此策略处理过的值的数量
+   */
+  private long valueCount;
+
+  /**
+   * 实际被修改的值的数量，已计入 {@link #valueCount}
+   */
+  private long modifiedCount;
+
+  /**
+   * 过滤所花费的总时间（单位：毫秒）
+   */
+  private double totalMillis;
+
+  /**
+   * 过滤每个值的平均耗时（单位：微秒），没有处理过任何值时为 {@code 0}
+   */
+  private double averageMicros;
+}
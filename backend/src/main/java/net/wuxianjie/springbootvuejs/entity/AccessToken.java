@@ -0,0 +1,37 @@
+package net.wuxianjie.springbootvuejs.entity;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 数据表 {@code access_token}，每个会话一行，保存其最新签发 token 的摘要
+ *
+ * @author 吴仙杰
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@TableName("access_token")
+public class AccessToken {
+
+  @TableId(type = IdType.INPUT)
+  private Long sessionId;
+
+  private Integer userId;
+
+  private String userName;
+
+  /**
+   * token 的 SHA-256 摘要（十六进制）
+   */
+  private String tokenDigest;
+
+  /**
+   * token 的过期时间（毫秒时间戳）
+   */
+  private Long expiresAt;
+}
@@ -22,4 +22,12 @@ public class BaseException extends RuntimeException {
     super(message, cause);
     this.code = code;
   }
+
+  /**
+   * @param writableStackTrace 是否记录异常栈，为 {@code false} 时同时禁用被抑制的异常，适用于频繁抛出且无需异常栈的异常
+   */
+  protected BaseException(String message, Throwable cause, RestCodeEnum code, boolean writableStackTrace) {
+    super(message, cause, writableStackTrace, writableStackTrace);
+    this.code = code;
+  }
 }
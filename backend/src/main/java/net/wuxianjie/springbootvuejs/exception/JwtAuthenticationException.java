@@ -1,19 +1,55 @@
 package net.wuxianjie.springbootvuejs.exception;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import net.wuxianjie.springbootvuejs.constants.RestCodeEnum;
 
 /**
  * 鉴权失败的异常
  *
+ * <p>大量无效或过期 token 的请求会频繁抛出该异常，故不记录异常栈。原因固定的鉴权失败直接抛出预先创建的共享实例，
+ * 其响应体在启动时就已序列化好（见 {@code AuthFailureResponses}）</p>
+ *
  * @author 吴仙杰
  */
 public class JwtAuthenticationException extends BaseException {
 
+  public static final JwtAuthenticationException INVALID_CLIENT_ID =
+    new JwtAuthenticationException("用户名或密码错误", RestCodeEnum.INVALID_CLIENT_ID);
+
+  public static final JwtAuthenticationException INVALID_CLIENT_SECRET =
+    new JwtAuthenticationException("用户名或密码错误", RestCodeEnum.INVALID_CLIENT_SECRET);
+
+  public static final JwtAuthenticationException MISSING_ACCESS_TOKEN =
+    new JwtAuthenticationException("【access_token】缺失", RestCodeEnum.MISSING_ACCESS_TOKEN);
+
+  public static final JwtAuthenticationException INVALID_ACCESS_TOKEN =
+    new JwtAuthenticationException("【access_token】已失效", RestCodeEnum.INVALID_ACCESS_TOKEN);
+
+  public static final JwtAuthenticationException EXPIRED_ACCESS_TOKEN =
+    new JwtAuthenticationException("【access_token】已过期", RestCodeEnum.EXPIRED_ACCESS_TOKEN);
+
+  public static final JwtAuthenticationException REPLACED_ACCESS_TOKEN =
+    new JwtAuthenticationException("【access_token】已更新", RestCodeEnum.EXPIRED_ACCESS_TOKEN);
+
+  private static final List<JwtAuthenticationException> PREDEFINED = Collections.unmodifiableList(Arrays.asList(
+    INVALID_CLIENT_ID, INVALID_CLIENT_SECRET, MISSING_ACCESS_TOKEN, INVALID_ACCESS_TOKEN, EXPIRED_ACCESS_TOKEN, REPLACED_ACCESS_TOKEN));
+
   public JwtAuthenticationException(String message, RestCodeEnum code) {
-    super(message, code);
+    super(message, null, code, false);
   }
 
   public JwtAuthenticationException(String message, Throwable cause, RestCodeEnum code) {
-    super(message, cause, code);
+    super(message, cause, code, false);
+  }
+
+  /**
+   * 获取所有预先创建的共享实例
+   *
+   * @return 不可修改的列表
+   */
+  public static List<JwtAuthenticationException> predefined() {
+    return PREDEFINED;
   }
 }
@@ -0,0 +1,12 @@
+package net.wuxianjie.springbootvuejs.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import net.wuxianjie.springbootvuejs.entity.AccessToken;
+
+/**
+ * 数据表 {@code access_token} 的 Mapper
+ *
+ * @author 吴仙杰
+ */
+public interface AccessTokenMapper extends BaseMapper<AccessToken> {
+}
@@ -0,0 +1,55 @@
+package net.wuxianjie.springbootvuejs.rest;
+
+import java.io.IOException;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import javax.servlet.http.HttpServletResponse;
+import net.wuxianjie.springbootvuejs.exception.JwtAuthenticationException;
+import net.wuxianjie.springbootvuejs.util.JsonUtils;
+import org.springframework.stereotype.Component;
+
+/**
+ * 启动时预先序列化好的鉴权失败响应
+ *
+ * <p>为 {@link JwtAuthenticationException#predefined()} 中的每个共享实例序列化一次统一结果，
+ * 之后直接将字节写入响应，不再创建结果对象或序列化，也不经过错误页转发</p>
+ *
+ * @author 吴仙杰
+ */
+@Component
+public class AuthFailureResponses {
+
+  private static final String CONTENT_TYPE = "application/json;charset=UTF-8";
+
+  /**
+   * 共享实例 -> 响应体，构造后只读，按引用查找
+   */
+  private final Map<JwtAuthenticationException, byte[]> bodies = new IdentityHashMap<>();
+
+  public AuthFailureResponses() {
+    for (JwtAuthenticationException e : JwtAuthenticationException.predefined()) {
+      bodies.put(e, JsonUtils.toJsonBytes(new RestResultDto<Void>(e.getCode(), e.getMessage(), null), true));
+    }
+  }
+
+  /**
+   * 若该异常为预先创建的共享实例，则将对应的响应写入 HTTP 响应
+   *
+   * @param response HTTP 响应对象，尚未获取过其字符输出流
+   * @param e        鉴权失败的异常
+   * @return 若已写入，则返回 {@code true}；否则返回 {@code false}，由调用方按一般异常处理
+   * @throws IOException 当写入响应失败时
+   */
+  public boolean write(HttpServletResponse response, JwtAuthenticationException e) throws IOException {
+    byte[] body = bodies.get(e);
+    if (body == null) {
+      return false;
+    }
+
+    response.setStatus(e.getCode().getHttpStatus());
+    response.setContentType(CONTENT_TYPE);
+    response.setContentLength(body.length);
+    response.getOutputStream().write(body);
+    return true;
+  }
+}
@@ -0,0 +1,53 @@
+package net.wuxianjie.springbootvuejs.rest;
+
+import net.wuxianjie.springbootvuejs.cache.CacheManager;
+import net.wuxianjie.springbootvuejs.cache.CachedAspect;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * 本地缓存统计信息控制器
+ *
+ * @author 吴仙杰
+ */
+@RestController
+@RequestMapping("/cache")
+public class CacheStatsController {
+
+  private final CacheManager cacheManager;
+
+  private final CachedAspect cachedAspect;
+
+  public CacheStatsController(CacheManager localCacheManager, CachedAspect cachedAspect) {
+    this.cacheManager = localCacheManager;
+    this.cachedAspect = cachedAspect;
+  }
+
+  /**
+   * 获取所有开启了统计（{@code cache.specs.<缓存名>.record-stats=true}）的缓存的统计信息
+   *
+   * <p>包括累计值，以及最近 1、5、15 分钟内的命中率、每秒请求数、平均加载耗时和按原因分类的淘汰数量</p>
+   *
+   * @return 各缓存的统计信息
+   */
+  @GetMapping("/stats")
+  @PreAuthorize("hasRole('ADMIN')")
+  public Object stats() {
+    return cacheManager.getStats();
+  }
+
+  /**
+   * 获取所有标注了 {@code @Cached} 且已被调用过的方法的统计信息
+   *
+   * <p>包括命中率、合并等待的次数，以及实际执行方法的次数、平均及最大耗时</p>
+   *
+   * @return 各方法的统计信息
+   */
+  @GetMapping("/stats/methods")
+  @PreAuthorize("hasRole('ADMIN')")
+  public Object methodStats() {
+    return cachedAspect.getStats();
+  }
+}
@@ -21,13 +21,21 @@ import org.springframework.stereotype.Component;
  *
  * <p>原因：Spring 全局异常处理不能处理 filter 中的异常，比如 Spring Security 中抛出的异常</p>
  *
+ * <p>位于 {@code CompressionFilter} 之后，故写入的错误结果同样会被压缩</p>
+ *
  * @author 吴仙杰
  */
 @Component
-@Order(Ordered.HIGHEST_PRECEDENCE)
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
 @Slf4j
 public class ExceptionHandlerFilter implements Filter {
 
+  private final AuthFailureResponses authFailureResponses;
+
+  public ExceptionHandlerFilter(AuthFailureResponses authFailureResponses) {
+    this.authFailureResponses = authFailureResponses;
+  }
+
   @Override
   public void init(FilterConfig filterConfig) {
 
@@ -41,6 +49,10 @@ public class ExceptionHandlerFilter implements Filter {
     try {
       chain.doFilter(request, response);
     } catch (Exception e) {
+      if (e instanceof JwtAuthenticationException && authFailureResponses.write(httpServletResponse, (JwtAuthenticationException) e)) {
+        return;
+      }
+
       RestResultDto<Void> result = getRestResult(httpServletRequest, e);
       handleResponse(httpServletResponse, result);
     }
@@ -66,6 +78,6 @@ public class ExceptionHandlerFilter implements Filter {
   private void handleResponse(HttpServletResponse httpServletResponse, RestResultDto<Void> result) throws IOException {
     httpServletResponse.setHeader("Content-Type", "application/json; charset=utf8");
     httpServletResponse.setStatus(result.getHttpStatus());
-    httpServletResponse.getWriter().write(JsonUtils.toJson(result, true));
+    JsonUtils.writeJson(httpServletResponse.getWriter(), result, true);
   }
 }
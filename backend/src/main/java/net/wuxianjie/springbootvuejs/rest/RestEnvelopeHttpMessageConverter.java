@@ -0,0 +1,179 @@
+package net.wuxianjie.springbootvuejs.rest;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+import java.util.Arrays;
+import net.wuxianjie.springbootvuejs.constants.RestCodeEnum;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.lang.Nullable;
+
+/**
+ * 将控制器的返回值包装为 {@link RestResultDto} 格式后写入响应体的 JSON 消息转换器，只用于写入
+ *
+ * <p>不创建 {@link RestResultDto}：在同一个 {@link JsonGenerator} 中写入 {@code error_code}、{@code message}，
+ * 由 Spring Boot 所管理的 {@code ObjectMapper} 将返回值序列化为 {@code result}，再写入 {@code http_code}，
+ * 结果与序列化 {@code new RestResultDto<>(返回值)} 完全一致。
+ * 序列化结果先写入当前线程复用的缓冲区，再连同 {@code Content-Length} 一次性写入响应</p>
+ *
+ * <p>该转换器位于所有转换器之前，故所有 JSON 响应体都会被包装；
+ * 已经是 {@link RestResultDto} 的响应体（如 {@link RestExceptionController} 的错误结果）不经过该转换器。
+ * 控制器返回 {@code null} 时由 {@link RestEnvelopeResponseBodyAdvice} 替换为 {@link #NULL_RESULT}，以免 Spring 不写入响应体</p>
+ *
+ * <p>控制器在方法签名中声明返回 {@code CompletableFuture}、{@code DeferredResult} 或 {@code Callable} 时，
+ * Spring 会在其完成后再次分发请求，此时才由该转换器包装完成后的结果；以异常完成时由 {@link RestExceptionController} 处理。
+ * 返回类型声明为 {@link Object} 的方法不会被识别为异步，future 本身会被当作结果序列化</p>
+ *
+ * @author 吴仙杰
+ */
+public class RestEnvelopeHttpMessageConverter extends AbstractGenericHttpMessageConverter<Object> {
+
+  /**
+   * 表示控制器返回了 {@code null}，写入为 {@code "result":null}
+   */
+  static final Object NULL_RESULT = new Object();
+
+  /**
+   * 缓冲区超过该大小（单位：字节）时不再保留，以免个别大响应使每个线程长期占用大量内存
+   */
+  private static final int MAX_RETAINED_BUFFER_SIZE = 64 * 1024;
+
+  private static final SerializedString HTTP_CODE = new SerializedString("http_code");
+
+  private static final SerializedString ERROR_CODE = new SerializedString("error_code");
+
+  private static final SerializedString MESSAGE = new SerializedString("message");
+
+  private static final SerializedString RESULT = new SerializedString("result");
+
+  private static final SerializedString SUCCESS_MESSAGE = new SerializedString(RestCodeEnum.SUCCESS.getMessage());
+
+  private static final ThreadLocal<ResponseBuffer> BUFFERS = ThreadLocal.withInitial(ResponseBuffer::new);
+
+  private final ObjectMapper objectMapper;
+
+  private final ObjectWriter writer;
+
+  public RestEnvelopeHttpMessageConverter(ObjectMapper objectMapper) {
+    super(MediaType.APPLICATION_JSON, new MediaType("application", "*+json"));
+    this.objectMapper = objectMapper;
+    this.writer = objectMapper.writer();
+  }
+
+  @Override
+  protected boolean supports(Class<?> clazz) {
+    return !RestResultDto.class.isAssignableFrom(clazz);
+  }
+
+  @Override
+  public boolean canRead(Type type, @Nullable Class<?> contextClass, @Nullable MediaType mediaType) {
+    return false;
+  }
+
+  @Override
+  public boolean canRead(Class<?> clazz, @Nullable MediaType mediaType) {
+    return false;
+  }
+
+  @Override
+  public boolean canWrite(@Nullable Type type, Class<?> clazz, @Nullable MediaType mediaType) {
+    return supports(clazz) && canWrite(mediaType);
+  }
+
+  @Override
+  public Object read(Type type, @Nullable Class<?> contextClass, HttpInputMessage inputMessage) {
+    throw new HttpMessageNotReadableException("只支持写入", inputMessage);
+  }
+
+  @Override
+  protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) {
+    throw new HttpMessageNotReadableException("只支持写入", inputMessage);
+  }
+
+  @Override
+  protected void writeInternal(Object value, @Nullable Type type, HttpOutputMessage outputMessage) throws IOException {
+    ResponseBuffer buffer = BUFFERS.get();
+    try {
+      writeEnvelope(value, buffer);
+      outputMessage.getHeaders().setContentLength(buffer.size());
+      buffer.writeTo(outputMessage.getBody());
+    } finally {
+      buffer.reset();
+    }
+  }
+
+  private void writeEnvelope(Object value, OutputStream out) throws IOException {
+    try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out, JsonEncoding.UTF8)) {
+      // 字段顺序与 Jackson 序列化 RestResultDto 时一致
+      generator.writeStartObject();
+      generator.writeFieldName(ERROR_CODE);
+      generator.writeNumber(RestCodeEnum.SUCCESS.getErrorCode());
+      generator.writeFieldName(MESSAGE);
+      generator.writeString(SUCCESS_MESSAGE);
+      generator.writeFieldName(RESULT);
+      if (value == NULL_RESULT) {
+        generator.writeNull();
+      } else {
+        writer.writeValue(generator, value);
+      }
+      generator.writeFieldName(HTTP_CODE);
+      generator.writeNumber(RestCodeEnum.SUCCESS.getHttpStatus());
+      generator.writeEndObject();
+    }
+  }
+
+  /**
+   * 当前线程复用的响应缓冲区，非线程安全
+   */
+  private static class ResponseBuffer extends OutputStream {
+
+    private static final int INITIAL_SIZE = 1024;
+
+    private byte[] bytes = new byte[INITIAL_SIZE];
+
+    private int size;
+
+    @Override
+    public void write(int b) {
+      ensureCapacity(size + 1);
+      bytes[size++] = (byte) b;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) {
+      ensureCapacity(size + len);
+      System.arraycopy(b, off, bytes, size, len);
+      size += len;
+    }
+
+    int size() {
+      return size;
+    }
+
+    void writeTo(OutputStream out) throws IOException {
+      out.write(bytes, 0, size);
+    }
+
+    void reset() {
+      size = 0;
+      if (bytes.length > MAX_RETAINED_BUFFER_SIZE) {
+        bytes = new byte[INITIAL_SIZE];
+      }
+    }
+
+    private void ensureCapacity(int capacity) {
+      if (capacity > bytes.length) {
+        bytes = Arrays.copyOf(bytes, Math.max(capacity, bytes.length << 1));
+      }
+    }
+  }
+}
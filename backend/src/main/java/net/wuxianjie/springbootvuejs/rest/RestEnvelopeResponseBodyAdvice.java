@@ -0,0 +1,32 @@
+package net.wuxianjie.springbootvuejs.rest;
+
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * 将控制器返回的 {@code null} 替换为 {@link RestEnvelopeHttpMessageConverter#NULL_RESULT}
+ *
+ * <p>Spring 不会为 {@code null} 响应体调用消息转换器，替换后才能写入 {@code "result":null} 的统一结果</p>
+ *
+ * @author 吴仙杰
+ */
+@ControllerAdvice
+public class RestEnvelopeResponseBodyAdvice implements ResponseBodyAdvice<Object> {
+
+  @Override
+  public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+    return RestEnvelopeHttpMessageConverter.class.isAssignableFrom(converterType);
+  }
+
+  @Override
+  public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                ServerHttpRequest request, ServerHttpResponse response) {
+    return body == null ? RestEnvelopeHttpMessageConverter.NULL_RESULT : body;
+  }
+}
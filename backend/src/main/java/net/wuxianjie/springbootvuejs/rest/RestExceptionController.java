@@ -1,11 +1,13 @@
 package net.wuxianjie.springbootvuejs.rest;
 
 import com.google.common.base.Joiner;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 import java.util.stream.Collectors;
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.ConstraintViolation;
 import javax.validation.ConstraintViolationException;
 import lombok.extern.slf4j.Slf4j;
@@ -23,6 +25,7 @@ import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.MissingServletRequestParameterException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.context.request.async.AsyncRequestTimeoutException;
 
 /**
  * 自定义全局异常处理
@@ -33,6 +36,12 @@ import org.springframework.web.bind.annotation.RestControllerAdvice;
 @RestControllerAdvice
 public class RestExceptionController {
 
+  private final AuthFailureResponses authFailureResponses;
+
+  public RestExceptionController(AuthFailureResponses authFailureResponses) {
+    this.authFailureResponses = authFailureResponses;
+  }
+
   /**
    * 处理因客户端请求方法与服务端可接受方法不一致时的异常
    *
@@ -55,6 +64,16 @@ public class RestExceptionController {
     return RestApiUtils.generateError(RestCodeEnum.HTTP_REQUEST_NOT_ACCEPTABLE, e.getMessage());
   }
 
+  /**
+   * 处理异步请求（如控制器返回的 {@code CompletableFuture}）在 {@code spring.mvc.async.request-timeout} 内未完成时的异常
+   *
+   * @return 通用结果封装
+   */
+  @ExceptionHandler(AsyncRequestTimeoutException.class)
+  public ResponseEntity<RestResultDto<Void>> handleAsyncRequestTimeoutException() {
+    return RestApiUtils.generateError(RestCodeEnum.ASYNC_REQUEST_TIMEOUT, "处理请求超时，请稍后重试");
+  }
+
   /**
    * 处理因客户端没有指定服务端必要请求体时的异常
    *
@@ -133,11 +152,17 @@ public class RestExceptionController {
   /**
    * 处理因客户端鉴权失败时的异常
    *
-   * @param e 自动注入的异常
-   * @return 通用结果封装
+   * @param e        自动注入的异常
+   * @param response HTTP 响应对象
+   * @return 通用结果封装；若已直接写入预先序列化好的响应，则返回 {@code null}
+   * @throws IOException 当写入响应失败时
    */
   @ExceptionHandler(JwtAuthenticationException.class)
-  public ResponseEntity<RestResultDto<Void>> handleAuthenticationException(JwtAuthenticationException e) {
+  public ResponseEntity<RestResultDto<Void>> handleAuthenticationException(JwtAuthenticationException e, HttpServletResponse response) throws IOException {
+    // 预先创建的异常直接写入预先序列化好的响应，如登录时用户名或密码错误
+    if (authFailureResponses.write(response, e)) {
+      return null;
+    }
     return RestApiUtils.generateError(e.getCode(), e.getMessage());
   }
 
@@ -0,0 +1,43 @@
+package net.wuxianjie.springbootvuejs.rest;
+
+import java.util.ArrayList;
+import java.util.List;
+import net.wuxianjie.springbootvuejs.dto.XssPolicyStatsDto;
+import net.wuxianjie.springbootvuejs.security.XssPolicy;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * XSS 过滤统计信息控制器
+ *
+ * @author 吴仙杰
+ */
+@RestController
+@RequestMapping("/xss")
+public class XssStatsController {
+
+  /**
+   * 获取各过滤策略处理过的值的数量、被修改的值的数量及耗时，用于评估各路由的过滤开销
+   *
+   * <p>{@link XssPolicy#OFF} 不做任何处理，故不包含在内</p>
+   *
+   * @return 各策略的统计信息
+   */
+  @GetMapping("/stats")
+  @PreAuthorize("hasRole('ADMIN')")
+  public Object stats() {
+    List<XssPolicyStatsDto> stats = new ArrayList<>();
+    for (XssPolicy policy : XssPolicy.values()) {
+      if (policy == XssPolicy.OFF)
+        continue;
+
+      long valueCount = policy.getValueCount();
+      long totalNanos = policy.getTotalNanos();
+      double averageMicros = valueCount == 0 ? 0 : totalNanos / 1000.0 / valueCount;
+      stats.add(new XssPolicyStatsDto(policy.name(), valueCount, policy.getModifiedCount(), totalNanos / 1_000_000.0, averageMicros));
+    }
+    return stats;
+  }
+}
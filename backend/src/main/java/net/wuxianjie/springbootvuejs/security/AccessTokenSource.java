@@ -0,0 +1,48 @@
+package net.wuxianjie.springbootvuejs.security;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * access token 在请求中的来源
+ *
+ * <p>每种来源都会累计其被使用的次数，以便统计仍通过 URL 参数传递 token 的客户端，可通过 {@code GET /token/sources} 查看</p>
+ *
+ * @author 吴仙杰
+ */
+public enum AccessTokenSource {
+
+  /**
+   * 请求头 {@code Authorization: Bearer <access_token>}
+   */
+  HEADER,
+
+  /**
+   * 名为 {@code access_token} 的 Cookie，须开启 {@code token.cookie.enabled}，见 {@link TokenCookie}
+   */
+  COOKIE,
+
+  /**
+   * URL 参数 {@code access_token}（已不推荐使用）
+   *
+   * <p>读取该参数会使 {@link PreventXssFilter} 处理请求中的参数</p>
+   */
+  URL_PARAMETER;
+
+  private final LongAdder counter = new LongAdder();
+
+  /**
+   * 记录一次使用
+   */
+  void increment() {
+    counter.increment();
+  }
+
+  /**
+   * 获取自程序启动以来的使用次数
+   *
+   * @return 使用次数
+   */
+  public long getCount() {
+    return counter.sum();
+  }
+}
@@ -0,0 +1,202 @@
+package net.wuxianjie.springbootvuejs.security;
+
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hashing;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import net.wuxianjie.springbootvuejs.cache.ExpiringCache;
+import org.springframework.security.core.Authentication;
+
+/**
+ * 已验证 access token 的鉴权结果缓存
+ *
+ * <p>同一个 token 会被反复使用，命中缓存时可跳过 JWT 签名验证及角色列表的构造，直接复用不可变的 {@link Authentication}</p>
+ *
+ * <p>缓存的键为 token 的 SHA-256 摘要，而非 token 本身，以免在堆中重复保存完整的 JWT。
+ * 不能使用非加密哈希（如 murmur3），否则攻击者可构造与有效 token 碰撞的伪造 token 来绕过签名验证</p>
+ *
+ * <p>每条缓存恰好在 token 本身的 {@code exp} 过期；当用户的 token 被替换时，
+ * 记录该用户失效时的全局版本号，使其所有在此之前开始校验的鉴权结果立即失效</p>
+ *
+ * <p>失效记录最多保留 {@link #MAXIMUM_INVALIDATED_USERS} 个用户，超出时先将所有用户共用的最低版本号提升至当前版本号，
+ * 再清理已被其覆盖的记录。这只会使清理前缓存的鉴权结果重新校验，而不会使已失效的鉴权结果重新生效</p>
+ *
+ * @author 吴仙杰
+ */
+public class AuthenticationCache {
+
+  /**
+   * 最多缓存的鉴权结果数量，缓存已满时淘汰最早过期的鉴权结果
+   */
+  static final int MAXIMUM_SIZE = 10_000;
+
+  /**
+   * 最多记录失效版本号的用户数量
+   */
+  private static final int MAXIMUM_INVALIDATED_USERS = 10_000;
+
+  /**
+   * token 摘要 -> 已验证的鉴权结果
+   */
+  private final ExpiringCache<HashCode, Entry> cache;
+
+  /**
+   * 全局版本号，每次使用户失效时递增
+   */
+  private final AtomicLong clock = new AtomicLong();
+
+  /**
+   * 用户 ID -> 最近一次失效时的版本号
+   */
+  private final ConcurrentMap<Integer, Long> invalidations = new ConcurrentHashMap<>();
+
+  /**
+   * 所有用户共用的最低失效版本号，未在 {@link #invalidations} 中记录的用户以此为准
+   */
+  private volatile long floor;
+
+  private final int maximumInvalidatedUsers;
+
+  /**
+   * 将构造方法私有化，使外部无法直接实例化
+   */
+  private AuthenticationCache() {
+    this(MAXIMUM_INVALIDATED_USERS);
+  }
+
+  AuthenticationCache(int maximumInvalidatedUsers) {
+    this.cache = new ExpiringCache<>(MAXIMUM_SIZE);
+    this.maximumInvalidatedUsers = maximumInvalidatedUsers;
+  }
+
+  /**
+   * 单例模式：静态内部类法，延时加载，并且能保证线程安全
+   */
+  private static class SingletonHolder {
+
+    private static final AuthenticationCache INSTANCE;
+
+    static {
+      INSTANCE = new AuthenticationCache();
+    }
+  }
+
+  /**
+   * 获取对象单例
+   */
+  public static AuthenticationCache getInstance() {
+    return SingletonHolder.INSTANCE;
+  }
+
+  /**
+   * 计算 access token 的摘要，作为缓存的键
+   *
+   * @param accessToken access token
+   * @return token 的 SHA-256 摘要
+   */
+  public HashCode digest(String accessToken) {
+    return Hashing.sha256().hashString(accessToken, StandardCharsets.UTF_8);
+  }
+
+  /**
+   * 获取已缓存的鉴权结果
+   *
+   * @param key token 摘要，见 {@link #digest(String)}
+   * @return 已验证的鉴权结果；若未缓存、已过期或 token 已被替换，则返回 {@code null}
+   */
+  public Authentication get(HashCode key) {
+    Entry entry = cache.getIfPresent(key);
+    if (entry == null) {
+      return null;
+    }
+
+    if (entry.generation < invalidatedAt(entry.userId)) {
+      cache.invalidate(key);
+      return null;
+    }
+    return entry.authentication;
+  }
+
+  /**
+   * 缓存已验证的鉴权结果
+   *
+   * @param key            token 摘要，见 {@link #digest(String)}
+   * @param userId         用户 ID
+   * @param generation     开始校验 token 前通过 {@link #currentGeneration()} 获取的版本号
+   * @param expiresAt      token 的过期时间（毫秒时间戳）
+   * @param authentication 已验证的鉴权结果
+   */
+  public void put(HashCode key, int userId, long generation, long expiresAt, Authentication authentication) {
+    cache.put(key, new Entry(authentication, userId, generation), expiresAt);
+  }
+
+  /**
+   * 获取当前的全局版本号
+   *
+   * <p>需在校验 token 是否为用户当前 token 之前获取，以免校验期间 token 被替换后仍缓存了旧 token 的鉴权结果</p>
+   *
+   * @return 版本号
+   */
+  public long currentGeneration() {
+    return clock.get();
+  }
+
+  /**
+   * 使该用户所有已缓存的鉴权结果失效
+   *
+   * @param userId 用户 ID
+   */
+  public void invalidateUser(int userId) {
+    long generation = clock.incrementAndGet();
+    invalidations.merge(userId, generation, Math::max);
+    if (invalidations.size() > maximumInvalidatedUsers) {
+      prune();
+    }
+  }
+
+  /**
+   * @return 当前记录了失效版本号的用户数量
+   */
+  int getInvalidatedUserCount() {
+    return invalidations.size();
+  }
+
+  private long invalidatedAt(int userId) {
+    Long generation = invalidations.get(userId);
+    long userFloor = floor;
+    return generation == null ? userFloor : Math.max(generation, userFloor);
+  }
+
+  /**
+   * 先提升最低版本号，再清理已被其覆盖的记录，故并发读取时任何时刻都不会漏掉失效记录
+   */
+  private synchronized void prune() {
+    if (invalidations.size() <= maximumInvalidatedUsers) {
+      return;
+    }
+
+    long newFloor = clock.get();
+    floor = newFloor;
+    invalidations.values().removeIf(generation -> generation <= newFloor);
+  }
+
+  /**
+   * 缓存条目
+   */
+  private static class Entry {
+
+    private final Authentication authentication;
+
+    private final int userId;
+
+    private final long generation;
+
+    Entry(Authentication authentication, int userId, long generation) {
+      this.authentication = authentication;
+      this.userId = userId;
+      this.generation = generation;
+    }
+  }
+}
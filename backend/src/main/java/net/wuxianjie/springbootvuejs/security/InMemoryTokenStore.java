@@ -0,0 +1,65 @@
+package net.wuxianjie.springbootvuejs.security;
+
+import com.google.common.hash.HashCode;
+import net.wuxianjie.springbootvuejs.dto.TokenCacheDto;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * 保存在进程内 {@link TokenIndex} 中的 token 存储，程序重启后所有用户都需重新登录
+ *
+ * @author 吴仙杰
+ */
+@Component
+@ConditionalOnProperty(name = "token.store", havingValue = "memory", matchIfMissing = true)
+public class InMemoryTokenStore implements TokenStore {
+
+  private final TokenIndex index;
+
+  /**
+   * 被替换的 token 仍可使用的时长（单位：毫秒）
+   */
+  private final long gracePeriodMillis;
+
+  public InMemoryTokenStore(@Value("${token.store.expected-users:10000}") int expectedUsers,
+                            @Value("${token.store.max-sessions:1}") int maxSessions,
+                            @Value("${token.store.grace-period-millis:10000}") long gracePeriodMillis) {
+    this.index = new TokenIndex(expectedUsers, maxSessions);
+    this.gracePeriodMillis = gracePeriodMillis;
+  }
+
+  @Override
+  public void save(TokenCacheDto token) {
+    index.put(token.getUserId(), token.getSessionId(), token.getTokenDigest(), token.getExpiresAt(),
+      System.currentTimeMillis() + gracePeriodMillis);
+  }
+
+  @Override
+  public TokenStatus verify(int userId, String userName, long sessionId, HashCode tokenDigest) {
+    TokenStatus status = index.verify(userId, sessionId, tokenDigest, System.currentTimeMillis());
+    return status == null ? TokenStatus.EXPIRED : status;
+  }
+
+  @Override
+  public void remove(int userId, String userName) {
+    index.removeSessions(userId);
+  }
+
+  @Override
+  public void removeSession(int userId, String userName, long sessionId) {
+    index.removeSession(userId, sessionId);
+  }
+
+  /**
+   * 各节点的会话互不共享，故只需撤销其他节点已撤销的会话；其他节点新建或刷新的会话不影响本节点的会话
+   */
+  @Override
+  public void invalidate(int userId, long sessionId) {
+    if (sessionId == TokenIndex.NO_SESSION) {
+      index.removeSessions(userId);
+    } else {
+      index.removeSession(userId, sessionId);
+    }
+  }
+}
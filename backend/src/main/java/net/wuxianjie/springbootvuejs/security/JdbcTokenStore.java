@@ -0,0 +1,269 @@
+package net.wuxianjie.springbootvuejs.security;
+
+import com.baomidou.mybatisplus.core.toolkit.Wrappers;
+import com.google.common.hash.HashCode;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import net.wuxianjie.springbootvuejs.dto.TokenCacheDto;
+import net.wuxianjie.springbootvuejs.entity.AccessToken;
+import net.wuxianjie.springbootvuejs.mapper.AccessTokenMapper;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Component;
+
+/**
+ * 持久化到数据表 {@code access_token} 中的 token 存储，每个会话一行，程序重启后用户无需重新登录
+ *
+ * <ul>
+ *   <li>近缓存：校验时优先使用进程内的 {@link TokenIndex}，只有近缓存中没有该会话且该用户尚未完整加载时，才从数据库加载该用户的所有会话。
+ *   加载后该用户即被标记为已完整加载，之后不存在的会话（如已撤销或被淘汰的 token）直接视为过期，不会再次查询数据库；
+ *   其他节点修改该用户的会话时，须通过 {@link #invalidate(int, long)} 移除近缓存中的该用户</li>
+ *   <li>延迟写入：保存或撤销时只更新近缓存并记录待写入项，由后台线程定时写入数据库；
+ *   同一会话在两次写入之间的多次修改只会写入最后一次。撤销用户的所有会话会先于该用户其他的待写入项写入</li>
+ * </ul>
+ *
+ * <p>宽限期只保存在近缓存中：被替换的 token 在签发新 token 的节点上仍可使用 {@code token.store.grace-period-millis}，
+ * 其他节点从数据库重新加载后只认新的 token</p>
+ *
+ * <p>待写入项只有在写入数据库成功后才会被移除，故从数据库加载时总是以待写入项覆盖数据库中的数据，不会读到旧数据；
+ * 加载结果仅在加载期间该用户未被修改过时才会合并到近缓存中（见 {@link TokenIndex#load}），故也不会重新加入加载期间已撤销的会话。
+ * 程序关闭时会写入所有剩余的待写入项</p>
+ *
+ * @author 吴仙杰
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "token.store", havingValue = "jdbc")
+public class JdbcTokenStore implements TokenStore, DisposableBean {
+
+  /**
+   * 清理数据库中已过期 token 的间隔（单位：分钟）
+   */
+  private static final int PURGE_INTERVAL_MINUTES = 60;
+
+  /**
+   * 加载期间该用户被并发修改时，最多尝试加载的次数
+   */
+  private static final int MAX_LOAD_ATTEMPTS = 3;
+
+  private final AccessTokenMapper mapper;
+
+  /**
+   * 近缓存
+   */
+  private final TokenIndex index;
+
+  /**
+   * 会话 ID -> 尚未写入数据库的会话，摘要为 {@code null} 表示待删除，见 {@link #isTombstone(TokenCacheDto)}
+   */
+  private final ConcurrentMap<Long, TokenCacheDto> pendingWrites = new ConcurrentHashMap<>();
+
+  /**
+   * 用户 ID -> 尚未写入数据库的“撤销所有会话”，每次撤销都是新的对象，以便写入后只移除已写入的那一次
+   */
+  private final ConcurrentMap<Integer, Object> pendingRevocations = new ConcurrentHashMap<>();
+
+  private final ScheduledExecutorService executor;
+
+  /**
+   * 被替换的 token 仍可使用的时长（单位：毫秒）
+   */
+  private final long gracePeriodMillis;
+
+  public JdbcTokenStore(AccessTokenMapper mapper,
+                        @Value("${token.store.expected-users:10000}") int expectedUsers,
+                        @Value("${token.store.max-sessions:1}") int maxSessions,
+                        @Value("${token.store.jdbc.flush-interval-millis:500}") long flushIntervalMillis,
+                        @Value("${token.store.grace-period-millis:10000}") long gracePeriodMillis) {
+    this.mapper = mapper;
+    this.index = new TokenIndex(expectedUsers, maxSessions);
+    this.gracePeriodMillis = gracePeriodMillis;
+    this.executor = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+      .setNameFormat("token-store-writer")
+      .setDaemon(true)
+      .build());
+    executor.scheduleWithFixedDelay(this::flush, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+    executor.scheduleWithFixedDelay(this::purgeExpired, PURGE_INTERVAL_MINUTES, PURGE_INTERVAL_MINUTES, TimeUnit.MINUTES);
+  }
+
+  @Override
+  public void save(TokenCacheDto token) {
+    long evicted = index.put(token.getUserId(), token.getSessionId(), token.getTokenDigest(), token.getExpiresAt(),
+      System.currentTimeMillis() + gracePeriodMillis);
+    pendingWrites.put(token.getSessionId(), token);
+    if (evicted != TokenIndex.NO_SESSION) {
+      pendingWrites.put(evicted, tombstone(token.getUserId(), evicted));
+    }
+  }
+
+  @Override
+  public TokenStatus verify(int userId, String userName, long sessionId, HashCode tokenDigest) {
+    long now = System.currentTimeMillis();
+    TokenStatus status = index.verify(userId, sessionId, tokenDigest, now);
+    if (status != null) {
+      return status;
+    }
+
+    for (int attempt = 0; attempt < MAX_LOAD_ATTEMPTS; attempt++) {
+      long version = index.version(userId);
+      if (index.load(userId, version, load(userId))) {
+        break;
+      }
+    }
+
+    status = index.verify(userId, sessionId, tokenDigest, now);
+    return status == null ? TokenStatus.EXPIRED : status;
+  }
+
+  /**
+   * 须先记录待写入项再修改近缓存，以使并发的加载要么读到待写入项，要么因版本号变化而放弃合并
+   */
+  @Override
+  public void remove(int userId, String userName) {
+    pendingRevocations.put(userId, new Object());
+    pendingWrites.values().removeIf(token -> token.getUserId() == userId);
+    index.removeSessions(userId);
+  }
+
+  @Override
+  public void removeSession(int userId, String userName, long sessionId) {
+    pendingWrites.put(sessionId, tombstone(userId, sessionId));
+    index.removeSession(userId, sessionId);
+  }
+
+  /**
+   * 只移除近缓存中的用户，下次校验时重新从数据库加载其所有会话
+   */
+  @Override
+  public void invalidate(int userId, long sessionId) {
+    index.remove(userId);
+  }
+
+  /**
+   * 将所有待写入项写入数据库，失败的项会在下次重试
+   *
+   * <p>先写入撤销所有会话，撤销失败的用户本次不写入其会话，以免之后的撤销删除了撤销后才保存的会话</p>
+   */
+  void flush() {
+    for (Map.Entry<Integer, Object> entry : pendingRevocations.entrySet()) {
+      Integer userId = entry.getKey();
+      try {
+        mapper.delete(Wrappers.<AccessToken>lambdaQuery().eq(AccessToken::getUserId, userId));
+        pendingRevocations.remove(userId, entry.getValue());
+      } catch (RuntimeException e) {
+        log.error("撤销用户【{}】的所有会话失败，稍后重试", userId, e);
+      }
+    }
+
+    for (Map.Entry<Long, TokenCacheDto> entry : pendingWrites.entrySet()) {
+      TokenCacheDto token = entry.getValue();
+      if (pendingRevocations.containsKey(token.getUserId())) {
+        continue;
+      }
+
+      try {
+        write(token);
+        // 若写入期间又有新的修改，则保留新的待写入项
+        pendingWrites.remove(entry.getKey(), token);
+      } catch (RuntimeException e) {
+        log.error("写入用户【{}】的会话【{}】失败，稍后重试", token.getUserId(), JwtManager.formatSessionId(token.getSessionId()), e);
+      }
+    }
+  }
+
+  @Override
+  public void destroy() throws InterruptedException {
+    executor.shutdown();
+    executor.awaitTermination(10, TimeUnit.SECONDS);
+    flush();
+  }
+
+  /**
+   * 加载用户的所有会话：先读取待写入项，再查询数据库，最后以待写入项覆盖数据库中的数据
+   *
+   * @return 未过期的会话，按过期时间降序排列
+   */
+  private List<TokenCacheDto> load(int userId) {
+    boolean revoked = pendingRevocations.containsKey(userId);
+    List<TokenCacheDto> pending = new ArrayList<>();
+    for (TokenCacheDto token : pendingWrites.values()) {
+      if (token.getUserId() == userId) {
+        pending.add(token);
+      }
+    }
+
+    Map<Long, TokenCacheDto> sessions = new HashMap<>();
+    if (!revoked) {
+      List<AccessToken> rows = mapper.selectList(Wrappers.<AccessToken>lambdaQuery()
+        .eq(AccessToken::getUserId, userId)
+        .gt(AccessToken::getExpiresAt, System.currentTimeMillis()));
+      for (AccessToken row : rows) {
+        sessions.put(row.getSessionId(), new TokenCacheDto(row.getUserId(), row.getUserName(), row.getSessionId(),
+          HashCode.fromString(row.getTokenDigest()), row.getExpiresAt()));
+      }
+    }
+
+    for (TokenCacheDto token : pending) {
+      if (isTombstone(token)) {
+        sessions.remove(token.getSessionId());
+      } else {
+        sessions.put(token.getSessionId(), token);
+      }
+    }
+
+    List<TokenCacheDto> result = new ArrayList<>(sessions.values());
+    result.sort(Comparator.comparingLong(TokenCacheDto::getExpiresAt).reversed());
+    return result;
+  }
+
+  private void write(TokenCacheDto token) {
+    if (isTombstone(token)) {
+      mapper.delete(Wrappers.<AccessToken>lambdaQuery()
+        .eq(AccessToken::getSessionId, token.getSessionId())
+        .eq(AccessToken::getUserId, token.getUserId()));
+      return;
+    }
+
+    AccessToken row = new AccessToken(token.getSessionId(), token.getUserId(), token.getUserName(),
+      token.getTokenDigest().toString(), token.getExpiresAt());
+    if (mapper.updateById(row) > 0) {
+      return;
+    }
+
+    try {
+      mapper.insert(row);
+    } catch (DuplicateKeyException e) {
+      // 其他节点已插入该会话
+      mapper.updateById(row);
+    }
+  }
+
+  private void purgeExpired() {
+    try {
+      int count = mapper.delete(Wrappers.<AccessToken>lambdaQuery().le(AccessToken::getExpiresAt, System.currentTimeMillis()));
+      log.debug("已清理 {} 个过期的 access token", count);
+    } catch (RuntimeException e) {
+      log.error("清理过期的 access token 失败", e);
+    }
+  }
+
+  private static TokenCacheDto tombstone(int userId, long sessionId) {
+    return new TokenCacheDto(userId, null, sessionId, null, 0L);
+  }
+
+  private static boolean isTombstone(TokenCacheDto token) {
+    return token.getTokenDigest() == null;
+  }
+}
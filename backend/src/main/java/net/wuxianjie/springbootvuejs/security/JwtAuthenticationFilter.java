@@ -1,47 +1,98 @@
 package net.wuxianjie.springbootvuejs.security;
 
+import com.auth0.jwt.impl.PublicClaims;
 import com.auth0.jwt.interfaces.Claim;
 import com.google.common.base.Strings;
-import com.google.common.cache.LoadingCache;
+import com.google.common.hash.HashCode;
 import java.io.IOException;
 import java.util.Arrays;
+import java.util.Date;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
+import javax.servlet.DispatcherType;
 import javax.servlet.FilterChain;
 import javax.servlet.ServletException;
 import javax.servlet.ServletRequest;
 import javax.servlet.ServletResponse;
 import javax.servlet.http.HttpServletRequest;
-import net.wuxianjie.springbootvuejs.cache.CacheManager;
-import net.wuxianjie.springbootvuejs.constants.RestCodeEnum;
+import javax.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
 import net.wuxianjie.springbootvuejs.dto.PrincipalDto;
-import net.wuxianjie.springbootvuejs.dto.TokenCacheDto;
 import net.wuxianjie.springbootvuejs.exception.JwtAuthenticationException;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import net.wuxianjie.springbootvuejs.rest.AuthFailureResponses;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.AuthorityUtils;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
-import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
+import org.springframework.security.web.util.matcher.RequestMatcher;
 
 /**
  * 重写 Spring Security 认证过滤器
  *
  * @author 吴仙杰
  */
+@Slf4j
 public class JwtAuthenticationFilter extends UsernamePasswordAuthenticationFilter {
 
+  /**
+   * 通过 URL 参数传递 token 时，INFO 日志的最小间隔（单位：毫秒）
+   */
+  private static final long URL_PARAMETER_LOG_INTERVAL_MILLIS = 60_000;
+
+  /**
+   * 不需要鉴权的请求地址匹配器
+   */
+  private final RequestMatcher permitAllMatcher;
+
+  /**
+   * 用户当前有效 token 的存储
+   */
+  private final TokenStore tokenStore;
+
+  /**
+   * 预先序列化好的鉴权失败响应
+   */
+  private final AuthFailureResponses authFailureResponses;
+
+  /**
+   * 可选的 Cookie 来源
+   */
+  private final TokenCookie tokenCookie;
+
+  /**
+   * 上一次记录通过 URL 参数传递 token 的时间
+   */
+  private final AtomicLong urlParameterLoggedAt = new AtomicLong();
+
+  public JwtAuthenticationFilter(RequestMatcher permitAllMatcher, TokenStore tokenStore, AuthFailureResponses authFailureResponses, TokenCookie tokenCookie) {
+    this.permitAllMatcher = permitAllMatcher;
+    this.tokenStore = tokenStore;
+    this.authFailureResponses = authFailureResponses;
+    this.tokenCookie = tokenCookie;
+  }
+
   @Override
   public void doFilter(ServletRequest req, ServletResponse res, FilterChain chain) throws IOException, ServletException {
     HttpServletRequest request = (HttpServletRequest) req;
 
-    if (!isNeedAuthentication(request)) {
+    // 异步请求完成后的再次分发只用于写入结果，鉴权已在最初的请求中完成；此时 token 可能已被该请求刷新，不能再次鉴权
+    if (request.getDispatcherType() == DispatcherType.ASYNC || !isNeedAuthentication(request)) {
       chain.doFilter(req, res);
       return;
     }
 
-    UsernamePasswordAuthenticationToken authResult = authentication(request);
+    Authentication authResult;
+    try {
+      authResult = authentication(request);
+    } catch (JwtAuthenticationException e) {
+      // 直接写入预先序列化好的响应，无需抛出到 `ExceptionHandlerFilter` 或转发到错误页
+      if (authFailureResponses.write((HttpServletResponse) res, e))
+        return;
+      throw e;
+    }
 
     // 向 Spring Security 上下文中保存信息
     SecurityContextHolder.getContext().setAuthentication(authResult);
@@ -56,14 +107,64 @@ public class JwtAuthenticationFilter extends UsernamePasswordAuthenticationFilte
    * @return 若需要鉴权，则返回 {@code true}；否则返回 {@code false}
    */
   private boolean isNeedAuthentication(HttpServletRequest request) {
-    for (String item : SecurityConstants.PERMIT_ALL_PATH) {
-      AntPathRequestMatcher antPathRequestMatcher = new AntPathRequestMatcher(item);
-      boolean isMatch = antPathRequestMatcher.matches(request);
-      if (isMatch) {
-        return false;
-      }
+    return !permitAllMatcher.matches(request);
+  }
+
+  /**
+   * 从请求中获取 access token，并记录其来源
+   *
+   * <p>依次从请求头 {@code Authorization: Bearer}、Cookie（须开启 {@code token.cookie.enabled}，见 {@link TokenCookie}）及 URL 参数中获取。
+   * 前两者不会触发 {@link PreventXssFilter} 处理请求中的参数，URL 参数仅作为兼容旧客户端的后备来源</p>
+   *
+   * @param request HTTP 请求对象
+   * @return access token，若不存在则返回 {@code null}
+   */
+  private String resolveAccessToken(HttpServletRequest request) {
+    String accessToken = getBearerToken(request);
+    AccessTokenSource source = AccessTokenSource.HEADER;
+
+    if (accessToken == null) {
+      accessToken = tokenCookie.resolve(request);
+      source = AccessTokenSource.COOKIE;
     }
-    return true;
+
+    if (accessToken == null) {
+      accessToken = request.getParameter(SecurityConstants.URL_PARAMETER_TOKEN);
+      source = AccessTokenSource.URL_PARAMETER;
+    }
+
+    if (Strings.isNullOrEmpty(accessToken))
+      return null;
+
+    source.increment();
+    request.setAttribute(SecurityConstants.REQUEST_ATTRIBUTE_TOKEN_SOURCE, source);
+    if (source == AccessTokenSource.URL_PARAMETER)
+      logUrlParameterToken(request);
+
+    return accessToken;
+  }
+
+  /**
+   * 记录通过 URL 参数传递 token 的请求，以便找出仍在使用该方式的客户端；限制频率，以免旧客户端刷屏
+   */
+  private void logUrlParameterToken(HttpServletRequest request) {
+    long now = System.currentTimeMillis();
+    long loggedAt = urlParameterLoggedAt.get();
+    if (now - loggedAt < URL_PARAMETER_LOG_INTERVAL_MILLIS || !urlParameterLoggedAt.compareAndSet(loggedAt, now))
+      return;
+
+    log.info("请求【{}】（User-Agent：{}）通过 URL 参数传递 access_token，请改用请求头 {}；自启动以来共 {} 次，每分钟最多记录一次",
+      request.getRequestURI(), request.getHeader("User-Agent"), SecurityConstants.HEADER_AUTHORIZATION, AccessTokenSource.URL_PARAMETER.getCount());
+  }
+
+  private String getBearerToken(HttpServletRequest request) {
+    String header = request.getHeader(SecurityConstants.HEADER_AUTHORIZATION);
+    int prefixLength = SecurityConstants.PREFIX_BEARER_TOKEN.length();
+    if (header == null || !header.regionMatches(true, 0, SecurityConstants.PREFIX_BEARER_TOKEN, 0, prefixLength))
+      return null;
+
+    String token = header.substring(prefixLength).trim();
+    return token.isEmpty() ? null : token;
   }
 
   /**
@@ -72,37 +173,47 @@ public class JwtAuthenticationFilter extends UsernamePasswordAuthenticationFilte
    * @param request HTTP 请求对象
    * @return 表示验证通过后，包含用户名、密码和角色的对象
    */
-  private UsernamePasswordAuthenticationToken authentication(HttpServletRequest request) {
-    // 1、验证 HTTP URL 中是否存在 `access_token`
-    String accessToken = request.getParameter(SecurityConstants.URL_PARAMETER_TOKEN);
+  private Authentication authentication(HttpServletRequest request) {
+    // 1、验证请求中是否存在 `access_token`
+    String accessToken = resolveAccessToken(request);
     if (Strings.isNullOrEmpty(accessToken))
-      throw new JwtAuthenticationException("【access_token】缺失", RestCodeEnum.MISSING_ACCESS_TOKEN);
+      throw JwtAuthenticationException.MISSING_ACCESS_TOKEN;
+
+    // 若该 token 已验证过，则直接复用缓存的鉴权结果
+    AuthenticationCache authenticationCache = AuthenticationCache.getInstance();
+    HashCode tokenDigest = authenticationCache.digest(accessToken);
+    Authentication cachedAuthentication = authenticationCache.get(tokenDigest);
+    if (cachedAuthentication != null)
+      return cachedAuthentication;
 
     // 2、验证 access token，并获取 JWT 中的声明，失败会抛出异常
     Map<String, Claim> claimMap = JwtManager.getInstance().verifyAccessToken(accessToken);
 
-    // 从 JWT 中获取用户名和所拥有的角色列表字符串
+    // 从 JWT 中获取用户 ID、用户名和所拥有的角色列表字符串
+    Claim userIdClaim = claimMap.get(SecurityConstants.JWT_PUBLIC_CLAIM_USER_ID_KEY);
+    Integer userId = userIdClaim == null ? null : userIdClaim.asInt();
     String userName = claimMap.get(SecurityConstants.JWT_PUBLIC_CLAIM_USER_NAME_KEY).asString();
     String roles = claimMap.get(SecurityConstants.JWT_PUBLIC_CLAIM_ROLE_NAME_KEY).asString();
 
-    // 3、查看缓存中是否存在该 access token
-    CacheManager cacheManager = CacheManager.getInstance();
-    LoadingCache<String, Object> ttlCache = cacheManager.getCache30DaysToLive();
-    TokenCacheDto cache = (TokenCacheDto) ttlCache.getIfPresent(SecurityConstants.PREFIX_ACCESS_TOKEN_CACHE + userName);
-    if (cache == null)
-      throw new JwtAuthenticationException("【access_token】已过期", RestCodeEnum.EXPIRED_ACCESS_TOKEN);
+    // 不含用户 ID 或会话 ID 的旧 token 无法在 token 存储中查找，需重新登录
+    Claim sessionIdClaim = claimMap.get(PublicClaims.JWT_ID);
+    if (userId == null || sessionIdClaim == null)
+      throw JwtAuthenticationException.EXPIRED_ACCESS_TOKEN;
+    long sessionId = JwtManager.parseSessionId(sessionIdClaim.asString());
 
-    String cachedToken = cache.getAccessToken();
-    if (!cachedToken.equals(accessToken))
-      throw new JwtAuthenticationException("【access_token】已更新", RestCodeEnum.EXPIRED_ACCESS_TOKEN);
+    // 须在查看缓存前获取版本号，以免在此期间 token 被替换后仍缓存了旧 token 的鉴权结果
+    long generation = authenticationCache.currentGeneration();
 
-    // 构造当事人信息
-    PrincipalDto principal = new PrincipalDto();
-    principal.setUserId(cache.getUserId());
-    principal.setUserName(cache.getUserName());
+    // 3、查看该 access token 是否为用户当前有效的 token
+    TokenStatus status = tokenStore.verify(userId, userName, sessionId, tokenDigest);
+    if (status == TokenStatus.EXPIRED)
+      throw JwtAuthenticationException.EXPIRED_ACCESS_TOKEN;
+
+    if (status == TokenStatus.REPLACED)
+      throw JwtAuthenticationException.REPLACED_ACCESS_TOKEN;
 
-    // 密码置空即可
-    String password = "";
+    // 构造当事人信息
+    PrincipalDto principal = new PrincipalDto(userId, userName, sessionId);
 
     // 将以英文逗号隔开的角色名转化为 Spring Security 需要的角色列表
     // Spring Security 要求角色名必须大写，且必须以前缀 `ROLE_` 开头
@@ -112,6 +223,13 @@ public class JwtAuthenticationFilter extends UsernamePasswordAuthenticationFilte
     .collect(Collectors.joining(", "));
     List<GrantedAuthority> authorityList = AuthorityUtils.commaSeparatedStringToAuthorityList(upperCaseRoles);
 
-    return new UsernamePasswordAuthenticationToken(principal, password, authorityList);
+    Authentication authResult = new VerifiedAuthenticationToken(principal, authorityList);
+
+    // 缓存鉴权结果，有效期不超过 token 本身的过期时间；宽限期内的旧 token 不缓存，以免宽限期过后仍可使用
+    Date expiresAt = claimMap.get(PublicClaims.EXPIRES_AT).asDate();
+    if (expiresAt != null && status == TokenStatus.VALID)
+      authenticationCache.put(tokenDigest, userId, generation, expiresAt.getTime(), authResult);
+
+    return authResult;
   }
 }
@@ -8,7 +8,9 @@ import com.auth0.jwt.interfaces.Claim;
 import com.auth0.jwt.interfaces.DecodedJWT;
 import java.util.Date;
 import java.util.Map;
+import lombok.extern.slf4j.Slf4j;
 import net.wuxianjie.springbootvuejs.exception.JwtAuthenticationException;
+import net.wuxianjie.springbootvuejs.exception.RequestArgumentNotValidException;
 import net.wuxianjie.springbootvuejs.constants.RestCodeEnum;
 import net.wuxianjie.springbootvuejs.util.ApplicationContextHolder;
 
@@ -17,6 +19,7 @@ import net.wuxianjie.springbootvuejs.util.ApplicationContextHolder;
  *
  * @author 吴仙杰
  */
+@Slf4j
 public class JwtManager {
 
   /**
@@ -68,19 +71,48 @@ public class JwtManager {
    * 生成 JWT
    *
    * @param expirationTime 过期时间
+   * @param userId         用户 ID
    * @param username       用户名
+   * @param sessionId      会话 ID，作为 JWT 的 {@code jti}
    * @param roles          用户所拥有的角色名，以英文逗号分隔
    * @return JWT
    */
-  public String generateAccessToken(Date expirationTime, String username, String roles) {
+  public String generateAccessToken(Date expirationTime, int userId, String username, long sessionId, String roles) {
     return JWT.create()
       // 过期时间
       .withExpiresAt(expirationTime)
+      .withJWTId(formatSessionId(sessionId))
+      .withClaim(SecurityConstants.JWT_PUBLIC_CLAIM_USER_ID_KEY, userId)
       .withClaim(SecurityConstants.JWT_PUBLIC_CLAIM_USER_NAME_KEY, username)
       .withClaim(SecurityConstants.JWT_PUBLIC_CLAIM_ROLE_NAME_KEY, roles)
       .sign(algorithm);
   }
 
+  /**
+   * 将会话 ID 格式化为 JWT 的 {@code jti}，即无符号十六进制
+   *
+   * @param sessionId 会话 ID
+   * @return {@code jti}
+   */
+  public static String formatSessionId(long sessionId) {
+    return Long.toHexString(sessionId);
+  }
+
+  /**
+   * 解析 JWT 的 {@code jti} 或请求参数中的会话 ID
+   *
+   * @param sessionId 无符号十六进制的会话 ID
+   * @return 会话 ID
+   * @throws RequestArgumentNotValidException 当格式错误时
+   */
+  public static long parseSessionId(String sessionId) {
+    try {
+      return Long.parseUnsignedLong(sessionId, 16);
+    } catch (NumberFormatException e) {
+      throw new RequestArgumentNotValidException(String.format("会话 ID【%s】格式错误", sessionId), e, RestCodeEnum.MALFORMED_PARAMETER);
+    }
+  }
+
   /**
    * 验证 JWT
    *
@@ -93,7 +125,9 @@ public class JwtManager {
     try {
       jwt = jwtVerifier.verify(accessToken);
     } catch (JWTVerificationException e) {
-      throw new JwtAuthenticationException(String.format("JWT【%s】验证失败：%s", accessToken, e.getMessage()), RestCodeEnum.INVALID_ACCESS_TOKEN);
+      // 失败原因只记录在日志中，返回给客户端的是预先序列化好的固定响应
+      log.debug("JWT 验证失败：{}", e.getMessage());
+      throw JwtAuthenticationException.INVALID_ACCESS_TOKEN;
     }
     return jwt.getClaims();
   }
@@ -0,0 +1,256 @@
+package net.wuxianjie.springbootvuejs.security;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import javax.servlet.http.HttpServletRequest;
+import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
+import org.springframework.security.web.util.matcher.RequestMatcher;
+
+/**
+ * 预编译的 Ant 风格路径匹配器，语义与 {@link AntPathRequestMatcher} 一致
+ *
+ * <p>在构造时一次性将所有路径模式编译为一棵字符前缀树：</p>
+ *
+ * <ul>
+ *   <li>不含通配符的模式（如 {@code /token}）：精确匹配</li>
+ *   <li>以 {@code /**} 结尾的模式（如 {@code /static/**}）：匹配该前缀本身及其下的所有子路径</li>
+ *   <li>以 {@code *} 结尾的模式（如 {@code /login*}）：匹配该前缀后接不含 {@code /} 的任意字符</li>
+ * </ul>
+ *
+ * <p>故匹配时只需沿前缀树遍历一次请求路径，不分配任何对象，且耗时与模式数量无关。
+ * 其他无法编译的模式（如 {@code /user/?}、{@code /user/{id}}）则退回使用 {@link AntPathRequestMatcher} 逐个匹配</p>
+ *
+ * @author 吴仙杰
+ */
+public final class PathPatternMatcher implements RequestMatcher {
+
+  private static final String SUBPATH_WILDCARD = "/**";
+
+  private static final String SEGMENT_WILDCARD = "*";
+
+  private static final int NO_MATCH = 0;
+
+  private static final int MATCH = 1;
+
+  private static final int UNDECIDED = 2;
+
+  private final Node root = new Node();
+
+  /**
+   * 无法编译进前缀树的模式
+   */
+  private final RequestMatcher[] fallbackMatchers;
+
+  /**
+   * 所有模式所对应的 {@link AntPathRequestMatcher}，仅用于处理前缀树无法判定的路径
+   */
+  private final RequestMatcher[] antMatchers;
+
+  /**
+   * 原始路径模式
+   */
+  private final String[] patterns;
+
+  /**
+   * 编译路径模式
+   *
+   * @param patterns Ant 风格的路径模式
+   */
+  public PathPatternMatcher(String... patterns) {
+    this.patterns = patterns.clone();
+
+    List<RequestMatcher> fallbackList = new ArrayList<>();
+    List<RequestMatcher> antList = new ArrayList<>();
+    for (String pattern : patterns) {
+      AntPathRequestMatcher antMatcher = new AntPathRequestMatcher(pattern);
+      antList.add(antMatcher);
+      if (!compile(pattern)) {
+        fallbackList.add(antMatcher);
+      }
+    }
+    fallbackMatchers = fallbackList.toArray(new RequestMatcher[0]);
+    antMatchers = antList.toArray(new RequestMatcher[0]);
+  }
+
+  @Override
+  public boolean matches(HttpServletRequest request) {
+    int result = match(getRequestPath(request));
+    if (result == MATCH) {
+      return true;
+    }
+
+    RequestMatcher[] matchers = result == UNDECIDED ? antMatchers : fallbackMatchers;
+    for (RequestMatcher matcher : matchers) {
+      if (matcher.matches(request)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * 判断路径是否与任意一个已编译进前缀树的模式相匹配
+   *
+   * @param path 请求路径，不包含上下文路径
+   * @return 若匹配，则返回 {@code true}；否则返回 {@code false}
+   */
+  boolean matches(String path) {
+    return match(path) == MATCH;
+  }
+
+  /**
+   * 沿前缀树遍历一次请求路径
+   *
+   * <p>{@link AntPathRequestMatcher} 会忽略路径中连续的 {@code /}，
+   * 这类路径（通常已被 Spring Security 的防火墙拒绝）交由 {@link AntPathRequestMatcher} 处理</p>
+   */
+  private int match(String path) {
+    Node node = root;
+    int length = path.length();
+    char previous = 0;
+    for (int i = 0; ; i++) {
+      if (node.subpath && (i == length || path.charAt(i) == '/')) {
+        return MATCH;
+      }
+
+      if (node.segment && path.indexOf('/', i) < 0) {
+        return MATCH;
+      }
+
+      if (i == length) {
+        return node.exact ? MATCH : NO_MATCH;
+      }
+
+      char c = path.charAt(i);
+      if (c == '/' && previous == '/') {
+        return UNDECIDED;
+      }
+      previous = c;
+
+      node = node.child(c);
+      if (node == null) {
+        return NO_MATCH;
+      }
+    }
+  }
+
+  /**
+   * 获取原始路径模式
+   *
+   * @return 路径模式
+   */
+  public String[] getPatterns() {
+    return patterns.clone();
+  }
+
+  @Override
+  public String toString() {
+    return "PathPatternMatcher" + Arrays.toString(patterns);
+  }
+
+  /**
+   * 将模式编译进前缀树
+   *
+   * @param pattern 路径模式
+   * @return 若该模式无法编译，则返回 {@code false}
+   */
+  private boolean compile(String pattern) {
+    if (pattern.endsWith(SUBPATH_WILDCARD)) {
+      String prefix = pattern.substring(0, pattern.length() - SUBPATH_WILDCARD.length());
+      if (hasWildcard(prefix)) {
+        return false;
+      }
+      insert(prefix).subpath = true;
+      return true;
+    }
+
+    if (pattern.endsWith(SEGMENT_WILDCARD)) {
+      String prefix = pattern.substring(0, pattern.length() - SEGMENT_WILDCARD.length());
+      if (hasWildcard(prefix)) {
+        return false;
+      }
+      insert(prefix).segment = true;
+      return true;
+    }
+
+    if (hasWildcard(pattern)) {
+      return false;
+    }
+    insert(pattern).exact = true;
+    return true;
+  }
+
+  private Node insert(String prefix) {
+    Node node = root;
+    for (int i = 0; i < prefix.length(); i++) {
+      node = node.getOrAddChild(prefix.charAt(i));
+    }
+    return node;
+  }
+
+  private static boolean hasWildcard(String pattern) {
+    return pattern.indexOf('*') >= 0 || pattern.indexOf('?') >= 0 || pattern.indexOf('{') >= 0;
+  }
+
+  /**
+   * 与 {@link AntPathRequestMatcher} 获取请求路径的方式保持一致
+   */
+  private static String getRequestPath(HttpServletRequest request) {
+    String url = request.getServletPath();
+    String pathInfo = request.getPathInfo();
+    if (pathInfo != null) {
+      url = url == null || url.isEmpty() ? pathInfo : url + pathInfo;
+    }
+    return url;
+  }
+
+  /**
+   * 前缀树节点
+   *
+   * <p>路径模式数量很少，故子节点使用数组保存，并以线性查找代替哈希查找</p>
+   */
+  private static final class Node {
+
+    private char[] keys = new char[0];
+
+    private Node[] children = new Node[0];
+
+    /**
+     * 是否有模式在此处精确结束
+     */
+    private boolean exact;
+
+    /**
+     * 是否有以 {@code /**} 结尾的模式在此处结束
+     */
+    private boolean subpath;
+
+    /**
+     * 是否有以 {@code *} 结尾的模式在此处结束
+     */
+    private boolean segment;
+
+    Node child(char c) {
+      char[] k = keys;
+      for (int i = 0; i < k.length; i++) {
+        if (k[i] == c) {
+          return children[i];
+        }
+      }
+      return null;
+    }
+
+    Node getOrAddChild(char c) {
+      Node child = child(c);
+      if (child == null) {
+        child = new Node();
+        keys = Arrays.copyOf(keys, keys.length + 1);
+        keys[keys.length - 1] = c;
+        children = Arrays.copyOf(children, children.length + 1);
+        children[children.length - 1] = child;
+      }
+      return child;
+    }
+  }
+}
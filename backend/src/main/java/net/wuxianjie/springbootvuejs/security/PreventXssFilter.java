@@ -1,12 +1,9 @@
 package net.wuxianjie.springbootvuejs.security;
 
 import java.io.IOException;
-import java.text.Normalizer;
 import java.util.Collections;
 import java.util.Enumeration;
-import java.util.HashMap;
 import java.util.Map;
-import java.util.regex.Pattern;
 import javax.servlet.Filter;
 import javax.servlet.FilterChain;
 import javax.servlet.FilterConfig;
@@ -21,61 +18,19 @@ import org.springframework.stereotype.Component;
 /**
  * 防跨站脚本攻击（XSS），定义危险字符过滤器
  *
+ * <p>按 {@link XssPolicyResolver} 为每个请求选择过滤策略，策略为 {@link XssPolicy#OFF} 的请求不做任何包装</p>
+ *
  * @author 吴仙杰
  */
 @Component
 @Order
 public class PreventXssFilter implements Filter {
 
-  /**
-   * 忽略 {@code script} 标记之间的任何内容
-   */
-  private static final Pattern SCRIPT_TAG_PATTERN = Pattern.compile("<script>(.*?)</script>", Pattern.CASE_INSENSITIVE);
-
-  /**
-   * 忽略 {@code src='...'} 中的任何内容
-   */
-  private static final Pattern SCRIPT_SRC_SINGLE_QUOTE_PATTERN = Pattern.compile("src[\r\n]*=[\r\n]*'(.*?)'", Pattern.CASE_INSENSITIVE | Pattern.MULTILINE | Pattern.DOTALL);
-
-  /**
-   * 忽略 {@code src="..."} 中的任何内容
-   */
-  private static final Pattern SCRIPT_SRC_DOUBLE_QUOTE_PATTERN = Pattern.compile("src[\r\n]*=[\r\n]*\"(.*?)\"", Pattern.CASE_INSENSITIVE | Pattern.MULTILINE | Pattern.DOTALL);
-
-  /**
-   * 忽略任何单独的 {@code </script>} 标签
-   */
-  private static final Pattern SCRIPT_LONESOME_CLOSED_TAG_PATTERN = Pattern.compile("</script>", Pattern.CASE_INSENSITIVE);
-
-  /**
-   * 忽略任何单独的 {@code <script ...>} 标签
-   */
-  private static final Pattern SCRIPT_LONESOME_TAG_PATTERN = Pattern.compile("<script(.*?)>", Pattern.CASE_INSENSITIVE | Pattern.MULTILINE | Pattern.DOTALL);
-
-  /**
-   * 忽略 {@code eval(...)} 表达式
-   */
-  private static final Pattern SCRIPT_EVAL_PATTERN = Pattern.compile("eval\\((.*?)\\)", Pattern.CASE_INSENSITIVE | Pattern.MULTILINE | Pattern.DOTALL);
-
-  /**
-   * 忽略 {@code expression(...)} 表达式
-   */
-  private static final Pattern SCRIPT_EXPRESSION_PATTERN = Pattern.compile("expression\\((.*?)\\)", Pattern.CASE_INSENSITIVE | Pattern.MULTILINE | Pattern.DOTALL);
-
-  /**
-   * 忽略 {@code javascript:...} 表达式
-   */
-  private static final Pattern SCRIPT_JAVASCRIPT_PATTERN = Pattern.compile("javascript:", Pattern.CASE_INSENSITIVE);
-
-  /**
-   * 忽略 {@code vbscript:...} 表达式
-   */
-  private static final Pattern SCRIPT_VBSCRIPT_PATTERN = Pattern.compile("vbscript:", Pattern.CASE_INSENSITIVE);
+  private final XssPolicyResolver policyResolver;
 
-  /**
-   * 忽略 {@code onload=} 表达式
-   */
-  private static final Pattern SCRIPT_ONLOAD_PATTERN = Pattern.compile("onload(.*?)=", Pattern.CASE_INSENSITIVE | Pattern.MULTILINE | Pattern.DOTALL);
+  public PreventXssFilter(XssPolicyResolver policyResolver) {
+    this.policyResolver = policyResolver;
+  }
 
   @Override
   public void init(FilterConfig filterConfig) {
@@ -84,8 +39,15 @@ public class PreventXssFilter implements Filter {
 
   @Override
   public void doFilter(ServletRequest servletRequest, ServletResponse servletResponse, FilterChain filterChain) throws IOException, ServletException {
+    HttpServletRequest request = (HttpServletRequest) servletRequest;
+    XssPolicy policy = policyResolver.resolve(request);
+    if (policy == XssPolicy.OFF) {
+      filterChain.doFilter(request, servletResponse);
+      return;
+    }
+
     // 包装原始 HTTP 请求
-    XssRequestWrapper wrapper = new XssRequestWrapper((HttpServletRequest) servletRequest);
+    XssRequestWrapper wrapper = new XssRequestWrapper(request, policy);
     // 进入责任链的下一条
     filterChain.doFilter(wrapper, servletResponse);
   }
@@ -101,12 +63,18 @@ public class PreventXssFilter implements Filter {
   static class XssRequestWrapper extends HttpServletRequestWrapper {
 
     /**
-     * 处理过后的请求参数
+     * 处理过后的请求参数，参数值在首次读取时才进行过滤
      */
     private Map<String, String[]> sanitizedQueryString;
 
-    XssRequestWrapper(HttpServletRequest request) {
+    /**
+     * 过滤策略
+     */
+    private final XssPolicy policy;
+
+    XssRequestWrapper(HttpServletRequest request, XssPolicy policy) {
       super(request);
+      this.policy = policy;
     }
 
     @Override
@@ -124,31 +92,9 @@ public class PreventXssFilter implements Filter {
 
     @Override
     public Map<String, String[]> getParameterMap() {
-      // 若未处理过当前请求，则进行相应的参数处理
+      // 若未处理过当前请求，则创建延迟过滤的参数视图
       if (sanitizedQueryString == null) {
-        // 处理后的参数结果集
-        Map<String, String[]> result = new HashMap<>();
-        // 从原请求中获取所有参数
-        Map<String, String[]> originalQueryString = super.getParameterMap();
-        // 若请求参数不为空，则进行个性化参数处理
-        if (originalQueryString != null) {
-
-          for (String key : originalQueryString.keySet()) {
-            // 获取原来的值
-            String[] rawValArray = originalQueryString.get(key);
-            // 处理后的值
-            String[] sanitizedValArray = new String[rawValArray.length];
-
-            for (int i = 0; i < rawValArray.length; i++) {
-              // 过滤值中敏感字符
-              sanitizedValArray[i] = stripXSS(rawValArray[i]);
-            }
-
-            // 过滤参数名中的敏感字符，并加入结果集中
-            result.put(stripXSS(key), sanitizedValArray);
-          }
-        }
-        sanitizedQueryString = result;
+        sanitizedQueryString = new SanitizedParameterMap(super.getParameterMap(), policy);
       }
       return sanitizedQueryString;
     }
@@ -162,31 +108,5 @@ public class PreventXssFilter implements Filter {
     public Enumeration<String> getParameterNames() {
       return Collections.enumeration(getParameterMap().keySet());
     }
-
-    /**
-     * 删除字符串中可能存在的恶意字符
-     *
-     * @param val 原始字符串
-     * @return 删除恶意字符后的字符串
-     */
-    private String stripXSS(String val) {
-      String cleanVal = null;
-      if (val != null) {
-        cleanVal = Normalizer.normalize(val, Normalizer.Form.NFD);
-        // 忽略 `null` 字符
-        cleanVal = cleanVal.replaceAll("\0", "");
-        cleanVal = SCRIPT_TAG_PATTERN.matcher(cleanVal).replaceAll("");
-        cleanVal = SCRIPT_SRC_SINGLE_QUOTE_PATTERN.matcher(cleanVal).replaceAll("");
-        cleanVal = SCRIPT_SRC_DOUBLE_QUOTE_PATTERN.matcher(cleanVal).replaceAll("");
-        cleanVal = SCRIPT_LONESOME_CLOSED_TAG_PATTERN.matcher(cleanVal).replaceAll("");
-        cleanVal = SCRIPT_LONESOME_TAG_PATTERN.matcher(cleanVal).replaceAll("");
-        cleanVal = SCRIPT_EVAL_PATTERN.matcher(cleanVal).replaceAll("");
-        cleanVal = SCRIPT_EXPRESSION_PATTERN.matcher(cleanVal).replaceAll("");
-        cleanVal = SCRIPT_JAVASCRIPT_PATTERN.matcher(cleanVal).replaceAll("");
-        cleanVal = SCRIPT_VBSCRIPT_PATTERN.matcher(cleanVal).replaceAll("");
-        cleanVal = SCRIPT_ONLOAD_PATTERN.matcher(cleanVal).replaceAll("");
-      }
-      return cleanVal;
-    }
   }
 }
@@ -0,0 +1,188 @@
+package net.wuxianjie.springbootvuejs.security;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 延迟过滤的请求参数视图
+ *
+ * <p>按指定的 {@link XssPolicy} 过滤。参数名在首次访问时统一过滤一次（查找参数必须先知道过滤后的参数名），
+ * 而参数值则在该参数首次被读取时才过滤并缓存，未被读取的参数不会产生任何开销</p>
+ *
+ * <p>若多个原始参数名过滤后相同，则以迭代顺序中的最后一个为准，与原先一次性过滤全部参数的行为一致。
+ * 与 Servlet 容器返回的参数 Map 一样，该视图不可修改</p>
+ *
+ * @author 吴仙杰
+ */
+class SanitizedParameterMap extends AbstractMap<String, String[]> {
+
+  /**
+   * 原始请求参数
+   */
+  private final Map<String, String[]> rawParameters;
+
+  /**
+   * 过滤策略
+   */
+  private final XssPolicy policy;
+
+  /**
+   * 过滤后的参数名 -> 原始参数名；若所有参数名均无需过滤，则为 {@code null}，直接使用原始参数名
+   */
+  private Map<String, String> keyIndex;
+
+  /**
+   * 参数名是否已过滤
+   */
+  private boolean keysSanitized;
+
+  /**
+   * 过滤后的参数名 -> 已过滤的参数值
+   */
+  private final Map<String, String[]> sanitizedValues = new HashMap<>();
+
+  private Set<Entry<String, String[]>> entrySet;
+
+  SanitizedParameterMap(Map<String, String[]> rawParameters, XssPolicy policy) {
+    this.rawParameters = rawParameters == null ? Collections.emptyMap() : rawParameters;
+    this.policy = policy;
+  }
+
+  @Override
+  public String[] get(Object key) {
+    String rawKey = toRawKey(key);
+    if (rawKey == null) {
+      return null;
+    }
+
+    String name = (String) key;
+    String[] values = sanitizedValues.get(name);
+    if (values == null) {
+      values = sanitize(rawParameters.get(rawKey));
+      sanitizedValues.put(name, values);
+    }
+    return values;
+  }
+
+  @Override
+  public boolean containsKey(Object key) {
+    return toRawKey(key) != null;
+  }
+
+  @Override
+  public int size() {
+    return keyIndex().size();
+  }
+
+  @Override
+  public Set<String> keySet() {
+    return Collections.unmodifiableSet(keyIndex().keySet());
+  }
+
+  @Override
+  public Set<Entry<String, String[]>> entrySet() {
+    if (entrySet == null) {
+      entrySet = new EntrySet();
+    }
+    return entrySet;
+  }
+
+  /**
+   * 获取过滤后的参数名所对应的原始参数名
+   *
+   * @return 原始参数名；若不存在该参数，则返回 {@code null}
+   */
+  private String toRawKey(Object key) {
+    if (!(key instanceof String)) {
+      return null;
+    }
+
+    Map<String, ?> index = keyIndex();
+    if (index == rawParameters) {
+      return rawParameters.containsKey(key) ? (String) key : null;
+    }
+    return keyIndex.get(key);
+  }
+
+  /**
+   * 获取以过滤后的参数名为键的 Map
+   *
+   * <p>绝大多数请求的参数名都无需过滤，此时直接返回原始参数，不额外分配索引</p>
+   */
+  private Map<String, ?> keyIndex() {
+    if (!keysSanitized) {
+      Map<String, String> index = null;
+      for (String rawKey : rawParameters.keySet()) {
+        String key = policy.sanitize(rawKey);
+        if (index == null && key != rawKey) {
+          // 出现第一个需要过滤的参数名时，才补建此前参数名的索引
+          index = new HashMap<>();
+          for (String previous : rawParameters.keySet()) {
+            if (previous == rawKey) {
+              break;
+            }
+            index.put(previous, previous);
+          }
+        }
+
+        if (index != null) {
+          index.put(key, rawKey);
+        }
+      }
+      keyIndex = index;
+      keysSanitized = true;
+    }
+    return keyIndex == null ? rawParameters : keyIndex;
+  }
+
+  private String[] sanitize(String[] rawValues) {
+    if (rawValues == null) {
+      return null;
+    }
+
+    String[] values = null;
+    for (int i = 0; i < rawValues.length; i++) {
+      String value = policy.sanitize(rawValues[i]);
+      if (values == null && value != rawValues[i]) {
+        values = rawValues.clone();
+      }
+
+      if (values != null) {
+        values[i] = value;
+      }
+    }
+    // 所有值均无需过滤时，沿用容器提供的数组
+    return values == null ? rawValues : values;
+  }
+
+  private class EntrySet extends AbstractSet<Entry<String, String[]>> {
+
+    @Override
+    public Iterator<Entry<String, String[]>> iterator() {
+      Iterator<String> keys = keySet().iterator();
+      return new Iterator<Entry<String, String[]>>() {
+
+        @Override
+        public boolean hasNext() {
+          return keys.hasNext();
+        }
+
+        @Override
+        public Entry<String, String[]> next() {
+          String key = keys.next();
+          return new SimpleImmutableEntry<>(key, get(key));
+        }
+      };
+    }
+
+    @Override
+    public int size() {
+      return SanitizedParameterMap.this.size();
+    }
+  }
+}
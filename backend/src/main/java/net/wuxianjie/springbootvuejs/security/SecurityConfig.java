@@ -1,5 +1,6 @@
 package net.wuxianjie.springbootvuejs.security;
 
+import net.wuxianjie.springbootvuejs.rest.AuthFailureResponses;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.method.configuration.EnableGlobalMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
@@ -20,15 +21,33 @@ import org.springframework.security.config.annotation.web.configuration.WebSecur
 @EnableGlobalMethodSecurity(prePostEnabled = true)
 public class SecurityConfig extends WebSecurityConfigurerAdapter {
 
+  /**
+   * 启动时一次性编译的不需要鉴权的请求地址匹配器，由 Spring Security 与 {@link JwtAuthenticationFilter} 共用
+   */
+  private final PathPatternMatcher permitAllMatcher = new PathPatternMatcher(SecurityConstants.PERMIT_ALL_PATH);
+
+  private final TokenStore tokenStore;
+
+  private final AuthFailureResponses authFailureResponses;
+
+  private final TokenCookie tokenCookie;
+
+  public SecurityConfig(TokenStore tokenStore, AuthFailureResponses authFailureResponses, TokenCookie tokenCookie) {
+    this.tokenStore = tokenStore;
+    this.authFailureResponses = authFailureResponses;
+    this.tokenCookie = tokenCookie;
+  }
+
   @Override
   protected void configure(HttpSecurity http) throws Exception {
     http
       .authorizeRequests()
-      .antMatchers(SecurityConstants.PERMIT_ALL_PATH).permitAll()
+      .requestMatchers(permitAllMatcher).permitAll()
       .anyRequest().authenticated()
       .and()
+      // 不使用 Session；Cookie 来源默认关闭，开启时由 `TokenCookie` 以 SameSite 及自定义请求头防跨站请求伪造
       .csrf().disable()
       .addFilterBefore(new SecurityContextFilter(), JwtAuthenticationFilter.class)
-      .addFilter(new JwtAuthenticationFilter());
+      .addFilter(new JwtAuthenticationFilter(permitAllMatcher, tokenStore, authFailureResponses, tokenCookie));
   }
 }
@@ -18,9 +18,29 @@ public class SecurityConstants {
   public static final String URL_PARAMETER_TOKEN = "access_token";
 
   /**
-   * 缓存中保存了 {@code access_token} 的键名前缀
+   * 携带 token 的请求头
    */
-  public static final String PREFIX_ACCESS_TOKEN_CACHE = "token_";
+  public static final String HEADER_AUTHORIZATION = "Authorization";
+
+  /**
+   * 请求头 {@code Authorization} 中 token 的前缀
+   */
+  public static final String PREFIX_BEARER_TOKEN = "Bearer ";
+
+  /**
+   * 携带 token 的 Cookie 名
+   */
+  public static final String COOKIE_TOKEN = "access_token";
+
+  /**
+   * 请求属性名，其值为本次请求所使用的 token 来源 {@link AccessTokenSource}
+   */
+  public static final String REQUEST_ATTRIBUTE_TOKEN_SOURCE = "access_token_source";
+
+  /**
+   * JWT 公开声明 - 用户 ID
+   */
+  public static final String JWT_PUBLIC_CLAIM_USER_ID_KEY = "user_id";
 
   /**
    * JWT 公开声明 - 用户名
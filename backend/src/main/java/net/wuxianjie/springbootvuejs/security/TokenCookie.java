@@ -0,0 +1,130 @@
+package net.wuxianjie.springbootvuejs.security;
+
+import com.google.common.base.Strings;
+import java.time.Duration;
+import javax.servlet.http.Cookie;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import net.wuxianjie.springbootvuejs.dto.AccessTokenDto;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseCookie;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+/**
+ * 通过 Cookie 传递 access token（可选，默认关闭）
+ *
+ * <p>浏览器会在跨站请求中自动带上 Cookie，故开启后：</p>
+ *
+ * <ul>
+ *   <li>由服务端在登录及刷新时写入 {@code HttpOnly}、{@code SameSite=Strict} 的 Cookie，跨站请求不会带上该 Cookie</li>
+ *   <li>防跨站请求伪造（CSRF）：非 {@code GET}、{@code HEAD}、{@code OPTIONS} 请求还须带上请求头
+ *   {@code X-Requested-With: XMLHttpRequest}，跨站的表单无法设置自定义请求头，否则忽略该 Cookie</li>
+ * </ul>
+ *
+ * <p>请求头 {@code Authorization: Bearer} 不受此影响</p>
+ *
+ * @author 吴仙杰
+ */
+@Slf4j
+@Component
+public class TokenCookie {
+
+  /**
+   * 非安全方法的请求通过 Cookie 鉴权时须带上的请求头
+   */
+  static final String HEADER_REQUESTED_WITH = "X-Requested-With";
+
+  static final String REQUESTED_WITH_XHR = "XMLHttpRequest";
+
+  private final boolean enabled;
+
+  private final boolean secure;
+
+  private final String path;
+
+  public TokenCookie(@Value("${token.cookie.enabled:false}") boolean enabled,
+                     @Value("${token.cookie.secure:true}") boolean secure,
+                     @Value("${server.servlet.context-path:/}") String contextPath) {
+    this.enabled = enabled;
+    this.secure = secure;
+    this.path = Strings.isNullOrEmpty(contextPath) ? "/" : contextPath;
+  }
+
+  /**
+   * 从 Cookie 中获取 access token
+   *
+   * @param request HTTP 请求对象
+   * @return access token；未开启、不存在或非安全方法的请求未带上 {@code X-Requested-With} 时返回 {@code null}
+   */
+  public String resolve(HttpServletRequest request) {
+    if (!enabled)
+      return null;
+
+    String token = getCookieValue(request);
+    if (token == null)
+      return null;
+
+    if (!isSafeMethod(request.getMethod()) && !REQUESTED_WITH_XHR.equals(request.getHeader(HEADER_REQUESTED_WITH))) {
+      if (log.isDebugEnabled())
+        log.debug("忽略请求【{} {}】中的 Cookie access_token：缺少请求头 {}", request.getMethod(), request.getRequestURI(), HEADER_REQUESTED_WITH);
+      return null;
+    }
+    return token;
+  }
+
+  /**
+   * 包装登录或刷新的结果，开启时在响应中写入 Cookie
+   *
+   * @param accessToken 新签发的 access token
+   * @return 响应体为 {@code accessToken} 的响应
+   */
+  public ResponseEntity<AccessTokenDto> toResponse(AccessTokenDto accessToken) {
+    if (!enabled)
+      return ResponseEntity.ok(accessToken);
+
+    long maxAgeSeconds = Math.max(0, accessToken.getExpiresIn() - System.currentTimeMillis() / 1000);
+    ResponseCookie cookie = cookie(accessToken.getAccessToken(), Duration.ofSeconds(maxAgeSeconds));
+    return ResponseEntity.ok().header(HttpHeaders.SET_COOKIE, cookie.toString()).body(accessToken);
+  }
+
+  /**
+   * 开启时在响应中清除 Cookie，用于撤销当前会话后
+   *
+   * @param response HTTP 响应对象
+   */
+  public void clear(HttpServletResponse response) {
+    if (enabled) {
+      response.addHeader(HttpHeaders.SET_COOKIE, cookie("", Duration.ZERO).toString());
+    }
+  }
+
+  private ResponseCookie cookie(String value, Duration maxAge) {
+    return ResponseCookie.from(SecurityConstants.COOKIE_TOKEN, value)
+      .httpOnly(true)
+      .secure(secure)
+      .sameSite("Strict")
+      .path(path)
+      .maxAge(maxAge)
+      .build();
+  }
+
+  private static String getCookieValue(HttpServletRequest request) {
+    Cookie[] cookies = request.getCookies();
+    if (cookies == null)
+      return null;
+
+    for (Cookie cookie : cookies) {
+      if (SecurityConstants.COOKIE_TOKEN.equals(cookie.getName()) && !Strings.isNullOrEmpty(cookie.getValue()))
+        return cookie.getValue();
+    }
+    return null;
+  }
+
+  private static boolean isSafeMethod(String method) {
+    return HttpMethod.GET.matches(method) || HttpMethod.HEAD.matches(method) || HttpMethod.OPTIONS.matches(method);
+  }
+}
@@ -0,0 +1,584 @@
+package net.wuxianjie.springbootvuejs.security;
+
+import com.google.common.hash.HashCode;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.concurrent.locks.StampedLock;
+import net.wuxianjie.springbootvuejs.constants.RestCodeEnum;
+import net.wuxianjie.springbootvuejs.dto.TokenCacheDto;
+import net.wuxianjie.springbootvuejs.exception.IllegalArgumentException;
+
+/**
+ * 以用户 ID 为键的紧凑会话索引，每个用户最多同时保存 {@code maxSessions} 个会话（即同时有效的 token）
+ *
+ * <p>每个用户只占用一个槽位：{@code int} 类型的用户 ID，以及 1 个 {@code long} 的版本号（最低位为已完整加载的标记）和 {@code maxSessions} 个会话，
+ * 每个会话为会话 ID、当前 token 摘要的前 128 位、过期时间，上一个 token 摘要的前 128 位、宽限期截止时间及签发序号共 8 个 {@code long}，
+ * 均保存在基本类型数组中（开放寻址、线性探测），不保存 token 字符串，也不会为每个会话创建对象</p>
+ *
+ * <ul>
+ *   <li>淘汰：会话已满时，保存新会话会淘汰最久未签发（登录或刷新）的会话</li>
+ *   <li>撤销：撤销一个会话或用户的所有会话只需修改该用户的槽位，与会话总数无关</li>
+ *   <li>宽限期：同一会话刷新 token 时，被替换的 token 在宽限期内的校验结果为 {@link TokenStatus#GRACE}，
+ *   以免与刷新请求并发、仍携带旧 token 的请求被拒绝</li>
+ * </ul>
+ *
+ * <p>读取时使用 {@link StampedLock} 的乐观读，无需加锁；写入时加写锁。
+ * 表满需要扩容前，会先清理没有有效会话的用户，故无需后台线程即可回收过期 token 所占的空间</p>
+ *
+ * @author 吴仙杰
+ */
+public class TokenIndex {
+
+  /**
+   * 表示空槽位的用户 ID，该值不能作为用户 ID 使用
+   */
+  private static final int EMPTY = Integer.MIN_VALUE;
+
+  /**
+   * 表示空会话的会话 ID，该值不能作为会话 ID 使用
+   */
+  public static final long NO_SESSION = 0L;
+
+  /**
+   * 版本号的最低位：该用户的所有会话均已从数据源加载，此时索引中没有的会话即为已失效的会话，无需再次加载
+   */
+  private static final long LOADED = 1L;
+
+  /**
+   * 每个会话所占的 {@code long} 数量，各字段的偏移量见下
+   */
+  private static final int SESSION_STRIDE = 8;
+
+  private static final int SESSION_ID = 0;
+  private static final int HIGH = 1;
+  private static final int LOW = 2;
+  private static final int EXPIRES_AT = 3;
+  private static final int PREVIOUS_HIGH = 4;
+  private static final int PREVIOUS_LOW = 5;
+  private static final int GRACE_UNTIL = 6;
+  private static final int ISSUED_SEQUENCE = 7;
+
+  /**
+   * 最大负载因子
+   */
+  private static final float MAX_LOAD_FACTOR = 0.75f;
+
+  private final int maxSessions;
+
+  /**
+   * 每个槽位在 {@link Table#data} 中所占的 {@code long} 数量：版本号及所有会话
+   */
+  private final int stride;
+
+  /**
+   * 预分配的容量，清理后不会缩容至该容量以下
+   */
+  private final int initialCapacity;
+
+  private final StampedLock lock = new StampedLock();
+
+  private volatile Table table;
+
+  private int size;
+
+  /**
+   * 重建哈希表（清理或扩容）的次数
+   */
+  private int resizeCount;
+
+  /**
+   * 逻辑时钟，每次修改时递增，用作用户的版本号及会话的签发序号；须在持有写锁时修改
+   */
+  private long sequence;
+
+  /**
+   * 创建索引
+   *
+   * @param expectedSize 预计的用户数量
+   * @param maxSessions  每个用户最多同时保存的会话数量
+   */
+  public TokenIndex(int expectedSize, int maxSessions) {
+    if (maxSessions < 1) {
+      throw new IllegalArgumentException("每个用户的最大会话数量须大于 0", RestCodeEnum.ERROR_SERVER);
+    }
+
+    this.maxSessions = maxSessions;
+    this.stride = 1 + maxSessions * SESSION_STRIDE;
+    this.initialCapacity = capacityFor(Math.max(expectedSize, 16));
+    table = new Table(initialCapacity, stride);
+  }
+
+  /**
+   * 校验 token 是否为用户某个会话当前有效的 token
+   *
+   * @param userId    用户 ID
+   * @param sessionId 会话 ID
+   * @param digest    token 摘要
+   * @param now       当前时间（毫秒时间戳）
+   * @return 校验结果；若索引中没有该用户，或没有该会话且该用户未通过 {@link #load(int, long, Collection)} 完整加载，则返回 {@code null}
+   */
+  public TokenStatus verify(int userId, long sessionId, HashCode digest, long now) {
+    ByteBuffer bytes = ByteBuffer.wrap(digest.asBytes());
+    long high = bytes.getLong(0);
+    long low = bytes.getLong(8);
+
+    long stamp = lock.tryOptimisticRead();
+    TokenStatus status = lookup(table, userId, sessionId, high, low, now);
+    if (!lock.validate(stamp)) {
+      stamp = lock.readLock();
+      try {
+        status = lookup(table, userId, sessionId, high, low, now);
+      } finally {
+        lock.unlockRead(stamp);
+      }
+    }
+    return status;
+  }
+
+  /**
+   * 获取用户的版本号，用于 {@link #load(int, long, Collection)}
+   *
+   * @param userId 用户 ID
+   * @return 版本号；若索引中没有该用户，则返回 {@code 0}
+   */
+  public long version(int userId) {
+    long stamp = lock.readLock();
+    try {
+      Table t = table;
+      int slot = t.find(userId);
+      return slot < 0 ? 0L : t.data[slot * stride];
+    } finally {
+      lock.unlockRead(stamp);
+    }
+  }
+
+  /**
+   * 保存会话当前有效的 token：若已有该会话，则替换其 token；否则新建会话，会话已满时淘汰最久未签发的会话
+   *
+   * @param userId     用户 ID
+   * @param sessionId  会话 ID
+   * @param digest     token 摘要
+   * @param expiresAt  token 的过期时间（毫秒时间戳）
+   * @param graceUntil 同一会话中被替换的 token 的宽限期截止时间（毫秒时间戳），不会晚于其本身的过期时间；
+   *                   只保留一个上一个 token，再次替换时原宽限期内的 token 立即失效
+   * @return 被淘汰的仍有效的会话 ID；若没有淘汰，则返回 {@link #NO_SESSION}
+   */
+  public long put(int userId, long sessionId, HashCode digest, long expiresAt, long graceUntil) {
+    if (sessionId == NO_SESSION) {
+      throw new IllegalArgumentException(String.format("会话 ID 不能为 %d", NO_SESSION), RestCodeEnum.ERROR_SERVER);
+    }
+
+    ByteBuffer bytes = ByteBuffer.wrap(digest.asBytes());
+    long high = bytes.getLong(0);
+    long low = bytes.getLong(8);
+
+    long stamp = lock.writeLock();
+    try {
+      int slot = slotFor(userId, System.currentTimeMillis());
+      // 插入时可能已扩容
+      Table t = table;
+      int base = slot * stride;
+      touch(t, base);
+
+      int session = findSession(t, base, sessionId);
+      long evicted = NO_SESSION;
+      if (session < 0) {
+        session = freeSession(t, base, System.currentTimeMillis(), true);
+        evicted = t.data[session + SESSION_ID];
+        Arrays.fill(t.data, session, session + SESSION_STRIDE, 0L);
+        t.data[session + SESSION_ID] = sessionId;
+        // 新会话没有可保留的上一个 token
+        graceUntil = Long.MIN_VALUE;
+      }
+
+      // 同一个 token 重复保存时保留原有的宽限期
+      if (t.data[session + HIGH] != high || t.data[session + LOW] != low) {
+        t.data[session + PREVIOUS_HIGH] = t.data[session + HIGH];
+        t.data[session + PREVIOUS_LOW] = t.data[session + LOW];
+        t.data[session + GRACE_UNTIL] = Math.min(graceUntil, t.data[session + EXPIRES_AT]);
+      }
+      t.data[session + HIGH] = high;
+      t.data[session + LOW] = low;
+      t.data[session + EXPIRES_AT] = expiresAt;
+      t.data[session + ISSUED_SEQUENCE] = sequence;
+      return evicted;
+    } finally {
+      lock.unlockWrite(stamp);
+    }
+  }
+
+  /**
+   * 将从数据源加载的会话合并到索引中，只添加索引中尚不存在的会话，已有的会话总是比加载结果更新
+   *
+   * <p>若加载期间该用户被修改过（版本号不一致），则不合并，以免重新加入加载期间已撤销的会话。
+   * 会话已满时忽略其余的会话；加载的会话按过期时间排序，且总是比本节点签发的会话先被淘汰</p>
+   *
+   * <p>全部合并（未因会话已满而忽略）后标记该用户已完整加载，之后校验不存在的会话时直接返回 {@link TokenStatus#EXPIRED}，
+   * 直至通过 {@link #remove(int)} 移除该用户</p>
+   *
+   * @param userId          用户 ID
+   * @param expectedVersion 加载前通过 {@link #version(int)} 获取的版本号
+   * @param sessions        加载的会话，须按过期时间降序（由新到旧）排列
+   * @return 若已合并，则返回 {@code true}；若版本号不一致，则返回 {@code false}
+   */
+  public boolean load(int userId, long expectedVersion, Collection<TokenCacheDto> sessions) {
+    long stamp = lock.writeLock();
+    try {
+      long now = System.currentTimeMillis();
+      Table t = table;
+      int slot = t.find(userId);
+      if ((slot < 0 ? 0L : t.data[slot * stride]) != expectedVersion) {
+        return false;
+      }
+
+      int base = (slot < 0 ? slotFor(userId, now) : slot) * stride;
+      t = table;
+      touch(t, base);
+      boolean complete = true;
+      for (TokenCacheDto token : sessions) {
+        if (token.getExpiresAt() <= now || findSession(t, base, token.getSessionId()) >= 0) {
+          continue;
+        }
+
+        int session = freeSession(t, base, now, false);
+        if (session < 0) {
+          complete = false;
+          break;
+        }
+        ByteBuffer bytes = ByteBuffer.wrap(token.getTokenDigest().asBytes());
+        t.data[session + SESSION_ID] = token.getSessionId();
+        t.data[session + HIGH] = bytes.getLong(0);
+        t.data[session + LOW] = bytes.getLong(8);
+        t.data[session + EXPIRES_AT] = token.getExpiresAt();
+        t.data[session + GRACE_UNTIL] = Long.MIN_VALUE;
+        // 负数的签发序号小于本节点签发的任何会话
+        t.data[session + ISSUED_SEQUENCE] = token.getExpiresAt() - Long.MAX_VALUE;
+      }
+
+      if (complete) {
+        t.data[base] |= LOADED;
+      }
+      return true;
+    } finally {
+      lock.unlockWrite(stamp);
+    }
+  }
+
+  /**
+   * 撤销用户的一个会话
+   *
+   * <p>无论该会话是否存在都会递增用户的版本号（用户不存在时插入），以免并发的 {@link #load(int, long, Collection)} 重新加入该会话</p>
+   *
+   * @param userId    用户 ID
+   * @param sessionId 会话 ID
+   * @return 若该会话存在，则返回 {@code true}
+   */
+  public boolean removeSession(int userId, long sessionId) {
+    long stamp = lock.writeLock();
+    try {
+      int base = slotFor(userId, System.currentTimeMillis()) * stride;
+      Table t = table;
+      touch(t, base);
+
+      int session = findSession(t, base, sessionId);
+      if (session < 0) {
+        return false;
+      }
+      Arrays.fill(t.data, session, session + SESSION_STRIDE, 0L);
+      return true;
+    } finally {
+      lock.unlockWrite(stamp);
+    }
+  }
+
+  /**
+   * 撤销用户的所有会话，与 {@link #removeSession(int, long)} 一样总会递增用户的版本号
+   *
+   * @param userId 用户 ID
+   */
+  public void removeSessions(int userId) {
+    long stamp = lock.writeLock();
+    try {
+      int base = slotFor(userId, System.currentTimeMillis()) * stride;
+      Table t = table;
+      Arrays.fill(t.data, base + 1, base + stride, 0L);
+      touch(t, base);
+    } finally {
+      lock.unlockWrite(stamp);
+    }
+  }
+
+  /**
+   * 从索引中移除该用户，之后的校验结果为 {@code null}，即需要重新从数据源加载
+   *
+   * @param userId 用户 ID
+   */
+  public void remove(int userId) {
+    long stamp = lock.writeLock();
+    try {
+      Table t = table;
+      int slot = t.find(userId);
+      if (slot >= 0) {
+        t.delete(slot);
+        size--;
+      }
+    } finally {
+      lock.unlockWrite(stamp);
+    }
+  }
+
+  /**
+   * 获取每个用户最多同时保存的会话数量
+   */
+  public int getMaxSessions() {
+    return maxSessions;
+  }
+
+  /**
+   * 获取索引中的用户数量，包括会话均已过期但尚未清理的用户
+   *
+   * @return 用户数量
+   */
+  public int size() {
+    long stamp = lock.readLock();
+    try {
+      return size;
+    } finally {
+      lock.unlockRead(stamp);
+    }
+  }
+
+  /**
+   * 获取重建哈希表（清理或扩容）的次数
+   */
+  int getResizeCount() {
+    long stamp = lock.readLock();
+    try {
+      return resizeCount;
+    } finally {
+      lock.unlockRead(stamp);
+    }
+  }
+
+  /**
+   * 获取用户所在的槽位，不存在时插入；须在持有写锁时调用
+   */
+  private int slotFor(int userId, long now) {
+    if (userId == EMPTY) {
+      throw new IllegalArgumentException(String.format("用户 ID 不能为 %d", EMPTY), RestCodeEnum.ERROR_SERVER);
+    }
+
+    Table t = table;
+    int slot = t.find(userId);
+    if (slot >= 0) {
+      return slot;
+    }
+
+    if (size + 1 > t.threshold) {
+      t = resize(now);
+    }
+    slot = t.insertionSlot(userId);
+    t.keys[slot] = userId;
+    Arrays.fill(t.data, slot * stride, (slot + 1) * stride, 0L);
+    size++;
+    return slot;
+  }
+
+  /**
+   * 递增用户的版本号，保留已完整加载的标记；须在持有写锁时调用
+   */
+  private void touch(Table t, int base) {
+    t.data[base] = (++sequence << 1) | (t.data[base] & LOADED);
+  }
+
+  /**
+   * @return 会话在 {@link Table#data} 中的起始下标；若不存在，则返回 {@code -1}
+   */
+  private int findSession(Table t, int base, long sessionId) {
+    for (int session = base + 1; session < base + stride; session += SESSION_STRIDE) {
+      if (t.data[session + SESSION_ID] == sessionId) {
+        return session;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * 获取可用于新会话的位置：优先使用空的或已过期的会话（已清空），否则为最久未签发的会话
+   *
+   * @param evict 为 {@code false} 时不淘汰会话，没有空位时返回 {@code -1}
+   */
+  private int freeSession(Table t, int base, long now, boolean evict) {
+    int oldest = -1;
+    for (int session = base + 1; session < base + stride; session += SESSION_STRIDE) {
+      if (t.data[session + SESSION_ID] == NO_SESSION || t.data[session + EXPIRES_AT] <= now) {
+        Arrays.fill(t.data, session, session + SESSION_STRIDE, 0L);
+        return session;
+      }
+      if (oldest < 0 || t.data[session + ISSUED_SEQUENCE] < t.data[oldest + ISSUED_SEQUENCE]) {
+        oldest = session;
+      }
+    }
+    return evict ? oldest : -1;
+  }
+
+  /**
+   * 清理没有有效会话的用户，再按剩余的用户数量扩容或缩容；须在持有写锁时调用
+   *
+   * <p>新的容量使剩余的用户至多占阈值的一半，故两次重建之间至少还能插入阈值一半的用户。
+   * 否则在用户持续过期、新增的情况下，清理只腾出少量槽位，几乎每次插入都会重建</p>
+   */
+  private Table resize(long now) {
+    Table old = table;
+    int live = 0;
+    for (int i = 0; i < old.keys.length; i++) {
+      if (old.keys[i] != EMPTY && isLive(old, i * stride, now)) {
+        live++;
+      }
+    }
+
+    Table t = new Table(Math.max(initialCapacity, capacityFor(2 * (live + 1))), stride);
+    for (int i = 0; i < old.keys.length; i++) {
+      int base = i * stride;
+      if (old.keys[i] != EMPTY && isLive(old, base, now)) {
+        int slot = t.insertionSlot(old.keys[i]);
+        t.keys[slot] = old.keys[i];
+        System.arraycopy(old.data, base, t.data, slot * stride, stride);
+      }
+    }
+
+    size = live;
+    table = t;
+    resizeCount++;
+    return t;
+  }
+
+  private boolean isLive(Table t, int base, long now) {
+    for (int session = base + 1; session < base + stride; session += SESSION_STRIDE) {
+      if (t.data[session + SESSION_ID] != NO_SESSION && t.data[session + EXPIRES_AT] > now) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private TokenStatus lookup(Table t, int userId, long sessionId, long high, long low, long now) {
+    int slot = t.find(userId);
+    if (slot < 0) {
+      return null;
+    }
+
+    int base = slot * stride;
+    int session = findSession(t, base, sessionId);
+    if (session < 0) {
+      return (t.data[base] & LOADED) != 0 ? TokenStatus.EXPIRED : null;
+    }
+    if (t.data[session + EXPIRES_AT] <= now) {
+      return TokenStatus.EXPIRED;
+    }
+    if (t.data[session + HIGH] == high && t.data[session + LOW] == low) {
+      return TokenStatus.VALID;
+    }
+    return t.data[session + PREVIOUS_HIGH] == high && t.data[session + PREVIOUS_LOW] == low
+      && t.data[session + GRACE_UNTIL] > now ? TokenStatus.GRACE : TokenStatus.REPLACED;
+  }
+
+  /**
+   * 满足负载因子的最小的 2 的幂
+   */
+  private static int capacityFor(int size) {
+    int capacity = Integer.highestOneBit(Math.max((int) (size / MAX_LOAD_FACTOR), 2) - 1) << 1;
+    if (capacity <= 0) {
+      throw new IllegalArgumentException(String.format("索引容量【%d】过大", size), RestCodeEnum.ERROR_SERVER);
+    }
+    return capacity;
+  }
+
+  /**
+   * 哈希表，扩容时整体替换，故乐观读总能看到长度一致的数组
+   */
+  private static final class Table {
+
+    private final int[] keys;
+
+    private final long[] data;
+
+    private final int stride;
+
+    private final int mask;
+
+    private final int threshold;
+
+    /**
+     * 散列时取乘积的高位，其位数与容量一致
+     */
+    private final int shift;
+
+    Table(int capacity, int stride) {
+      keys = new int[capacity];
+      Arrays.fill(keys, EMPTY);
+      data = new long[capacity * stride];
+      this.stride = stride;
+      mask = capacity - 1;
+      threshold = (int) (capacity * MAX_LOAD_FACTOR);
+      shift = Integer.numberOfLeadingZeros(capacity) + 1;
+    }
+
+    /**
+     * 查找用户所在的槽位
+     *
+     * <p>最多探测整张表一次，以免乐观读在表被并发修改时陷入死循环</p>
+     *
+     * @return 槽位；若不存在，则返回 {@code -1}
+     */
+    int find(int userId) {
+      int slot = home(userId);
+      for (int probes = 0; probes <= mask; probes++) {
+        int key = keys[slot];
+        if (key == userId) {
+          return slot;
+        }
+        if (key == EMPTY) {
+          return -1;
+        }
+        slot = (slot + 1) & mask;
+      }
+      return -1;
+    }
+
+    /**
+     * 获取插入新用户的空槽位，调用前须确保表中有空槽位
+     */
+    int insertionSlot(int userId) {
+      int slot = home(userId);
+      while (keys[slot] != EMPTY) {
+        slot = (slot + 1) & mask;
+      }
+      return slot;
+    }
+
+    /**
+     * 删除槽位中的条目：将其后同一探测序列中的条目依次前移（backward-shift），不留墓碑，故查找无需额外判断
+     */
+    void delete(int slot) {
+      int hole = slot;
+      int next = (hole + 1) & mask;
+      while (keys[next] != EMPTY) {
+        // 仅当空位处于该条目的理想槽位与其当前槽位之间时，才可前移到空位
+        if (((next - home(keys[next])) & mask) >= ((next - hole) & mask)) {
+          keys[hole] = keys[next];
+          System.arraycopy(data, next * stride, data, hole * stride, stride);
+          hole = next;
+        }
+        next = (next + 1) & mask;
+      }
+      keys[hole] = EMPTY;
+    }
+
+    private int home(int userId) {
+      // 斐波那契散列，使连续的用户 ID 分散到整张表中
+      return (userId * 0x9E3779B9) >>> shift;
+    }
+  }
+}
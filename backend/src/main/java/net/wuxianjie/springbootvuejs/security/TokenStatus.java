@@ -0,0 +1,29 @@
+package net.wuxianjie.springbootvuejs.security;
+
+/**
+ * {@link TokenStore} 对请求中 token 的校验结果
+ *
+ * @author 吴仙杰
+ */
+public enum TokenStatus {
+
+  /**
+   * 是用户当前有效的 token
+   */
+  VALID,
+
+  /**
+   * 用户没有有效的 token（未登录、已删除或已过期）
+   */
+  EXPIRED,
+
+  /**
+   * 用户已有更新的 token，请求中的 token 已被替换
+   */
+  REPLACED,
+
+  /**
+   * 请求中的 token 刚被替换，但仍在宽限期内，可以使用，但不应缓存其鉴权结果
+   */
+  GRACE
+}
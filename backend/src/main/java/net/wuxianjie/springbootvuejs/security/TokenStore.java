@@ -0,0 +1,64 @@
+package net.wuxianjie.springbootvuejs.security;
+
+import com.google.common.hash.HashCode;
+import net.wuxianjie.springbootvuejs.dto.TokenCacheDto;
+
+/**
+ * 已签发 access token 的存储
+ *
+ * <p>每个用户最多同时保存 {@code token.store.max-sessions} 个会话，每个会话只保存其最新签发 token 的摘要，
+ * {@link JwtAuthenticationFilter} 以此判断请求中的 token 是否仍然有效。
+ * 登录会新建会话，会话已满时淘汰最久未签发的会话；刷新只替换当前会话的 token。具体实现由配置项 {@code token.store} 选择：</p>
+ *
+ * <ul>
+ *   <li>{@code memory}（默认）：{@link InMemoryTokenStore}，程序重启后所有用户都需重新登录</li>
+ *   <li>{@code jdbc}：{@link JdbcTokenStore}，持久化到数据库中</li>
+ * </ul>
+ *
+ * @author 吴仙杰
+ */
+public interface TokenStore {
+
+  /**
+   * 保存会话最新签发的 token：已有该会话时替换其 token，否则新建会话
+   *
+   * @param token token 信息
+   */
+  void save(TokenCacheDto token);
+
+  /**
+   * 校验 token 是否为会话当前有效的 token
+   *
+   * @param userId      用户 ID
+   * @param userName    用户名
+   * @param sessionId   会话 ID
+   * @param tokenDigest 请求中 token 的摘要，见 {@link AuthenticationCache#digest(String)}
+   * @return 校验结果，会话不存在（未登录、已撤销、已淘汰或已过期）时为 {@link TokenStatus#EXPIRED}
+   */
+  TokenStatus verify(int userId, String userName, long sessionId, HashCode tokenDigest);
+
+  /**
+   * 撤销用户的所有会话
+   *
+   * @param userId   用户 ID
+   * @param userName 用户名
+   */
+  void remove(int userId, String userName);
+
+  /**
+   * 撤销用户的一个会话
+   *
+   * @param userId    用户 ID
+   * @param userName  用户名
+   * @param sessionId 会话 ID
+   */
+  void removeSession(int userId, String userName, long sessionId);
+
+  /**
+   * 丢弃本节点为该用户缓存的会话状态，用于其他节点修改了该用户的会话之后，见 {@link net.wuxianjie.springbootvuejs.cache.InvalidationBus}
+   *
+   * @param userId    用户 ID
+   * @param sessionId 被修改的会话 ID；为 {@link TokenIndex#NO_SESSION} 时表示该用户的所有会话均已撤销
+   */
+  void invalidate(int userId, long sessionId);
+}
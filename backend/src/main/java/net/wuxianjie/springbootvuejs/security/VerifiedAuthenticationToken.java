@@ -0,0 +1,36 @@
+package net.wuxianjie.springbootvuejs.security;
+
+import java.util.Collection;
+import net.wuxianjie.springbootvuejs.dto.PrincipalDto;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+
+/**
+ * 不可变的、已验证通过的鉴权结果
+ *
+ * <p>该对象会被 {@link AuthenticationCache} 缓存并在多个请求间共享，故禁止修改其状态</p>
+ *
+ * @author 吴仙杰
+ */
+public final class VerifiedAuthenticationToken extends UsernamePasswordAuthenticationToken {
+
+  public VerifiedAuthenticationToken(PrincipalDto principal, Collection<? extends GrantedAuthority> authorities) {
+    // 密码置空即可
+    super(principal, "", authorities);
+  }
+
+  @Override
+  public void setAuthenticated(boolean isAuthenticated) {
+    throw new UnsupportedOperationException("已验证的鉴权结果不可修改");
+  }
+
+  @Override
+  public void setDetails(Object details) {
+    throw new UnsupportedOperationException("已验证的鉴权结果不可修改");
+  }
+
+  @Override
+  public void eraseCredentials() {
+    // 密码本身即为空，无需擦除
+  }
+}
@@ -0,0 +1,131 @@
+package net.wuxianjie.springbootvuejs.security;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.exc.InvalidDefinitionException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Type;
+import net.wuxianjie.springbootvuejs.constants.RestCodeEnum;
+import net.wuxianjie.springbootvuejs.exception.RequestArgumentNotValidException;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.converter.HttpMessageConversionException;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.http.converter.json.MappingJacksonInputMessage;
+
+/**
+ * 支持在反序列化时过滤 XSS 的 JSON 消息转换器
+ *
+ * <p>仅当请求体已被 {@link XssRequestBodyAdvice} 包装为 {@link SanitizingInputMessage} 时，
+ * 才携带属性 {@link XssJsonModule#ATTRIBUTE_SANITIZE} 进行反序列化；其他请求体与父类的处理方式完全一致</p>
+ *
+ * @author 吴仙杰
+ */
+public class XssJsonHttpMessageConverter extends MappingJackson2HttpMessageConverter {
+
+  public XssJsonHttpMessageConverter(ObjectMapper objectMapper) {
+    super(objectMapper);
+  }
+
+  @Override
+  public Object read(Type type, Class<?> contextClass, HttpInputMessage inputMessage) throws IOException, HttpMessageNotReadableException {
+    if (!(inputMessage instanceof SanitizingInputMessage)) {
+      return super.read(type, contextClass, inputMessage);
+    }
+
+    SanitizingInputMessage message = (SanitizingInputMessage) inputMessage;
+    JavaType javaType = getJavaType(type, contextClass);
+    Class<?> view = message.getDeserializationView();
+    ObjectReader reader = view == null ? getObjectMapper().reader() : getObjectMapper().readerWithView(view);
+
+    try {
+      return reader.forType(javaType)
+        .withAttribute(XssJsonModule.ATTRIBUTE_SANITIZE, message.policy)
+        .readValue(message.getBody());
+    } catch (PayloadTooLargeException e) {
+      throw new RequestArgumentNotValidException(String.format("请求体超过 %d 字节", message.maxBodySize), RestCodeEnum.PAYLOAD_TOO_LARGE);
+    } catch (InvalidDefinitionException e) {
+      throw new HttpMessageConversionException("Type definition error: " + e.getType(), e);
+    } catch (JsonProcessingException e) {
+      throw new HttpMessageNotReadableException("JSON parse error: " + e.getOriginalMessage(), e, inputMessage);
+    }
+  }
+
+  /**
+   * 需要按指定策略过滤 XSS 的请求体，同时限制了请求体的大小
+   */
+  static class SanitizingInputMessage extends MappingJacksonInputMessage {
+
+    private final XssPolicy policy;
+
+    private final long maxBodySize;
+
+    SanitizingInputMessage(HttpInputMessage inputMessage, XssPolicy policy, long maxBodySize) throws IOException {
+      super(new LimitedInputStream(inputMessage.getBody(), maxBodySize), inputMessage.getHeaders(),
+        inputMessage instanceof MappingJacksonInputMessage ? ((MappingJacksonInputMessage) inputMessage).getDeserializationView() : null);
+      this.policy = policy;
+      this.maxBodySize = maxBodySize;
+    }
+  }
+
+  /**
+   * 读取超过上限时抛出 {@link PayloadTooLargeException} 的输入流
+   *
+   * <p>Jackson 会原样抛出输入流中的 {@link IOException}，故可在转换器中将其识别出来</p>
+   */
+  private static class LimitedInputStream extends FilterInputStream {
+
+    private long remaining;
+
+    LimitedInputStream(InputStream in, long maxBodySize) {
+      super(in);
+      this.remaining = maxBodySize;
+    }
+
+    @Override
+    public int read() throws IOException {
+      int b = super.read();
+      if (b >= 0) {
+        consume(1);
+      }
+      return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+      int n = super.read(b, off, len);
+      if (n > 0) {
+        consume(n);
+      }
+      return n;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+      long skipped = super.skip(n);
+      consume(skipped);
+      return skipped;
+    }
+
+    @Override
+    public boolean markSupported() {
+      return false;
+    }
+
+    private void consume(long n) throws PayloadTooLargeException {
+      remaining -= n;
+      if (remaining < 0) {
+        throw new PayloadTooLargeException();
+      }
+    }
+  }
+
+  private static class PayloadTooLargeException extends IOException {
+
+    private static final long serialVersionUID = 1L;
+  }
+}
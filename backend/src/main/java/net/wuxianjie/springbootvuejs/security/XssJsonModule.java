@@ -0,0 +1,65 @@
+package net.wuxianjie.springbootvuejs.security;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.KeyDeserializer;
+import com.fasterxml.jackson.databind.deser.std.StdScalarDeserializer;
+import com.fasterxml.jackson.databind.deser.std.StringDeserializer;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import java.io.IOException;
+
+/**
+ * 在 Jackson 反序列化时过滤 XSS 的模块
+ *
+ * <p>解析器每产出一个字符串（包括 Map 的键）便立即过滤，无需缓冲并重新序列化整个请求体。
+ * 仅当本次反序列化携带了属性 {@link #ATTRIBUTE_SANITIZE} 时才会过滤，
+ * 故注册到全局的 {@code ObjectMapper} 后不会影响其他的反序列化</p>
+ *
+ * @author 吴仙杰
+ */
+public class XssJsonModule extends SimpleModule {
+
+  /**
+   * 反序列化属性名，其值为过滤字符串所使用的 {@link XssPolicy}
+   */
+  public static final String ATTRIBUTE_SANITIZE = XssJsonModule.class.getName() + ".SANITIZE";
+
+  public XssJsonModule() {
+    super(XssJsonModule.class.getSimpleName());
+    addDeserializer(String.class, new SanitizingStringDeserializer());
+    addKeyDeserializer(String.class, new SanitizingKeyDeserializer());
+  }
+
+  private static String sanitize(String value, DeserializationContext ctxt) {
+    Object policy = ctxt.getAttribute(ATTRIBUTE_SANITIZE);
+    return policy instanceof XssPolicy ? ((XssPolicy) policy).sanitize(value) : value;
+  }
+
+  /**
+   * 字符串值的反序列化器，解析仍委托给 Jackson 的 {@link StringDeserializer}
+   */
+  private static class SanitizingStringDeserializer extends StdScalarDeserializer<String> {
+
+    private static final long serialVersionUID = 1L;
+
+    SanitizingStringDeserializer() {
+      super(String.class);
+    }
+
+    @Override
+    public String deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+      return sanitize(StringDeserializer.instance.deserialize(p, ctxt), ctxt);
+    }
+  }
+
+  /**
+   * Map 键的反序列化器
+   */
+  private static class SanitizingKeyDeserializer extends KeyDeserializer {
+
+    @Override
+    public Object deserializeKey(String key, DeserializationContext ctxt) {
+      return sanitize(key, ctxt);
+    }
+  }
+}
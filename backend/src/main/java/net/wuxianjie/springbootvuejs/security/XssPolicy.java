@@ -0,0 +1,133 @@
+package net.wuxianjie.springbootvuejs.security;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * XSS 过滤策略
+ *
+ * <p>每种策略都会累计其处理过的值的数量、实际被修改的值的数量及耗时，以便评估各路由的过滤开销，可通过 {@code GET /xss/stats} 查看</p>
+ *
+ * @author 吴仙杰
+ */
+public enum XssPolicy {
+
+  /**
+   * 严格：所有值均按 {@link XssSanitizer} 的规则过滤
+   */
+  STRICT {
+    @Override
+    String apply(String value) {
+      return XssSanitizer.sanitize(value);
+    }
+  },
+
+  /**
+   * 宽松：仅由白名单字符组成的值直接放行，其余值按 {@link XssSanitizer} 的规则过滤
+   *
+   * <p>白名单为除 {@code < > " ' ( ) `} 及控制字符以外的所有字符。仅由这些字符组成的值无法构成标签、属性或函数调用，
+   * 故不会误删正常文本中的 {@code onload=}、{@code javascript:} 等内容。
+   * 但不适用于会被输出到 {@code href} 等 URL 属性中的值</p>
+   */
+  LENIENT {
+    @Override
+    String apply(String value) {
+      return isAllowed(value) ? value : XssSanitizer.sanitize(value);
+    }
+  },
+
+  /**
+   * 关闭：不进行任何过滤
+   */
+  OFF {
+    @Override
+    String apply(String value) {
+      return value;
+    }
+  };
+
+  /**
+   * ASCII 白名单字符，以位图表示
+   */
+  private static final long[] ALLOWED_ASCII = new long[2];
+
+  static {
+    for (char c = ' '; c < 0x7F; c++) {
+      if ("<>\"'()`".indexOf(c) < 0) {
+        ALLOWED_ASCII[c >>> 6] |= 1L << c;
+      }
+    }
+    ALLOWED_ASCII['\t' >>> 6] |= 1L << '\t';
+    ALLOWED_ASCII['\n' >>> 6] |= 1L << '\n';
+    ALLOWED_ASCII['\r' >>> 6] |= 1L << '\r';
+  }
+
+  private final LongAdder valueCounter = new LongAdder();
+
+  private final LongAdder modifiedCounter = new LongAdder();
+
+  private final LongAdder nanosCounter = new LongAdder();
+
+  /**
+   * 按此策略过滤字符串，并记录统计数据
+   *
+   * @param value 原始字符串
+   * @return 过滤后的字符串；若无需修改，则返回原字符串本身
+   */
+  public String sanitize(String value) {
+    if (value == null || this == OFF) {
+      return value;
+    }
+
+    long start = System.nanoTime();
+    String result = apply(value);
+    nanosCounter.add(System.nanoTime() - start);
+    valueCounter.increment();
+    if (result != value) {
+      modifiedCounter.increment();
+    }
+    return result;
+  }
+
+  abstract String apply(String value);
+
+  /**
+   * 获取自程序启动以来按此策略处理过的值的数量
+   *
+   * @return 值的数量
+   */
+  public long getValueCount() {
+    return valueCounter.sum();
+  }
+
+  /**
+   * 获取自程序启动以来按此策略实际被修改的值的数量
+   *
+   * @return 值的数量
+   */
+  public long getModifiedCount() {
+    return modifiedCounter.sum();
+  }
+
+  /**
+   * 获取自程序启动以来按此策略过滤所花费的总时间
+   *
+   * @return 总耗时（单位：纳秒）
+   */
+  public long getTotalNanos() {
+    return nanosCounter.sum();
+  }
+
+  private static boolean isAllowed(String value) {
+    for (int i = 0, length = value.length(); i < length; i++) {
+      char c = value.charAt(i);
+      if (c < 0x80) {
+        if ((ALLOWED_ASCII[c >>> 6] & (1L << c)) == 0) {
+          return false;
+        }
+      } else if (Character.isISOControl(c)) {
+        return false;
+      }
+    }
+    return true;
+  }
+}
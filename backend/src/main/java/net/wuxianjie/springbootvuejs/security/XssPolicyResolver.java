@@ -0,0 +1,152 @@
+package net.wuxianjie.springbootvuejs.security;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.servlet.http.HttpServletRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.mvc.method.RequestMappingInfo;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+
+/**
+ * 根据请求路径决定 {@link PreventXssFilter} 所使用的 {@link XssPolicy}
+ *
+ * <p>路径来源有两种，均在启动时编译为 {@link PathPatternMatcher}，请求时只需依次遍历少量前缀树：</p>
+ *
+ * <ul>
+ *   <li>控制器方法或控制器类上的 {@link XssSanitize}，其所映射的路径优先</li>
+ *   <li>配置项 {@code xss.policy.strict}、{@code xss.policy.lenient}、{@code xss.policy.off}</li>
+ * </ul>
+ *
+ * <p>同一来源中多个策略的路径重叠时，按严格、宽松、关闭的顺序取第一个匹配的策略；均不匹配时使用 {@link XssPolicy#STRICT}</p>
+ *
+ * @author 吴仙杰
+ */
+@Slf4j
+@Component
+public class XssPolicyResolver implements ApplicationListener<ContextRefreshedEvent> {
+
+  /**
+   * 未匹配任何路径时的策略
+   */
+  private static final XssPolicy DEFAULT_POLICY = XssPolicy.STRICT;
+
+  /**
+   * 配置项中的路径模式
+   */
+  private final Map<XssPolicy, String[]> configuredPatterns = new EnumMap<>(XssPolicy.class);
+
+  /**
+   * 按优先级排列的路由
+   */
+  private volatile Route[] routes;
+
+  public XssPolicyResolver(@Value("${xss.policy.strict:}") String[] strictPatterns,
+                           @Value("${xss.policy.lenient:}") String[] lenientPatterns,
+                           @Value("${xss.policy.off:}") String[] offPatterns) {
+    configuredPatterns.put(XssPolicy.STRICT, strictPatterns);
+    configuredPatterns.put(XssPolicy.LENIENT, lenientPatterns);
+    configuredPatterns.put(XssPolicy.OFF, offPatterns);
+    routes = compile(new EnumMap<>(XssPolicy.class));
+  }
+
+  /**
+   * 获取请求所对应的过滤策略
+   *
+   * @param request HTTP 请求
+   * @return 过滤策略
+   */
+  public XssPolicy resolve(HttpServletRequest request) {
+    for (Route route : routes) {
+      if (route.matcher.matches(request)) {
+        return route.policy;
+      }
+    }
+    return DEFAULT_POLICY;
+  }
+
+  /**
+   * 获取控制器方法上 {@link XssSanitize} 所指定的策略
+   *
+   * @param method   控制器方法
+   * @param beanType 控制器类
+   * @return 过滤策略；若方法和类上均未标注，则返回 {@code null}
+   */
+  public static XssPolicy findAnnotatedPolicy(Method method, Class<?> beanType) {
+    XssSanitize annotation = AnnotatedElementUtils.findMergedAnnotation(method, XssSanitize.class);
+    if (annotation == null) {
+      annotation = AnnotatedElementUtils.findMergedAnnotation(beanType, XssSanitize.class);
+    }
+    return annotation == null ? null : annotation.value();
+  }
+
+  /**
+   * 所有控制器映射完成后，收集标注了 {@link XssSanitize} 的路径并重新编译路由
+   */
+  @Override
+  public void onApplicationEvent(ContextRefreshedEvent event) {
+    Map<XssPolicy, Set<String>> annotatedPatterns = new EnumMap<>(XssPolicy.class);
+    for (RequestMappingHandlerMapping mapping : event.getApplicationContext().getBeansOfType(RequestMappingHandlerMapping.class).values()) {
+      for (Map.Entry<RequestMappingInfo, HandlerMethod> entry : mapping.getHandlerMethods().entrySet()) {
+        HandlerMethod handlerMethod = entry.getValue();
+        XssPolicy policy = findAnnotatedPolicy(handlerMethod.getMethod(), handlerMethod.getBeanType());
+        if (policy != null) {
+          annotatedPatterns.computeIfAbsent(policy, key -> new LinkedHashSet<>())
+            .addAll(entry.getKey().getPatternsCondition().getPatterns());
+        }
+      }
+    }
+
+    routes = compile(annotatedPatterns);
+    log.info("XSS 过滤策略路由：{}", Arrays.toString(routes));
+  }
+
+  private Route[] compile(Map<XssPolicy, Set<String>> annotatedPatterns) {
+    List<Route> list = new ArrayList<>();
+    for (XssPolicy policy : XssPolicy.values()) {
+      Set<String> patterns = annotatedPatterns.get(policy);
+      if (patterns != null && !patterns.isEmpty()) {
+        list.add(new Route(new PathPatternMatcher(patterns.toArray(new String[0])), policy));
+      }
+    }
+
+    for (XssPolicy policy : XssPolicy.values()) {
+      String[] patterns = configuredPatterns.get(policy);
+      if (patterns.length > 0) {
+        list.add(new Route(new PathPatternMatcher(patterns), policy));
+      }
+    }
+    return list.toArray(new Route[0]);
+  }
+
+  /**
+   * 路径模式及其策略
+   */
+  private static class Route {
+
+    private final PathPatternMatcher matcher;
+
+    private final XssPolicy policy;
+
+    Route(PathPatternMatcher matcher, XssPolicy policy) {
+      this.matcher = matcher;
+      this.policy = policy;
+    }
+
+    @Override
+    public String toString() {
+      return policy + "=" + matcher;
+    }
+  }
+}
@@ -0,0 +1,64 @@
+package net.wuxianjie.springbootvuejs.security;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Type;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import net.wuxianjie.springbootvuejs.constants.RestCodeEnum;
+import net.wuxianjie.springbootvuejs.exception.RequestArgumentNotValidException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.RequestBodyAdviceAdapter;
+
+/**
+ * 为标注了 {@link XssSanitize} 的接口开启 JSON 请求体的 XSS 过滤
+ *
+ * <p>过滤策略由注解指定，{@link XssPolicy#OFF} 等同于未标注</p>
+ *
+ * @author 吴仙杰
+ */
+@ControllerAdvice
+public class XssRequestBodyAdvice extends RequestBodyAdviceAdapter {
+
+  /**
+   * 开启过滤时所允许的最大请求体（单位：字节）
+   */
+  @Value("${xss.json.max-body-size:1048576}")
+  private long maxBodySize;
+
+  /**
+   * 控制器方法 -> 过滤策略
+   */
+  private final Map<Method, XssPolicy> methodPolicies = new ConcurrentHashMap<>();
+
+  @Override
+  public boolean supports(MethodParameter methodParameter, Type targetType, Class<? extends HttpMessageConverter<?>> converterType) {
+    return XssJsonHttpMessageConverter.class.isAssignableFrom(converterType) && getPolicy(methodParameter) != XssPolicy.OFF;
+  }
+
+  @Override
+  public HttpInputMessage beforeBodyRead(HttpInputMessage inputMessage, MethodParameter parameter, Type targetType, Class<? extends HttpMessageConverter<?>> converterType) throws IOException {
+    // 已知请求体大小时，无需读取即可拒绝
+    long contentLength = inputMessage.getHeaders().getContentLength();
+    if (contentLength > maxBodySize) {
+      throw new RequestArgumentNotValidException(String.format("请求体超过 %d 字节", maxBodySize), RestCodeEnum.PAYLOAD_TOO_LARGE);
+    }
+    return new XssJsonHttpMessageConverter.SanitizingInputMessage(inputMessage, getPolicy(parameter), maxBodySize);
+  }
+
+  private XssPolicy getPolicy(MethodParameter parameter) {
+    Method method = parameter.getMethod();
+    if (method == null) {
+      return XssPolicy.OFF;
+    }
+
+    return methodPolicies.computeIfAbsent(method, key -> {
+      XssPolicy policy = XssPolicyResolver.findAnnotatedPolicy(key, parameter.getContainingClass());
+      return policy == null ? XssPolicy.OFF : policy;
+    });
+  }
+}
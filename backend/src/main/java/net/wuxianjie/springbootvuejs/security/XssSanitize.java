@@ -0,0 +1,28 @@
+package net.wuxianjie.springbootvuejs.security;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 指定接口的 XSS 过滤策略，并对 {@code @RequestBody} 的 JSON 请求体进行 XSS 过滤
+ *
+ * <p>可标注在控制器方法或控制器类上，方法上的注解优先。启动时会将其所映射的路径编译进 {@link XssPolicyResolver}，
+ * 以决定 {@link PreventXssFilter} 如何过滤请求参数；JSON 中的字符串则会在 Jackson 反序列化时按同一策略逐个过滤</p>
+ *
+ * @author 吴仙杰
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ ElementType.METHOD, ElementType.TYPE })
+public @interface XssSanitize {
+
+  /**
+   * 过滤策略
+   *
+   * @return 过滤策略，默认为 {@link XssPolicy#STRICT}
+   */
+  XssPolicy value() default XssPolicy.STRICT;
+}
@@ -0,0 +1,526 @@
+package net.wuxianjie.springbootvuejs.security;
+
+import java.text.Normalizer;
+
+/**
+ * 防跨站脚本攻击（XSS）的危险字符清理引擎
+ *
+ * <p>其结果与依次执行以下处理完全一致：</p>
+ *
+ * <ol>
+ *   <li>{@code Normalizer.normalize(val, Normalizer.Form.NFD)}</li>
+ *   <li>删除 {@code null} 字符</li>
+ *   <li>删除 {@code <script>...</script>}（不跨行）</li>
+ *   <li>删除 {@code src='...'} 及 {@code src="..."}</li>
+ *   <li>删除单独的 {@code </script>} 及 {@code <script ...>}</li>
+ *   <li>删除 {@code eval(...)} 及 {@code expression(...)}</li>
+ *   <li>删除 {@code javascript:} 及 {@code vbscript:}</li>
+ *   <li>删除 {@code onload...=}</li>
+ * </ol>
+ *
+ * <p>以上每一步原本都是一次 {@code Pattern.matcher(...).replaceAll("")}，每次都会分配新的字符串。
+ * 现在将每一步实现为一个流式的处理阶段，前一阶段的输出逐个字符地作为后一阶段的输入，
+ * 故只需对原始字符串进行一次线性扫描即可得到最终结果，且保留了原来「逐步替换」的语义
+ * （如前一步删除内容后拼接出的新结构，仍会被后续步骤识别）</p>
+ *
+ * <p>由于删除操作不会产生新的字符，若字符串中不包含某一步所必需的字符（如 {@code <}、{@code =}、{@code (}、{@code :}），
+ * 则该步骤必定不会匹配而被跳过。对于不包含任何此类字符的值（如 {@code page=3} 中的 {@code 3}），直接返回原字符串实例，不分配任何对象</p>
+ *
+ * <p>与 {@link java.util.regex.Pattern#CASE_INSENSITIVE} 一致，仅对 US-ASCII 字符进行大小写无关匹配</p>
+ *
+ * @author 吴仙杰
+ */
+public final class XssSanitizer {
+
+  private static final int NUL = 1;
+  private static final int LT = 1 << 1;
+  private static final int GT = 1 << 2;
+  private static final int SLASH = 1 << 3;
+  private static final int EQUALS = 1 << 4;
+  private static final int SINGLE_QUOTE = 1 << 5;
+  private static final int DOUBLE_QUOTE = 1 << 6;
+  private static final int LEFT_PAREN = 1 << 7;
+  private static final int RIGHT_PAREN = 1 << 8;
+  private static final int COLON = 1 << 9;
+
+  /**
+   * ASCII 字符 -> 该字符所对应的标记位
+   */
+  private static final int[] CHAR_FLAGS = new int[128];
+
+  static {
+    CHAR_FLAGS['\0'] = NUL;
+    CHAR_FLAGS['<'] = LT;
+    CHAR_FLAGS['>'] = GT;
+    CHAR_FLAGS['/'] = SLASH;
+    CHAR_FLAGS['='] = EQUALS;
+    CHAR_FLAGS['\''] = SINGLE_QUOTE;
+    CHAR_FLAGS['"'] = DOUBLE_QUOTE;
+    CHAR_FLAGS['('] = LEFT_PAREN;
+    CHAR_FLAGS[')'] = RIGHT_PAREN;
+    CHAR_FLAGS[':'] = COLON;
+  }
+
+  /**
+   * {@code <script>(.*?)</script>}
+   */
+  private static final Rule SCRIPT_TAG = Rule.enclosed("<script>", "</script>", true, LT | GT | SLASH);
+
+  /**
+   * {@code </script>}
+   */
+  private static final Rule SCRIPT_LONESOME_CLOSED_TAG = Rule.literal("</script>", LT | GT | SLASH);
+
+  /**
+   * {@code <script(.*?)>}
+   */
+  private static final Rule SCRIPT_LONESOME_TAG = Rule.enclosed("<script", ">", false, LT | GT);
+
+  /**
+   * {@code eval\((.*?)\)}
+   */
+  private static final Rule SCRIPT_EVAL = Rule.enclosed("eval(", ")", false, LEFT_PAREN | RIGHT_PAREN);
+
+  /**
+   * {@code expression\((.*?)\)}
+   */
+  private static final Rule SCRIPT_EXPRESSION = Rule.enclosed("expression(", ")", false, LEFT_PAREN | RIGHT_PAREN);
+
+  /**
+   * {@code javascript:}
+   */
+  private static final Rule SCRIPT_JAVASCRIPT = Rule.literal("javascript:", COLON);
+
+  /**
+   * {@code vbscript:}
+   */
+  private static final Rule SCRIPT_VBSCRIPT = Rule.literal("vbscript:", COLON);
+
+  /**
+   * {@code onload(.*?)=}
+   */
+  private static final Rule SCRIPT_ONLOAD = Rule.enclosed("onload", "=", false, EQUALS);
+
+  /**
+   * 在 {@code src=} 之后的规则，由后往前排列，以便从输出端开始构建处理链
+   */
+  private static final Rule[] TAIL_RULES = {
+    SCRIPT_ONLOAD, SCRIPT_VBSCRIPT, SCRIPT_JAVASCRIPT, SCRIPT_EXPRESSION, SCRIPT_EVAL, SCRIPT_LONESOME_TAG, SCRIPT_LONESOME_CLOSED_TAG
+  };
+
+  private XssSanitizer() {
+  }
+
+  /**
+   * 删除字符串中可能存在的恶意字符
+   *
+   * @param val 原始字符串
+   * @return 删除恶意字符后的字符串；若无需删除任何字符，则返回原字符串实例
+   */
+  public static String sanitize(String val) {
+    if (val == null) {
+      return null;
+    }
+
+    int flags = scan(val);
+    if (flags < 0) {
+      // 包含非 ASCII 字符，先进行 Unicode 规范化，规范化后可能分解出新的 ASCII 字符（如 `≠` 分解为 `=`）
+      if (!Normalizer.isNormalized(val, Normalizer.Form.NFD)) {
+        val = Normalizer.normalize(val, Normalizer.Form.NFD);
+      }
+      flags = scan(val) & Integer.MAX_VALUE;
+    }
+
+    Stage head = buildStages(flags, val.length());
+    if (head == null) {
+      return val;
+    }
+
+    for (int i = 0, length = val.length(); i < length; i++) {
+      head.accept(val.charAt(i));
+    }
+    head.finish();
+
+    // 各阶段只会删除字符，故长度不变即说明没有删除任何内容
+    StringBuilder output = head.output();
+    return output.length() == val.length() ? val : output.toString();
+  }
+
+  /**
+   * 扫描字符串中包含哪些必需字符
+   *
+   * @return 必需字符的标记位；若包含非 ASCII 字符，则符号位为 1
+   */
+  private static int scan(String val) {
+    int flags = 0;
+    for (int i = 0, length = val.length(); i < length; i++) {
+      char c = val.charAt(i);
+      if (c < 128) {
+        flags |= CHAR_FLAGS[c];
+      } else {
+        flags |= Integer.MIN_VALUE;
+      }
+    }
+    return flags;
+  }
+
+  /**
+   * 仅构建可能匹配的处理阶段，按原处理顺序串联
+   *
+   * @return 第一个处理阶段；若所有阶段都不可能匹配，则返回 {@code null}
+   */
+  private static Stage buildStages(int flags, int length) {
+    Output output = new Output(length);
+    Stage next = output;
+    boolean any = false;
+
+    for (Rule rule : TAIL_RULES) {
+      if (rule.isApplicable(flags)) {
+        next = new RuleStage(rule, next);
+        any = true;
+      }
+    }
+
+    if ((flags & (EQUALS | DOUBLE_QUOTE)) == (EQUALS | DOUBLE_QUOTE)) {
+      next = new SrcStage('"', next);
+      any = true;
+    }
+    if ((flags & (EQUALS | SINGLE_QUOTE)) == (EQUALS | SINGLE_QUOTE)) {
+      next = new SrcStage('\'', next);
+      any = true;
+    }
+
+    if (SCRIPT_TAG.isApplicable(flags)) {
+      next = new RuleStage(SCRIPT_TAG, next);
+      any = true;
+    }
+
+    if ((flags & NUL) != 0) {
+      next = new NulStage(next);
+      any = true;
+    }
+
+    return any ? next : null;
+  }
+
+  /**
+   * 与 {@code Pattern.CASE_INSENSITIVE} 一致，仅将 ASCII 大写字母转为小写
+   */
+  private static char fold(char c) {
+    return c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
+  }
+
+  /**
+   * 与正则中不带 {@code DOTALL} 的 {@code .} 所不匹配的行终止符一致
+   */
+  private static boolean isLineTerminator(char c) {
+    return c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029';
+  }
+
+  /**
+   * 由开始字面量、可选的结束字面量组成的删除规则，相当于 {@code opener(.*?)closer}
+   */
+  private static final class Rule {
+
+    private final char[] opener;
+
+    private final int[] openerFailure;
+
+    private final char[] closer;
+
+    private final int[] closerFailure;
+
+    /**
+     * 开始与结束之间的内容是否不能跨行
+     */
+    private final boolean singleLine;
+
+    /**
+     * 该规则匹配时所必需的字符
+     */
+    private final int requiredFlags;
+
+    private Rule(String opener, String closer, boolean singleLine, int requiredFlags) {
+      this.opener = opener.toCharArray();
+      this.openerFailure = failure(this.opener);
+      this.closer = closer == null ? null : closer.toCharArray();
+      this.closerFailure = closer == null ? null : failure(this.closer);
+      this.singleLine = singleLine;
+      this.requiredFlags = requiredFlags;
+    }
+
+    static Rule literal(String literal, int requiredFlags) {
+      return new Rule(literal, null, false, requiredFlags);
+    }
+
+    static Rule enclosed(String opener, String closer, boolean singleLine, int requiredFlags) {
+      return new Rule(opener, closer, singleLine, requiredFlags);
+    }
+
+    boolean isApplicable(int flags) {
+      return (flags & requiredFlags) == requiredFlags;
+    }
+
+    /**
+     * KMP 部分匹配表
+     */
+    private static int[] failure(char[] pattern) {
+      int[] failure = new int[pattern.length];
+      for (int i = 1, k = 0; i < pattern.length; i++) {
+        while (k > 0 && pattern[i] != pattern[k]) {
+          k = failure[k - 1];
+        }
+        if (pattern[i] == pattern[k]) {
+          k++;
+        }
+        failure[i] = k;
+      }
+      return failure;
+    }
+
+    /**
+     * KMP 匹配前进一个字符
+     *
+     * @return 新的已匹配长度
+     */
+    static int advance(char[] pattern, int[] failure, int matched, char c) {
+      while (matched > 0 && pattern[matched] != c) {
+        matched = failure[matched - 1];
+      }
+      return pattern[matched] == c ? matched + 1 : matched;
+    }
+  }
+
+  /**
+   * 流式处理阶段，处理后的字符交给下一阶段
+   */
+  private abstract static class Stage {
+
+    final Stage next;
+
+    Stage(Stage next) {
+      this.next = next;
+    }
+
+    abstract void accept(char c);
+
+    void finish() {
+      next.finish();
+    }
+
+    StringBuilder output() {
+      return next.output();
+    }
+  }
+
+  /**
+   * 需要缓存尚未确定是否删除的字符的处理阶段
+   */
+  private abstract static class BufferingStage extends Stage {
+
+    /**
+     * 尚未确定是否需要删除的字符
+     */
+    final StringBuilder pending = new StringBuilder();
+
+    BufferingStage(Stage next) {
+      super(next);
+    }
+
+    @Override
+    void finish() {
+      flush(pending.length());
+      next.finish();
+    }
+
+    /**
+     * 将前 {@code count} 个待定字符交给下一阶段
+     */
+    void flush(int count) {
+      for (int i = 0; i < count; i++) {
+        next.accept(pending.charAt(i));
+      }
+      pending.delete(0, count);
+    }
+  }
+
+  /**
+   * 最终输出
+   */
+  private static final class Output extends Stage {
+
+    private final StringBuilder builder;
+
+    Output(int capacity) {
+      super(null);
+      builder = new StringBuilder(capacity);
+    }
+
+    @Override
+    void accept(char c) {
+      builder.append(c);
+    }
+
+    @Override
+    void finish() {
+    }
+
+    @Override
+    StringBuilder output() {
+      return builder;
+    }
+  }
+
+  /**
+   * 删除 {@code null} 字符
+   */
+  private static final class NulStage extends Stage {
+
+    NulStage(Stage next) {
+      super(next);
+    }
+
+    @Override
+    void accept(char c) {
+      if (c != '\0') {
+        next.accept(c);
+      }
+    }
+  }
+
+  /**
+   * 按 {@link Rule} 删除匹配的内容
+   *
+   * <p>与正则的最左、非贪婪匹配语义一致：开始字面量通过 KMP 逐字符匹配；
+   * 匹配后缓存其后的内容，直到遇到结束字面量时整体删除。若到达输入末尾（或单行规则遇到行终止符）时仍未遇到结束字面量，
+   * 则此后开始的任何匹配也不可能成功，故原样输出已缓存的内容</p>
+   */
+  private static final class RuleStage extends BufferingStage {
+
+    private final Rule rule;
+
+    /**
+     * 开始字面量的已匹配长度
+     */
+    private int openerMatched;
+
+    /**
+     * 是否已匹配开始字面量，正在查找结束字面量
+     */
+    private boolean inBody;
+
+    /**
+     * 结束字面量的已匹配长度
+     */
+    private int closerMatched;
+
+    RuleStage(Rule rule, Stage next) {
+      super(next);
+      this.rule = rule;
+    }
+
+    @Override
+    void accept(char c) {
+      pending.append(c);
+      char folded = fold(c);
+
+      if (!inBody) {
+        openerMatched = Rule.advance(rule.opener, rule.openerFailure, openerMatched, folded);
+        if (openerMatched < rule.opener.length) {
+          // 只有末尾的已匹配部分仍可能被删除
+          flush(pending.length() - openerMatched);
+          return;
+        }
+
+        openerMatched = 0;
+        if (rule.closer == null) {
+          pending.setLength(0);
+        } else {
+          inBody = true;
+          closerMatched = 0;
+        }
+        return;
+      }
+
+      if (rule.singleLine && isLineTerminator(c)) {
+        inBody = false;
+        flush(pending.length());
+        return;
+      }
+
+      closerMatched = Rule.advance(rule.closer, rule.closerFailure, closerMatched, folded);
+      if (closerMatched == rule.closer.length) {
+        inBody = false;
+        pending.setLength(0);
+      }
+    }
+  }
+
+  /**
+   * 删除 {@code src[\r\n]*=[\r\n]*'(.*?)'} 或 {@code src[\r\n]*=[\r\n]*"(.*?)"}
+   */
+  private static final class SrcStage extends BufferingStage {
+
+    private static final char[] SRC = { 's', 'r', 'c' };
+
+    private static final int AFTER_SRC = 3;
+
+    private static final int AFTER_EQUALS = 4;
+
+    private static final int IN_BODY = 5;
+
+    private final char quote;
+
+    private int state;
+
+    SrcStage(char quote, Stage next) {
+      super(next);
+      this.quote = quote;
+    }
+
+    @Override
+    void accept(char c) {
+      pending.append(c);
+
+      switch (state) {
+        case AFTER_SRC:
+          if (c == '=') {
+            state = AFTER_EQUALS;
+          } else if (c != '\r' && c != '\n') {
+            restart(c);
+          }
+          return;
+        case AFTER_EQUALS:
+          if (c == quote) {
+            state = IN_BODY;
+          } else if (c != '\r' && c != '\n') {
+            restart(c);
+          }
+          return;
+        case IN_BODY:
+          if (c == quote) {
+            state = 0;
+            pending.setLength(0);
+          }
+          return;
+        default:
+          // `src` 中没有相同的前后缀，匹配失败时只需判断当前字符能否重新开始匹配
+          char folded = fold(c);
+          if (folded == SRC[state]) {
+            state++;
+          } else {
+            state = folded == SRC[0] ? 1 : 0;
+          }
+          flush(pending.length() - state);
+      }
+    }
+
+    /**
+     * 在 `src` 之后匹配失败：已缓存的内容中不可能存在新的匹配开头，仅当前字符可能
+     */
+    private void restart(char c) {
+      state = fold(c) == SRC[0] ? 1 : 0;
+      flush(pending.length() - state);
+    }
+  }
+}
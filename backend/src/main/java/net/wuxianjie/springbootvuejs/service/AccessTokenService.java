@@ -1,19 +1,34 @@
 package net.wuxianjie.springbootvuejs.service;
 
 import com.google.common.base.Joiner;
-import com.google.common.cache.LoadingCache;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.HashCode;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import java.util.Date;
 import java.util.List;
 import java.util.Objects;
-import net.wuxianjie.springbootvuejs.cache.CacheManager;
-import net.wuxianjie.springbootvuejs.constants.RestCodeEnum;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import net.wuxianjie.springbootvuejs.cache.InvalidationBus;
 import net.wuxianjie.springbootvuejs.dto.AccessTokenDto;
 import net.wuxianjie.springbootvuejs.dto.PrincipalDto;
 import net.wuxianjie.springbootvuejs.dto.TokenCacheDto;
 import net.wuxianjie.springbootvuejs.exception.JwtAuthenticationException;
+import net.wuxianjie.springbootvuejs.security.AuthenticationCache;
 import net.wuxianjie.springbootvuejs.security.JwtManager;
-import net.wuxianjie.springbootvuejs.security.SecurityConstants;
+import net.wuxianjie.springbootvuejs.security.TokenIndex;
+import net.wuxianjie.springbootvuejs.security.TokenStore;
 import net.wuxianjie.springbootvuejs.util.DateUtils;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.stereotype.Service;
@@ -24,7 +39,7 @@ import org.springframework.stereotype.Service;
  * @author 吴仙杰
  */
 @Service
-public class AccessTokenService {
+public class AccessTokenService implements DisposableBean {
 
   /**
    * 假定 access_token 有效期为 30 天
@@ -35,57 +50,190 @@ public class AccessTokenService {
   private static final String USER_NAME = "jason";
   private static final String PASSWORD = "123";
 
+  /**
+   * 模拟的登录及刷新耗时（单位：毫秒）
+   */
+  private static final long LOGIN_LATENCY_MILLIS = 2000;
+
+  /**
+   * 程序关闭时等待尚未完成的登录及刷新的最长时间（单位：秒）
+   */
+  private static final int SHUTDOWN_TIMEOUT_SECONDS = 10;
+
+  /**
+   * 缓存失效总线中会话被修改的主题，键为 {@code 用户 ID:会话 ID:用户名}，会话 ID 为 {@code 0} 表示该用户的所有会话均已撤销
+   */
+  static final String TOKEN_TOPIC = "access-token";
+
+  private final TokenStore tokenStore;
+
+  /**
+   * 未启用多节点缓存失效时为 {@code null}
+   */
+  private final InvalidationBus invalidationBus;
+
+  /**
+   * 会话 ID -> 合并窗口内最近一次刷新的结果，正在刷新时为未完成的 future
+   */
+  private final Cache<Long, CompletableFuture<AccessTokenDto>> recentRefreshes;
+
+  /**
+   * 只负责等待模拟的耗时，到期后将操作交给 {@link #workers}，等待期间不占用线程
+   */
+  private final ScheduledExecutorService timer;
+
+  /**
+   * 执行登录及刷新（签发 JWT、保存 token 等）的线程池，线程数由 {@code token.worker-threads} 指定
+   */
+  private final ExecutorService workers;
+
+  public AccessTokenService(TokenStore tokenStore, ObjectProvider<InvalidationBus> invalidationBus,
+                            @Value("${token.refresh.coalesce-window-millis:5000}") long coalesceWindowMillis,
+                            @Value("${token.worker-threads:4}") int workerThreads) {
+    this.tokenStore = tokenStore;
+    this.recentRefreshes = CacheBuilder.newBuilder()
+      .expireAfterWrite(coalesceWindowMillis, TimeUnit.MILLISECONDS)
+      .build();
+    this.timer = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+      .setNameFormat("access-token-timer")
+      .setDaemon(true)
+      .build());
+    this.workers = Executors.newFixedThreadPool(workerThreads, new ThreadFactoryBuilder()
+      .setNameFormat("access-token-worker-%d")
+      .setDaemon(true)
+      .build());
+    this.invalidationBus = invalidationBus.getIfAvailable();
+    if (this.invalidationBus != null) {
+      this.invalidationBus.subscribe(TOKEN_TOPIC, this::onTokenReplaced);
+    }
+  }
+
   /**
    * 获取 access token，有效期为 30 天
    *
+   * <p>校验用户名及密码在 {@link #LOGIN_LATENCY_MILLIS} 后由线程池完成，等待期间不占用任何线程</p>
+   *
    * @param userName 用户名
    * @param password 密码
-   * @return 包含 access token 等信息的对象
-   * @throws JwtAuthenticationException 当鉴权失败时
+   * @return 包含 access token 等信息的对象；鉴权失败时以 {@link JwtAuthenticationException} 异常完成
    */
-  public AccessTokenDto getAccessToken(String userName, String password) {
-    try {
-      Thread.sleep(2000);
-    } catch (InterruptedException e) {
-      e.printStackTrace();
-    }
-
-    PrincipalDto principal = new PrincipalDto();
-    principal.setUserId(USER_ID);
-    principal.setUserName(userName);
+  public CompletableFuture<AccessTokenDto> getAccessToken(String userName, String password) {
+    return supplyAfterLatency(() -> {
+      // 每次登录都新建会话，用户的会话已满时由 token 存储淘汰最久未签发的会话
+      PrincipalDto principal = new PrincipalDto(USER_ID, userName, newSessionId());
 
-    boolean isNameRight = Objects.equals(USER_NAME, userName);
-    boolean isPasswordRight = Objects.equals(PASSWORD, password);
+      boolean isNameRight = Objects.equals(USER_NAME, userName);
+      boolean isPasswordRight = Objects.equals(PASSWORD, password);
 
-    if (!isNameRight)
-      throw new JwtAuthenticationException("用户名或密码错误", RestCodeEnum.INVALID_CLIENT_ID);
+      if (!isNameRight)
+        throw JwtAuthenticationException.INVALID_CLIENT_ID;
 
-    if (!isPasswordRight)
-      throw new JwtAuthenticationException("用户名或密码错误", RestCodeEnum.INVALID_CLIENT_SECRET);
+      if (!isPasswordRight)
+        throw JwtAuthenticationException.INVALID_CLIENT_SECRET;
 
-    return generateAccessToken(principal, "admin,user,test");
+      return generateAccessToken(principal, "admin,user,test");
+    });
   }
 
   /**
    * 刷新 {@code access_token}，有效期为 30 天
    *
-   * <p>刷新后，旧的 access_token 将会被视为过期</p>
+   * <p>刷新后，旧的 access_token 将会被视为过期，但在宽限期（{@code token.store.grace-period-millis}）内仍可使用</p>
+   *
+   * <p>只替换当前会话的 token，不影响该用户的其他会话</p>
+   *
+   * <p>单飞（single-flight）：同一会话并发的刷新请求只签发一次，在合并窗口（{@code token.refresh.coalesce-window-millis}）内
+   * 之后的刷新请求也直接返回同一个新 token，以免客户端临近过期时同时发出的多个请求互相替换 token、被拒绝后又重试。
+   * 并发的请求共用同一个 future，不会阻塞等待</p>
    *
    * @param principal Spring Security 中的身份验证对象
    * @param authorityList Spring Security 中的角色名列表
-   * @return 包含 access token 等信息的对象
+   * @return 包含 access token 等信息的对象，由同一会话的并发请求共用，调用方不能修改其结果
    */
-  public AccessTokenDto refreshAccessToken(PrincipalDto principal, List<GrantedAuthority> authorityList) {
-    try {
-      Thread.sleep(2000);
-    } catch (InterruptedException e) {
-      e.printStackTrace();
+  public CompletableFuture<AccessTokenDto> refreshAccessToken(PrincipalDto principal, List<GrantedAuthority> authorityList) {
+    CompletableFuture<AccessTokenDto> refresh = new CompletableFuture<>();
+    CompletableFuture<AccessTokenDto> running = recentRefreshes.asMap().putIfAbsent(principal.getSessionId(), refresh);
+    if (running != null) {
+      return running;
     }
 
-    String userName = principal.getUserName();
     String roles = Joiner.on(",").join(authorityList);
+    supplyAfterLatency(() -> generateAccessToken(principal, roles)).whenComplete((accessToken, e) -> {
+      if (e == null) {
+        refresh.complete(accessToken);
+        return;
+      }
 
-    return generateAccessToken(principal, roles);
+      // 失败的刷新不共用，之后的请求重新刷新
+      recentRefreshes.asMap().remove(principal.getSessionId(), refresh);
+      refresh.completeExceptionally(e);
+    });
+    return refresh;
+  }
+
+  /**
+   * 撤销当前用户的所有会话，包括当前会话
+   *
+   * @param principal Spring Security 中的身份验证对象
+   */
+  public void revokeSessions(PrincipalDto principal) {
+    tokenStore.remove(principal.getUserId(), principal.getUserName());
+    onSessionChanged(principal.getUserId(), TokenIndex.NO_SESSION, principal.getUserName());
+  }
+
+  /**
+   * 撤销当前用户的一个会话，该会话不存在时不做任何处理
+   *
+   * @param principal Spring Security 中的身份验证对象
+   * @param sessionId 会话 ID，即 JWT 的 {@code jti}
+   */
+  public void revokeSession(PrincipalDto principal, long sessionId) {
+    tokenStore.removeSession(principal.getUserId(), principal.getUserName(), sessionId);
+    onSessionChanged(principal.getUserId(), sessionId, principal.getUserName());
+  }
+
+  /**
+   * 不再接受新的登录及刷新，并等待已接受的执行完成：先等待计时器中尚未到期的操作全部交给线程池，再等待线程池执行完
+   */
+  @Override
+  public void destroy() throws InterruptedException {
+    // 关闭后计时器仍会执行已安排的延时操作
+    timer.shutdown();
+    timer.awaitTermination(LOGIN_LATENCY_MILLIS + TimeUnit.SECONDS.toMillis(SHUTDOWN_TIMEOUT_SECONDS), TimeUnit.MILLISECONDS);
+    workers.shutdown();
+    if (!workers.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+      workers.shutdownNow();
+    }
+  }
+
+  /**
+   * 在 {@link #LOGIN_LATENCY_MILLIS} 后由线程池执行，模拟校验用户名及密码、查询角色等耗时操作
+   *
+   * @param supplier 在线程池中执行的操作，其抛出的异常使返回的 future 以异常完成；程序关闭后以 {@link RejectedExecutionException} 异常完成
+   */
+  private CompletableFuture<AccessTokenDto> supplyAfterLatency(Supplier<AccessTokenDto> supplier) {
+    CompletableFuture<AccessTokenDto> future = new CompletableFuture<>();
+    Runnable task = () -> {
+      try {
+        future.complete(supplier.get());
+      } catch (RuntimeException | Error e) {
+        // 须完成 future，否则等待该结果的请求永远不会得到响应
+        future.completeExceptionally(e);
+      }
+    };
+
+    try {
+      timer.schedule(() -> {
+        try {
+          workers.execute(task);
+        } catch (RejectedExecutionException e) {
+          future.completeExceptionally(e);
+        }
+      }, LOGIN_LATENCY_MILLIS, TimeUnit.MILLISECONDS);
+    } catch (RejectedExecutionException e) {
+      future.completeExceptionally(e);
+    }
+    return future;
   }
 
   /**
@@ -96,16 +244,53 @@ public class AccessTokenService {
    * @return access token
    */
   private AccessTokenDto generateAccessToken(PrincipalDto principal, String roles) {
-    // 创建 JWT
-    Date expirationTime = DateUtils.getAfterDaysDate(EXPIRES_DAYS);
-    String accessToken = JwtManager
-      .getInstance().generateAccessToken(expirationTime, principal.getUserName(), roles);
+    // 创建 JWT，其 `exp` 只精确到秒，故先舍去毫秒，使 token 存储中的过期时间与 `exp` 完全一致
+    long expiresAt = DateUtils.getAfterDaysDate(EXPIRES_DAYS).getTime() / 1000 * 1000;
+    Date expirationTime = new Date(expiresAt);
+    String accessToken = JwtManager.getInstance().generateAccessToken(expirationTime,
+      principal.getUserId(), principal.getUserName(), principal.getSessionId(), roles);
 
-    // 加入缓存
-    TokenCacheDto cache = new TokenCacheDto(principal.getUserId(), principal.getUserName(), accessToken);
-    LoadingCache<String, Object> ttlCache = CacheManager.getInstance().getCache30DaysToLive();
-    ttlCache.put(SecurityConstants.PREFIX_ACCESS_TOKEN_CACHE + principal.getUserName(), cache);
+    // 保存为该会话当前有效的 token，只保存其摘要
+    HashCode tokenDigest = AuthenticationCache.getInstance().digest(accessToken);
+    tokenStore.save(new TokenCacheDto(principal.getUserId(), principal.getUserName(), principal.getSessionId(), tokenDigest, expiresAt));
+
+    onSessionChanged(principal.getUserId(), principal.getSessionId(), principal.getUserName());
+    return new AccessTokenDto(accessToken, expiresAt / 1000);
+  }
 
-    return new AccessTokenDto(accessToken, expirationTime.getTime() / 1000);
+  /**
+   * 会话的 token 被替换、会话被新建（可能淘汰了旧会话）或被撤销后，使该用户已缓存的鉴权结果失效，并通知其他节点
+   */
+  private void onSessionChanged(int userId, long sessionId, String userName) {
+    AuthenticationCache.getInstance().invalidateUser(userId);
+    if (invalidationBus != null) {
+      invalidationBus.publish(TOKEN_TOPIC, userId + ":" + JwtManager.formatSessionId(sessionId) + ":" + userName);
+    }
+  }
+
+  /**
+   * 其他节点修改了该用户的会话：先丢弃 token 存储中的旧状态，再使已缓存的鉴权结果失效，
+   * 以免并发的请求在两步之间用旧状态重新缓存鉴权结果
+   *
+   * @param key {@code 用户 ID:会话 ID:用户名}
+   */
+  private void onTokenReplaced(String key) {
+    String[] parts = key.split(":", 3);
+    int userId = Integer.parseInt(parts[0]);
+    long sessionId = JwtManager.parseSessionId(parts[1]);
+    recentRefreshes.invalidate(sessionId);
+    tokenStore.invalidate(userId, sessionId);
+    AuthenticationCache.getInstance().invalidateUser(userId);
+  }
+
+  /**
+   * 生成随机的会话 ID，不会是 {@link TokenIndex#NO_SESSION}
+   */
+  private static long newSessionId() {
+    long sessionId;
+    do {
+      sessionId = ThreadLocalRandom.current().nextLong();
+    } while (sessionId == TokenIndex.NO_SESSION);
+    return sessionId;
   }
 }
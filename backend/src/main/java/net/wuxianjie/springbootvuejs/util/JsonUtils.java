@@ -1,10 +1,17 @@
 package net.wuxianjie.springbootvuejs.util;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import java.io.IOException;
-import java.text.DateFormat;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.text.SimpleDateFormat;
 import net.wuxianjie.springbootvuejs.exception.JsonException;
 import net.wuxianjie.springbootvuejs.constants.RestCodeEnum;
@@ -12,12 +19,30 @@ import net.wuxianjie.springbootvuejs.constants.RestCodeEnum;
 /**
  * JSON 序列化与反序列化工具类
  *
+ * <p>所有方法共用预先配置好的 {@link ObjectReader} 及 {@link ObjectWriter}（可读性日期及时间戳日期各一组），
+ * 二者均为不可变对象，可在多线程间共享，且会复用 Jackson 内部缓存的序列化器及反序列化器。
+ * 可读性日期格式虽然基于非线程安全的 {@link SimpleDateFormat}，但 Jackson 在每次序列化或反序列化时都会复制一份再使用，故也是线程安全的</p>
+ *
+ * <p>流式方法不会关闭传入的流，由调用方负责关闭</p>
+ *
  * @author 吴仙杰
  */
 public class JsonUtils {
 
   private static final String DATE_TIME_PATTERN = "yyyy-MM-dd HH:mm:ss";
 
+  private static final ObjectMapper READABLE_MAPPER = newObjectMapper(true);
+
+  private static final ObjectMapper EPOCH_MAPPER = newObjectMapper(false);
+
+  private static final ObjectWriter READABLE_WRITER = READABLE_MAPPER.writer();
+
+  private static final ObjectWriter EPOCH_WRITER = EPOCH_MAPPER.writer();
+
+  private static final ObjectReader READABLE_READER = READABLE_MAPPER.reader();
+
+  private static final ObjectReader EPOCH_READER = EPOCH_MAPPER.reader();
+
   /**
    * JSON 序列化
    *
@@ -27,13 +52,58 @@ public class JsonUtils {
    * @throws JsonException 当 JSON 序列化失败时抛出
    */
   public static String toJson(Object value, boolean isDateReadable) {
-    ObjectMapper mapper = new ObjectMapper();
-    if (isDateReadable) {
-      DateFormat df = new SimpleDateFormat(DATE_TIME_PATTERN);
-      mapper.setDateFormat(df);
+    try {
+      return getWriter(isDateReadable).writeValueAsString(value);
+    } catch (JsonProcessingException e) {
+      throw new JsonException(String.format("JSON 序列化【%s】失败：%s", value, e.getMessage()), e, RestCodeEnum.ERROR_SERVER);
+    }
+  }
+
+  /**
+   * JSON 序列化为 UTF-8 编码的字节数组
+   *
+   * @param value          需要序列化的 Java 值
+   * @param isDateReadable 是否需要日期可读性转换，可读性日期格式为 {@code yyyy-MM-dd HH:mm:ss}
+   * @return UTF-8 编码的 JSON
+   * @throws JsonException 当 JSON 序列化失败时抛出
+   */
+  public static byte[] toJsonBytes(Object value, boolean isDateReadable) {
+    try {
+      return getWriter(isDateReadable).writeValueAsBytes(value);
+    } catch (JsonProcessingException e) {
+      throw new JsonException(String.format("JSON 序列化【%s】失败：%s", value, e.getMessage()), e, RestCodeEnum.ERROR_SERVER);
     }
+  }
+
+  /**
+   * JSON 序列化，以 UTF-8 编码直接写入输出流，不生成中间字符串
+   *
+   * @param out            输出流，写入后会刷新但不会关闭
+   * @param value          需要序列化的 Java 值
+   * @param isDateReadable 是否需要日期可读性转换，可读性日期格式为 {@code yyyy-MM-dd HH:mm:ss}
+   * @throws JsonException 当 JSON 序列化失败时抛出
+   * @throws IOException   当写入输出流失败时抛出
+   */
+  public static void writeJson(OutputStream out, Object value, boolean isDateReadable) throws IOException {
     try {
-      return mapper.writeValueAsString(value);
+      getWriter(isDateReadable).writeValue(out, value);
+    } catch (JsonProcessingException e) {
+      throw new JsonException(String.format("JSON 序列化【%s】失败：%s", value, e.getMessage()), e, RestCodeEnum.ERROR_SERVER);
+    }
+  }
+
+  /**
+   * JSON 序列化，直接写入字符输出流，不生成中间字符串
+   *
+   * @param writer         字符输出流，写入后会刷新但不会关闭
+   * @param value          需要序列化的 Java 值
+   * @param isDateReadable 是否需要日期可读性转换，可读性日期格式为 {@code yyyy-MM-dd HH:mm:ss}
+   * @throws JsonException 当 JSON 序列化失败时抛出
+   * @throws IOException   当写入字符输出流失败时抛出
+   */
+  public static void writeJson(Writer writer, Object value, boolean isDateReadable) throws IOException {
+    try {
+      getWriter(isDateReadable).writeValue(writer, value);
     } catch (JsonProcessingException e) {
       throw new JsonException(String.format("JSON 序列化【%s】失败：%s", value, e.getMessage()), e, RestCodeEnum.ERROR_SERVER);
     }
@@ -49,9 +119,8 @@ public class JsonUtils {
    * @throws JsonException 当 JSON 反序列化失败时抛出
    */
   public static <T> T parseJson(String json, Class<T> valueType, boolean isDateReadable) {
-    ObjectMapper mapper = getObjectMapper(isDateReadable);
     try {
-      return mapper.readValue(json, valueType);
+      return getReader(isDateReadable).forType(valueType).readValue(json);
     } catch (IOException e) {
       throw new JsonException(String.format("JSON 反序列化【%s】失败：%s", json, e.getMessage()), e, RestCodeEnum.ERROR_SERVER);
     }
@@ -71,20 +140,102 @@ public class JsonUtils {
    * @throws JsonException 当 JSON 反序列化失败时抛出
    */
   public static <T> T parseJson(String json, TypeReference<T> ref, boolean isDateReadable) {
-    ObjectMapper mapper = getObjectMapper(isDateReadable);
     try {
-      return mapper.readValue(json, ref);
+      return getReader(isDateReadable).forType(ref).readValue(json);
     } catch (IOException e) {
       throw new JsonException(String.format("JSON 反序列化【%s】失败：%s", json, e.getMessage()), e, RestCodeEnum.ERROR_SERVER);
     }
   }
 
-  private static ObjectMapper getObjectMapper(boolean isDateReadable) {
+  /**
+   * JSON 反序列化，直接解析字节数组，编码由 Jackson 自动识别（UTF-8、UTF-16 或 UTF-32）
+   *
+   * @param json           需要 JSON 反序列化的字节数组
+   * @param valueType      JSON 反序列化后所得到对象的类型
+   * @param isDateReadable 是否需要日期可读性转换，可读性日期格式为 {@code yyyy-MM-dd HH:mm:ss}
+   * @return 指定类型的对象
+   * @throws JsonException 当 JSON 反序列化失败时抛出
+   */
+  public static <T> T parseJson(byte[] json, Class<T> valueType, boolean isDateReadable) {
+    try {
+      return getReader(isDateReadable).forType(valueType).readValue(json);
+    } catch (IOException e) {
+      throw new JsonException(String.format("JSON 反序列化【%s】失败：%s", new String(json, StandardCharsets.UTF_8), e.getMessage()), e, RestCodeEnum.ERROR_SERVER);
+    }
+  }
+
+  /**
+   * JSON 反序列化，直接解析字节数组，支持完整泛型类型信息
+   *
+   * @param json           需要 JSON 反序列化的字节数组
+   * @param ref            JSON 反序列化后所得到对象的类型，支持完整泛型类型信息
+   * @param isDateReadable 是否需要日期可读性转换，可读性日期格式为 {@code yyyy-MM-dd HH:mm:ss}
+   * @return 指定类型的对象
+   * @throws JsonException 当 JSON 反序列化失败时抛出
+   */
+  public static <T> T parseJson(byte[] json, TypeReference<T> ref, boolean isDateReadable) {
+    try {
+      return getReader(isDateReadable).forType(ref).readValue(json);
+    } catch (IOException e) {
+      throw new JsonException(String.format("JSON 反序列化【%s】失败：%s", new String(json, StandardCharsets.UTF_8), e.getMessage()), e, RestCodeEnum.ERROR_SERVER);
+    }
+  }
+
+  /**
+   * JSON 反序列化，边读取输入流边解析
+   *
+   * @param in             输入流，读取后不会关闭
+   * @param valueType      JSON 反序列化后所得到对象的类型
+   * @param isDateReadable 是否需要日期可读性转换，可读性日期格式为 {@code yyyy-MM-dd HH:mm:ss}
+   * @return 指定类型的对象
+   * @throws JsonException 当 JSON 反序列化失败时抛出
+   * @throws IOException   当读取输入流失败时抛出
+   */
+  public static <T> T parseJson(InputStream in, Class<T> valueType, boolean isDateReadable) throws IOException {
+    try {
+      return getReader(isDateReadable).forType(valueType).readValue(in);
+    } catch (JsonProcessingException e) {
+      throw new JsonException(String.format("JSON 反序列化失败：%s", e.getMessage()), e, RestCodeEnum.ERROR_SERVER);
+    }
+  }
+
+  /**
+   * JSON 反序列化，边读取输入流边解析，支持完整泛型类型信息
+   *
+   * @param in             输入流，读取后不会关闭
+   * @param ref            JSON 反序列化后所得到对象的类型，支持完整泛型类型信息
+   * @param isDateReadable 是否需要日期可读性转换，可读性日期格式为 {@code yyyy-MM-dd HH:mm:ss}
+   * @return 指定类型的对象
+   * @throws JsonException 当 JSON 反序列化失败时抛出
+   * @throws IOException   当读取输入流失败时抛出
+   */
+  public static <T> T parseJson(InputStream in, TypeReference<T> ref, boolean isDateReadable) throws IOException {
+    try {
+      return getReader(isDateReadable).forType(ref).readValue(in);
+    } catch (JsonProcessingException e) {
+      throw new JsonException(String.format("JSON 反序列化失败：%s", e.getMessage()), e, RestCodeEnum.ERROR_SERVER);
+    }
+  }
+
+  private static ObjectWriter getWriter(boolean isDateReadable) {
+    return isDateReadable ? READABLE_WRITER : EPOCH_WRITER;
+  }
+
+  private static ObjectReader getReader(boolean isDateReadable) {
+    return isDateReadable ? READABLE_READER : EPOCH_READER;
+  }
+
+  /**
+   * 创建 {@link ObjectMapper}，仅在类初始化时调用，之后不再修改其配置
+   */
+  private static ObjectMapper newObjectMapper(boolean isDateReadable) {
     ObjectMapper mapper = new ObjectMapper();
     if (isDateReadable) {
-      DateFormat df = new SimpleDateFormat(DATE_TIME_PATTERN);
-      mapper.setDateFormat(df);
+      mapper.setDateFormat(new SimpleDateFormat(DATE_TIME_PATTERN));
     }
+    // 流由调用方管理
+    mapper.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    mapper.disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
     return mapper;
   }
 }
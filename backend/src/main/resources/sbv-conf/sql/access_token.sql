@@ -0,0 +1,10 @@
+-- `token.store=jdbc` 时所使用的数据表，每个会话一行，保存其最新签发 token 的摘要
+-- 由每个用户一行的旧表升级时，须先删除旧表（所有用户需重新登录）
+CREATE TABLE IF NOT EXISTS access_token (
+  session_id   BIGINT      NOT NULL PRIMARY KEY,
+  user_id      INT         NOT NULL,
+  user_name    VARCHAR(64) NOT NULL,
+  token_digest CHAR(64)    NOT NULL,
+  expires_at   BIGINT      NOT NULL,
+  KEY idx_access_token_user_id (user_id)
+);
@@ -0,0 +1,54 @@
+package net.wuxianjie.springbootvuejs.benchmark;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import net.wuxianjie.springbootvuejs.cache.TinyLfuCache;
+
+/**
+ * 按访问序列回放，比较 Guava 缓存与 {@link TinyLfuCache} 的命中率
+ *
+ * <p>运行 {@code main} 方法，未命中时写入缓存，输出各访问序列在不同缓存容量下的命中率</p>
+ *
+ * @author 吴仙杰
+ */
+public class CacheHitRatioSimulator {
+
+  private static final int[] MAXIMUM_SIZES = { 1_000, 5_000, 20_000 };
+
+  public static void main(String[] args) {
+    Map<String, long[]> traces = new LinkedHashMap<>();
+    traces.put("zipfian", CacheTraces.zipfian(100_000, 0.99, 2_000_000, 1L));
+    traces.put("scan-heavy", CacheTraces.scanHeavy(100_000, 2_000_000, 1_000, 2_000, 1L));
+
+    System.out.printf("%-12s %10s %10s %10s%n", "trace", "size", "guava", "tiny-lfu");
+    traces.forEach((name, trace) -> {
+      for (int maximumSize : MAXIMUM_SIZES) {
+        Cache<Long, Long> guava = CacheBuilder.newBuilder().maximumSize(maximumSize).build();
+        Cache<Long, Long> tinyLfu = new TinyLfuCache<>(maximumSize);
+        System.out.printf("%-12s %10d %9.2f%% %9.2f%%%n", name, maximumSize,
+          hitRatio(guava, trace) * 100, hitRatio(tinyLfu, trace) * 100);
+      }
+    });
+  }
+
+  /**
+   * 回放访问序列，未命中时写入缓存
+   *
+   * @param cache 缓存
+   * @param trace 键的序列
+   * @return 命中率
+   */
+  public static double hitRatio(Cache<Long, Long> cache, long[] trace) {
+    long hits = 0;
+    for (long key : trace) {
+      if (cache.getIfPresent(key) == null) {
+        cache.put(key, key);
+      } else {
+        hits++;
+      }
+    }
+    return (double) hits / trace.length;
+  }
+}
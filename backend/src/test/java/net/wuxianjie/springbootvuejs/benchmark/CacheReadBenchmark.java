@@ -0,0 +1,104 @@
+package net.wuxianjie.springbootvuejs.benchmark;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import net.wuxianjie.springbootvuejs.cache.TinyLfuCache;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * 比较 Guava 缓存与 {@link TinyLfuCache} 在并发读取及读多写少场景下的吞吐量
+ *
+ * <p>键服从 Zipf 分布，缓存容量小于键的数量，故读取中包含一定比例的未命中。运行 {@code main} 方法，
+ * 或先执行 {@code mvn test-compile}，再以测试类路径运行 {@code org.openjdk.jmh.Main CacheReadBenchmark}</p>
+ *
+ * @author 吴仙杰
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CacheReadBenchmark {
+
+  private static final int TRACE_LENGTH = 1 << 20;
+
+  private static final int MASK = TRACE_LENGTH - 1;
+
+  @Param({ "guava", "tiny-lfu" })
+  private String engine;
+
+  private Cache<Long, Long> cache;
+
+  private long[] keys;
+
+  @Setup
+  public void setUp() {
+    int maximumSize = 1 << 14;
+    cache = "guava".equals(engine)
+      ? CacheBuilder.newBuilder().maximumSize(maximumSize).build()
+      : new TinyLfuCache<>(maximumSize);
+    keys = CacheTraces.zipfian(1 << 16, 0.99, TRACE_LENGTH, 1L);
+    for (long key : keys) {
+      cache.put(key, key);
+    }
+  }
+
+  /**
+   * 每个线程从访问序列中的随机位置开始顺序读取
+   */
+  @State(Scope.Thread)
+  public static class ThreadIndex {
+
+    private int index = ThreadLocalRandom.current().nextInt();
+
+    int next() {
+      return index++ & MASK;
+    }
+  }
+
+  @Benchmark
+  @Threads(8)
+  public Long read(ThreadIndex threadIndex) {
+    return cache.getIfPresent(keys[threadIndex.next()]);
+  }
+
+  @Benchmark
+  @Group("readWrite")
+  @GroupThreads(6)
+  public Long readWriteRead(ThreadIndex threadIndex) {
+    return cache.getIfPresent(keys[threadIndex.next()]);
+  }
+
+  @Benchmark
+  @Group("readWrite")
+  @GroupThreads(2)
+  public void readWriteWrite(ThreadIndex threadIndex) {
+    long key = keys[threadIndex.next()];
+    cache.put(key, key);
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder()
+      .include(CacheReadBenchmark.class.getSimpleName())
+      .build()).run();
+  }
+}
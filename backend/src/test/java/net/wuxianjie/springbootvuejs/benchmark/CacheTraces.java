@@ -0,0 +1,67 @@
+package net.wuxianjie.springbootvuejs.benchmark;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * 生成缓存基准测试及命中率模拟所用的访问序列
+ *
+ * @author 吴仙杰
+ */
+public class CacheTraces {
+
+  /**
+   * 生成服从 Zipf 分布的访问序列，少数热点键占大部分访问
+   *
+   * @param items  键的数量，键为 {@code 0 ~ items - 1}
+   * @param skew   偏斜度，越大越集中，常用 {@code 0.99}
+   * @param length 访问次数
+   * @param seed   随机数种子
+   * @return 键的序列
+   */
+  public static long[] zipfian(int items, double skew, int length, long seed) {
+    double[] cdf = new double[items];
+    double sum = 0;
+    for (int i = 0; i < items; i++) {
+      sum += 1 / Math.pow(i + 1, skew);
+      cdf[i] = sum;
+    }
+
+    Random random = new Random(seed);
+    long[] trace = new long[length];
+    for (int i = 0; i < length; i++) {
+      int index = Arrays.binarySearch(cdf, random.nextDouble() * sum);
+      trace[i] = index >= 0 ? index : -index - 1;
+    }
+    return trace;
+  }
+
+  /**
+   * 生成穿插了顺序扫描的 Zipf 访问序列，模拟报表导出、批处理等一次性遍历大量数据的场景
+   *
+   * <p>每隔 {@code scanInterval} 次 Zipf 访问，插入一段长度为 {@code scanLength} 的、从未出现过的连续键</p>
+   *
+   * @param items        Zipf 部分的键的数量
+   * @param length       Zipf 部分的访问次数
+   * @param scanInterval 两次扫描间的 Zipf 访问次数
+   * @param scanLength   每次扫描的长度
+   * @param seed         随机数种子
+   * @return 键的序列
+   */
+  public static long[] scanHeavy(int items, int length, int scanInterval, int scanLength, long seed) {
+    long[] hot = zipfian(items, 0.99, length, seed);
+    int scans = length / scanInterval;
+    long[] trace = new long[length + scans * scanLength];
+    long nextScanKey = items;
+    int position = 0;
+    for (int i = 0; i < length; i++) {
+      trace[position++] = hot[i];
+      if ((i + 1) % scanInterval == 0) {
+        for (int j = 0; j < scanLength; j++) {
+          trace[position++] = nextScanKey++;
+        }
+      }
+    }
+    return trace;
+  }
+}
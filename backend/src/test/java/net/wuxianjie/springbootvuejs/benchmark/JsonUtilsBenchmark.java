@@ -0,0 +1,90 @@
+package net.wuxianjie.springbootvuejs.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.text.SimpleDateFormat;
+import java.util.concurrent.TimeUnit;
+import net.wuxianjie.springbootvuejs.constants.RestCodeEnum;
+import net.wuxianjie.springbootvuejs.rest.RestResultDto;
+import net.wuxianjie.springbootvuejs.util.JsonUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * 比较 {@link JsonUtils} 共用 {@link com.fasterxml.jackson.databind.ObjectWriter} 与原先每次调用都新建 {@link ObjectMapper}
+ * 及 {@link SimpleDateFormat} 的吞吐量
+ *
+ * <p>序列化对象为 {@code ExceptionHandlerFilter} 返回的错误结果。运行 {@code main} 方法，
+ * 或先执行 {@code mvn test-compile}，再以测试类路径运行 {@code org.openjdk.jmh.Main JsonUtilsBenchmark}</p>
+ *
+ * @author 吴仙杰
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class JsonUtilsBenchmark {
+
+  private RestResultDto<Void> result;
+
+  private String json;
+
+  @Setup
+  public void setUp() {
+    result = new RestResultDto<>(RestCodeEnum.EXPIRED_ACCESS_TOKEN, "Token 已过期", null);
+    json = JsonUtils.toJson(result, true);
+  }
+
+  @Benchmark
+  public String toJsonLegacy() throws IOException {
+    ObjectMapper mapper = new ObjectMapper();
+    mapper.setDateFormat(new SimpleDateFormat("yyyy-MM-dd HH:mm:ss"));
+    return mapper.writeValueAsString(result);
+  }
+
+  @Benchmark
+  public String toJsonShared() {
+    return JsonUtils.toJson(result, true);
+  }
+
+  @Benchmark
+  public byte[] writeJsonShared() throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream(128);
+    JsonUtils.writeJson(out, result, true);
+    return out.toByteArray();
+  }
+
+  @Benchmark
+  public Object parseJsonLegacy() throws IOException {
+    ObjectMapper mapper = new ObjectMapper();
+    mapper.setDateFormat(new SimpleDateFormat("yyyy-MM-dd HH:mm:ss"));
+    return mapper.readValue(json, RestResultDto.class);
+  }
+
+  @Benchmark
+  public Object parseJsonShared() {
+    return JsonUtils.parseJson(json, RestResultDto.class, true);
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder()
+      .include(JsonUtilsBenchmark.class.getSimpleName())
+      .build()).run();
+  }
+}
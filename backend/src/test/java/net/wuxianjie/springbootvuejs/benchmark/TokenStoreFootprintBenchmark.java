@@ -0,0 +1,73 @@
+package net.wuxianjie.springbootvuejs.benchmark;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.HashCode;
+import java.util.Base64;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import lombok.AllArgsConstructor;
+import net.wuxianjie.springbootvuejs.security.AuthenticationCache;
+import net.wuxianjie.springbootvuejs.security.TokenIndex;
+import org.openjdk.jol.info.GraphLayout;
+
+/**
+ * 比较 {@link TokenIndex} 与原先以 {@code "token_" + userName} 为键、保存完整 token 的 Guava 缓存的内存占用
+ *
+ * <p>运行 {@code main} 方法，参数为用户数量（默认 100000）</p>
+ *
+ * @author 吴仙杰
+ */
+public class TokenStoreFootprintBenchmark {
+
+  /**
+   * 与本项目签发的 access token 长度相近
+   */
+  private static final int TOKEN_LENGTH = 360;
+
+  public static void main(String[] args) {
+    int users = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+    Random random = new Random(users);
+    long expiresAt = System.currentTimeMillis() + TimeUnit.HOURS.toMillis(1);
+
+    Cache<String, Object> cache = CacheBuilder.newBuilder()
+      .maximumSize(users)
+      .expireAfterWrite(1, TimeUnit.HOURS)
+      .build();
+    TokenIndex index = new TokenIndex(users, 1);
+
+    for (int userId = 1; userId <= users; userId++) {
+      String userName = "user" + userId;
+      String token = randomToken(random);
+      cache.put("token_" + userName, new LegacyTokenCache(userId, userName, token));
+
+      HashCode digest = AuthenticationCache.getInstance().digest(token);
+      index.put(userId, 1L, digest, expiresAt, Long.MIN_VALUE);
+    }
+
+    long cacheBytes = GraphLayout.parseInstance(cache).totalSize();
+    long indexBytes = GraphLayout.parseInstance(index).totalSize();
+    System.out.printf("用户数量：%d%n", users);
+    System.out.printf("Guava 缓存：%,d 字节（每用户 %d 字节）%n", cacheBytes, cacheBytes / users);
+    System.out.printf("TokenIndex：%,d 字节（每用户 %d 字节）%n", indexBytes, indexBytes / users);
+  }
+
+  private static String randomToken(Random random) {
+    byte[] bytes = new byte[TOKEN_LENGTH * 3 / 4];
+    random.nextBytes(bytes);
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+  }
+
+  /**
+   * 原先缓存中保存的 token 信息
+   */
+  @AllArgsConstructor
+  private static class LegacyTokenCache {
+
+    private Integer userId;
+
+    private String userName;
+
+    private String accessToken;
+  }
+}
@@ -0,0 +1,193 @@
+package net.wuxianjie.springbootvuejs.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.cache.Weigher;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import net.wuxianjie.springbootvuejs.exception.IllegalArgumentException;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.MapConfigurationPropertySource;
+
+class CacheManagerTest {
+
+  @Test
+  public void testShouldCreateCachesFromProperties() {
+    Map<String, String> properties = new HashMap<>();
+    properties.put("cache.specs.user.maximum-size", "2");
+    properties.put("cache.specs.user.expire-after-write", "30m");
+    properties.put("cache.specs.user.record-stats", "true");
+    properties.put("cache.specs.user.key-type", "java.lang.Integer");
+    properties.put("cache.specs.user.value-type", "java.lang.String");
+    properties.put("cache.specs.page.maximum-weight", "10");
+    properties.put("cache.specs.page.weigher", LengthWeigher.class.getName());
+
+    CacheProperties cacheProperties = new Binder(new MapConfigurationPropertySource(properties))
+      .bind("cache", Bindable.of(CacheProperties.class))
+      .get();
+    assertThat(cacheProperties.getSpecs().get("user").getExpireAfterWrite()).isEqualTo(Duration.ofMinutes(30));
+
+    CacheManager cacheManager = CacheManager.getInstance();
+    cacheManager.initialize(cacheProperties.getSpecs());
+    assertThat(cacheManager.getCacheNames()).containsExactlyInAnyOrder("user", "page");
+
+    Cache<Integer, String> users = cacheManager.getCache("user", Integer.class, String.class);
+    for (int i = 0; i < 10; i++) {
+      users.put(i, "user" + i);
+    }
+    assertThat(users.size()).isLessThanOrEqualTo(2);
+    users.getIfPresent(9);
+    assertThat(users.stats().requestCount()).isEqualTo(1);
+
+    Cache<Object, Object> pages = cacheManager.getCache("page", Object.class, Object.class);
+    pages.put("a", "123456");
+    pages.put("b", "123456");
+    assertThat(pages.size()).isEqualTo(1);
+  }
+
+  @Test
+  public void testShouldRejectUnknownCacheOrWrongType() {
+    CacheSpec spec = new CacheSpec();
+    spec.setKeyType(String.class);
+    Map<String, CacheSpec> specs = new HashMap<>();
+    specs.put("names", spec);
+    CacheManager cacheManager = CacheManager.getInstance();
+    cacheManager.initialize(specs);
+
+    assertThat(cacheManager.getCache("names", CharSequence.class, Object.class)).isNotNull();
+    assertThatThrownBy(() -> cacheManager.getCache("names", Integer.class, Object.class))
+      .isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> cacheManager.getCache("missing", Object.class, Object.class))
+      .isInstanceOf(IllegalArgumentException.class);
+
+    spec.setMaximumWeight(10L);
+    assertThatThrownBy(() -> cacheManager.initialize(specs))
+      .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  @Test
+  public void testShouldLoadMissesInBatches() throws ExecutionException {
+    CacheManager cacheManager = CacheManager.getInstance();
+    cacheManager.initialize(loadingSpecs(null));
+    // 未注册加载器时无法加载
+    assertThatThrownBy(() -> ((LoadingCache<Integer, String>) cacheManager.getCache("users", Integer.class, String.class)).get(1))
+      .isInstanceOf(UncheckedExecutionException.class)
+      .hasCauseInstanceOf(IllegalArgumentException.class);
+
+    List<Set<Integer>> batches = new ArrayList<>();
+    LoadingCache<Integer, String> users = cacheManager.registerLoader("users", Integer.class, String.class, new CacheLoader<Integer, String>() {
+      @Override
+      public String load(Integer key) {
+        return "user" + key;
+      }
+
+      @Override
+      public Map<Integer, String> loadAll(Iterable<? extends Integer> keys) {
+        Set<Integer> batch = new HashSet<>();
+        keys.forEach(batch::add);
+        batches.add(batch);
+        return batch.stream().collect(Collectors.toMap(key -> key, key -> "user" + key));
+      }
+    });
+
+    assertThat(users.get(1)).isEqualTo("user1");
+    assertThat(users.getAll(Arrays.asList(1, 2, 3))).containsOnlyKeys(1, 2, 3).containsEntry(3, "user3");
+    assertThat(batches).containsExactly(new HashSet<>(Arrays.asList(2, 3)));
+
+    // 重新初始化后保留已注册的加载器
+    cacheManager.initialize(loadingSpecs(null));
+    assertThat(cacheManager.<Integer, String>getCache("users", Integer.class, String.class))
+      .isInstanceOf(LoadingCache.class);
+    assertThat(((LoadingCache<Integer, String>) cacheManager.getCache("users", Integer.class, String.class)).get(4))
+      .isEqualTo("user4");
+  }
+
+  @Test
+  public void testShouldServeStaleValueWhileRefreshing() throws Exception {
+    CacheManager cacheManager = CacheManager.getInstance();
+    cacheManager.initialize(loadingSpecs(Duration.ofMillis(1)));
+    AtomicInteger version = new AtomicInteger();
+    CountDownLatch reloading = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    LoadingCache<Integer, String> users = cacheManager.registerLoader("users", Integer.class, String.class, new CacheLoader<Integer, String>() {
+      @Override
+      public String load(Integer key) throws InterruptedException {
+        if (version.getAndIncrement() > 0) {
+          reloading.countDown();
+          release.await();
+        }
+        return "v" + version.get();
+      }
+    });
+
+    assertThat(users.get(1)).isEqualTo("v1");
+    Thread.sleep(5);
+
+    // 刷新在其他线程中阻塞时，读取立即返回旧值
+    assertThat(users.get(1)).isEqualTo("v1");
+    assertThat(reloading.await(1, TimeUnit.SECONDS)).isTrue();
+    assertThat(users.get(1)).isEqualTo("v1");
+
+    release.countDown();
+    long deadline = System.currentTimeMillis() + 1_000;
+    while (!"v2".equals(users.getIfPresent(1)) && System.currentTimeMillis() < deadline) {
+      Thread.sleep(5);
+    }
+    assertThat(users.getIfPresent(1)).isEqualTo("v2");
+  }
+
+  @Test
+  public void testShouldRejectLoaderForUnsupportedEngine() {
+    CacheSpec spec = new CacheSpec();
+    spec.setEngine(CacheEngine.TINY_LFU);
+    spec.setMaximumSize(10L);
+    Map<String, CacheSpec> specs = new HashMap<>();
+    specs.put("lfu", spec);
+    CacheManager cacheManager = CacheManager.getInstance();
+    cacheManager.initialize(specs);
+
+    assertThatThrownBy(() -> cacheManager.registerLoader("lfu", Object.class, Object.class, CacheLoader.from(key -> key)))
+      .isInstanceOf(IllegalArgumentException.class);
+
+    spec.setRefreshAfterWrite(Duration.ofMinutes(1));
+    assertThatThrownBy(() -> cacheManager.initialize(specs))
+      .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  private static Map<String, CacheSpec> loadingSpecs(Duration refreshAfterWrite) {
+    CacheSpec spec = new CacheSpec();
+    spec.setMaximumSize(100L);
+    spec.setRefreshAfterWrite(refreshAfterWrite);
+    spec.setKeyType(Integer.class);
+    spec.setValueType(String.class);
+    Map<String, CacheSpec> specs = new HashMap<>();
+    specs.put("users", spec);
+    return specs;
+  }
+
+  public static class LengthWeigher implements Weigher<Object, Object> {
+
+    @Override
+    public int weigh(Object key, Object value) {
+      return value.toString().length();
+    }
+  }
+}
@@ -0,0 +1,53 @@
+package net.wuxianjie.springbootvuejs.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import java.util.concurrent.TimeUnit;
+import net.wuxianjie.springbootvuejs.dto.CacheStatsDto;
+import org.junit.jupiter.api.Test;
+
+class CacheMetricsTest {
+
+  @Test
+  public void testShouldReportSlidingWindows() {
+    long start = 1_584_000_000_000L;
+    CacheMetrics metrics = new CacheMetrics(start);
+    Cache<Object, Object> cache = CacheBuilder.newBuilder()
+      .maximumSize(1)
+      .recordStats()
+      .removalListener(metrics)
+      .build();
+
+    // 窗口开始前的请求只计入累计值
+    cache.put("a", 1);
+    cache.getIfPresent("a");
+    metrics.sample(cache, start + TimeUnit.MINUTES.toMillis(1));
+
+    cache.put("b", 2);
+    cache.put("b", 3);
+    cache.getIfPresent("a");
+    cache.getIfPresent("b");
+    cache.getIfPresent("b");
+    cache.getIfPresent("c");
+    cache.invalidate("b");
+
+    CacheStatsDto stats = metrics.toDto("test", cache, start + TimeUnit.MINUTES.toMillis(2));
+    assertThat(stats.getWindows()).extracting(CacheStatsDto.WindowDto::getWindow).containsExactly("total", "1m", "5m", "15m");
+
+    CacheStatsDto.WindowDto total = stats.getWindows().get(0);
+    assertThat(total.getRequestCount()).isEqualTo(5);
+    assertThat(total.getHitRatio()).isEqualTo(0.6);
+    assertThat(total.getEvictions()).containsOnlyKeys("SIZE").containsEntry("SIZE", 1L);
+
+    CacheStatsDto.WindowDto lastMinute = stats.getWindows().get(1);
+    assertThat(lastMinute.getSeconds()).isEqualTo(60);
+    assertThat(lastMinute.getRequestCount()).isEqualTo(4);
+    assertThat(lastMinute.getHitRatio()).isEqualTo(0.5);
+    assertThat(lastMinute.getRequestRate()).isEqualTo(4 / 60.0);
+    assertThat(lastMinute.getEvictions()).containsEntry("SIZE", 1L);
+
+    assertThat(stats.getWindows().get(2).getSeconds()).isEqualTo(120);
+  }
+}
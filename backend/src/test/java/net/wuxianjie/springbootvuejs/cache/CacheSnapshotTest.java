@@ -0,0 +1,122 @@
+package net.wuxianjie.springbootvuejs.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.google.common.cache.Cache;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import net.wuxianjie.springbootvuejs.exception.IllegalArgumentException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class CacheSnapshotTest {
+
+  @TempDir
+  Path dir;
+
+  @Test
+  public void testShouldRestoreEntriesWithRemainingTtl() throws InterruptedException {
+    Path file = dir.resolve("snapshot/cache.bin");
+    CacheManager cacheManager = CacheManager.getInstance();
+    cacheManager.initialize(specs());
+
+    Cache<Integer, String> users = cacheManager.getCache("users", Integer.class, String.class);
+    Cache<String, Long> counters = cacheManager.getCache("counters", String.class, Long.class);
+    Cache<Object, Object> other = cacheManager.getCache("other", Object.class, Object.class);
+    users.put(1, "user1");
+    counters.put("a", 1L);
+    other.put("b", "not saved");
+    Thread.sleep(200);
+    users.put(2, "user2");
+
+    assertThat(cacheManager.saveSnapshot(file)).isEqualTo(3);
+
+    // 模拟重启
+    cacheManager.initialize(specs());
+    assertThat(cacheManager.loadSnapshot(file)).isEqualTo(3);
+    users = cacheManager.getCache("users", Integer.class, String.class);
+    counters = cacheManager.getCache("counters", String.class, Long.class);
+    assertThat(users.getIfPresent(1)).isEqualTo("user1");
+    assertThat(users.getIfPresent(2)).isEqualTo("user2");
+    assertThat(counters.getIfPresent("a")).isEqualTo(1L);
+    assertThat(cacheManager.getCache("other", Object.class, Object.class).size()).isZero();
+
+    // 恢复的条目保留剩余有效期，而非从加载时重新计算
+    long deadline = System.currentTimeMillis() + 300;
+    while (System.currentTimeMillis() < deadline && users.getIfPresent(1) != null) {
+      Thread.sleep(5);
+    }
+    assertThat(users.getIfPresent(1)).isNull();
+    assertThat(users.getIfPresent(2)).isEqualTo("user2");
+
+    // 再次写入时已过期的条目被跳过
+    Thread.sleep(250);
+    cacheManager.saveSnapshot(file);
+    cacheManager.initialize(specs());
+    assertThat(cacheManager.loadSnapshot(file)).isEqualTo(1);
+  }
+
+  @Test
+  public void testShouldIgnoreMissingOrCorruptSnapshot() throws IOException {
+    Path file = dir.resolve("cache.bin");
+    CacheManager cacheManager = CacheManager.getInstance();
+    cacheManager.initialize(specs());
+    assertThat(cacheManager.loadSnapshot(file)).isZero();
+
+    cacheManager.getCache("counters", String.class, Long.class).put("a", 1L);
+    cacheManager.saveSnapshot(file);
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+      channel.write(ByteBuffer.wrap(new byte[] { 42 }), channel.size() / 2);
+    }
+
+    cacheManager.initialize(specs());
+    assertThat(cacheManager.loadSnapshot(file)).isZero();
+    assertThat(cacheManager.getCache("counters", String.class, Long.class).size()).isZero();
+
+    Files.write(file, new byte[8]);
+    assertThat(cacheManager.loadSnapshot(file)).isZero();
+  }
+
+  @Test
+  public void testShouldRejectSnapshotWithoutRemainingTtl() {
+    CacheSpec spec = new CacheSpec();
+    spec.setKeyType(String.class);
+    spec.setValueType(String.class);
+    spec.setExpireAfterWrite(Duration.ofMinutes(1));
+    spec.setSnapshot(true);
+    Map<String, CacheSpec> specs = new LinkedHashMap<>();
+    specs.put("guava", spec);
+
+    assertThatThrownBy(() -> CacheManager.getInstance().initialize(specs)).isInstanceOf(IllegalArgumentException.class);
+  }
+
+  private static Map<String, CacheSpec> specs() {
+    CacheSpec users = new CacheSpec();
+    users.setEngine(CacheEngine.TINY_LFU);
+    users.setMaximumSize(100L);
+    users.setExpireAfterWrite(Duration.ofMillis(400));
+    users.setKeyType(Integer.class);
+    users.setValueType(String.class);
+    users.setSnapshot(true);
+
+    CacheSpec counters = new CacheSpec();
+    counters.setMaximumSize(100L);
+    counters.setKeyType(String.class);
+    counters.setValueType(Long.class);
+    counters.setSnapshot(true);
+
+    Map<String, CacheSpec> specs = new LinkedHashMap<>();
+    specs.put("users", users);
+    specs.put("counters", counters);
+    specs.put("other", new CacheSpec());
+    return specs;
+  }
+}
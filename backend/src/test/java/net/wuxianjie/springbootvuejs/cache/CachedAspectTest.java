@@ -0,0 +1,163 @@
+package net.wuxianjie.springbootvuejs.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import net.wuxianjie.springbootvuejs.dto.CachedMethodStatsDto;
+import net.wuxianjie.springbootvuejs.exception.IllegalArgumentException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+
+class CachedAspectTest {
+
+  private CachedAspect aspect;
+
+  private UserService target;
+
+  /**
+   * 代理对象，字段须通过 {@link #target} 访问
+   */
+  private UserService service;
+
+  @BeforeEach
+  public void setUp() {
+    CacheSpec spec = new CacheSpec();
+    spec.setMaximumSize(100L);
+    Map<String, CacheSpec> specs = new HashMap<>();
+    specs.put("user", spec);
+    CacheManager cacheManager = CacheManager.getInstance();
+    cacheManager.initialize(specs);
+
+    aspect = new CachedAspect(cacheManager);
+    AspectJProxyFactory factory = new AspectJProxyFactory(target = new UserService());
+    factory.setProxyTargetClass(true);
+    factory.addAspect(aspect);
+    service = factory.getProxy();
+  }
+
+  @Test
+  public void testShouldCacheByKeyExpression() {
+    assertThat(service.getUser(1, "a")).isEqualTo("user1-1");
+    assertThat(service.getUser(1, "b")).isEqualTo("user1-1");
+    assertThat(service.getUser(2, "a")).isEqualTo("user2-2");
+    assertThat(service.countAll()).isEqualTo(3);
+    assertThat(service.countAll()).isEqualTo(3);
+
+    CachedMethodStatsDto stats = stats("UserService.getUser(int,String)");
+    assertThat(stats.getHitCount()).isEqualTo(1);
+    assertThat(stats.getMissCount()).isEqualTo(2);
+    assertThat(stats.getLoadCount()).isEqualTo(2);
+    assertThat(stats.getHitRatio()).isEqualTo(1.0 / 3);
+    assertThat(stats("UserService.countAll()").getHitCount()).isEqualTo(1);
+  }
+
+  @Test
+  public void testShouldExpireAfterTtl() throws InterruptedException {
+    String first = service.getToken("a");
+    assertThat(service.getToken("a")).isEqualTo(first);
+
+    Thread.sleep(60);
+    assertThat(service.getToken("a")).isNotEqualTo(first);
+  }
+
+  @Test
+  public void testShouldNotCacheExceptions() {
+    assertThatThrownBy(() -> service.fail(1)).isInstanceOf(IllegalStateException.class);
+    assertThatThrownBy(() -> service.fail(1)).isInstanceOf(IllegalStateException.class);
+
+    CachedMethodStatsDto stats = stats("UserService.fail(int)");
+    assertThat(stats.getLoadCount()).isEqualTo(2);
+    assertThat(stats.getLoadExceptionCount()).isEqualTo(2);
+  }
+
+  @Test
+  public void testShouldRunConcurrentMissesOnce() throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    List<Future<String>> futures = new ArrayList<>();
+    for (int i = 0; i < 8; i++) {
+      futures.add(executor.submit(() -> service.getSlowUser(1)));
+    }
+    assertThat(target.slowStarted.await(1, TimeUnit.SECONDS)).isTrue();
+    Thread.sleep(50);
+    target.slowRelease.countDown();
+
+    for (Future<String> future : futures) {
+      assertThat(future.get()).isEqualTo("slow1");
+    }
+    executor.shutdown();
+
+    CachedMethodStatsDto stats = stats("UserService.getSlowUser(int)");
+    assertThat(target.slowLoads.get()).isEqualTo(1);
+    assertThat(stats.getLoadCount()).isEqualTo(1);
+    assertThat(stats.getHitCount() + stats.getMissCount()).isEqualTo(8);
+    assertThat(stats.getMissCount() - stats.getCoalescedCount()).isEqualTo(1);
+  }
+
+  @Test
+  public void testShouldRejectTtlForTypedCache() {
+    CacheSpec spec = new CacheSpec();
+    spec.setValueType(String.class);
+    Map<String, CacheSpec> specs = new HashMap<>();
+    specs.put("user", spec);
+    CacheManager.getInstance().initialize(specs);
+
+    assertThatThrownBy(() -> service.getToken("a")).isInstanceOf(IllegalArgumentException.class);
+  }
+
+  private CachedMethodStatsDto stats(String method) {
+    return aspect.getStats().stream()
+      .filter(stats -> stats.getMethod().equals(method))
+      .findFirst()
+      .orElseThrow(AssertionError::new);
+  }
+
+  public static class UserService {
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private final AtomicInteger slowLoads = new AtomicInteger();
+
+    private final CountDownLatch slowStarted = new CountDownLatch(1);
+
+    private final CountDownLatch slowRelease = new CountDownLatch(1);
+
+    @Cached(cache = "user", key = "'user:' + #userId")
+    public String getUser(int userId, String ignored) {
+      return "user" + userId + "-" + loads.incrementAndGet();
+    }
+
+    @Cached(cache = "user")
+    public int countAll() {
+      return loads.incrementAndGet();
+    }
+
+    @Cached(cache = "user", key = "'token:' + #p0", ttl = "50ms")
+    public String getToken(String name) {
+      return name + System.nanoTime();
+    }
+
+    @Cached(cache = "user", key = "'fail:' + #a0")
+    public String fail(int id) {
+      throw new IllegalStateException();
+    }
+
+    @Cached(cache = "user", key = "'slow:' + #id")
+    public String getSlowUser(int id) throws InterruptedException {
+      slowLoads.incrementAndGet();
+      slowStarted.countDown();
+      slowRelease.await();
+      return "slow" + id;
+    }
+  }
+}
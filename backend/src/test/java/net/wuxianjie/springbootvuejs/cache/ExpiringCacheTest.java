@@ -0,0 +1,93 @@
+package net.wuxianjie.springbootvuejs.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+class ExpiringCacheTest {
+
+  private final AtomicLong clock = new AtomicLong(1_584_000_000_000L);
+
+  private final ExpiringCache<String, String> cache = new ExpiringCache<>(clock::get);
+
+  @Test
+  public void testShouldExpireEachEntryAtItsOwnTime() {
+    cache.put("short", "a", 10, TimeUnit.MILLISECONDS);
+    cache.put("long", "b", 30, TimeUnit.DAYS);
+
+    clock.addAndGet(9);
+    assertThat(cache.getIfPresent("short")).isEqualTo("a");
+    clock.addAndGet(1);
+    assertThat(cache.getIfPresent("short")).isNull();
+    assertThat(cache.getIfPresent("long")).isEqualTo("b");
+
+    clock.addAndGet(TimeUnit.DAYS.toMillis(30) - 11);
+    assertThat(cache.getIfPresent("long")).isEqualTo("b");
+    clock.addAndGet(1);
+    assertThat(cache.getIfPresent("long")).isNull();
+    assertThat(cache.size()).isZero();
+  }
+
+  @Test
+  public void testShouldReplaceAndInvalidate() {
+    cache.put("k", "a", 1, TimeUnit.SECONDS);
+    cache.put("k", "b", 1, TimeUnit.HOURS);
+
+    clock.addAndGet(TimeUnit.MINUTES.toMillis(1));
+    cache.cleanUp();
+    assertThat(cache.getIfPresent("k")).isEqualTo("b");
+
+    cache.invalidate("k");
+    assertThat(cache.getIfPresent("k")).isNull();
+
+    cache.put("k", "c", clock.get());
+    assertThat(cache.size()).isZero();
+  }
+
+  @Test
+  public void testShouldEvictEarliestExpiringEntryWhenFull() {
+    ExpiringCache<String, String> bounded = new ExpiringCache<>(2, clock::get);
+    bounded.put("late", "a", 1, TimeUnit.DAYS);
+    bounded.put("early", "b", 1, TimeUnit.MINUTES);
+    bounded.put("k", "c", 1, TimeUnit.HOURS);
+    // 替换已有的键不会淘汰其他条目
+    bounded.put("k", "d", 2, TimeUnit.HOURS);
+
+    assertThat(bounded.size()).isEqualTo(2);
+    assertThat(bounded.getIfPresent("early")).isNull();
+    assertThat(bounded.getIfPresent("late")).isEqualTo("a");
+    assertThat(bounded.getIfPresent("k")).isEqualTo("d");
+  }
+
+  @Test
+  public void testShouldSweepSameAsReference() {
+    Random random = new Random(20200320L);
+    Map<String, Long> expected = new HashMap<>();
+    Map<String, Long> unswept = new HashMap<>();
+    long[] delays = { 500L, 70_000L, 5_000_000L, 300_000_000L, 10_000_000_000L };
+
+    for (int i = 0; i < 100_000; i++) {
+      String key = Integer.toString(random.nextInt(2_000));
+      if (random.nextInt(4) == 0) {
+        clock.addAndGet(random.nextInt(3) == 0 ? random.nextInt(100_000_000) : random.nextInt(2_000));
+        cache.cleanUp();
+        long now = clock.get();
+        expected.values().removeIf(expiresAt -> expiresAt <= now);
+        // 时间轮以约 1 秒为刻度，当前刻度内刚过期的条目可能要到下一个刻度才被移除
+        long sameTick = expected.size() + unswept.values().stream().filter(expiresAt -> expiresAt <= now && (expiresAt >>> 10) == (now >>> 10)).count();
+        assertThat(cache.size()).isBetween(expected.size(), (int) sameTick);
+        unswept.values().removeIf(expiresAt -> expiresAt <= now && (expiresAt >>> 10) != (now >>> 10));
+      } else {
+        long expiresAt = clock.get() + 1 + (long) (random.nextDouble() * delays[random.nextInt(delays.length)]);
+        cache.put(key, key, expiresAt);
+        expected.put(key, expiresAt);
+        unswept.put(key, expiresAt);
+      }
+    }
+  }
+}
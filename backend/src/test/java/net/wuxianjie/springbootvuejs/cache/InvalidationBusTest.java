@@ -0,0 +1,125 @@
+package net.wuxianjie.springbootvuejs.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInfo;
+
+class InvalidationBusTest {
+
+  private String group;
+
+  /**
+   * 批量发送的间隔很长，故测试中须手动调用 {@link InvalidationBus#flush()}
+   */
+  private InvalidationBus nodeA;
+
+  private InvalidationBus nodeB;
+
+  private InvalidationBus nodeC;
+
+  private final List<String> receivedByA = new CopyOnWriteArrayList<>();
+
+  private final List<String> receivedByB = new CopyOnWriteArrayList<>();
+
+  private final List<String> receivedByC = new CopyOnWriteArrayList<>();
+
+  @BeforeEach
+  public void setUp(TestInfo testInfo) throws IOException {
+    // 每个测试使用单独的分组，以免收到其他测试的消息
+    group = testInfo.getDisplayName();
+    nodeA = new InvalidationBus(new LoopbackTransport(group), 3_600_000, 0);
+    nodeB = new InvalidationBus(new LoopbackTransport(group), 10, 0);
+    nodeC = new InvalidationBus(new LoopbackTransport(group), 10, 150);
+    nodeA.subscribe("token", receivedByA::add);
+    nodeB.subscribe("token", receivedByB::add);
+    nodeC.subscribe("token", receivedByC::add);
+  }
+
+  @AfterEach
+  public void tearDown() throws IOException {
+    nodeA.close();
+    nodeB.close();
+    nodeC.close();
+  }
+
+  @Test
+  public void testShouldDeliverToOtherNodesOnly() {
+    nodeA.publish("token", "1:jason");
+    nodeA.publish("user", "1");
+    nodeA.flush();
+
+    assertThat(receivedByB).containsExactly("1:jason");
+    assertThat(receivedByC).containsExactly("1:jason");
+    assertThat(receivedByA).isEmpty();
+    assertThat(nodeB.getReceivedKeys()).isEqualTo(2);
+  }
+
+  @Test
+  public void testShouldCoalesceDuplicatesInOneBatch() {
+    for (int i = 0; i < 100; i++) {
+      nodeA.publish("token", "1:jason");
+      nodeA.publish("token", "2:tom");
+    }
+    nodeA.flush();
+
+    assertThat(receivedByB).containsExactly("1:jason", "2:tom");
+    assertThat(nodeA.getSentMessages()).isEqualTo(1);
+    assertThat(nodeA.getSentKeys()).isEqualTo(2);
+    assertThat(nodeA.getCoalescedKeys()).isEqualTo(198);
+  }
+
+  @Test
+  public void testShouldSplitBatchesLargerThanOneMessage() {
+    // 每个条目约 40 字节，loopback 单条消息上限为 64KB
+    for (int i = 0; i < 5_000; i++) {
+      nodeA.publish("token", String.format("%08d:user-with-a-longish-name", i));
+    }
+    nodeA.flush();
+
+    assertThat(receivedByB).hasSize(5_000).doesNotHaveDuplicates();
+    assertThat(nodeA.getSentMessages()).isGreaterThan(1);
+  }
+
+  @Test
+  public void testShouldSendBatchesInBackground() throws InterruptedException {
+    nodeB.publish("token", "1:jason");
+
+    awaitTrue(() -> receivedByA.size() == 1);
+    assertThat(receivedByA).containsExactly("1:jason");
+  }
+
+  @Test
+  public void testShouldRedeliverAfterDelay() throws InterruptedException {
+    nodeA.publish("token", "1:jason");
+    nodeA.flush();
+
+    assertThat(receivedByC).containsExactly("1:jason");
+    awaitTrue(() -> receivedByC.size() == 2);
+    assertThat(receivedByB).containsExactly("1:jason");
+  }
+
+  @Test
+  public void testShouldIgnoreMalformedMessages() {
+    new LoopbackTransport(group).send(new byte[] { 1, 2, 3 });
+    nodeA.publish("token", "1:jason");
+    nodeA.flush();
+
+    assertThat(receivedByB).containsExactly("1:jason");
+  }
+
+  private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+    while (!condition.getAsBoolean()) {
+      assertThat(System.nanoTime()).isLessThan(deadline);
+      Thread.sleep(5);
+    }
+  }
+}
@@ -0,0 +1,133 @@
+package net.wuxianjie.springbootvuejs.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.Arrays;
+import net.wuxianjie.springbootvuejs.exception.IllegalArgumentException;
+import org.junit.jupiter.api.Test;
+
+class OffHeapStoreTest {
+
+  private static final int SLAB_SIZE = 1024;
+
+  @Test
+  public void testShouldStoreAndRemoveValues() {
+    OffHeapStore<String> store = new OffHeapStore<>(4 * SLAB_SIZE, SLAB_SIZE);
+    byte[] value = bytes(100, (byte) 7);
+
+    assertThat(store.put("a", value, Long.MAX_VALUE)).isTrue();
+    assertThat(store.get("a", 0L)).isEqualTo(value);
+    assertThat(store.getUsedBytes()).isEqualTo(100);
+
+    assertThat(store.put("a", bytes(10, (byte) 1), Long.MAX_VALUE)).isTrue();
+    assertThat(store.get("a", 0L)).isEqualTo(bytes(10, (byte) 1));
+    assertThat(store.getUsedBytes()).isEqualTo(10);
+
+    assertThat(store.remove("a")).isTrue();
+    assertThat(store.get("a", 0L)).isNull();
+    assertThat(store.size()).isZero();
+    assertThat(store.getUsedBytes()).isZero();
+  }
+
+  @Test
+  public void testShouldExpireValues() {
+    OffHeapStore<String> store = new OffHeapStore<>(SLAB_SIZE, SLAB_SIZE);
+    store.put("a", bytes(10, (byte) 1), 100L);
+
+    assertThat(store.get("a", 99L)).isNotNull();
+    assertThat(store.get("a", 100L)).isNull();
+    assertThat(store.size()).isZero();
+  }
+
+  @Test
+  public void testShouldNotExceedCapacity() {
+    OffHeapStore<Integer> store = new OffHeapStore<>(4 * SLAB_SIZE, SLAB_SIZE);
+
+    // 每个 slab 可容纳 16 个 64 字节的块，4 个 slab 共 64 个
+    for (int key = 0; key < 1_000; key++) {
+      assertThat(store.put(key, bytes(64, (byte) key), Long.MAX_VALUE)).isTrue();
+    }
+
+    assertThat(store.getAllocatedBytes()).isEqualTo(4 * SLAB_SIZE);
+    assertThat(store.size()).isEqualTo(64);
+    // 淘汰最久未访问的值，保留最近写入的值
+    assertThat(store.get(0, 0L)).isNull();
+    assertThat(store.get(999, 0L)).isEqualTo(bytes(64, (byte) 999));
+
+    assertThat(store.put(-1, new byte[SLAB_SIZE + 1], Long.MAX_VALUE)).isFalse();
+    assertThat(store.get(-1, 0L)).isNull();
+  }
+
+  @Test
+  public void testShouldEvictLeastRecentlyUsedWithinSizeClass() {
+    OffHeapStore<Integer> store = new OffHeapStore<>(SLAB_SIZE, SLAB_SIZE);
+    for (int key = 0; key < 16; key++) {
+      store.put(key, bytes(64, (byte) key), Long.MAX_VALUE);
+    }
+
+    store.get(0, 0L);
+    store.put(16, bytes(64, (byte) 16), Long.MAX_VALUE);
+
+    assertThat(store.get(0, 0L)).isNotNull();
+    assertThat(store.get(1, 0L)).isNull();
+  }
+
+  @Test
+  public void testShouldReassignSlabsWhenValueSizesShift() {
+    OffHeapStore<Integer> store = new OffHeapStore<>(4 * SLAB_SIZE, SLAB_SIZE);
+
+    // 小值先占满所有 slab，之后只写入大值，大值须能从小值的级别中回收 slab
+    for (int key = 0; key < 64; key++) {
+      store.put(key, bytes(60, (byte) key), Long.MAX_VALUE);
+    }
+    for (int key = 100; key < 104; key++) {
+      assertThat(store.put(key, bytes(500, (byte) key), Long.MAX_VALUE)).isTrue();
+    }
+
+    assertThat(store.getAllocatedBytes()).isEqualTo(4 * SLAB_SIZE);
+    for (int key = 100; key < 104; key++) {
+      assertThat(store.get(key, 0L)).isEqualTo(bytes(500, (byte) key));
+    }
+    // 被回收的 slab 中的小值已淘汰，其余小值不受影响
+    int smallValues = 0;
+    for (int key = 0; key < 64; key++) {
+      byte[] value = store.get(key, 0L);
+      if (value != null) {
+        assertThat(value).isEqualTo(bytes(60, (byte) key));
+        smallValues++;
+      }
+    }
+    assertThat(smallValues).isEqualTo(32);
+    assertThat(store.size()).isEqualTo(36);
+  }
+
+  @Test
+  public void testShouldReuseChunksFreedByRemovals() {
+    OffHeapStore<Integer> store = new OffHeapStore<>(2 * SLAB_SIZE, SLAB_SIZE);
+
+    // 交替删除后写入不同长度的值，已申请的内存不增长，且内部碎片不超过一半
+    for (int round = 0; round < 100; round++) {
+      for (int key = 0; key < 8; key++) {
+        store.remove(key);
+        store.put(key, bytes(65 + (round * 7 + key) % 63, (byte) round), Long.MAX_VALUE);
+      }
+    }
+
+    assertThat(store.size()).isEqualTo(8);
+    assertThat(store.getAllocatedBytes()).isEqualTo(SLAB_SIZE);
+    assertThat(store.getUsedBytes()).isGreaterThan(8 * 64);
+  }
+
+  @Test
+  public void testShouldRejectInvalidSlabSize() {
+    assertThatThrownBy(() -> new OffHeapStore<>(SLAB_SIZE, 1000)).isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> new OffHeapStore<>(SLAB_SIZE - 1, SLAB_SIZE)).isInstanceOf(IllegalArgumentException.class);
+  }
+
+  private static byte[] bytes(int length, byte value) {
+    byte[] bytes = new byte[length];
+    Arrays.fill(bytes, value);
+    return bytes;
+  }
+}
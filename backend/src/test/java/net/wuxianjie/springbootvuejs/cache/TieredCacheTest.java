@@ -0,0 +1,173 @@
+package net.wuxianjie.springbootvuejs.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import net.wuxianjie.springbootvuejs.exception.IllegalArgumentException;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.MapConfigurationPropertySource;
+
+class TieredCacheTest {
+
+  @Test
+  public void testShouldDemoteEvictedValuesAndPromoteOnHit() throws ExecutionException {
+    TieredCache<Integer, User> cache = new TieredCache<>(new OffHeapStore<>(64 * 1024, 1024), User.class, 0L,
+      listener -> CacheBuilder.newBuilder().concurrencyLevel(1).maximumSize(10).recordStats().removalListener(listener).build());
+
+    for (int i = 0; i < 100; i++) {
+      cache.put(i, new User(i, "user" + i));
+    }
+    assertThat(cache.size()).isEqualTo(100);
+    assertThat(cache.getOffHeapUsedBytes()).isPositive();
+
+    // 最早写入的值已移入堆外，读取后移回堆内
+    assertThat(cache.getIfPresent(0)).isEqualTo(new User(0, "user0"));
+    assertThat(cache.get(1, () -> new User(-1, "loaded"))).isEqualTo(new User(1, "user1"));
+    assertThat(cache.get(100, () -> new User(100, "loaded"))).isEqualTo(new User(100, "loaded"));
+    assertThat(cache.size()).isEqualTo(101);
+    assertThat(cache.stats().hitCount()).isEqualTo(2);
+    assertThat(cache.stats().missCount()).isEqualTo(1);
+
+    // 写入及删除同时作用于两级
+    cache.put(2, new User(2, "updated"));
+    assertThat(cache.getIfPresent(2)).isEqualTo(new User(2, "updated"));
+    cache.invalidate(3);
+    assertThat(cache.getIfPresent(3)).isNull();
+
+    cache.invalidateAll();
+    assertThat(cache.size()).isZero();
+    assertThat(cache.getOffHeapUsedBytes()).isZero();
+  }
+
+  @Test
+  public void testShouldDemoteAndPromoteWithTinyLfuHeap() throws ExecutionException {
+    TieredCache<Integer, User> cache = new TieredCache<>(new OffHeapStore<>(64 * 1024, 1024), User.class, 0L,
+      listener -> new TinyLfuCache<>(10, 0L, 0L, true, listener));
+
+    for (int i = 0; i < 100; i++) {
+      cache.put(i, new User(i, "user" + i));
+    }
+    assertThat(cache.size()).isEqualTo(100);
+    assertThat(cache.getOffHeapUsedBytes()).isPositive();
+
+    for (int i = 0; i < 100; i++) {
+      assertThat(cache.get(i, () -> new User(-1, "loaded"))).isEqualTo(new User(i, "user" + i));
+    }
+    cache.invalidate(0);
+    assertThat(cache.getIfPresent(0)).isNull();
+  }
+
+  @Test
+  public void testShouldExpireOffHeapValues() {
+    TieredCache<Integer, User> cache = new TieredCache<>(new OffHeapStore<>(1024, 1024), User.class, 1L,
+      listener -> CacheBuilder.newBuilder().maximumSize(1).removalListener(listener).build());
+
+    cache.put(1, new User(1, "user1"));
+    cache.put(2, new User(2, "user2"));
+    long deadline = System.currentTimeMillis() + 10;
+    while (System.currentTimeMillis() <= deadline) {
+      Thread.yield();
+    }
+    assertThat(cache.getIfPresent(1)).isNull();
+  }
+
+  @Test
+  public void testShouldNotPromoteOverConcurrentInvalidation() throws InterruptedException {
+    CountDownLatch reading = new CountDownLatch(1);
+    CountDownLatch resume = new CountDownLatch(1);
+    OffHeapStore<Integer> offHeap = new OffHeapStore<Integer>(1024, 1024) {
+
+      @Override
+      synchronized byte[] get(Object key, long now) {
+        byte[] bytes = super.get(key, now);
+        if (bytes != null && reading.getCount() > 0) {
+          // 在已读到堆外的值、尚未移回堆内时暂停升级
+          reading.countDown();
+          try {
+            resume.await();
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+          }
+        }
+        return bytes;
+      }
+    };
+    TieredCache<Integer, User> cache = new TieredCache<>(offHeap, User.class, 0L,
+      listener -> CacheBuilder.newBuilder().maximumSize(1).removalListener(listener).build());
+    cache.put(1, new User(1, "user1"));
+    cache.put(2, new User(2, "user2"));
+
+    AtomicReference<User> promoted = new AtomicReference<>();
+    Thread reader = new Thread(() -> promoted.set(cache.getIfPresent(1)));
+    reader.start();
+    assertThat(reading.await(5, TimeUnit.SECONDS)).isTrue();
+
+    // 升级尚未结束时删除须等待，否则删除会被随后的升级撤销
+    Thread invalidator = new Thread(() -> cache.invalidate(1));
+    invalidator.start();
+    invalidator.join(200);
+    assertThat(invalidator.isAlive()).isTrue();
+
+    resume.countDown();
+    reader.join();
+    invalidator.join();
+
+    assertThat(promoted.get()).isEqualTo(new User(1, "user1"));
+    assertThat(cache.getIfPresent(1)).isNull();
+  }
+
+  @Test
+  public void testShouldCreateTieredCacheFromProperties() {
+    Map<String, String> properties = new HashMap<>();
+    properties.put("cache.specs.users.maximum-size", "10");
+    properties.put("cache.specs.users.key-type", "java.lang.Integer");
+    properties.put("cache.specs.users.value-type", User.class.getName());
+    properties.put("cache.specs.users.off-heap-size", "1MB");
+    properties.put("cache.specs.users.off-heap-slab-size", "64KB");
+    properties.put("cache.specs.users.record-stats", "true");
+
+    CacheProperties cacheProperties = new Binder(new MapConfigurationPropertySource(properties))
+      .bind("cache", Bindable.of(CacheProperties.class))
+      .get();
+    CacheManager cacheManager = CacheManager.getInstance();
+    cacheManager.initialize(cacheProperties.getSpecs());
+
+    Cache<Integer, User> users = cacheManager.getCache("users", Integer.class, User.class);
+    assertThat(users).isInstanceOf(TieredCache.class);
+    for (int i = 0; i < 50; i++) {
+      users.put(i, new User(i, "user" + i));
+    }
+    assertThat(users.getIfPresent(0)).isEqualTo(new User(0, "user0"));
+    assertThat(cacheManager.getStats()).hasSize(1);
+
+    // 未指定值的类型时无法反序列化
+    properties.remove("cache.specs.users.value-type");
+    CacheProperties untyped = new Binder(new MapConfigurationPropertySource(properties))
+      .bind("cache", Bindable.of(CacheProperties.class))
+      .get();
+    assertThatThrownBy(() -> cacheManager.initialize(untyped.getSpecs())).isInstanceOf(IllegalArgumentException.class);
+  }
+
+  @Data
+  @NoArgsConstructor
+  @AllArgsConstructor
+  public static class User {
+
+    private int id;
+
+    private String name;
+  }
+}
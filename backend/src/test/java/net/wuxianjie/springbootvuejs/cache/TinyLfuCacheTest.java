@@ -0,0 +1,159 @@
+package net.wuxianjie.springbootvuejs.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalCause;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import net.wuxianjie.springbootvuejs.benchmark.CacheHitRatioSimulator;
+import net.wuxianjie.springbootvuejs.benchmark.CacheTraces;
+import org.junit.jupiter.api.Test;
+
+class TinyLfuCacheTest {
+
+  @Test
+  public void testShouldBehaveAsCache() throws ExecutionException {
+    Map<RemovalCause, Integer> removals = new EnumMap<>(RemovalCause.class);
+    TinyLfuCache<String, String> cache = new TinyLfuCache<>(100, 0L, 0L, true,
+      notification -> removals.merge(notification.getCause(), 1, Integer::sum));
+
+    cache.put("a", "1");
+    cache.put("a", "2");
+    assertThat(cache.getIfPresent("a")).isEqualTo("2");
+    assertThat(cache.getIfPresent("b")).isNull();
+    assertThat(cache.get("b", () -> "3")).isEqualTo("3");
+    assertThat(cache.get("b", () -> "4")).isEqualTo("3");
+    assertThatThrownBy(() -> cache.get("c", () -> {
+      throw new IllegalStateException();
+    })).isInstanceOf(UncheckedExecutionException.class);
+
+    cache.invalidate("a");
+    assertThat(cache.getIfPresent("a")).isNull();
+    assertThat(cache.size()).isEqualTo(1);
+
+    assertThat(cache.stats().hitCount()).isEqualTo(2);
+    assertThat(cache.stats().missCount()).isEqualTo(4);
+    assertThat(cache.stats().loadSuccessCount()).isEqualTo(1);
+    assertThat(cache.stats().loadExceptionCount()).isEqualTo(1);
+    assertThat(removals).containsEntry(RemovalCause.REPLACED, 1).containsEntry(RemovalCause.EXPLICIT, 1);
+  }
+
+  @Test
+  public void testShouldExposeMapView() {
+    Map<RemovalCause, Integer> removals = new EnumMap<>(RemovalCause.class);
+    TinyLfuCache<String, String> cache = new TinyLfuCache<>(100, 0L, 0L, true,
+      notification -> removals.merge(notification.getCause(), 1, Integer::sum));
+    Map<String, String> map = cache.asMap();
+
+    assertThat(map.putIfAbsent("a", "1")).isNull();
+    assertThat(map.putIfAbsent("a", "2")).isEqualTo("1");
+    assertThat(map.put("a", "3")).isEqualTo("1");
+    assertThat(map.replace("a", "3", "4")).isTrue();
+    assertThat(map.replace("b", "5")).isNull();
+    assertThat(map.containsKey("a")).isTrue();
+    assertThat(map.get("a")).isEqualTo("4");
+    assertThat(map.remove("a", "3")).isFalse();
+    map.put("b", "5");
+    assertThat(map).hasSize(2).containsEntry("b", "5");
+
+    assertThat(map.remove("a")).isEqualTo("4");
+    assertThat(cache.getIfPresent("a")).isNull();
+    map.entrySet().removeIf(entry -> entry.getKey().equals("b"));
+    assertThat(map).isEmpty();
+    assertThat(removals).containsEntry(RemovalCause.REPLACED, 2).containsEntry(RemovalCause.EXPLICIT, 2);
+
+    // 通过视图读写不记录命中率
+    assertThat(cache.stats().hitCount()).isZero();
+    assertThat(cache.stats().missCount()).isEqualTo(1);
+  }
+
+  @Test
+  public void testShouldBoundSizeAndKeepFrequentEntries() {
+    TinyLfuCache<Integer, Integer> cache = new TinyLfuCache<>(100);
+    for (int round = 0; round < 20; round++) {
+      for (int key = 0; key < 50; key++) {
+        if (cache.getIfPresent(key) == null) {
+          cache.put(key, key);
+        }
+      }
+    }
+
+    // 只访问一次的键不应挤掉热点键
+    for (int key = 1_000; key < 11_000; key++) {
+      cache.put(key, key);
+    }
+    cache.cleanUp();
+
+    assertThat(cache.size()).isLessThanOrEqualTo(100);
+    long hot = 0;
+    for (int key = 0; key < 50; key++) {
+      if (cache.getIfPresent(key) != null) {
+        hot++;
+      }
+    }
+    assertThat(hot).isGreaterThanOrEqualTo(45);
+  }
+
+  @Test
+  public void testShouldExpireEntries() {
+    TinyLfuCache<String, String> cache = new TinyLfuCache<>(10, 1L, 0L, false, null);
+    cache.put("a", "1");
+
+    assertThat(cache.getIfPresent("a")).isNull();
+    assertThat(cache.size()).isZero();
+  }
+
+  @Test
+  public void testShouldBeatGuavaOnScanHeavyTrace() {
+    long[] trace = CacheTraces.scanHeavy(10_000, 200_000, 500, 1_000, 1L);
+
+    double guava = CacheHitRatioSimulator.hitRatio(CacheBuilder.newBuilder().maximumSize(1_000).build(), trace);
+    double tinyLfu = CacheHitRatioSimulator.hitRatio(new TinyLfuCache<>(1_000), trace);
+
+    assertThat(tinyLfu).isGreaterThan(guava);
+  }
+
+  @Test
+  public void testShouldStayConsistentUnderConcurrency() throws Exception {
+    Cache<Integer, Integer> cache = new TinyLfuCache<>(500);
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    List<Future<?>> futures = new ArrayList<>();
+    for (int thread = 0; thread < 8; thread++) {
+      futures.add(executor.submit(() -> {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < 200_000; i++) {
+          int key = random.nextInt(2_000);
+          Integer value = cache.getIfPresent(key);
+          if (value == null) {
+            cache.put(key, key);
+          } else {
+            assertThat(value).isEqualTo(key);
+          }
+          if (i % 1_000 == 0) {
+            cache.invalidate(random.nextInt(2_000));
+          }
+        }
+      }));
+    }
+    for (Future<?> future : futures) {
+      future.get();
+    }
+    executor.shutdown();
+
+    cache.cleanUp();
+    assertThat(cache.size()).isLessThanOrEqualTo(500);
+    cache.invalidateAll();
+    assertThat(cache.size()).isZero();
+  }
+}
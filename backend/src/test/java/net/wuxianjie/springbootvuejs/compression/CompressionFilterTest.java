@@ -0,0 +1,224 @@
+package net.wuxianjie.springbootvuejs.compression;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.DataFormatException;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.Inflater;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import net.wuxianjie.springbootvuejs.constants.RestCodeEnum;
+import net.wuxianjie.springbootvuejs.exception.RequestArgumentNotValidException;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.util.WebUtils;
+
+class CompressionFilterTest {
+
+  private static final String LARGE_JSON = "{\"result\":\"" + repeat('a', 4096) + "\"}";
+
+  private static final String SMALL_JSON = "{\"result\":1}";
+
+  private final CompressionFilter filter = new CompressionFilter(1024, new String[] { "application/json", "text/html" }, 6, 4, 8192);
+
+  @Test
+  public void testShouldCompressLargeResponses() throws Exception {
+    // 分多次写入，且未设置 `Content-Length`
+    MockHttpServletResponse response = doFilter(gzipRequest(), (req, res) -> {
+      res.setContentType("application/json;charset=UTF-8");
+      for (int i = 0; i < LARGE_JSON.length(); i += 100) {
+        res.getOutputStream().write(LARGE_JSON.substring(i, Math.min(i + 100, LARGE_JSON.length())).getBytes(StandardCharsets.UTF_8));
+      }
+    });
+    assertGzip(response, LARGE_JSON);
+
+    // 已设置 `Content-Length`，通过 Writer 写入
+    response = doFilter(gzipRequest(), (req, res) -> {
+      res.setContentType("application/json;charset=UTF-8");
+      res.addHeader(HttpHeaders.CONTENT_LENGTH, String.valueOf(LARGE_JSON.length()));
+      res.getWriter().write(LARGE_JSON);
+    });
+    assertGzip(response, LARGE_JSON);
+  }
+
+  @Test
+  public void testShouldPushCompressedDataOnFlush() throws Exception {
+    byte[][] flushed = new byte[1][];
+    MockHttpServletResponse response = doFilter(gzipRequest(), (req, res) -> {
+      res.setContentType("application/json;charset=UTF-8");
+      res.getOutputStream().write(LARGE_JSON.getBytes(StandardCharsets.UTF_8));
+      res.flushBuffer();
+      flushed[0] = WebUtils.getNativeResponse(res, MockHttpServletResponse.class).getContentAsByteArray();
+    });
+
+    // 刷新后、响应结束前已写出的数据即可解压出全部内容
+    assertThat(inflateGzipBody(flushed[0])).isEqualTo(LARGE_JSON);
+    assertGzip(response, LARGE_JSON);
+  }
+
+  @Test
+  public void testShouldNotCompressWhenNotApplicable() throws Exception {
+    // 小于阈值
+    MockHttpServletResponse response = doFilter(gzipRequest(), (req, res) -> {
+      res.setContentType("application/json");
+      res.getOutputStream().write(SMALL_JSON.getBytes(StandardCharsets.UTF_8));
+    });
+    assertIdentity(response, SMALL_JSON);
+    assertThat(response.getContentLength()).isEqualTo(SMALL_JSON.length());
+    assertThat(response.getHeader(HttpHeaders.VARY)).isEqualTo(HttpHeaders.ACCEPT_ENCODING);
+
+    // 内容类型不可压缩
+    response = doFilter(gzipRequest(), (req, res) -> {
+      res.setContentType("image/png");
+      res.getOutputStream().write(LARGE_JSON.getBytes(StandardCharsets.UTF_8));
+    });
+    assertIdentity(response, LARGE_JSON);
+
+    // 预先压缩好的静态文件
+    response = doFilter(gzipRequest(), (req, res) -> {
+      res.setContentType("text/html");
+      res.setContentLength(LARGE_JSON.length());
+      res.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+      res.getOutputStream().write(LARGE_JSON.getBytes(StandardCharsets.UTF_8));
+    });
+    assertThat(response.getContentLength()).isEqualTo(LARGE_JSON.length());
+    assertThat(response.getContentAsString()).isEqualTo(LARGE_JSON);
+
+    // 客户端不接受 gzip
+    MockHttpServletRequest request = new MockHttpServletRequest("GET", "/hello");
+    request.addHeader(HttpHeaders.ACCEPT_ENCODING, "gzip;q=0, deflate");
+    response = doFilter(request, (req, res) -> {
+      res.setContentType("application/json");
+      res.getOutputStream().write(LARGE_JSON.getBytes(StandardCharsets.UTF_8));
+    });
+    assertIdentity(response, LARGE_JSON);
+    assertThat(response.getHeader(HttpHeaders.VARY)).isNull();
+  }
+
+  @Test
+  public void testShouldParseAcceptEncoding() {
+    assertThat(CompressionFilter.acceptsGzip("gzip, deflate, br")).isTrue();
+    assertThat(CompressionFilter.acceptsGzip("deflate, GZIP;q=0.5")).isTrue();
+    assertThat(CompressionFilter.acceptsGzip("*")).isTrue();
+    assertThat(CompressionFilter.acceptsGzip("gzip;q=0")).isFalse();
+    assertThat(CompressionFilter.acceptsGzip("identity")).isFalse();
+    assertThat(CompressionFilter.acceptsGzip(null)).isFalse();
+  }
+
+  @Test
+  public void testShouldInflateRequestBody() throws Exception {
+    MockHttpServletRequest request = new MockHttpServletRequest("POST", "/hello");
+    request.addHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+    request.setContent(gzip(LARGE_JSON));
+
+    doFilter(request, (req, res) -> {
+      assertThat(req.getHeader(HttpHeaders.CONTENT_ENCODING)).isNull();
+      assertThat(req.getContentLength()).isEqualTo(-1);
+      assertThat(StreamUtils.copyToString(req.getInputStream(), StandardCharsets.UTF_8)).isEqualTo(LARGE_JSON);
+    });
+
+    // 解压后超过上限
+    request = new MockHttpServletRequest("POST", "/hello");
+    request.addHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+    request.setContent(gzip(repeat(' ', 10_000)));
+    MockHttpServletRequest tooLarge = request;
+    assertThatThrownBy(() -> doFilter(tooLarge, (req, res) -> StreamUtils.copyToByteArray(req.getInputStream())))
+      .isInstanceOfSatisfying(RequestArgumentNotValidException.class, e -> assertThat(e.getCode()).isEqualTo(RestCodeEnum.PAYLOAD_TOO_LARGE));
+
+    // 不是 gzip 数据
+    request = new MockHttpServletRequest("POST", "/hello");
+    request.addHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+    request.setContent(LARGE_JSON.getBytes(StandardCharsets.UTF_8));
+    MockHttpServletRequest malformed = request;
+    assertThatThrownBy(() -> doFilter(malformed, (req, res) -> req.getInputStream()))
+      .isInstanceOfSatisfying(RequestArgumentNotValidException.class, e -> assertThat(e.getCode()).isEqualTo(RestCodeEnum.MALFORMED_PARAMETER));
+  }
+
+  private MockHttpServletResponse doFilter(MockHttpServletRequest request, Handler handler) throws ServletException, IOException {
+    MockHttpServletResponse response = new MockHttpServletResponse();
+    filter.doFilter(request, response, new MockFilterChain(new HttpServlet() {
+
+      private static final long serialVersionUID = 1L;
+
+      @Override
+      protected void service(HttpServletRequest req, HttpServletResponse res) throws IOException {
+        handler.handle(req, res);
+      }
+    }));
+    return response;
+  }
+
+  private static MockHttpServletRequest gzipRequest() {
+    MockHttpServletRequest request = new MockHttpServletRequest("GET", "/hello");
+    request.addHeader(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate");
+    return request;
+  }
+
+  private static void assertGzip(MockHttpServletResponse response, String expected) throws IOException {
+    assertThat(response.getHeader(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+    assertThat(response.getHeader(HttpHeaders.VARY)).isEqualTo(HttpHeaders.ACCEPT_ENCODING);
+    assertThat(response.containsHeader(HttpHeaders.CONTENT_LENGTH)).isFalse();
+    assertThat(response.getContentAsByteArray().length).isLessThan(expected.length() / 10);
+    byte[] inflated = StreamUtils.copyToByteArray(new GZIPInputStream(new ByteArrayInputStream(response.getContentAsByteArray())));
+    assertThat(new String(inflated, StandardCharsets.UTF_8)).isEqualTo(expected);
+  }
+
+  /**
+   * 解压尚未写入 gzip 尾的响应体，跳过 10 字节的 gzip 头
+   */
+  private static String inflateGzipBody(byte[] content) {
+    Inflater inflater = new Inflater(true);
+    inflater.setInput(content, 10, content.length - 10);
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    byte[] buffer = new byte[1024];
+    try {
+      int n;
+      while ((n = inflater.inflate(buffer)) > 0) {
+        out.write(buffer, 0, n);
+      }
+    } catch (DataFormatException e) {
+      throw new IllegalStateException(e);
+    } finally {
+      inflater.end();
+    }
+    return new String(out.toByteArray(), StandardCharsets.UTF_8);
+  }
+
+  private static void assertIdentity(MockHttpServletResponse response, String expected) throws IOException {
+    assertThat(response.getHeader(HttpHeaders.CONTENT_ENCODING)).isNull();
+    assertThat(response.getContentAsString()).isEqualTo(expected);
+  }
+
+  private static byte[] gzip(String content) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+      gzip.write(content.getBytes(StandardCharsets.UTF_8));
+    }
+    return out.toByteArray();
+  }
+
+  private static String repeat(char c, int count) {
+    StringBuilder builder = new StringBuilder(count);
+    for (int i = 0; i < count; i++) {
+      builder.append(c);
+    }
+    return builder.toString();
+  }
+
+  private interface Handler {
+
+    void handle(HttpServletRequest request, HttpServletResponse response) throws IOException;
+  }
+}
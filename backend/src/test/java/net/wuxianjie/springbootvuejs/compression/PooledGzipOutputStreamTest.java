@@ -0,0 +1,61 @@
+package net.wuxianjie.springbootvuejs.compression;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Random;
+import java.util.zip.GZIPInputStream;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.StreamUtils;
+
+class PooledGzipOutputStreamTest {
+
+  @Test
+  public void testShouldWriteStandardGzip() throws IOException {
+    DeflaterPool pool = new DeflaterPool(6, 2);
+    byte[] data = new byte[100_000];
+    new Random(42).nextBytes(data);
+    // 一半随机、一半重复，覆盖不可压缩及可压缩的内容
+    for (int i = 0; i < data.length / 2; i++) {
+      data[i] = (byte) (i % 7);
+    }
+
+    for (int round = 0; round < 3; round++) {
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      try (PooledGzipOutputStream gzip = new PooledGzipOutputStream(out, pool)) {
+        gzip.write(data[0]);
+        gzip.write(data, 1, data.length - 1);
+      }
+
+      assertThat(StreamUtils.copyToByteArray(new GZIPInputStream(new ByteArrayInputStream(out.toByteArray())))).isEqualTo(data);
+    }
+
+    // 复用同一个 Deflater
+    assertThat(pool.getCreatedCount()).isEqualTo(1);
+    assertThat(pool.getIdleCount()).isEqualTo(1);
+  }
+
+  @Test
+  public void testShouldReleaseDeflaterOnce() throws IOException {
+    DeflaterPool pool = new DeflaterPool(1, 1);
+    PooledGzipOutputStream discarded = new PooledGzipOutputStream(new ByteArrayOutputStream(), pool);
+    PooledGzipOutputStream finished = new PooledGzipOutputStream(new ByteArrayOutputStream(), pool);
+    assertThat(pool.getCreatedCount()).isEqualTo(2);
+
+    discarded.discard();
+    discarded.discard();
+    discarded.finish();
+    finished.finish();
+    finished.close();
+
+    // 池已满，第二个被直接释放
+    assertThat(pool.getIdleCount()).isEqualTo(1);
+    assertThatThrownBy(() -> finished.write(1)).isInstanceOf(IOException.class);
+
+    pool.clear();
+    assertThat(pool.getIdleCount()).isZero();
+  }
+}
@@ -7,16 +7,20 @@ import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
+import java.util.concurrent.CompletableFuture;
 import net.wuxianjie.springbootvuejs.dto.AccessTokenDto;
+import net.wuxianjie.springbootvuejs.security.TokenCookie;
 import net.wuxianjie.springbootvuejs.service.AccessTokenService;
 import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.test.web.servlet.MockMvc;
 
 @WebMvcTest(AccessTokenController.class)
+@Import(TokenCookie.class)
 @Disabled
 class AccessTokenControllerTest {
 
@@ -28,7 +32,7 @@ class AccessTokenControllerTest {
 
   @Test
   public void testAccessTokenShouldReturnAccessToken() throws Exception {
-    when(service.getAccessToken("fake_jason", "fake_123")).thenReturn(new AccessTokenDto("ksjdkfkjk123", 1000));
+    when(service.getAccessToken("fake_jason", "fake_123")).thenReturn(CompletableFuture.completedFuture(new AccessTokenDto("ksjdkfkjk123", 1000)));
 
     mockMvc.perform(post("/api/token").param("user_name", "fake_jason").param("password", "fake_123").accept("application/json; charset=UTF-8")).andDo(print()).andExpect(status().isOk()).andExpect(content().string(containsString("access_token")));
   }
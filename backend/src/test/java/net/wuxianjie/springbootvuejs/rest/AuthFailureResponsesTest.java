@@ -0,0 +1,49 @@
+package net.wuxianjie.springbootvuejs.rest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import net.wuxianjie.springbootvuejs.constants.RestCodeEnum;
+import net.wuxianjie.springbootvuejs.exception.JwtAuthenticationException;
+import net.wuxianjie.springbootvuejs.util.JsonUtils;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+class AuthFailureResponsesTest {
+
+  private final AuthFailureResponses responses = new AuthFailureResponses();
+
+  @Test
+  public void testShouldWritePreSerializedResponses() throws IOException {
+    for (JwtAuthenticationException e : JwtAuthenticationException.predefined()) {
+      MockHttpServletResponse response = new MockHttpServletResponse();
+      assertThat(responses.write(response, e)).isTrue();
+
+      String expected = JsonUtils.toJson(new RestResultDto<Void>(e.getCode(), e.getMessage(), null), true);
+      assertThat(response.getContentAsString()).isEqualTo(expected);
+      assertThat(response.getStatus()).isEqualTo(e.getCode().getHttpStatus());
+      assertThat(response.getContentLength()).isEqualTo(response.getContentAsByteArray().length);
+      assertThat(response.getContentType()).isEqualTo("application/json;charset=UTF-8");
+    }
+  }
+
+  @Test
+  public void testShouldSkipOtherExceptions() throws IOException {
+    MockHttpServletResponse response = new MockHttpServletResponse();
+    JwtAuthenticationException e = new JwtAuthenticationException("【access_token】已过期", RestCodeEnum.EXPIRED_ACCESS_TOKEN);
+
+    assertThat(responses.write(response, e)).isFalse();
+    assertThat(response.getContentAsByteArray()).isEmpty();
+  }
+
+  @Test
+  public void testShouldNotFillInStackTrace() {
+    assertThat(JwtAuthenticationException.EXPIRED_ACCESS_TOKEN.getStackTrace()).isEmpty();
+    JwtAuthenticationException e = new JwtAuthenticationException("x", RestCodeEnum.INVALID_ACCESS_TOKEN);
+    assertThat(e.getStackTrace()).isEmpty();
+
+    // 共享实例不会记录被抑制的异常，以免在线程间累积
+    e.addSuppressed(new RuntimeException());
+    assertThat(e.getSuppressed()).isEmpty();
+  }
+}
@@ -0,0 +1,124 @@
+package net.wuxianjie.springbootvuejs.rest;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.Collections;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import net.wuxianjie.springbootvuejs.constants.RestCodeEnum;
+import net.wuxianjie.springbootvuejs.exception.JwtAuthenticationException;
+import net.wuxianjie.springbootvuejs.exception.ServerException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.http.HttpMessageConverters;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
+
+class RestEnvelopeAsyncTest {
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+
+  private MockMvc mockMvc;
+
+  @RestController
+  static class AsyncController {
+
+    @GetMapping("/future")
+    public CompletableFuture<Object> future() {
+      return CompletableFuture.supplyAsync(() -> Collections.singletonMap("name", "jason"));
+    }
+
+    @GetMapping("/future/null")
+    public CompletableFuture<Object> nullFuture() {
+      return CompletableFuture.supplyAsync(() -> null);
+    }
+
+    @GetMapping("/future/auth-failure")
+    public CompletableFuture<Object> authFailure() {
+      return CompletableFuture.supplyAsync(() -> {
+        throw JwtAuthenticationException.INVALID_CLIENT_SECRET;
+      });
+    }
+
+    @GetMapping("/future/error")
+    public CompletableFuture<Object> error() {
+      CompletableFuture<Object> future = new CompletableFuture<>();
+      future.completeExceptionally(new ServerException("出错了", null, RestCodeEnum.ERROR_SERVER));
+      return future;
+    }
+
+    @GetMapping("/future/entity")
+    public CompletableFuture<ResponseEntity<Object>> entity() {
+      return CompletableFuture.supplyAsync(() -> ResponseEntity.ok().header(HttpHeaders.SET_COOKIE, "a=b").body((Object) "token"));
+    }
+
+    @GetMapping("/deferred")
+    public DeferredResult<Object> deferred() {
+      DeferredResult<Object> result = new DeferredResult<>();
+      new Thread(() -> result.setResult(42)).start();
+      return result;
+    }
+
+    @GetMapping("/callable")
+    public Callable<Object> callable() {
+      return () -> "done";
+    }
+  }
+
+  @BeforeEach
+  public void setUp() {
+    AuthFailureResponses authFailureResponses = new AuthFailureResponses();
+    HttpMessageConverters converters = new HttpMessageConverters(new RestEnvelopeHttpMessageConverter(objectMapper));
+    mockMvc = MockMvcBuilders.standaloneSetup(new AsyncController())
+      .setControllerAdvice(new RestEnvelopeResponseBodyAdvice(), new RestExceptionController(authFailureResponses))
+      .setMessageConverters(converters.getConverters().toArray(new HttpMessageConverter<?>[0]))
+      .build();
+  }
+
+  @Test
+  public void testShouldWrapAsyncResultsWhenComplete() throws Exception {
+    assertEnvelope("/future", Collections.singletonMap("name", "jason"));
+    assertEnvelope("/future/null", null);
+    assertEnvelope("/deferred", 42);
+    assertEnvelope("/future/entity", "token");
+    assertEnvelope("/callable", "done");
+  }
+
+  @Test
+  public void testShouldMapAsyncFailuresThroughExceptionHandlers() throws Exception {
+    JwtAuthenticationException authFailure = JwtAuthenticationException.INVALID_CLIENT_SECRET;
+    mockMvc.perform(asyncDispatch(startAsync("/future/auth-failure")))
+      .andExpect(status().isUnauthorized())
+      .andExpect(content().json(objectMapper.writeValueAsString(
+        new RestResultDto<Void>(authFailure.getCode(), authFailure.getMessage(), null)), true));
+
+    mockMvc.perform(asyncDispatch(startAsync("/future/error")))
+      .andExpect(status().isInternalServerError())
+      .andExpect(content().json(objectMapper.writeValueAsString(
+        new RestResultDto<Void>(RestCodeEnum.ERROR_SERVER, "出错了", null)), true));
+  }
+
+  private void assertEnvelope(String path, Object result) throws Exception {
+    mockMvc.perform(asyncDispatch(startAsync(path)))
+      .andExpect(status().isOk())
+      .andExpect(content().string(objectMapper.writeValueAsString(new RestResultDto<>(result))));
+  }
+
+  private MvcResult startAsync(String path) throws Exception {
+    return mockMvc.perform(get(path))
+      .andExpect(request().asyncStarted())
+      .andReturn();
+  }
+}
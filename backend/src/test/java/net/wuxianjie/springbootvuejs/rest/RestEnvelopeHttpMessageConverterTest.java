@@ -0,0 +1,69 @@
+package net.wuxianjie.springbootvuejs.rest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import net.wuxianjie.springbootvuejs.constants.RestCodeEnum;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+class RestEnvelopeHttpMessageConverterTest {
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+
+  private final RestEnvelopeHttpMessageConverter converter = new RestEnvelopeHttpMessageConverter(objectMapper);
+
+  @Test
+  public void testShouldWriteSameJsonAsRestResultDto() throws IOException {
+    Map<String, Object> map = new LinkedHashMap<>();
+    map.put("user_name", "jason");
+    map.put("login_time", new Date(0L));
+    map.put("roles", Arrays.asList("admin", "user"));
+
+    for (Object value : Arrays.asList(map, "字符串", 42, Collections.emptyList())) {
+      MockHttpOutputMessage message = write(value);
+      String expected = objectMapper.writeValueAsString(new RestResultDto<>(value));
+      assertThat(message.getBodyAsString()).isEqualTo(expected);
+      assertThat(message.getHeaders().getContentLength()).isEqualTo(message.getBodyAsBytes().length);
+      assertThat(message.getHeaders().getContentType()).isEqualTo(MediaType.APPLICATION_JSON);
+    }
+
+    assertThat(write(RestEnvelopeHttpMessageConverter.NULL_RESULT).getBodyAsString())
+      .isEqualTo(objectMapper.writeValueAsString(new RestResultDto<>(null)));
+  }
+
+  @Test
+  public void testShouldOnlyWriteUnwrappedJson() {
+    assertThat(converter.canWrite(Object.class, Object.class, MediaType.APPLICATION_JSON)).isTrue();
+    assertThat(converter.canWrite(String.class, String.class, null)).isTrue();
+    assertThat(converter.canWrite(RestResultDto.class, RestResultDto.class, MediaType.APPLICATION_JSON)).isFalse();
+    assertThat(converter.canWrite(String.class, String.class, MediaType.TEXT_HTML)).isFalse();
+    assertThat(converter.canRead(Object.class, Object.class, MediaType.APPLICATION_JSON)).isFalse();
+    assertThat(converter.canRead(Object.class, MediaType.APPLICATION_JSON)).isFalse();
+  }
+
+  @Test
+  public void testShouldReuseBufferAfterLargeResponse() throws IOException {
+    char[] chars = new char[100_000];
+    Arrays.fill(chars, 'a');
+    String large = new String(chars);
+
+    assertThat(write(large).getBodyAsString()).isEqualTo(objectMapper.writeValueAsString(new RestResultDto<>(large)));
+    assertThat(write("b").getBodyAsString()).isEqualTo(String.format(
+      "{\"error_code\":%d,\"message\":\"%s\",\"result\":\"b\",\"http_code\":%d}",
+      RestCodeEnum.SUCCESS.getErrorCode(), RestCodeEnum.SUCCESS.getMessage(), RestCodeEnum.SUCCESS.getHttpStatus()));
+  }
+
+  private MockHttpOutputMessage write(Object value) throws IOException {
+    MockHttpOutputMessage message = new MockHttpOutputMessage();
+    converter.write(value, Object.class, MediaType.APPLICATION_JSON, message);
+    return message;
+  }
+}
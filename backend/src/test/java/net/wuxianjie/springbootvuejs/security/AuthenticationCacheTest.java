@@ -0,0 +1,72 @@
+package net.wuxianjie.springbootvuejs.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.google.common.hash.HashCode;
+import java.util.Collections;
+import net.wuxianjie.springbootvuejs.dto.PrincipalDto;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.Authentication;
+
+class AuthenticationCacheTest {
+
+  private static final long EXPIRES_AT = Long.MAX_VALUE;
+
+  @Test
+  public void testShouldInvalidateOnlyEntriesVerifiedBeforeInvalidation() {
+    AuthenticationCache cache = new AuthenticationCache(100);
+    HashCode stale = cache.digest("stale");
+    HashCode other = cache.digest("other");
+
+    long generation = cache.currentGeneration();
+    cache.put(stale, 1, generation, EXPIRES_AT, authentication(1));
+    cache.put(other, 2, generation, EXPIRES_AT, authentication(2));
+    cache.invalidateUser(1);
+
+    assertThat(cache.get(stale)).isNull();
+    assertThat(cache.get(other)).isNotNull();
+
+    HashCode fresh = cache.digest("fresh");
+    cache.put(fresh, 1, cache.currentGeneration(), EXPIRES_AT, authentication(1));
+    assertThat(cache.get(fresh)).isNotNull();
+  }
+
+  @Test
+  public void testShouldBoundInvalidationsWithoutResurrectingStaleEntries() {
+    AuthenticationCache cache = new AuthenticationCache(100);
+    HashCode stale = cache.digest("stale");
+
+    // 模拟校验开始后 token 被替换，但仍写入了缓存
+    long generation = cache.currentGeneration();
+    cache.invalidateUser(1);
+    cache.put(stale, 1, generation, EXPIRES_AT, authentication(1));
+
+    for (int userId = 2; userId <= 1_000; userId++) {
+      cache.invalidateUser(userId);
+      assertThat(cache.getInvalidatedUserCount()).isLessThanOrEqualTo(100);
+    }
+
+    assertThat(cache.get(stale)).isNull();
+  }
+
+  @Test
+  public void testShouldKeepCachingNewTokensWhenFull() {
+    AuthenticationCache cache = new AuthenticationCache(100);
+    long generation = cache.currentGeneration();
+    long expiresAt = System.currentTimeMillis() + 3_600_000L;
+    for (int i = 0; i < AuthenticationCache.MAXIMUM_SIZE * 2; i++) {
+      cache.put(cache.digest("token" + i), 1, generation, expiresAt + i, authentication(1));
+    }
+
+    // 已满时淘汰最早过期的鉴权结果，而不是拒绝缓存新的鉴权结果
+    HashCode fresh = cache.digest("fresh");
+    cache.put(fresh, 1, generation, expiresAt + AuthenticationCache.MAXIMUM_SIZE * 2, authentication(1));
+    assertThat(cache.get(fresh)).isNotNull();
+    assertThat(cache.get(cache.digest("token" + (AuthenticationCache.MAXIMUM_SIZE * 2 - 1)))).isNotNull();
+    assertThat(cache.get(cache.digest("token0"))).isNull();
+  }
+
+  private static Authentication authentication(int userId) {
+    return new VerifiedAuthenticationToken(new PrincipalDto(userId, "user" + userId, 1L), Collections.emptyList());
+  }
+}
@@ -0,0 +1,203 @@
+package net.wuxianjie.springbootvuejs.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.baomidou.mybatisplus.core.MybatisConfiguration;
+import com.baomidou.mybatisplus.extension.spring.MybatisSqlSessionFactoryBean;
+import com.google.common.hash.HashCode;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.atomic.AtomicInteger;
+import net.wuxianjie.springbootvuejs.dto.TokenCacheDto;
+import net.wuxianjie.springbootvuejs.entity.AccessToken;
+import net.wuxianjie.springbootvuejs.mapper.AccessTokenMapper;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.mybatis.spring.SqlSessionTemplate;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+class JdbcTokenStoreTest {
+
+  /**
+   * 测试中手动调用 {@link JdbcTokenStore#flush()}，不依赖后台线程
+   */
+  private static final long FLUSH_INTERVAL_MILLIS = 3_600_000L;
+
+  private static final HashCode T1 = AuthenticationCache.getInstance().digest("t1");
+
+  private static final HashCode T2 = AuthenticationCache.getInstance().digest("t2");
+
+  private static final HashCode T3 = AuthenticationCache.getInstance().digest("t3");
+
+  private static AccessTokenMapper mapper;
+
+  @BeforeAll
+  public static void setUpDatabase() throws Exception {
+    JdbcDataSource dataSource = new JdbcDataSource();
+    dataSource.setURL("jdbc:h2:mem:token_store;MODE=MySQL;DB_CLOSE_DELAY=-1");
+    new ResourceDatabasePopulator(new ClassPathResource("sbv-conf/sql/access_token.sql")).execute(dataSource);
+
+    MybatisConfiguration configuration = new MybatisConfiguration();
+    configuration.addMapper(AccessTokenMapper.class);
+    MybatisSqlSessionFactoryBean factoryBean = new MybatisSqlSessionFactoryBean();
+    factoryBean.setDataSource(dataSource);
+    factoryBean.setConfiguration(configuration);
+    mapper = new SqlSessionTemplate(factoryBean.getObject()).getMapper(AccessTokenMapper.class);
+  }
+
+  @AfterEach
+  public void tearDown() {
+    mapper.delete(null);
+  }
+
+  @Test
+  public void testShouldWriteBehindAndSurviveRestart() throws InterruptedException {
+    JdbcTokenStore store = newStore(1);
+    store.save(token(1L, T1));
+    store.save(token(1L, T2));
+
+    assertThat(store.verify(1, "jason", 1L, T2)).isEqualTo(TokenStatus.VALID);
+    assertThat(store.verify(1, "jason", 1L, T1)).isEqualTo(TokenStatus.REPLACED);
+    assertThat(mapper.selectById(1L)).isNull();
+
+    store.flush();
+    AccessToken row = mapper.selectById(1L);
+    assertThat(row.getTokenDigest()).isEqualTo(T2.toString());
+    assertThat(row.getUserId()).isEqualTo(1);
+    assertThat(row.getUserName()).isEqualTo("jason");
+    store.destroy();
+
+    JdbcTokenStore restarted = newStore(1);
+    assertThat(restarted.verify(1, "jason", 1L, T2)).isEqualTo(TokenStatus.VALID);
+    restarted.save(token(1L, T3));
+    restarted.destroy();
+    assertThat(mapper.selectById(1L).getTokenDigest()).isEqualTo(T3.toString());
+  }
+
+  @Test
+  public void testShouldRemoveToken() throws InterruptedException {
+    JdbcTokenStore store = newStore(1);
+    store.save(token(1L, T1));
+    store.flush();
+
+    store.remove(1, "jason");
+    assertThat(store.verify(1, "jason", 1L, T1)).isEqualTo(TokenStatus.EXPIRED);
+    store.destroy();
+
+    assertThat(mapper.selectById(1L)).isNull();
+    assertThat(newStore(1).verify(1, "jason", 1L, T1)).isEqualTo(TokenStatus.EXPIRED);
+  }
+
+  @Test
+  public void testShouldIgnoreExpiredToken() throws InterruptedException {
+    JdbcTokenStore store = newStore(1);
+    store.save(new TokenCacheDto(1, "jason", 1L, T1, System.currentTimeMillis() - 1));
+    store.destroy();
+
+    assertThat(store.verify(1, "jason", 1L, T1)).isEqualTo(TokenStatus.EXPIRED);
+    assertThat(newStore(1).verify(1, "jason", 1L, T1)).isEqualTo(TokenStatus.EXPIRED);
+  }
+
+  @Test
+  public void testShouldPersistMultipleSessionsAndEvictOldest() throws InterruptedException {
+    JdbcTokenStore store = newStore(2);
+    store.save(token(1L, T1));
+    store.flush();
+    store.save(token(2L, T2));
+    store.save(token(3L, T3));
+
+    assertThat(store.verify(1, "jason", 1L, T1)).isEqualTo(TokenStatus.EXPIRED);
+    store.destroy();
+    assertThat(mapper.selectById(1L)).isNull();
+    assertThat(mapper.selectCount(null)).isEqualTo(2);
+
+    JdbcTokenStore restarted = newStore(2);
+    assertThat(restarted.verify(1, "jason", 2L, T2)).isEqualTo(TokenStatus.VALID);
+    assertThat(restarted.verify(1, "jason", 3L, T3)).isEqualTo(TokenStatus.VALID);
+    assertThat(restarted.verify(1, "jason", 1L, T1)).isEqualTo(TokenStatus.EXPIRED);
+    restarted.destroy();
+  }
+
+  @Test
+  public void testShouldRemoveSingleSession() throws InterruptedException {
+    JdbcTokenStore store = newStore(2);
+    store.save(token(1L, T1));
+    store.save(token(2L, T2));
+    store.flush();
+
+    store.removeSession(1, "jason", 1L);
+    assertThat(store.verify(1, "jason", 1L, T1)).isEqualTo(TokenStatus.EXPIRED);
+    assertThat(store.verify(1, "jason", 2L, T2)).isEqualTo(TokenStatus.VALID);
+    store.destroy();
+
+    assertThat(mapper.selectById(1L)).isNull();
+    assertThat(mapper.selectById(2L)).isNotNull();
+  }
+
+  @Test
+  public void testShouldKeepSessionSavedAfterRevokingAll() throws InterruptedException {
+    JdbcTokenStore store = newStore(2);
+    store.save(token(1L, T1));
+    store.flush();
+
+    // 撤销所有会话后立即重新登录，写入时须先删除旧会话再插入新会话
+    store.remove(1, "jason");
+    store.save(token(2L, T2));
+    assertThat(store.verify(1, "jason", 2L, T2)).isEqualTo(TokenStatus.VALID);
+    store.destroy();
+
+    assertThat(mapper.selectById(1L)).isNull();
+    assertThat(mapper.selectById(2L).getTokenDigest()).isEqualTo(T2.toString());
+
+    JdbcTokenStore restarted = newStore(2);
+    assertThat(restarted.verify(1, "jason", 1L, T1)).isEqualTo(TokenStatus.EXPIRED);
+    assertThat(restarted.verify(1, "jason", 2L, T2)).isEqualTo(TokenStatus.VALID);
+    restarted.destroy();
+  }
+
+  @Test
+  public void testShouldNotQueryAgainForRevokedSession() throws InterruptedException {
+    JdbcTokenStore store = newStore(1);
+    store.save(token(1L, T1));
+    store.save(token(2L, T2));
+    store.destroy();
+
+    AtomicInteger queries = new AtomicInteger();
+    AccessTokenMapper countingMapper = (AccessTokenMapper) Proxy.newProxyInstance(AccessTokenMapper.class.getClassLoader(),
+      new Class<?>[] { AccessTokenMapper.class }, (proxy, method, args) -> {
+        if ("selectList".equals(method.getName())) {
+          queries.incrementAndGet();
+        }
+        try {
+          return method.invoke(mapper, args);
+        } catch (InvocationTargetException e) {
+          throw e.getCause();
+        }
+      });
+    JdbcTokenStore restarted = new JdbcTokenStore(countingMapper, 100, 1, FLUSH_INTERVAL_MILLIS, 0);
+
+    // 会话 1 已被会话 2 淘汰，加载一次后重复使用其 token 不再查询数据库
+    for (int i = 0; i < 3; i++) {
+      assertThat(restarted.verify(1, "jason", 1L, T1)).isEqualTo(TokenStatus.EXPIRED);
+    }
+    assertThat(restarted.verify(1, "jason", 2L, T2)).isEqualTo(TokenStatus.VALID);
+    assertThat(queries).hasValue(1);
+
+    // 其他节点修改该用户后须重新加载
+    restarted.invalidate(1, 2L);
+    assertThat(restarted.verify(1, "jason", 1L, T1)).isEqualTo(TokenStatus.EXPIRED);
+    assertThat(queries).hasValue(2);
+    restarted.destroy();
+  }
+
+  private static JdbcTokenStore newStore(int maxSessions) {
+    return new JdbcTokenStore(mapper, 100, maxSessions, FLUSH_INTERVAL_MILLIS, 0);
+  }
+
+  private static TokenCacheDto token(long sessionId, HashCode digest) {
+    return new TokenCacheDto(1, "jason", sessionId, digest, System.currentTimeMillis() + 60_000L);
+  }
+}
@@ -0,0 +1,46 @@
+package net.wuxianjie.springbootvuejs.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
+
+class PathPatternMatcherTest {
+
+  private static final String[] PATTERNS = { "/token", "/static/**", "/", "/favicon.ico", "/login*", "/user/{id}", "/a/?/c" };
+
+  private static final String[] PATHS = {
+    "", "/", "//", "/token", "/token/", "/tokens", "/toke", "/static", "/static/", "/static/js/app.js", "/staticx",
+    "/favicon.ico", "/favicon.icon", "/login", "/login.html", "/loginx", "/login/x", "/logi", "/user/1", "/user/1/2",
+    "/a/b/c", "/a/bb/c", "/hello", "/secured", "//token", "/static//js", "/to//ken", "/login//"
+  };
+
+  @Test
+  public void testShouldMatchSameAsAntPathRequestMatcher() {
+    PathPatternMatcher matcher = new PathPatternMatcher(PATTERNS);
+
+    for (String path : PATHS) {
+      MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+      request.setServletPath(path);
+
+      boolean expected = false;
+      for (String pattern : PATTERNS) {
+        expected |= new AntPathRequestMatcher(pattern).matches(request);
+      }
+
+      assertThat(matcher.matches(request)).as(path).isEqualTo(expected);
+    }
+  }
+
+  @Test
+  public void testShouldMatchPermitAllPath() {
+    PathPatternMatcher matcher = new PathPatternMatcher(SecurityConstants.PERMIT_ALL_PATH);
+
+    assertThat(matcher.matches("/static/css/app.css")).isTrue();
+    assertThat(matcher.matches("/login.html")).isTrue();
+    assertThat(matcher.matches("/token")).isTrue();
+    assertThat(matcher.matches("/token/refresh")).isFalse();
+    assertThat(matcher.matches("/hello")).isFalse();
+  }
+}
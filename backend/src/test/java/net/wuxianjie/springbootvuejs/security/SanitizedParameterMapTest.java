@@ -0,0 +1,77 @@
+package net.wuxianjie.springbootvuejs.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+class SanitizedParameterMapTest {
+
+  @Test
+  public void testShouldBehaveSameAsEagerSanitization() {
+    Map<String, String[]> raw = new LinkedHashMap<>();
+    raw.put("name", new String[] { "吴仙杰" });
+    raw.put("desc", new String[] { "<script>alert(1)</script>hi", "javascript:x" });
+    raw.put("na<script>x</script>me", new String[] { "shadow" });
+    raw.put("empty", new String[0]);
+
+    Map<String, String[]> expected = eager(raw);
+    SanitizedParameterMap actual = new SanitizedParameterMap(raw, XssPolicy.STRICT);
+
+    assertThat(actual.size()).isEqualTo(expected.size());
+    assertThat(actual.keySet()).isEqualTo(expected.keySet());
+    for (String key : expected.keySet()) {
+      assertThat(actual.get(key)).as(key).containsExactly(expected.get(key));
+    }
+    assertThat(actual.get("na<script>x</script>me")).isNull();
+  }
+
+  @Test
+  public void testShouldSanitizeValueOnlyWhenRead() {
+    String[] clean = { "1" };
+    String[] dirty = { "<script>x</script>" };
+    Map<String, String[]> raw = new LinkedHashMap<>();
+    raw.put("page", clean);
+    raw.put("q", dirty);
+
+    SanitizedParameterMap map = new SanitizedParameterMap(raw, XssPolicy.STRICT);
+
+    assertThat(map.get("page")).isSameAs(clean);
+    assertThat(map.get("q")).containsExactly("").isSameAs(map.get("q"));
+    assertThat(dirty).containsExactly("<script>x</script>");
+    assertThat(map.containsKey("missing")).isFalse();
+    assertThatThrownBy(() -> map.put("q", clean)).isInstanceOf(UnsupportedOperationException.class);
+  }
+
+  @Test
+  public void testWrapperShouldFallBackToOriginalParameter() {
+    MockHttpServletRequest request = new MockHttpServletRequest();
+    request.addParameter("q", "eval(1)");
+    request.addParameter("page", "3");
+
+    PreventXssFilter.XssRequestWrapper wrapper = new PreventXssFilter.XssRequestWrapper(request, XssPolicy.STRICT);
+
+    assertThat(wrapper.getParameter("q")).isEmpty();
+    assertThat(wrapper.getParameter("page")).isEqualTo("3");
+    assertThat(wrapper.getParameter("missing")).isNull();
+    assertThat(wrapper.getParameterValues("page")).containsExactly("3");
+    assertThat(Collections.list(wrapper.getParameterNames())).containsExactly("q", "page");
+  }
+
+  private static Map<String, String[]> eager(Map<String, String[]> raw) {
+    Map<String, String[]> result = new HashMap<>();
+    for (Map.Entry<String, String[]> entry : raw.entrySet()) {
+      String[] values = new String[entry.getValue().length];
+      for (int i = 0; i < values.length; i++) {
+        values[i] = XssSanitizer.sanitize(entry.getValue()[i]);
+      }
+      result.put(XssSanitizer.sanitize(entry.getKey()), values);
+    }
+    return result;
+  }
+}
@@ -0,0 +1,60 @@
+package net.wuxianjie.springbootvuejs.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import javax.servlet.http.Cookie;
+import net.wuxianjie.springbootvuejs.dto.AccessTokenDto;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+class TokenCookieTest {
+
+  @Test
+  public void testShouldIgnoreCookieByDefault() {
+    TokenCookie tokenCookie = new TokenCookie(false, true, "/app");
+
+    assertThat(tokenCookie.resolve(request("GET"))).isNull();
+    assertThat(tokenCookie.toResponse(new AccessTokenDto("t", 0)).getHeaders().containsKey(HttpHeaders.SET_COOKIE)).isFalse();
+
+    MockHttpServletResponse response = new MockHttpServletResponse();
+    tokenCookie.clear(response);
+    assertThat(response.getHeader(HttpHeaders.SET_COOKIE)).isNull();
+  }
+
+  @Test
+  public void testShouldRequireCustomHeaderForUnsafeMethods() {
+    TokenCookie tokenCookie = new TokenCookie(true, true, "/app");
+
+    assertThat(tokenCookie.resolve(request("GET"))).isEqualTo("token");
+    assertThat(tokenCookie.resolve(request("DELETE"))).isNull();
+    assertThat(tokenCookie.resolve(request("POST"))).isNull();
+
+    MockHttpServletRequest request = request("DELETE");
+    request.addHeader(TokenCookie.HEADER_REQUESTED_WITH, TokenCookie.REQUESTED_WITH_XHR);
+    assertThat(tokenCookie.resolve(request)).isEqualTo("token");
+  }
+
+  @Test
+  public void testShouldWriteStrictHttpOnlyCookie() {
+    TokenCookie tokenCookie = new TokenCookie(true, true, "/app");
+    long expiresIn = System.currentTimeMillis() / 1000 + 3600;
+
+    ResponseEntity<AccessTokenDto> response = tokenCookie.toResponse(new AccessTokenDto("token", expiresIn));
+    String cookie = response.getHeaders().getFirst(HttpHeaders.SET_COOKIE);
+    assertThat(cookie).startsWith("access_token=token;").contains("Path=/app", "HttpOnly", "Secure", "SameSite=Strict", "Max-Age=");
+    assertThat(response.getBody().getAccessToken()).isEqualTo("token");
+
+    MockHttpServletResponse cleared = new MockHttpServletResponse();
+    tokenCookie.clear(cleared);
+    assertThat(cleared.getHeader(HttpHeaders.SET_COOKIE)).startsWith("access_token=;").contains("Max-Age=0");
+  }
+
+  private static MockHttpServletRequest request(String method) {
+    MockHttpServletRequest request = new MockHttpServletRequest(method, "/token/sessions");
+    request.setCookies(new Cookie(SecurityConstants.COOKIE_TOKEN, "token"));
+    return request;
+  }
+}
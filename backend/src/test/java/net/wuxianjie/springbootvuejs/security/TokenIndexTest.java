@@ -0,0 +1,185 @@
+package net.wuxianjie.springbootvuejs.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.google.common.hash.HashCode;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import net.wuxianjie.springbootvuejs.dto.TokenCacheDto;
+import org.junit.jupiter.api.Test;
+
+class TokenIndexTest {
+
+  private static final int MAX_SESSIONS = 3;
+
+  @Test
+  public void testShouldVerifySameAsHashMap() {
+    TokenIndex index = new TokenIndex(16, MAX_SESSIONS);
+    // 用户 ID -> 会话 ID -> (token, 过期时间)，按签发顺序排列
+    Map<Integer, LinkedHashMap<Long, long[]>> expected = new HashMap<>();
+    Random random = new Random(20200320L);
+    // 扩容前及淘汰时按系统时间判断是否过期，故测试中的时间须晚于系统时间，以免会话被提前清理
+    long now = System.currentTimeMillis() + 3_600_000L;
+
+    for (int i = 0; i < 200_000; i++) {
+      int userId = random.nextInt(5_000) - 100;
+      long sessionId = random.nextInt(5) + 1;
+      long token = random.nextInt(3);
+      LinkedHashMap<Long, long[]> sessions = expected.computeIfAbsent(userId, id -> new LinkedHashMap<>());
+      switch (random.nextInt(6)) {
+        case 0:
+        case 1:
+          long expiresAt = now + random.nextInt(2_000) - 500;
+          long evicted = index.put(userId, sessionId, digest(token), expiresAt, Long.MIN_VALUE);
+          sessions.remove(sessionId);
+          sessions.put(sessionId, new long[] { token, expiresAt });
+          if (sessions.size() > MAX_SESSIONS) {
+            Iterator<Long> oldest = sessions.keySet().iterator();
+            assertThat(evicted).isEqualTo(oldest.next());
+            oldest.remove();
+          } else {
+            assertThat(evicted).isEqualTo(TokenIndex.NO_SESSION);
+          }
+          break;
+        case 2:
+          index.removeSession(userId, sessionId);
+          sessions.remove(sessionId);
+          break;
+        case 3:
+          index.removeSessions(userId);
+          sessions.clear();
+          break;
+        case 4:
+          index.remove(userId);
+          sessions.clear();
+          break;
+        default:
+          now++;
+      }
+
+      long[] entry = sessions.get(sessionId);
+      TokenStatus status = index.verify(userId, sessionId, digest(token), now);
+      if (entry == null) {
+        assertThat(status).isNull();
+      } else if (entry[1] <= now) {
+        assertThat(status).isEqualTo(TokenStatus.EXPIRED);
+      } else {
+        assertThat(status).isEqualTo(entry[0] == token ? TokenStatus.VALID : TokenStatus.REPLACED);
+      }
+    }
+  }
+
+  @Test
+  public void testShouldPurgeExpiredEntriesBeforeGrowing() {
+    TokenIndex index = new TokenIndex(16, MAX_SESSIONS);
+    long past = System.currentTimeMillis() - 1;
+    for (int userId = 0; userId < 1_000; userId++) {
+      index.put(userId, 1L, digest(userId), past, Long.MIN_VALUE);
+    }
+
+    assertThat(index.size()).isLessThan(100);
+    index.put(2_000, 1L, digest(1), Long.MAX_VALUE, Long.MIN_VALUE);
+    assertThat(index.verify(2_000, 1L, digest(1), 0L)).isEqualTo(TokenStatus.VALID);
+  }
+
+  @Test
+  public void testShouldNotRebuildOnEveryInsertWhenChurningAtThreshold() {
+    TokenIndex index = new TokenIndex(16, 1);
+    // 容量为 32，阈值为 24：始终保持 23 个有效用户，每新增一个用户就撤销最早的用户
+    int live = 23;
+    for (int userId = 0; userId < 1_000; userId++) {
+      index.put(userId, 1L, digest(userId), Long.MAX_VALUE, Long.MIN_VALUE);
+      if (userId >= live) {
+        index.removeSessions(userId - live);
+      }
+    }
+
+    assertThat(index.getResizeCount()).isLessThan(1_000 / 10);
+    for (int userId = 1_000 - live; userId < 1_000; userId++) {
+      assertThat(index.verify(userId, 1L, digest(userId), 0L)).isEqualTo(TokenStatus.VALID);
+    }
+  }
+
+  @Test
+  public void testShouldKeepPreviousTokenDuringGracePeriod() {
+    TokenIndex index = new TokenIndex(16, MAX_SESSIONS);
+    index.put(1, 1L, digest(1), Long.MAX_VALUE, Long.MIN_VALUE);
+    index.put(1, 1L, digest(2), Long.MAX_VALUE, 1_000L);
+
+    assertThat(index.verify(1, 1L, digest(2), 500L)).isEqualTo(TokenStatus.VALID);
+    assertThat(index.verify(1, 1L, digest(1), 500L)).isEqualTo(TokenStatus.GRACE);
+    assertThat(index.verify(1, 1L, digest(1), 1_000L)).isEqualTo(TokenStatus.REPLACED);
+
+    // 只保留上一个 token，重复保存当前 token 时不影响宽限期
+    index.put(1, 1L, digest(2), Long.MAX_VALUE, 5_000L);
+    assertThat(index.verify(1, 1L, digest(1), 500L)).isEqualTo(TokenStatus.GRACE);
+    index.put(1, 1L, digest(3), Long.MAX_VALUE, 5_000L);
+    assertThat(index.verify(1, 1L, digest(1), 500L)).isEqualTo(TokenStatus.REPLACED);
+    assertThat(index.verify(1, 1L, digest(2), 500L)).isEqualTo(TokenStatus.GRACE);
+
+    // 宽限期只属于同一会话
+    assertThat(index.verify(1, 2L, digest(2), 500L)).isNull();
+    index.removeSession(1, 1L);
+    index.put(1, 1L, digest(4), Long.MAX_VALUE, 5_000L);
+    assertThat(index.verify(1, 1L, digest(3), 500L)).isEqualTo(TokenStatus.REPLACED);
+  }
+
+  @Test
+  public void testShouldEvictLeastRecentlyIssuedSession() {
+    TokenIndex index = new TokenIndex(16, MAX_SESSIONS);
+    for (long sessionId = 1; sessionId <= MAX_SESSIONS; sessionId++) {
+      assertThat(index.put(1, sessionId, digest(sessionId), Long.MAX_VALUE, Long.MIN_VALUE)).isEqualTo(TokenIndex.NO_SESSION);
+    }
+
+    // 刷新会话 1 后，会话 2 成为最久未签发的会话
+    index.put(1, 1L, digest(10), Long.MAX_VALUE, Long.MIN_VALUE);
+    assertThat(index.put(1, 4L, digest(4), Long.MAX_VALUE, Long.MIN_VALUE)).isEqualTo(2L);
+    assertThat(index.verify(1, 2L, digest(2), 0L)).isNull();
+    assertThat(index.verify(1, 1L, digest(10), 0L)).isEqualTo(TokenStatus.VALID);
+    assertThat(index.verify(1, 3L, digest(3), 0L)).isEqualTo(TokenStatus.VALID);
+    assertThat(index.verify(1, 4L, digest(4), 0L)).isEqualTo(TokenStatus.VALID);
+  }
+
+  @Test
+  public void testShouldNotLoadAfterConcurrentModification() {
+    TokenIndex index = new TokenIndex(16, MAX_SESSIONS);
+    TokenCacheDto loaded = new TokenCacheDto(1, "jason", 1L, digest(1), Long.MAX_VALUE);
+
+    long version = index.version(1);
+    index.removeSession(1, 1L);
+    assertThat(index.load(1, version, Collections.singletonList(loaded))).isFalse();
+    assertThat(index.verify(1, 1L, digest(1), 0L)).isNull();
+
+    assertThat(index.load(1, index.version(1), Collections.singletonList(loaded))).isTrue();
+    assertThat(index.verify(1, 1L, digest(1), 0L)).isEqualTo(TokenStatus.VALID);
+  }
+
+  @Test
+  public void testShouldLoadNewestSessionsWithoutEvictingLocalOnes() {
+    TokenIndex index = new TokenIndex(16, MAX_SESSIONS);
+    index.put(1, 10L, digest(10), Long.MAX_VALUE, Long.MIN_VALUE);
+
+    long now = System.currentTimeMillis();
+    assertThat(index.load(1, index.version(1), Arrays.asList(
+      new TokenCacheDto(1, "jason", 3L, digest(3), now + 30_000L),
+      new TokenCacheDto(1, "jason", 2L, digest(2), now + 20_000L),
+      new TokenCacheDto(1, "jason", 1L, digest(1), now + 10_000L)))).isTrue();
+
+    assertThat(index.verify(1, 10L, digest(10), now)).isEqualTo(TokenStatus.VALID);
+    assertThat(index.verify(1, 3L, digest(3), now)).isEqualTo(TokenStatus.VALID);
+    assertThat(index.verify(1, 2L, digest(2), now)).isEqualTo(TokenStatus.VALID);
+    assertThat(index.verify(1, 1L, digest(1), now)).isNull();
+
+    // 加载的会话比本节点签发的会话先被淘汰
+    assertThat(index.put(1, 11L, digest(11), Long.MAX_VALUE, Long.MIN_VALUE)).isEqualTo(2L);
+  }
+
+  private static HashCode digest(long token) {
+    return AuthenticationCache.getInstance().digest(Long.toString(token));
+  }
+}
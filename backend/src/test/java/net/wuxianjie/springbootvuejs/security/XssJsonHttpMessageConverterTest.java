@@ -0,0 +1,61 @@
+package net.wuxianjie.springbootvuejs.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import net.wuxianjie.springbootvuejs.constants.RestCodeEnum;
+import net.wuxianjie.springbootvuejs.exception.RequestArgumentNotValidException;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.mock.http.MockHttpInputMessage;
+
+class XssJsonHttpMessageConverterTest {
+
+  private static final String JSON = "{\"<script>x</script>name\":\"eval(1)吴仙杰\",\"tags\":[\"javascript:a\",\"b\"],\"nested\":{\"c\":\"<script>d</script>\"},\"n\":1}";
+
+  private static final TypeReference<Map<String, Object>> MAP_TYPE = new TypeReference<Map<String, Object>>() {};
+
+  private final XssJsonHttpMessageConverter converter = new XssJsonHttpMessageConverter(new ObjectMapper().registerModule(new XssJsonModule()));
+
+  @Test
+  public void testShouldSanitizeStringsWhileDeserializing() throws IOException {
+    HttpInputMessage message = new XssJsonHttpMessageConverter.SanitizingInputMessage(input(JSON), XssPolicy.STRICT, 1024);
+
+    @SuppressWarnings("unchecked")
+    Map<String, Object> result = (Map<String, Object>) converter.read(MAP_TYPE.getType(), null, message);
+
+    assertThat(result).containsOnlyKeys("name", "tags", "nested", "n");
+    assertThat(result.get("name")).isEqualTo("吴仙杰");
+    assertThat(result.get("tags")).isEqualTo(Arrays.asList("a", "b"));
+    assertThat(result.get("nested")).isEqualTo(Collections.singletonMap("c", ""));
+    assertThat(result.get("n")).isEqualTo(1);
+  }
+
+  @Test
+  public void testShouldNotSanitizeWithoutAnnotation() throws IOException {
+    @SuppressWarnings("unchecked")
+    Map<String, Object> result = (Map<String, Object>) converter.read(MAP_TYPE.getType(), null, input(JSON));
+
+    assertThat(result.get("<script>x</script>name")).isEqualTo("eval(1)吴仙杰");
+  }
+
+  @Test
+  public void testShouldRejectOversizedBody() throws IOException {
+    HttpInputMessage message = new XssJsonHttpMessageConverter.SanitizingInputMessage(input(JSON), XssPolicy.STRICT, 16);
+
+    assertThatThrownBy(() -> converter.read(MAP_TYPE.getType(), null, message))
+      .isInstanceOf(RequestArgumentNotValidException.class)
+      .extracting("code").isEqualTo(RestCodeEnum.PAYLOAD_TOO_LARGE);
+  }
+
+  private static MockHttpInputMessage input(String json) {
+    return new MockHttpInputMessage(json.getBytes(StandardCharsets.UTF_8));
+  }
+}
@@ -0,0 +1,55 @@
+package net.wuxianjie.springbootvuejs.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+class XssPolicyResolverTest {
+
+  @Test
+  public void testShouldResolveConfiguredPolicy() {
+    XssPolicyResolver resolver = new XssPolicyResolver(new String[] { "/static/upload/**" }, new String[] { "/article/*" }, new String[] { "/static/**", "/token" });
+
+    assertThat(resolver.resolve(request("/token"))).isEqualTo(XssPolicy.OFF);
+    assertThat(resolver.resolve(request("/static/js/app.js"))).isEqualTo(XssPolicy.OFF);
+    assertThat(resolver.resolve(request("/static/upload/a"))).isEqualTo(XssPolicy.STRICT);
+    assertThat(resolver.resolve(request("/article/1"))).isEqualTo(XssPolicy.LENIENT);
+    assertThat(resolver.resolve(request("/hello"))).isEqualTo(XssPolicy.STRICT);
+  }
+
+  @Test
+  public void testShouldPreferMethodAnnotation() throws NoSuchMethodException {
+    assertThat(XssPolicyResolver.findAnnotatedPolicy(AnnotatedController.class.getMethod("upload"), AnnotatedController.class)).isEqualTo(XssPolicy.OFF);
+    assertThat(XssPolicyResolver.findAnnotatedPolicy(AnnotatedController.class.getMethod("comment"), AnnotatedController.class)).isEqualTo(XssPolicy.LENIENT);
+    assertThat(XssPolicyResolver.findAnnotatedPolicy(Object.class.getMethod("toString"), Object.class)).isNull();
+  }
+
+  @Test
+  public void testLenientShouldOnlySanitizeMarkup() {
+    long modified = XssPolicy.LENIENT.getModifiedCount();
+
+    assertThat(XssPolicy.LENIENT.sanitize("onload=1&see javascript: the good parts")).isEqualTo("onload=1&see javascript: the good parts");
+    assertThat(XssPolicy.LENIENT.sanitize("<img onload=x>")).isEqualTo("<img x>");
+    assertThat(XssPolicy.STRICT.sanitize("onload=1")).isEqualTo("1");
+    assertThat(XssPolicy.OFF.sanitize("<script>x</script>")).isEqualTo("<script>x</script>");
+    assertThat(XssPolicy.LENIENT.getModifiedCount()).isEqualTo(modified + 1);
+  }
+
+  private static MockHttpServletRequest request(String path) {
+    MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+    request.setServletPath(path);
+    return request;
+  }
+
+  @XssSanitize(XssPolicy.LENIENT)
+  static class AnnotatedController {
+
+    @XssSanitize(XssPolicy.OFF)
+    public void upload() {
+    }
+
+    public void comment() {
+    }
+  }
+}
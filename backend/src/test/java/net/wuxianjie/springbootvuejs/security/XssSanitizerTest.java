@@ -0,0 +1,83 @@
+package net.wuxianjie.springbootvuejs.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.text.Normalizer;
+import java.util.Random;
+import java.util.regex.Pattern;
+import org.junit.jupiter.api.Test;
+
+class XssSanitizerTest {
+
+  /**
+   * 原有的正则表达式链，作为对照
+   */
+  private static final Pattern[] LEGACY_PATTERNS = {
+    Pattern.compile("<script>(.*?)</script>", Pattern.CASE_INSENSITIVE),
+    Pattern.compile("src[\r\n]*=[\r\n]*'(.*?)'", Pattern.CASE_INSENSITIVE | Pattern.MULTILINE | Pattern.DOTALL),
+    Pattern.compile("src[\r\n]*=[\r\n]*\"(.*?)\"", Pattern.CASE_INSENSITIVE | Pattern.MULTILINE | Pattern.DOTALL),
+    Pattern.compile("</script>", Pattern.CASE_INSENSITIVE),
+    Pattern.compile("<script(.*?)>", Pattern.CASE_INSENSITIVE | Pattern.MULTILINE | Pattern.DOTALL),
+    Pattern.compile("eval\\((.*?)\\)", Pattern.CASE_INSENSITIVE | Pattern.MULTILINE | Pattern.DOTALL),
+    Pattern.compile("expression\\((.*?)\\)", Pattern.CASE_INSENSITIVE | Pattern.MULTILINE | Pattern.DOTALL),
+    Pattern.compile("javascript:", Pattern.CASE_INSENSITIVE),
+    Pattern.compile("vbscript:", Pattern.CASE_INSENSITIVE),
+    Pattern.compile("onload(.*?)=", Pattern.CASE_INSENSITIVE | Pattern.MULTILINE | Pattern.DOTALL)
+  };
+
+  private static final String[] CORPUS = {
+    "", "hello", "吴仙杰", "a=1&b=2", "<b>bold</b>",
+    "<script>alert(1)</script>", "<SCRIPT>alert(1)</SCRIPT>", "<script>\nalert(1)</script>",
+    "<scr<script>x</script>ipt>alert(1)</script>", "<script src='x.js'></script>", "<img src=\"x\" onload=alert(1)>",
+    "<img src\r\n=\r\n'x'>", "src='unclosed", "eval(alert(1))", "EVAL(", "expression(a)(b)", "javascript:alert(1)",
+    "jav\0ascript:alert(1)", "JavaScript:", "vbscript:msgbox", "onload", "onload onload=", "body onLoad = x",
+    "café", "café", "≠", " <script>x </script>", "<script\u0085>", "</script></SCRIPT>",
+    "src=\"a\" src='b' eval(c) expression(d) javascript: vbscript: onload=", "<<script>script>x</script>"
+  };
+
+  private static final String[] FRAGMENTS = {
+    "<script>", "</script>", "<SCRIPT ", "src", "SRC", "=", "'", "\"", "\r", "\n", "eval(", "expression(", ")",
+    "javascript:", "VBScript:", "onload", "on", "load", "<", ">", "/", "a", " ", "\0", "é", "≠", " ", "\u0085",
+    "<scr", "ipt>"
+  };
+
+  @Test
+  public void testShouldSanitizeSameAsLegacyRegexChain() {
+    for (String value : CORPUS) {
+      assertThat(XssSanitizer.sanitize(value)).as(value).isEqualTo(legacyStrip(value));
+    }
+  }
+
+  @Test
+  public void testShouldSanitizeRandomInputSameAsLegacyRegexChain() {
+    Random random = new Random(20200320L);
+    StringBuilder builder = new StringBuilder();
+    for (int i = 0; i < 20_000; i++) {
+      builder.setLength(0);
+      int count = random.nextInt(12);
+      for (int j = 0; j < count; j++) {
+        builder.append(FRAGMENTS[random.nextInt(FRAGMENTS.length)]);
+      }
+
+      String value = builder.toString();
+      assertThat(XssSanitizer.sanitize(value)).as(value).isEqualTo(legacyStrip(value));
+    }
+  }
+
+  @Test
+  public void testShouldReturnSameInstanceWhenNothingRemoved() {
+    String value = "page=3&name=吴仙杰&desc=<b>x</b>";
+
+    assertThat(XssSanitizer.sanitize(value)).isSameAs(value);
+    assertThat(XssSanitizer.sanitize(null)).isNull();
+  }
+
+  private static String legacyStrip(String val) {
+    String cleanVal = Normalizer.normalize(val, Normalizer.Form.NFD);
+    cleanVal = cleanVal.replaceAll("\0", "");
+    for (Pattern pattern : LEGACY_PATTERNS) {
+      cleanVal = pattern.matcher(cleanVal).replaceAll("");
+    }
+    return cleanVal;
+  }
+}
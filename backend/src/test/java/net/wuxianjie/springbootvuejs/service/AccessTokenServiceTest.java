@@ -0,0 +1,33 @@
+package net.wuxianjie.springbootvuejs.service;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import net.wuxianjie.springbootvuejs.cache.InvalidationBus;
+import net.wuxianjie.springbootvuejs.dto.AccessTokenDto;
+import net.wuxianjie.springbootvuejs.exception.JwtAuthenticationException;
+import net.wuxianjie.springbootvuejs.security.InMemoryTokenStore;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+class AccessTokenServiceTest {
+
+  @Test
+  public void testShouldFinishAcceptedLoginsOnShutdown() throws InterruptedException {
+    AccessTokenService service = new AccessTokenService(new InMemoryTokenStore(100, 1, 0L),
+      new StaticListableBeanFactory().getBeanProvider(InvalidationBus.class), 5000L, 2);
+    // 签发 JWT 需要 Spring 上下文，故以密码错误的登录验证其确实被执行
+    CompletableFuture<AccessTokenDto> accepted = service.getAccessToken("jason", "wrong");
+
+    // 关闭时仍在等待模拟耗时的登录须执行完，而不是被丢弃
+    service.destroy();
+    assertThatThrownBy(accepted::join).isInstanceOf(CompletionException.class)
+      .hasCauseInstanceOf(JwtAuthenticationException.class);
+
+    CompletableFuture<AccessTokenDto> rejected = service.getAccessToken("jason", "123");
+    assertThatThrownBy(rejected::join).isInstanceOf(CompletionException.class)
+      .hasCauseInstanceOf(RejectedExecutionException.class);
+  }
+}
@@ -0,0 +1,126 @@
+package net.wuxianjie.springbootvuejs.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import net.wuxianjie.springbootvuejs.exception.JsonException;
+import org.junit.jupiter.api.Test;
+
+class JsonUtilsTest {
+
+  @Data
+  @NoArgsConstructor
+  @AllArgsConstructor
+  static class Event {
+
+    private String name;
+
+    private Date time;
+  }
+
+  @Test
+  public void testShouldFormatDatesAsReadableOrEpoch() throws Exception {
+    Date time = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss").parse("2020-03-20 08:30:00");
+    Event event = new Event("登录", time);
+
+    String readable = JsonUtils.toJson(event, true);
+    assertThat(readable).isEqualTo("{\"name\":\"登录\",\"time\":\"2020-03-20 08:30:00\"}");
+    assertThat(JsonUtils.parseJson(readable, Event.class, true)).isEqualTo(event);
+
+    String epoch = JsonUtils.toJson(event, false);
+    assertThat(epoch).isEqualTo("{\"name\":\"登录\",\"time\":" + time.getTime() + "}");
+    assertThat(JsonUtils.parseJson(epoch, Event.class, false)).isEqualTo(event);
+  }
+
+  @Test
+  public void testShouldStreamWithoutClosing() throws IOException {
+    Event event = new Event("退出", new Date(0L));
+
+    ClosedTrackingOutputStream out = new ClosedTrackingOutputStream();
+    JsonUtils.writeJson(out, event, false);
+    assertThat(out.closed).isFalse();
+    assertThat(out.toByteArray()).isEqualTo(JsonUtils.toJsonBytes(event, false));
+
+    StringWriter writer = new StringWriter();
+    JsonUtils.writeJson(writer, event, true);
+    assertThat(writer.toString()).isEqualTo(JsonUtils.toJson(event, true));
+
+    ClosedTrackingInputStream in = new ClosedTrackingInputStream(out.toByteArray());
+    assertThat(JsonUtils.parseJson(in, Event.class, false)).isEqualTo(event);
+    assertThat(in.closed).isFalse();
+
+    byte[] list = "[{\"name\":\"a\"},{\"name\":\"b\"}]".getBytes(StandardCharsets.UTF_8);
+    List<Map<String, String>> parsed = JsonUtils.parseJson(list, new TypeReference<List<Map<String, String>>>() { }, true);
+    assertThat(parsed).containsExactly(Collections.singletonMap("name", "a"), Collections.singletonMap("name", "b"));
+
+    assertThatThrownBy(() -> JsonUtils.parseJson(new ByteArrayInputStream("{".getBytes(StandardCharsets.UTF_8)), Event.class, true))
+      .isInstanceOf(JsonException.class);
+  }
+
+  @Test
+  public void testShouldFormatDatesConcurrently() throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (int thread = 0; thread < 8; thread++) {
+        int offset = thread;
+        futures.add(executor.submit(() -> {
+          for (int i = 0; i < 2_000; i++) {
+            // 每天的中午，以免夏令时切换前后的时间无法还原
+            Date time = new Date((offset * 2_000L + i) * 86_400_000L + 43_200_000L + i * 1_000L);
+            Event parsed = JsonUtils.parseJson(JsonUtils.toJson(new Event("e", time), true), Event.class, true);
+            assertThat(parsed.getTime()).isEqualTo(time);
+          }
+          return null;
+        }));
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private static class ClosedTrackingOutputStream extends ByteArrayOutputStream {
+
+    private boolean closed;
+
+    @Override
+    public void close() {
+      closed = true;
+    }
+  }
+
+  private static class ClosedTrackingInputStream extends ByteArrayInputStream {
+
+    private boolean closed;
+
+    ClosedTrackingInputStream(byte[] buf) {
+      super(buf);
+    }
+
+    @Override
+    public void close() {
+      closed = true;
+    }
+  }
+}
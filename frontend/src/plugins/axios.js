@@ -8,11 +8,10 @@ const instance = axios.create({
   timeout: 15000
 });
 
-const appendAccessTokenToUrl = (config) => {
+const appendAccessTokenToHeader = (config) => {
   const token = localStorage.getItem('access_token');
   if (token && !(window.location.pathname === `${ctx}/login`)) {
-    if (config['params']) config['params']['access_token'] = token;
-    else config['params'] = { access_token: token };
+    config.headers['Authorization'] = `Bearer ${token}`;
     return config;
   }
 };
@@ -21,8 +20,8 @@ instance.interceptors.request.use(config => {
   // 在发送 HTTP 请求前
   NProgress.start();
   autoRefreshToken(config.url);
-  // 自动拼接 access token
-  appendAccessTokenToUrl(config);
+  // 自动在请求头中带上 access token
+  appendAccessTokenToHeader(config);
   return config
 },error => {
   // 发送 HTTP 请求失败
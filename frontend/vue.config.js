@@ -1,6 +1,7 @@
 // 多页面配置
 const titles = require('./title.js');
 const glob = require('glob');
+const CompressionPlugin = require('compression-webpack-plugin');
 const pages = {};
 
 glob.sync('./src/pages/**/main.js').forEach(path => {
@@ -41,6 +42,19 @@ module.exports = {
     },
   },
 
+  // 生产环境下为较大的静态文件额外生成 `.gz` 文件，由后端直接返回（`spring.resources.chain.compressed`），无需每次请求时压缩
+  configureWebpack: config => {
+    if (process.env.NODE_ENV === 'production') {
+      config.plugins.push(new CompressionPlugin({
+        test: /\.(js|css|html|svg)$/,
+        // 与后端 `compression.min-response-size` 一致
+        threshold: 1024,
+        // 压缩后未小于原文件 80% 的不生成
+        minRatio: 0.8
+      }));
+    }
+  },
+
   // 配置前端开发服务器 webpack dev-server
   // 将前端（如 Axios）所有以 `/app` 为基准路径的请求都代理至后端服务
   devServer: {